@@ -1,5 +1,7 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +12,208 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Search search = new Search();
+
+    private final ProduitJsonCache produitJsonCache = new ProduitJsonCache();
+
+    private final ImageStorage imageStorage = new ImageStorage();
+
+    private final ImageVariants imageVariants = new ImageVariants();
+
+    private final Stock stock = new Stock();
+
+    private final Ventes ventes = new Ventes();
+
     // jhipster-needle-application-properties-property
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public ProduitJsonCache getProduitJsonCache() {
+        return produitJsonCache;
+    }
+
+    public ImageStorage getImageStorage() {
+        return imageStorage;
+    }
+
+    public ImageVariants getImageVariants() {
+        return imageVariants;
+    }
+
+    public Stock getStock() {
+        return stock;
+    }
+
+    public Ventes getVentes() {
+        return ventes;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Search {
+
+        /**
+         * Directory of the full-text indexes. When not set, indexes are kept in memory and rebuilt at startup.
+         */
+        private String indexDirectory;
+
+        public String getIndexDirectory() {
+            return indexDirectory;
+        }
+
+        public void setIndexDirectory(String indexDirectory) {
+            this.indexDirectory = indexDirectory;
+        }
+    }
+
+    public static class ProduitJsonCache {
+
+        /**
+         * Maximum size in bytes of the serialized produits kept in memory, gzipped copies included.
+         */
+        private long maxBytes = 16L * 1024 * 1024;
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    public static class ImageStorage {
+
+        /**
+         * Directory of the uploaded image files, named by the SHA-256 of their content.
+         */
+        private String directory = "./images";
+
+        /**
+         * Maximum size in bytes of an uploaded image.
+         */
+        private long maxBytes = 10L * 1024 * 1024;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    public static class ImageVariants {
+
+        /**
+         * Widths in pixels of the variants generated for each uploaded image, when it is wider.
+         */
+        private List<Integer> widths = List.of(160, 320, 640, 1280);
+
+        /**
+         * Number of threads generating the variants.
+         */
+        private int threads = 2;
+
+        /**
+         * Maximum number of uploaded images waiting for their variants; beyond it, images are left without variants
+         * rather than slowing down the uploads.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * Quality of the JPEG variants, from 0 to 1.
+         */
+        private float jpegQuality = 0.85f;
+
+        /**
+         * Maximum number of pixels of an image to generate variants of, so that decoding it cannot exhaust the heap.
+         */
+        private long maxPixels = 50_000_000L;
+
+        public List<Integer> getWidths() {
+            return widths;
+        }
+
+        public void setWidths(List<Integer> widths) {
+            this.widths = widths;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public float getJpegQuality() {
+            return jpegQuality;
+        }
+
+        public void setJpegQuality(float jpegQuality) {
+            this.jpegQuality = jpegQuality;
+        }
+
+        public long getMaxPixels() {
+            return maxPixels;
+        }
+
+        public void setMaxPixels(long maxPixels) {
+            this.maxPixels = maxPixels;
+        }
+    }
+
+    public static class Stock {
+
+        /**
+         * How long the stock reserved for a cart is held before being released, unless the cart is checked out.
+         */
+        private Duration reservationTtl = Duration.ofMinutes(15);
+
+        public Duration getReservationTtl() {
+            return reservationTtl;
+        }
+
+        public void setReservationTtl(Duration reservationTtl) {
+            this.reservationTtl = reservationTtl;
+        }
+    }
+
+    public static class Ventes {
+
+        /**
+         * Number of threads rebuilding the rollups of the sales, each a range of days at a time.
+         */
+        private int backfillThreads = 4;
+
+        public int getBackfillThreads() {
+            return backfillThreads;
+        }
+
+        public void setBackfillThreads(int backfillThreads) {
+            this.backfillThreads = backfillThreads;
+        }
+    }
+
     // jhipster-needle-application-properties-property-class
 }
@@ -56,6 +56,7 @@ public class CacheConfiguration {
             createCache(cm, com.mycompany.myapp.domain.Category.class.getName());
             createCache(cm, com.mycompany.myapp.domain.Category.class.getName() + ".produits");
             createCache(cm, com.mycompany.myapp.domain.Image.class.getName());
+            createCache(cm, com.mycompany.myapp.domain.Image.class.getName() + ".variants");
             createCache(cm, com.mycompany.myapp.domain.Commande.class.getName());
             createCache(cm, com.mycompany.myapp.domain.Commande.class.getName() + ".ligneCommandes");
             createCache(cm, com.mycompany.myapp.domain.LigneCommande.class.getName());
@@ -68,6 +69,7 @@ public class CacheConfiguration {
             createCache(cm, com.mycompany.myapp.domain.Client.class.getName() + ".carteBancaires");
             createCache(cm, com.mycompany.myapp.domain.Avis.class.getName());
             createCache(cm, com.mycompany.myapp.domain.Admin.class.getName());
+            createCache(cm, com.mycompany.myapp.service.ProduitQueryCache.PRODUITS_BY_CRITERIA_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
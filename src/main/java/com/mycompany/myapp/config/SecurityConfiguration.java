@@ -85,6 +85,10 @@ public class SecurityConfiguration {
             .antMatchers("/api/account/reset-password/init").permitAll()
             .antMatchers("/api/account/reset-password/finish").permitAll()
             .antMatchers("/api/admin/**").hasAuthority(AuthoritiesConstants.ADMIN)
+            .antMatchers(HttpMethod.GET, "/api/images/content/**").permitAll()
+            .antMatchers(HttpMethod.GET, "/api/images/*/content").permitAll()
+            .antMatchers(HttpMethod.HEAD, "/api/images/content/**").permitAll()
+            .antMatchers(HttpMethod.HEAD, "/api/images/*/content").permitAll()
             .antMatchers("/api/**").authenticated()
             .antMatchers("/management/health").permitAll()
             .antMatchers("/management/health/**").permitAll()
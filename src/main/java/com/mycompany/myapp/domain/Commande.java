@@ -10,13 +10,17 @@ import java.util.Set;
 import javax.persistence.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 
 /**
- * A Commande.
+ * A Commande. Its updates only write the columns they change, so that an update of the commande never writes back
+ * totals that the writes of its lignes have moved meanwhile.
  */
 @Entity
 @Table(name = "commande")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Commande implements Serializable {
 
@@ -39,6 +43,35 @@ public class Commande implements Serializable {
     @Column(name = "type_payement")
     private TypePayement typePayement;
 
+    /**
+     * The sum of the amounts of the lignes, in cents, maintained as the lignes are written.
+     */
+    @OptimisticLock(excluded = true)
+    @Column(name = "total_centimes", nullable = false)
+    private Long totalCentimes = 0L;
+
+    /**
+     * The sum of the quantities of the lignes, maintained as the lignes are written.
+     */
+    @OptimisticLock(excluded = true)
+    @Column(name = "nombre_articles", nullable = false)
+    private Integer nombreArticles = 0;
+
+    /**
+     * The number of lignes, maintained as the lignes are written.
+     */
+    @OptimisticLock(excluded = true)
+    @Column(name = "nombre_lignes", nullable = false)
+    private Integer nombreLignes = 0;
+
+    /**
+     * The version of the commande, incremented on each update, so that concurrent updates of it fail rather than
+     * overwrite each other. The totals are left out: writing a ligne does not make the version held by a client stale.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
     @OneToMany(mappedBy = "commande")
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "commande", "produit" }, allowSetters = true)
@@ -106,6 +139,58 @@ public class Commande implements Serializable {
         this.typePayement = typePayement;
     }
 
+    public Long getTotalCentimes() {
+        return this.totalCentimes;
+    }
+
+    public Commande totalCentimes(Long totalCentimes) {
+        this.setTotalCentimes(totalCentimes);
+        return this;
+    }
+
+    public void setTotalCentimes(Long totalCentimes) {
+        this.totalCentimes = totalCentimes;
+    }
+
+    public Integer getNombreArticles() {
+        return this.nombreArticles;
+    }
+
+    public Commande nombreArticles(Integer nombreArticles) {
+        this.setNombreArticles(nombreArticles);
+        return this;
+    }
+
+    public void setNombreArticles(Integer nombreArticles) {
+        this.nombreArticles = nombreArticles;
+    }
+
+    public Integer getNombreLignes() {
+        return this.nombreLignes;
+    }
+
+    public Commande nombreLignes(Integer nombreLignes) {
+        this.setNombreLignes(nombreLignes);
+        return this;
+    }
+
+    public void setNombreLignes(Integer nombreLignes) {
+        this.nombreLignes = nombreLignes;
+    }
+
+    public Integer getVersion() {
+        return this.version;
+    }
+
+    public Commande version(Integer version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     public Set<LigneCommande> getLigneCommandes() {
         return this.ligneCommandes;
     }
@@ -190,6 +275,10 @@ public class Commande implements Serializable {
             ", date='" + getDate() + "'" +
             ", etat='" + getEtat() + "'" +
             ", typePayement='" + getTypePayement() + "'" +
+            ", totalCentimes=" + getTotalCentimes() +
+            ", nombreArticles=" + getNombreArticles() +
+            ", nombreLignes=" + getNombreLignes() +
+            ", version=" + getVersion() +
             "}";
     }
 }
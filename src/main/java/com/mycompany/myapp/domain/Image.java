@@ -2,7 +2,10 @@ package com.mycompany.myapp.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import javax.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
@@ -30,6 +33,16 @@ public class Image implements Serializable {
     @JsonIgnoreProperties(value = { "images", "ligneCommandes", "avis", "categories" }, allowSetters = true)
     private Produit produit;
 
+    /**
+     * The resized copies of the image, by increasing width, generated in the background once it is uploaded.
+     */
+    @ElementCollection
+    @CollectionTable(name = "image_variant", joinColumns = @JoinColumn(name = "image_id"))
+    @OrderBy("width")
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<ImageVariant> variants = new LinkedHashSet<>();
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -71,6 +84,19 @@ public class Image implements Serializable {
         return this;
     }
 
+    public Set<ImageVariant> getVariants() {
+        return this.variants;
+    }
+
+    public void setVariants(Set<ImageVariant> variants) {
+        this.variants = variants;
+    }
+
+    public Image variants(Set<ImageVariant> variants) {
+        this.setVariants(variants);
+        return this;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -0,0 +1,70 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/**
+ * A smaller copy of an {@link Image}, resized to a fixed width for the devices which do not need the original.
+ */
+@Embeddable
+public class ImageVariant implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "width", nullable = false)
+    private Integer width;
+
+    @Column(name = "url", nullable = false)
+    private String url;
+
+    public ImageVariant() {}
+
+    public ImageVariant(Integer width, String url) {
+        this.width = width;
+        this.url = url;
+    }
+
+    public Integer getWidth() {
+        return this.width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public String getUrl() {
+        return this.url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImageVariant)) {
+            return false;
+        }
+        ImageVariant other = (ImageVariant) o;
+        return Objects.equals(width, other.width) && Objects.equals(url, other.url);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(width, url);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImageVariant{" +
+            "width=" + getWidth() +
+            ", url='" + getUrl() + "'" +
+            "}";
+    }
+}
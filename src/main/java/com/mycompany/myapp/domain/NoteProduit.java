@@ -0,0 +1,190 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The aggregate of the notes of the {@link Avis} of a {@link Produit}, maintained incrementally on each write of an avis.
+ */
+@Entity
+@Table(name = "note_produit")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class NoteProduit implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "produit_id")
+    private Long produitId;
+
+    @NotNull
+    @Column(name = "nombre_avis", nullable = false)
+    private Long nombreAvis = 0L;
+
+    @NotNull
+    @Column(name = "somme_notes", nullable = false)
+    private Long sommeNotes = 0L;
+
+    @NotNull
+    @Column(name = "nombre_notes_1", nullable = false)
+    private Long nombreNotes1 = 0L;
+
+    @NotNull
+    @Column(name = "nombre_notes_2", nullable = false)
+    private Long nombreNotes2 = 0L;
+
+    @NotNull
+    @Column(name = "nombre_notes_3", nullable = false)
+    private Long nombreNotes3 = 0L;
+
+    @NotNull
+    @Column(name = "nombre_notes_4", nullable = false)
+    private Long nombreNotes4 = 0L;
+
+    @NotNull
+    @Column(name = "nombre_notes_5", nullable = false)
+    private Long nombreNotes5 = 0L;
+
+    public NoteProduit() {}
+
+    public NoteProduit(
+        Long produitId,
+        Long nombreAvis,
+        Long sommeNotes,
+        Long nombreNotes1,
+        Long nombreNotes2,
+        Long nombreNotes3,
+        Long nombreNotes4,
+        Long nombreNotes5
+    ) {
+        this.produitId = produitId;
+        this.nombreAvis = nombreAvis;
+        this.sommeNotes = sommeNotes;
+        this.nombreNotes1 = nombreNotes1;
+        this.nombreNotes2 = nombreNotes2;
+        this.nombreNotes3 = nombreNotes3;
+        this.nombreNotes4 = nombreNotes4;
+        this.nombreNotes5 = nombreNotes5;
+    }
+
+    public Long getProduitId() {
+        return this.produitId;
+    }
+
+    public NoteProduit produitId(Long produitId) {
+        this.setProduitId(produitId);
+        return this;
+    }
+
+    public void setProduitId(Long produitId) {
+        this.produitId = produitId;
+    }
+
+    public Long getNombreAvis() {
+        return this.nombreAvis;
+    }
+
+    public void setNombreAvis(Long nombreAvis) {
+        this.nombreAvis = nombreAvis;
+    }
+
+    public Long getSommeNotes() {
+        return this.sommeNotes;
+    }
+
+    public void setSommeNotes(Long sommeNotes) {
+        this.sommeNotes = sommeNotes;
+    }
+
+    public Long getNombreNotes1() {
+        return this.nombreNotes1;
+    }
+
+    public void setNombreNotes1(Long nombreNotes1) {
+        this.nombreNotes1 = nombreNotes1;
+    }
+
+    public Long getNombreNotes2() {
+        return this.nombreNotes2;
+    }
+
+    public void setNombreNotes2(Long nombreNotes2) {
+        this.nombreNotes2 = nombreNotes2;
+    }
+
+    public Long getNombreNotes3() {
+        return this.nombreNotes3;
+    }
+
+    public void setNombreNotes3(Long nombreNotes3) {
+        this.nombreNotes3 = nombreNotes3;
+    }
+
+    public Long getNombreNotes4() {
+        return this.nombreNotes4;
+    }
+
+    public void setNombreNotes4(Long nombreNotes4) {
+        this.nombreNotes4 = nombreNotes4;
+    }
+
+    public Long getNombreNotes5() {
+        return this.nombreNotes5;
+    }
+
+    public void setNombreNotes5(Long nombreNotes5) {
+        this.nombreNotes5 = nombreNotes5;
+    }
+
+    /**
+     * @return the number of avis per note, from 1 to 5.
+     */
+    public long[] getRepartition() {
+        return new long[] { nombreNotes1, nombreNotes2, nombreNotes3, nombreNotes4, nombreNotes5 };
+    }
+
+    /**
+     * @return {@code true} if the other aggregate has the same counts.
+     */
+    public boolean hasSameCounts(NoteProduit other) {
+        return (
+            nombreAvis.equals(other.nombreAvis) &&
+            sommeNotes.equals(other.sommeNotes) &&
+            Arrays.equals(getRepartition(), other.getRepartition())
+        );
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NoteProduit)) {
+            return false;
+        }
+        return produitId != null && produitId.equals(((NoteProduit) o).produitId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "NoteProduit{" +
+            "produitId=" + getProduitId() +
+            ", nombreAvis=" + getNombreAvis() +
+            ", sommeNotes=" + getSommeNotes() +
+            ", nombreNotes1=" + getNombreNotes1() +
+            ", nombreNotes2=" + getNombreNotes2() +
+            ", nombreNotes3=" + getNombreNotes3() +
+            ", nombreNotes4=" + getNombreNotes4() +
+            ", nombreNotes5=" + getNombreNotes5() +
+            "}";
+    }
+}
@@ -0,0 +1,84 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The quantity in stock of a {@link Produit}; a produit without one is not tracked, and never runs out.
+ */
+@Entity
+@Table(name = "stock_produit")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class StockProduit implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "produit_id")
+    private Long produitId;
+
+    @NotNull
+    @Min(value = 0)
+    @Column(name = "quantite", nullable = false)
+    private Integer quantite = 0;
+
+    public StockProduit() {}
+
+    public StockProduit(Long produitId, Integer quantite) {
+        this.produitId = produitId;
+        this.quantite = quantite;
+    }
+
+    public Long getProduitId() {
+        return this.produitId;
+    }
+
+    public StockProduit produitId(Long produitId) {
+        this.setProduitId(produitId);
+        return this;
+    }
+
+    public void setProduitId(Long produitId) {
+        this.produitId = produitId;
+    }
+
+    public Integer getQuantite() {
+        return this.quantite;
+    }
+
+    public StockProduit quantite(Integer quantite) {
+        this.setQuantite(quantite);
+        return this;
+    }
+
+    public void setQuantite(Integer quantite) {
+        this.quantite = quantite;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StockProduit)) {
+            return false;
+        }
+        return produitId != null && produitId.equals(((StockProduit) o).produitId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockProduit{" +
+            "produitId=" + getProduitId() +
+            ", quantite=" + getQuantite() +
+            "}";
+    }
+}
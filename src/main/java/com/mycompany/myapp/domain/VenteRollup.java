@@ -0,0 +1,175 @@
+package com.mycompany.myapp.domain;
+
+import com.mycompany.myapp.domain.enumeration.DimensionVente;
+import java.io.Serializable;
+import java.time.LocalDate;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * The sales of a day, in total, of a {@link Produit} or of a {@link Category}: those of the {@link Commande}s of that day
+ * which are paid, and neither cancelled nor refunded.
+ * <p>
+ * A rollup is only ever inserted or incremented: it is new until persisted or loaded, so that saving it inserts it
+ * without reading it first.
+ */
+@Entity
+@Table(name = "vente_rollup")
+@IdClass(VenteRollupId.class)
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class VenteRollup implements Persistable<VenteRollupId>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false)
+    private DimensionVente dimension;
+
+    @Id
+    @Column(name = "jour", nullable = false)
+    private LocalDate jour;
+
+    /**
+     * The id of the produit or category, {@code 0} for the total.
+     */
+    @Id
+    @Column(name = "cle_id", nullable = false)
+    private Long cleId;
+
+    @NotNull
+    @Column(name = "nombre_commandes", nullable = false)
+    private Long nombreCommandes = 0L;
+
+    @NotNull
+    @Column(name = "nombre_articles", nullable = false)
+    private Long nombreArticles = 0L;
+
+    @NotNull
+    @Column(name = "total_centimes", nullable = false)
+    private Long totalCentimes = 0L;
+
+    @Transient
+    private boolean isNew = true;
+
+    public VenteRollup() {}
+
+    public VenteRollup(VenteRollupId id, long nombreCommandes, long nombreArticles, long totalCentimes) {
+        this.dimension = id.getDimension();
+        this.jour = id.getJour();
+        this.cleId = id.getCleId();
+        this.nombreCommandes = nombreCommandes;
+        this.nombreArticles = nombreArticles;
+        this.totalCentimes = totalCentimes;
+    }
+
+    @Override
+    public VenteRollupId getId() {
+        return new VenteRollupId(dimension, jour, cleId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public DimensionVente getDimension() {
+        return this.dimension;
+    }
+
+    public void setDimension(DimensionVente dimension) {
+        this.dimension = dimension;
+    }
+
+    public LocalDate getJour() {
+        return this.jour;
+    }
+
+    public void setJour(LocalDate jour) {
+        this.jour = jour;
+    }
+
+    public Long getCleId() {
+        return this.cleId;
+    }
+
+    public void setCleId(Long cleId) {
+        this.cleId = cleId;
+    }
+
+    public Long getNombreCommandes() {
+        return this.nombreCommandes;
+    }
+
+    public VenteRollup nombreCommandes(Long nombreCommandes) {
+        this.setNombreCommandes(nombreCommandes);
+        return this;
+    }
+
+    public void setNombreCommandes(Long nombreCommandes) {
+        this.nombreCommandes = nombreCommandes;
+    }
+
+    public Long getNombreArticles() {
+        return this.nombreArticles;
+    }
+
+    public VenteRollup nombreArticles(Long nombreArticles) {
+        this.setNombreArticles(nombreArticles);
+        return this;
+    }
+
+    public void setNombreArticles(Long nombreArticles) {
+        this.nombreArticles = nombreArticles;
+    }
+
+    public Long getTotalCentimes() {
+        return this.totalCentimes;
+    }
+
+    public VenteRollup totalCentimes(Long totalCentimes) {
+        this.setTotalCentimes(totalCentimes);
+        return this;
+    }
+
+    public void setTotalCentimes(Long totalCentimes) {
+        this.totalCentimes = totalCentimes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VenteRollup)) {
+            return false;
+        }
+        return jour != null && getId().equals(((VenteRollup) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VenteRollup{" +
+            "dimension=" + getDimension() +
+            ", jour=" + getJour() +
+            ", cleId=" + getCleId() +
+            ", nombreCommandes=" + getNombreCommandes() +
+            ", nombreArticles=" + getNombreArticles() +
+            ", totalCentimes=" + getTotalCentimes() +
+            "}";
+    }
+}
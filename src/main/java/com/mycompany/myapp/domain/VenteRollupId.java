@@ -0,0 +1,67 @@
+package com.mycompany.myapp.domain;
+
+import com.mycompany.myapp.domain.enumeration.DimensionVente;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * The key of a {@link VenteRollup}: a day, and the produit or category of its dimension, {@code 0} for the total.
+ */
+public class VenteRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private DimensionVente dimension;
+
+    private LocalDate jour;
+
+    private Long cleId;
+
+    public VenteRollupId() {}
+
+    public VenteRollupId(DimensionVente dimension, LocalDate jour, Long cleId) {
+        this.dimension = dimension;
+        this.jour = jour;
+        this.cleId = cleId;
+    }
+
+    public DimensionVente getDimension() {
+        return dimension;
+    }
+
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public Long getCleId() {
+        return cleId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VenteRollupId)) {
+            return false;
+        }
+        VenteRollupId that = (VenteRollupId) o;
+        return dimension == that.dimension && Objects.equals(jour, that.jour) && Objects.equals(cleId, that.cleId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dimension, jour, cleId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VenteRollupId{" +
+            "dimension=" + dimension +
+            ", jour=" + jour +
+            ", cleId=" + cleId +
+            "}";
+    }
+}
@@ -0,0 +1,10 @@
+package com.mycompany.myapp.domain.enumeration;
+
+/**
+ * The dimensions the sales are rolled up by, each day: all the sales, those of each produit, and those of each category.
+ */
+public enum DimensionVente {
+    TOTAL,
+    PRODUIT,
+    CATEGORY,
+}
@@ -1,5 +1,9 @@
 package com.mycompany.myapp.domain.enumeration;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * The EtatCommande enumeration.
  */
@@ -8,5 +12,44 @@ public enum EtatCommande {
     PAYEE,
     LIVREE,
     ANNULEE,
-    REMBOURSEE,
+    REMBOURSEE;
+
+    /**
+     * The states of the commandes whose produits are bought: paid, and neither cancelled nor refunded.
+     */
+    public static final Set<EtatCommande> ACHETEES = Collections.unmodifiableSet(EnumSet.of(PAYEE, LIVREE));
+
+    /**
+     * @return whether a commande may move from a state to another: a commande in progress is paid or cancelled, a paid
+     * one delivered or refunded, and a delivered one refunded, while cancelled and refunded commandes are final. A commande
+     * without a state counts as in progress, and none may lose its state.
+     */
+    public static boolean isTransitionLegal(EtatCommande from, EtatCommande to) {
+        if (to == null) {
+            return false;
+        }
+        switch (from == null ? EN_COURS : from) {
+            case EN_COURS:
+                return to == PAYEE || to == ANNULEE;
+            case PAYEE:
+                return to == LIVREE || to == REMBOURSEE;
+            case LIVREE:
+                return to == REMBOURSEE;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the states from which a commande may move to the given one.
+     */
+    public static Set<EtatCommande> precedents(EtatCommande to) {
+        Set<EtatCommande> precedents = EnumSet.noneOf(EtatCommande.class);
+        for (EtatCommande from : values()) {
+            if (isTransitionLegal(from, to)) {
+                precedents.add(from);
+            }
+        }
+        return Collections.unmodifiableSet(precedents);
+    }
 }
@@ -17,6 +17,11 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface ClientRepository extends ClientRepositoryWithBagRelationships, JpaRepository<Client, Long> {
+    /**
+     * Find the client of an identifiant, the first created if several share it.
+     */
+    Optional<Client> findFirstByIdentifiantOrderByIdAsc(String identifiant);
+
     default Optional<Client> findOneWithEagerRelationships(Long id) {
         return this.fetchBagRelationships(this.findById(id));
     }
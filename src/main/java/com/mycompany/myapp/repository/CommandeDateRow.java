@@ -0,0 +1,26 @@
+package com.mycompany.myapp.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of a {@link com.mycompany.myapp.domain.Commande}: its id and date, the keys of the order history of a client.
+ */
+public class CommandeDateRow {
+
+    private final Long commandeId;
+
+    private final Instant date;
+
+    public CommandeDateRow(Long commandeId, Instant date) {
+        this.commandeId = commandeId;
+        this.date = date;
+    }
+
+    public Long getCommandeId() {
+        return commandeId;
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+}
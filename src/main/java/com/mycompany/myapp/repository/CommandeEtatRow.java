@@ -0,0 +1,33 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+
+/**
+ * Projection of a {@link com.mycompany.myapp.domain.Commande}: its state and version.
+ */
+public class CommandeEtatRow {
+
+    private final Long commandeId;
+
+    private final EtatCommande etat;
+
+    private final Integer version;
+
+    public CommandeEtatRow(Long commandeId, EtatCommande etat, Integer version) {
+        this.commandeId = commandeId;
+        this.etat = etat;
+        this.version = version;
+    }
+
+    public Long getCommandeId() {
+        return commandeId;
+    }
+
+    public EtatCommande getEtat() {
+        return etat;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Projection of a {@link com.mycompany.myapp.domain.Commande} with its stored totals, and of one of its
+ * {@link com.mycompany.myapp.domain.LigneCommande}s, if it has any.
+ */
+public class CommandeLigneRow {
+
+    private final Long commandeId;
+
+    private final Long totalCentimes;
+
+    private final Integer nombreArticles;
+
+    private final Integer nombreLignes;
+
+    private final Long ligneId;
+
+    private final Integer quantite;
+
+    private final Float prix;
+
+    public CommandeLigneRow(
+        Long commandeId,
+        Long totalCentimes,
+        Integer nombreArticles,
+        Integer nombreLignes,
+        Long ligneId,
+        Integer quantite,
+        Float prix
+    ) {
+        this.commandeId = commandeId;
+        this.totalCentimes = totalCentimes;
+        this.nombreArticles = nombreArticles;
+        this.nombreLignes = nombreLignes;
+        this.ligneId = ligneId;
+        this.quantite = quantite;
+        this.prix = prix;
+    }
+
+    public Long getCommandeId() {
+        return commandeId;
+    }
+
+    public Long getTotalCentimes() {
+        return totalCentimes;
+    }
+
+    public Integer getNombreArticles() {
+        return nombreArticles;
+    }
+
+    public Integer getNombreLignes() {
+        return nombreLignes;
+    }
+
+    /**
+     * @return the id of the ligne, or {@code null} if the commande has none.
+     */
+    public Long getLigneId() {
+        return ligneId;
+    }
+
+    public Integer getQuantite() {
+        return quantite;
+    }
+
+    public Float getPrix() {
+        return prix;
+    }
+}
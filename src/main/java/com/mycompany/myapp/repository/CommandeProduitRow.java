@@ -0,0 +1,24 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Projection of a {@link com.mycompany.myapp.domain.LigneCommande}: the produit it bought, in which commande.
+ */
+public class CommandeProduitRow {
+
+    private final Long commandeId;
+
+    private final Long produitId;
+
+    public CommandeProduitRow(Long commandeId, Long produitId) {
+        this.commandeId = commandeId;
+        this.produitId = produitId;
+    }
+
+    public Long getCommandeId() {
+        return commandeId;
+    }
+
+    public Long getProduitId() {
+        return produitId;
+    }
+}
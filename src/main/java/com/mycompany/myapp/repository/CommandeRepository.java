@@ -1,7 +1,19 @@
 package com.mycompany.myapp.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +21,118 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CommandeRepository extends JpaRepository<Commande, Long> {}
+public interface CommandeRepository extends CommandeRepositoryWithLocks, JpaRepository<Commande, Long> {
+    /**
+     * Read the commandes, with their stored totals, and their lignes in commande order through a forward-only cursor: a
+     * row per ligne, and one for each commande without lignes. The stream must be closed, within a transaction.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.CommandeLigneRow(commande.id, commande.totalCentimes, commande.nombreArticles, " +
+        "commande.nombreLignes, ligneCommande.id, ligneCommande.quantite, ligneCommande.prix) " +
+        "from Commande commande left join commande.ligneCommandes ligneCommande order by commande.id"
+    )
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    Stream<CommandeLigneRow> streamWithLignes();
+
+    /**
+     * Read the states and versions of the commandes with the given ids with a single query, skipping the ids which do not
+     * exist.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.CommandeEtatRow(commande.id, commande.etat, commande.version) " +
+        "from Commande commande where commande.id in :ids"
+    )
+    List<CommandeEtatRow> findEtatsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Move the commandes with the given ids which are still in one of the given states to another state, incrementing
+     * their versions, in a single statement.
+     *
+     * @param withoutEtat whether the commandes without a state are moved too.
+     * @return the number of commandes moved.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update Commande commande set commande.etat = :etat, commande.version = commande.version + 1 " +
+        "where commande.id in :ids and (commande.etat in :precedents or (:withoutEtat = true and commande.etat is null))"
+    )
+    int updateEtats(
+        @Param("ids") Collection<Long> ids,
+        @Param("etat") EtatCommande etat,
+        @Param("precedents") Collection<EtatCommande> precedents,
+        @Param("withoutEtat") boolean withoutEtat
+    );
+
+    /**
+     * Read the keys of the first dated commandes of a client, by date then id descending, from the
+     * {@code idx_commande__client_id_date_id} index alone.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.CommandeDateRow(commande.id, commande.date) from Commande commande " +
+        "where commande.client.id = :clientId and commande.date is not null order by commande.date desc, commande.id desc"
+    )
+    List<CommandeDateRow> findHistory(@Param("clientId") Long clientId, Pageable pageable);
+
+    /**
+     * Read the keys of the dated commandes of a client which come after the given one, by date then id descending, from
+     * the {@code idx_commande__client_id_date_id} index alone.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.CommandeDateRow(commande.id, commande.date) from Commande commande " +
+        "where commande.client.id = :clientId and (commande.date < :date or (commande.date = :date and commande.id < :id)) " +
+        "order by commande.date desc, commande.id desc"
+    )
+    List<CommandeDateRow> findHistoryAfter(
+        @Param("clientId") Long clientId,
+        @Param("date") Instant date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    /**
+     * Read the keys of the commandes without a date of a client whose ids are lower than the given one, by id descending.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.CommandeDateRow(commande.id, commande.date) from Commande commande " +
+        "where commande.client.id = :clientId and commande.date is null and commande.id < :id order by commande.id desc"
+    )
+    List<CommandeDateRow> findHistoryWithoutDateAfter(@Param("clientId") Long clientId, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Load the commandes with the given ids, along with their lignes and their produits, their carte bancaire and
+     * their client, with a single query.
+     */
+    @EntityGraph(attributePaths = { "ligneCommandes", "ligneCommandes.produit", "carteBancaire", "client" })
+    @Query("select distinct commande from Commande commande where commande.id in :ids")
+    List<Commande> findAllWithLignesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Read the lignes of the commandes in the given states dated from the first instant to the last one, excluded, through
+     * a forward-only cursor, in commande order: a row per ligne, and one for each commande without lignes. The stream must
+     * be closed, within a transaction.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.CommandeVenteRow(commande.id, commande.date, ligneCommande.id, " +
+        "produit.id, ligneCommande.quantite, ligneCommande.prix) from Commande commande " +
+        "left join commande.ligneCommandes ligneCommande left join ligneCommande.produit produit " +
+        "where commande.etat in :etats and commande.date >= :from and commande.date < :to order by commande.id"
+    )
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    Stream<CommandeVenteRow> streamVentes(
+        @Param("etats") Collection<EtatCommande> etats,
+        @Param("from") Instant from,
+        @Param("to") Instant to
+    );
+
+    /**
+     * @return the date of the oldest commande in the given states, if any.
+     */
+    @Query("select min(commande.date) from Commande commande where commande.etat in :etats")
+    Optional<Instant> findFirstDate(@Param("etats") Collection<EtatCommande> etats);
+
+    /**
+     * @return the date of the most recent commande in the given states, if any.
+     */
+    @Query("select max(commande.date) from Commande commande where commande.etat in :etats")
+    Optional<Instant> findLastDate(@Param("etats") Collection<EtatCommande> etats);
+}
@@ -0,0 +1,8 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Commande;
+import java.util.Optional;
+
+public interface CommandeRepositoryWithLocks {
+    Optional<Commande> findAndLockById(Long id);
+}
@@ -0,0 +1,32 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Commande;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Utility repository locking a {@link Commande}, so that the concurrent writes of its lignes update its totals one after
+ * the other.
+ */
+public class CommandeRepositoryWithLocksImpl implements CommandeRepositoryWithLocks {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Read the entity and lock its row until the end of the transaction. The entity may already be in the persistence
+     * context, for instance as the commande of a ligne, with the state read before the lock was taken: it is refreshed
+     * from the locked row, which locking alone would not do.
+     */
+    @Override
+    public Optional<Commande> findAndLockById(Long id) {
+        Commande commande = entityManager.find(Commande.class, id);
+        if (commande == null) {
+            return Optional.empty();
+        }
+        entityManager.refresh(commande, LockModeType.PESSIMISTIC_WRITE);
+        return Optional.of(commande);
+    }
+}
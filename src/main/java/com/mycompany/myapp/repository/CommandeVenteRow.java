@@ -0,0 +1,55 @@
+package com.mycompany.myapp.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of a {@link com.mycompany.myapp.domain.LigneCommande} sold: the date of its commande, its produit, quantity
+ * and unit price. A commande without lignes has a single row, without a ligne.
+ */
+public class CommandeVenteRow {
+
+    private final Long commandeId;
+
+    private final Instant date;
+
+    private final Long ligneId;
+
+    private final Long produitId;
+
+    private final Integer quantite;
+
+    private final Float prix;
+
+    public CommandeVenteRow(Long commandeId, Instant date, Long ligneId, Long produitId, Integer quantite, Float prix) {
+        this.commandeId = commandeId;
+        this.date = date;
+        this.ligneId = ligneId;
+        this.produitId = produitId;
+        this.quantite = quantite;
+        this.prix = prix;
+    }
+
+    public Long getCommandeId() {
+        return commandeId;
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+
+    public Long getLigneId() {
+        return ligneId;
+    }
+
+    public Long getProduitId() {
+        return produitId;
+    }
+
+    public Integer getQuantite() {
+        return quantite;
+    }
+
+    public Float getPrix() {
+        return prix;
+    }
+}
@@ -1,7 +1,17 @@
 package com.mycompany.myapp.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +19,43 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface LigneCommandeRepository extends JpaRepository<LigneCommande, Long> {}
+public interface LigneCommandeRepository extends JpaRepository<LigneCommande, Long> {
+    /**
+     * Read the produits bought by the commandes in the given states through a forward-only cursor, ordered by commande so
+     * that the rows of a commande are contiguous. The stream must be closed, within a transaction.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.CommandeProduitRow(commande.id, ligneCommande.produit.id) " +
+        "from LigneCommande ligneCommande join ligneCommande.commande commande " +
+        "where commande.etat in :etats and ligneCommande.produit is not null " +
+        "order by commande.id"
+    )
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    Stream<CommandeProduitRow> streamProduitsByCommandeEtat(@Param("etats") Collection<EtatCommande> etats);
+
+    List<LigneCommande> findAllByCommandeId(Long commandeId);
+
+    /**
+     * Sum the quantities sold of each produit by the commandes in the given states, a ligne without a quantity counting
+     * for one.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.ProduitVenteRow(ligneCommande.produit.id, sum(coalesce(ligneCommande.quantite, 1))) " +
+        "from LigneCommande ligneCommande join ligneCommande.commande commande " +
+        "where commande.etat in :etats and ligneCommande.produit is not null " +
+        "group by ligneCommande.produit.id"
+    )
+    List<ProduitVenteRow> sumQuantitesByProduit(@Param("etats") Collection<EtatCommande> etats);
+
+    /**
+     * Read the lignes of the commandes in the given states dated since the given instant through a forward-only cursor.
+     * The stream must be closed, within a transaction.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.ProduitVenteRow(ligneCommande.produit.id, commande.date, ligneCommande.quantite) " +
+        "from LigneCommande ligneCommande join ligneCommande.commande commande " +
+        "where commande.etat in :etats and commande.date >= :since and ligneCommande.produit is not null"
+    )
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    Stream<ProduitVenteRow> streamVentesSince(@Param("etats") Collection<EtatCommande> etats, @Param("since") Instant since);
+}
@@ -0,0 +1,84 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.NoteProduit;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the NoteProduit entity.
+ */
+@Repository
+public interface NoteProduitRepository extends NoteProduitRepositoryWithInserts, JpaRepository<NoteProduit, Long> {
+    /**
+     * Add the given deltas to the aggregate of a produit, in a single statement, so that concurrent writes of avis
+     * do not overwrite each other.
+     *
+     * @return the number of updated rows, {@code 0} if the produit has no aggregate yet.
+     */
+    @Modifying
+    @Query(
+        "update NoteProduit noteProduit set " +
+        "noteProduit.nombreAvis = noteProduit.nombreAvis + :nombreAvis, " +
+        "noteProduit.sommeNotes = noteProduit.sommeNotes + :sommeNotes, " +
+        "noteProduit.nombreNotes1 = noteProduit.nombreNotes1 + :nombreNotes1, " +
+        "noteProduit.nombreNotes2 = noteProduit.nombreNotes2 + :nombreNotes2, " +
+        "noteProduit.nombreNotes3 = noteProduit.nombreNotes3 + :nombreNotes3, " +
+        "noteProduit.nombreNotes4 = noteProduit.nombreNotes4 + :nombreNotes4, " +
+        "noteProduit.nombreNotes5 = noteProduit.nombreNotes5 + :nombreNotes5 " +
+        "where noteProduit.produitId = :produitId"
+    )
+    int increment(
+        @Param("produitId") Long produitId,
+        @Param("nombreAvis") long nombreAvis,
+        @Param("sommeNotes") long sommeNotes,
+        @Param("nombreNotes1") long nombreNotes1,
+        @Param("nombreNotes2") long nombreNotes2,
+        @Param("nombreNotes3") long nombreNotes3,
+        @Param("nombreNotes4") long nombreNotes4,
+        @Param("nombreNotes5") long nombreNotes5
+    );
+
+    /**
+     * Replace the counts of the aggregate of a produit, in a single statement, unless they changed since they were read.
+     *
+     * @param read the aggregate as it was read.
+     * @param expected the aggregate with the counts to write.
+     * @return the number of updated rows, {@code 0} if the counts changed meanwhile.
+     */
+    @Modifying
+    @Query(
+        "update NoteProduit noteProduit set " +
+        "noteProduit.nombreAvis = :#{#expected.nombreAvis}, " +
+        "noteProduit.sommeNotes = :#{#expected.sommeNotes}, " +
+        "noteProduit.nombreNotes1 = :#{#expected.nombreNotes1}, " +
+        "noteProduit.nombreNotes2 = :#{#expected.nombreNotes2}, " +
+        "noteProduit.nombreNotes3 = :#{#expected.nombreNotes3}, " +
+        "noteProduit.nombreNotes4 = :#{#expected.nombreNotes4}, " +
+        "noteProduit.nombreNotes5 = :#{#expected.nombreNotes5} " +
+        "where noteProduit.produitId = :#{#read.produitId} " +
+        "and noteProduit.nombreAvis = :#{#read.nombreAvis} " +
+        "and noteProduit.sommeNotes = :#{#read.sommeNotes} " +
+        "and noteProduit.nombreNotes1 = :#{#read.nombreNotes1} " +
+        "and noteProduit.nombreNotes2 = :#{#read.nombreNotes2} " +
+        "and noteProduit.nombreNotes3 = :#{#read.nombreNotes3} " +
+        "and noteProduit.nombreNotes4 = :#{#read.nombreNotes4} " +
+        "and noteProduit.nombreNotes5 = :#{#read.nombreNotes5}"
+    )
+    int replaceCounts(@Param("read") NoteProduit read, @Param("expected") NoteProduit expected);
+
+    /**
+     * Compute the aggregates of all the produits having avis from the avis table.
+     */
+    @Query(
+        "select new com.mycompany.myapp.domain.NoteProduit(avis.produit.id, count(avis), coalesce(sum(avis.note), 0L), " +
+        "sum(case when avis.note = 1 then 1L else 0L end), " +
+        "sum(case when avis.note = 2 then 1L else 0L end), " +
+        "sum(case when avis.note = 3 then 1L else 0L end), " +
+        "sum(case when avis.note = 4 then 1L else 0L end), " +
+        "sum(case when avis.note = 5 then 1L else 0L end)) " +
+        "from Avis avis where avis.produit is not null group by avis.produit.id"
+    )
+    List<NoteProduit> computeAllFromAvis();
+}
@@ -0,0 +1,5 @@
+package com.mycompany.myapp.repository;
+
+public interface NoteProduitRepositoryWithInserts {
+    boolean insertIfAbsent(Long produitId);
+}
@@ -0,0 +1,56 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.NoteProduit;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+/**
+ * Utility repository creating the {@link NoteProduit} aggregate of a produit, so that the first avis written concurrently
+ * for a produit all end up incrementing the same row.
+ */
+public class NoteProduitRepositoryWithInsertsImpl implements NoteProduitRepositoryWithInserts {
+
+    private static final String INSERT_EMPTY =
+        "insert into note_produit (produit_id, nombre_avis, somme_notes, " +
+        "nombre_notes_1, nombre_notes_2, nombre_notes_3, nombre_notes_4, nombre_notes_5) " +
+        "values (?, 0, 0, 0, 0, 0, 0, 0)";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Insert an empty aggregate for the produit, unless there is one. The insert runs in a savepoint: when a concurrent
+     * transaction inserted the aggregate first, the insert waits for it to commit, then fails on the primary key and is
+     * rolled back alone, leaving the current transaction usable. The row is written behind the persistence context.
+     *
+     * @return {@code true} if the aggregate was inserted, {@code false} if there already was one.
+     */
+    @Override
+    public boolean insertIfAbsent(Long produitId) {
+        // The produit may only be pending in the persistence context
+        entityManager.flush();
+        return entityManager
+            .unwrap(Session.class)
+            .doReturningWork(connection -> {
+                Savepoint savepoint = connection.setSavepoint();
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_EMPTY)) {
+                    statement.setLong(1, produitId);
+                    statement.executeUpdate();
+                } catch (SQLException e) {
+                    if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    connection.rollback(savepoint);
+                    return false;
+                }
+                connection.releaseSavepoint(savepoint);
+                return true;
+            });
+    }
+}
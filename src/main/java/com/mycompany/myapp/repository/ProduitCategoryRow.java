@@ -0,0 +1,24 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Projection of a {@link com.mycompany.myapp.domain.Produit}: one of its categories.
+ */
+public class ProduitCategoryRow {
+
+    private final Long produitId;
+
+    private final Long categoryId;
+
+    public ProduitCategoryRow(Long produitId, Long categoryId) {
+        this.produitId = produitId;
+        this.categoryId = categoryId;
+    }
+
+    public Long getProduitId() {
+        return produitId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Projection of the faceted attributes of a {@link com.mycompany.myapp.domain.Produit}, one row per category it belongs to.
+ */
+public class ProduitFacetRow {
+
+    private final Long produitId;
+
+    private final String couleur;
+
+    private final Integer taille;
+
+    private final Float prixUnitaire;
+
+    private final Long categoryId;
+
+    public ProduitFacetRow(Long produitId, String couleur, Integer taille, Float prixUnitaire, Long categoryId) {
+        this.produitId = produitId;
+        this.couleur = couleur;
+        this.taille = taille;
+        this.prixUnitaire = prixUnitaire;
+        this.categoryId = categoryId;
+    }
+
+    public Long getProduitId() {
+        return produitId;
+    }
+
+    public String getCouleur() {
+        return couleur;
+    }
+
+    public Integer getTaille() {
+        return taille;
+    }
+
+    public Float getPrixUnitaire() {
+        return prixUnitaire;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
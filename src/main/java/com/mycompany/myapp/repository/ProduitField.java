@@ -0,0 +1,36 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Arrays;
+
+/**
+ * The {@link com.mycompany.myapp.domain.Produit} attributes a sparse listing can select, each read from its own column.
+ * {@link #IMAGE_URL} is the url of the first image of the produit.
+ */
+public enum ProduitField {
+    ID("id"),
+    ID_PRODUIT("idProduit"),
+    LIBELLE("libelle"),
+    DESCRIPTION("description"),
+    PRIX_UNITAIRE("prixUnitaire"),
+    TAILLE("taille"),
+    COULEUR("couleur"),
+    IMAGE_URL("imageUrl");
+
+    private final String property;
+
+    ProduitField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static ProduitField fromProperty(String property) {
+        return Arrays
+            .stream(values())
+            .filter(field -> field.property.equals(property))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported field: " + property));
+    }
+}
@@ -0,0 +1,24 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Projection of a {@link com.mycompany.myapp.domain.Produit}: its libelle.
+ */
+public class ProduitLibelleRow {
+
+    private final Long produitId;
+
+    private final String libelle;
+
+    public ProduitLibelleRow(Long produitId, String libelle) {
+        this.produitId = produitId;
+        this.libelle = libelle;
+    }
+
+    public Long getProduitId() {
+        return produitId;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+}
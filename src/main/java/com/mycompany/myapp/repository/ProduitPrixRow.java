@@ -0,0 +1,24 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Projection of a {@link com.mycompany.myapp.domain.Produit}: its unit price.
+ */
+public class ProduitPrixRow {
+
+    private final Long produitId;
+
+    private final Float prixUnitaire;
+
+    public ProduitPrixRow(Long produitId, Float prixUnitaire) {
+        this.produitId = produitId;
+        this.prixUnitaire = prixUnitaire;
+    }
+
+    public Long getProduitId() {
+        return produitId;
+    }
+
+    public Float getPrixUnitaire() {
+        return prixUnitaire;
+    }
+}
@@ -1,6 +1,7 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Produit;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -17,7 +18,11 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface ProduitRepository
-    extends ProduitRepositoryWithBagRelationships, JpaRepository<Produit, Long>, JpaSpecificationExecutor<Produit> {
+    extends
+        ProduitRepositoryWithBagRelationships,
+        ProduitRepositoryWithCriteriaQueries,
+        JpaRepository<Produit, Long>,
+        JpaSpecificationExecutor<Produit> {
     default Optional<Produit> findOneWithEagerRelationships(Long id) {
         return this.fetchBagRelationships(this.findById(id));
     }
@@ -29,4 +34,46 @@ public interface ProduitRepository
     default Page<Produit> findAllWithEagerRelationships(Pageable pageable) {
         return this.fetchBagRelationships(this.findAll(pageable));
     }
+
+    /**
+     * Read the unit prices of the produits with the given ids with a single query, skipping the ids which do not exist.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.ProduitPrixRow(produit.id, produit.prixUnitaire) " +
+        "from Produit produit where produit.id in :ids"
+    )
+    List<ProduitPrixRow> findPrixByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Read the libelles of the produits with the given ids with a single query, skipping the ids which do not exist.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.ProduitLibelleRow(produit.id, produit.libelle) " +
+        "from Produit produit where produit.id in :ids"
+    )
+    List<ProduitLibelleRow> findLibellesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Read the categories of the produits with the given ids with a single query.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.ProduitCategoryRow(produit.id, category.id) " +
+        "from Produit produit join produit.categories category where produit.id in :ids"
+    )
+    List<ProduitCategoryRow> findCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Read the ids of the produits of a category with a single query.
+     */
+    @Query("select produit.id from Produit produit join produit.categories category where category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * Read the categories of all the produits with a single query.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.ProduitCategoryRow(produit.id, category.id) " +
+        "from Produit produit join produit.categories category"
+    )
+    List<ProduitCategoryRow> findAllCategories();
 }
@@ -44,6 +44,9 @@ public class ProduitRepositoryWithBagRelationshipsImpl implements ProduitReposit
     }
 
     List<Produit> fetchCategories(List<Produit> produits) {
+        if (produits.isEmpty()) {
+            return produits;
+        }
         HashMap<Object, Integer> order = new HashMap<>();
         IntStream.range(0, produits.size()).forEach(index -> order.put(produits.get(index).getId(), index));
         List<Produit> result = entityManager
@@ -0,0 +1,30 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Produit;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import javax.persistence.Tuple;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProduitRepositoryWithCriteriaQueries {
+    List<Produit> findAll(Specification<Produit> specification, Sort sort, int limit);
+
+    void scrollAll(Specification<Produit> specification, int fetchSize, Consumer<List<Produit>> chunkConsumer);
+
+    void scrollFacetRows(Specification<Produit> specification, int fetchSize, Consumer<ProduitFacetRow> rowConsumer);
+
+    void scrollPrices(int fetchSize, BiConsumer<Long, Float> priceConsumer);
+
+    void scrollLibelles(int fetchSize, BiConsumer<Long, String> libelleConsumer);
+
+    List<Produit> loadAllById(List<Long> ids);
+
+    void insertAll(List<Produit> produits, int batchSize);
+
+    int updatePrices(List<Long> ids, ProduitRepricingRule rule);
+
+    List<Tuple> findAll(Specification<Produit> specification, Set<ProduitField> fields, Sort sort);
+}
@@ -0,0 +1,267 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Category_;
+import com.mycompany.myapp.domain.Image;
+import com.mycompany.myapp.domain.Image_;
+import com.mycompany.myapp.domain.Produit;
+import com.mycompany.myapp.domain.Produit_;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.criteria.Subquery;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Utility repository running {@link Specification} queries that Spring Data does not offer out of the box,
+ * such as a bounded, sorted read which does not trigger a {@code count(*)} query like {@code findAll(spec, pageable)} does,
+ * or a scrolling read which never holds the whole result set in memory.
+ */
+public class ProduitRepositoryWithCriteriaQueriesImpl implements ProduitRepositoryWithCriteriaQueries {
+
+    private static final String CATEGORIES_ROLE = Produit.class.getName() + ".categories";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Produit> findAll(Specification<Produit> specification, Sort sort, int limit) {
+        return entityManager.createQuery(createQuery(specification, sort)).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Read the matching entities in id order through a forward-only cursor, handing them over in chunks of {@code fetchSize}.
+     * The persistence context is cleared after each chunk, so memory stays flat whatever the number of rows: entities of
+     * a chunk are detached once the consumer returns, and this must only be called from a read-only transaction.
+     */
+    @Override
+    public void scrollAll(Specification<Produit> specification, int fetchSize, Consumer<List<Produit>> chunkConsumer) {
+        try (
+            Stream<Produit> stream = entityManager
+                .createQuery(createQuery(specification, Sort.by(Produit_.ID)))
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()
+        ) {
+            List<Produit> chunk = new ArrayList<>(fetchSize);
+            Iterator<Produit> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == fetchSize || !iterator.hasNext()) {
+                    chunkConsumer.accept(chunk);
+                    entityManager.clear();
+                    chunk = new ArrayList<>(fetchSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the faceted attributes of the matching entities in id order through a forward-only cursor, one row per category
+     * of each entity (or a single row with a {@code null} category), so all the rows of an entity are contiguous.
+     */
+    @Override
+    public void scrollFacetRows(Specification<Produit> specification, int fetchSize, Consumer<ProduitFacetRow> rowConsumer) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProduitFacetRow> query = builder.createQuery(ProduitFacetRow.class);
+        Root<Produit> root = query.from(Produit.class);
+        Join<Produit, Category> categories = root.join(Produit_.categories, JoinType.LEFT);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query
+            .select(
+                builder.construct(
+                    ProduitFacetRow.class,
+                    root.get(Produit_.id),
+                    root.get(Produit_.couleur),
+                    root.get(Produit_.taille),
+                    root.get(Produit_.prixUnitaire),
+                    categories.get(Category_.id)
+                )
+            )
+            .orderBy(builder.asc(root.get(Produit_.id)));
+        try (Stream<ProduitFacetRow> stream = entityManager.createQuery(query).setHint(QueryHints.FETCH_SIZE, fetchSize).getResultStream()) {
+            stream.forEach(rowConsumer);
+        }
+    }
+
+    /**
+     * Read the id and the price of the entities which have a price, ordered by price then id, through a forward-only cursor.
+     */
+    @Override
+    public void scrollPrices(int fetchSize, BiConsumer<Long, Float> priceConsumer) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Produit> root = query.from(Produit.class);
+        Path<Long> id = root.get(Produit_.id);
+        Path<Float> prixUnitaire = root.get(Produit_.prixUnitaire);
+        query.multiselect(id, prixUnitaire).where(builder.isNotNull(prixUnitaire)).orderBy(builder.asc(prixUnitaire), builder.asc(id));
+        try (Stream<Tuple> stream = entityManager.createQuery(query).setHint(QueryHints.FETCH_SIZE, fetchSize).getResultStream()) {
+            stream.forEach(tuple -> priceConsumer.accept(tuple.get(id), tuple.get(prixUnitaire)));
+        }
+    }
+
+    /**
+     * Read the id and the libelle of the entities which have a libelle, through a forward-only cursor.
+     */
+    @Override
+    public void scrollLibelles(int fetchSize, BiConsumer<Long, String> libelleConsumer) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Produit> root = query.from(Produit.class);
+        Path<Long> id = root.get(Produit_.id);
+        Path<String> libelle = root.get(Produit_.libelle);
+        query.multiselect(id, libelle).where(builder.isNotNull(libelle));
+        try (Stream<Tuple> stream = entityManager.createQuery(query).setHint(QueryHints.FETCH_SIZE, fetchSize).getResultStream()) {
+            stream.forEach(tuple -> libelleConsumer.accept(tuple.get(id), tuple.get(libelle)));
+        }
+    }
+
+    /**
+     * Persist new entities with JDBC batches of {@code batchSize} statements, bypassing the second-level cache, then flush
+     * and detach them so memory does not grow with the number of calls within a transaction. Their many-to-many
+     * relationships are inserted in batches as well.
+     */
+    @Override
+    public void insertAll(List<Produit> produits, int batchSize) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.flush();
+        session.setJdbcBatchSize(batchSize);
+        session.setCacheMode(CacheMode.IGNORE);
+        try {
+            produits.forEach(entityManager::persist);
+            session.flush();
+            session.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+            session.setCacheMode(previousCacheMode);
+        }
+    }
+
+    /**
+     * Reprice the entities with the given ids which have a price, with a single update statement. Being a bulk update,
+     * it bypasses the persistence context, and Hibernate evicts the whole entity region of the second-level cache.
+     */
+    @Override
+    public int updatePrices(List<Long> ids, ProduitRepricingRule rule) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Produit> update = builder.createCriteriaUpdate(Produit.class);
+        Root<Produit> root = update.from(Produit.class);
+        Path<Float> prixUnitaire = root.get(Produit_.prixUnitaire);
+        update
+            .set(prixUnitaire, rule.toExpression(builder, prixUnitaire))
+            .where(root.get(Produit_.id).in(ids), builder.isNotNull(prixUnitaire));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Load the entities with the given ids and their categories, in the same order, skipping the ids which do not exist
+     * anymore. Entities and categories are looked up in the persistence context and the second-level cache first: the
+     * missing entities are read in batches, and the missing categories with a single query.
+     */
+    @Override
+    public List<Produit> loadAllById(List<Long> ids) {
+        List<Produit> produits = entityManager
+            .unwrap(Session.class)
+            .byMultipleIds(Produit.class)
+            .with(CacheMode.NORMAL)
+            .enableSessionCheck(true)
+            .multiLoad(ids)
+            .stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        List<Produit> uncached = produits
+            .stream()
+            .filter(produit ->
+                !Hibernate.isInitialized(produit.getCategories()) && !cache.containsCollection(CATEGORIES_ROLE, produit.getId())
+            )
+            .collect(Collectors.toList());
+        if (!uncached.isEmpty()) {
+            entityManager
+                .createQuery(
+                    "select distinct produit from Produit produit left join fetch produit.categories where produit in :produits",
+                    Produit.class
+                )
+                .setParameter("produits", uncached)
+                .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+                .getResultList();
+        }
+        return produits;
+    }
+
+    /**
+     * Read only the given fields of the matching entities, as tuples whose aliases are the field properties:
+     * the other columns and the collections are never read.
+     */
+    @Override
+    public List<Tuple> findAll(Specification<Produit> specification, Set<ProduitField> fields, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Produit> root = query.from(Produit.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Selection<?>> selections = fields
+            .stream()
+            .map(field -> selection(field, root, query, builder).alias(field.getProperty()))
+            .collect(Collectors.toList());
+        query.multiselect(selections).orderBy(QueryUtils.toOrders(sort, root, builder));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private Selection<?> selection(ProduitField field, Root<Produit> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+        if (field != ProduitField.IMAGE_URL) {
+            return root.get(field.getProperty());
+        }
+        Subquery<Long> firstImageId = query.subquery(Long.class);
+        Root<Image> image = firstImageId.from(Image.class);
+        firstImageId.select(builder.min(image.get(Image_.id))).where(builder.equal(image.get(Image_.produit), root));
+        Subquery<String> url = query.subquery(String.class);
+        Root<Image> firstImage = url.from(Image.class);
+        return url.select(firstImage.get(Image_.url)).where(builder.equal(firstImage.get(Image_.id), firstImageId));
+    }
+
+    private CriteriaQuery<Produit> createQuery(Specification<Produit> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Produit> query = builder.createQuery(Produit.class);
+        Root<Produit> root = query.from(Produit.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return query.select(root).orderBy(QueryUtils.toOrders(sort, root, builder));
+    }
+}
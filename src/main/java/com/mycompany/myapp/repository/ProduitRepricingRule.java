@@ -0,0 +1,82 @@
+package com.mycompany.myapp.repository;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+
+/**
+ * A change of the {@link com.mycompany.myapp.domain.Produit} prices, computed by the database so that it can be applied to
+ * many produits with a single update statement.
+ */
+public final class ProduitRepricingRule {
+
+    public enum Type {
+        /**
+         * Add a percentage of the price, negative for a discount, of at least {@code -100}.
+         */
+        PERCENTAGE,
+        /**
+         * Add an amount to the price, negative for a discount; the price does not go below {@code 0}.
+         */
+        FIXED,
+        /**
+         * Round the price to the nearest multiple of a positive step, such as {@code 0.5}.
+         */
+        ROUNDING,
+    }
+
+    private final Type type;
+
+    private final float value;
+
+    private ProduitRepricingRule(Type type, float value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not valid for the type.
+     */
+    public static ProduitRepricingRule of(Type type, float value) {
+        if (!Float.isFinite(value)) {
+            throw new IllegalArgumentException("The value of a repricing rule must be finite");
+        }
+        if (type == Type.PERCENTAGE && value < -100) {
+            throw new IllegalArgumentException("A percentage cannot be lower than -100");
+        }
+        if (type == Type.ROUNDING && value <= 0) {
+            throw new IllegalArgumentException("A rounding step must be positive");
+        }
+        return new ProduitRepricingRule(type, value);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public float getValue() {
+        return value;
+    }
+
+    /**
+     * @return the new price, as an expression of the current one.
+     */
+    Expression<Float> toExpression(CriteriaBuilder builder, Expression<Float> prixUnitaire) {
+        switch (type) {
+            case PERCENTAGE:
+                return builder.prod(prixUnitaire, 1 + value / 100);
+            case FIXED:
+                Expression<Float> sum = builder.sum(prixUnitaire, value);
+                return builder.<Float>selectCase().when(builder.lessThan(sum, 0f), 0f).otherwise(sum);
+            case ROUNDING:
+                Expression<Double> steps = builder.function("round", Double.class, builder.quot(prixUnitaire, value));
+                return builder.prod(steps, (double) value).as(Float.class);
+            default:
+                throw new IllegalStateException("Unexpected repricing rule: " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ProduitRepricingRule{type=" + type + ", value=" + value + "}";
+    }
+}
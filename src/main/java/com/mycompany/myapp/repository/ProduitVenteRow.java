@@ -0,0 +1,44 @@
+package com.mycompany.myapp.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of the quantity of a {@link com.mycompany.myapp.domain.Produit} sold, by a single
+ * {@link com.mycompany.myapp.domain.LigneCommande} at the date of its commande, or by many at once.
+ */
+public class ProduitVenteRow {
+
+    private final Long produitId;
+
+    private final Instant date;
+
+    private final long quantite;
+
+    public ProduitVenteRow(Long produitId, Long quantite) {
+        this.produitId = produitId;
+        this.date = null;
+        this.quantite = quantite;
+    }
+
+    public ProduitVenteRow(Long produitId, Instant date, Integer quantite) {
+        this.produitId = produitId;
+        this.date = date;
+        // A ligne without a quantity sold at least one
+        this.quantite = quantite == null ? 1 : quantite;
+    }
+
+    public Long getProduitId() {
+        return produitId;
+    }
+
+    /**
+     * @return the date of the commande, or {@code null} for a sum of many lignes or a commande without a date.
+     */
+    public Instant getDate() {
+        return date;
+    }
+
+    public long getQuantite() {
+        return quantite;
+    }
+}
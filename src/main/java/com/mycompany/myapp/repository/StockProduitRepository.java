@@ -0,0 +1,21 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.StockProduit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the StockProduit entity.
+ */
+@Repository
+public interface StockProduitRepository extends JpaRepository<StockProduit, Long> {
+    /**
+     * Add the given delta to the stock of a produit, in a single statement.
+     *
+     * @return the number of updated rows, {@code 0} if the produit has no stock yet.
+     */
+    @Modifying
+    @Query("update StockProduit stock set stock.quantite = stock.quantite + :delta where stock.produitId = :produitId")
+    int increment(@Param("produitId") Long produitId, @Param("delta") int delta);
+}
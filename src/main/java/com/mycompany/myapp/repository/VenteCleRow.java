@@ -0,0 +1,39 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * Projection of the {@link com.mycompany.myapp.domain.VenteRollup}s of a produit or category over a range of days: their
+ * sums.
+ */
+public class VenteCleRow {
+
+    private final Long cleId;
+
+    private final Long nombreCommandes;
+
+    private final Long nombreArticles;
+
+    private final Long totalCentimes;
+
+    public VenteCleRow(Long cleId, Long nombreCommandes, Long nombreArticles, Long totalCentimes) {
+        this.cleId = cleId;
+        this.nombreCommandes = nombreCommandes;
+        this.nombreArticles = nombreArticles;
+        this.totalCentimes = totalCentimes;
+    }
+
+    public Long getCleId() {
+        return cleId;
+    }
+
+    public Long getNombreCommandes() {
+        return nombreCommandes;
+    }
+
+    public Long getNombreArticles() {
+        return nombreArticles;
+    }
+
+    public Long getTotalCentimes() {
+        return totalCentimes;
+    }
+}
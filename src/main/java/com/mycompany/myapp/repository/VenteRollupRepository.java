@@ -0,0 +1,74 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.VenteRollup;
+import com.mycompany.myapp.domain.VenteRollupId;
+import com.mycompany.myapp.domain.enumeration.DimensionVente;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the VenteRollup entity.
+ */
+@Repository
+public interface VenteRollupRepository extends JpaRepository<VenteRollup, VenteRollupId> {
+    /**
+     * Add the given deltas to a rollup, in a single statement.
+     *
+     * @return the number of updated rows, {@code 0} if the rollup does not exist yet.
+     */
+    @Modifying
+    @Query(
+        "update VenteRollup rollup set rollup.nombreCommandes = rollup.nombreCommandes + :commandes, " +
+        "rollup.nombreArticles = rollup.nombreArticles + :articles, rollup.totalCentimes = rollup.totalCentimes + :centimes " +
+        "where rollup.dimension = :dimension and rollup.jour = :jour and rollup.cleId = :cleId"
+    )
+    int increment(
+        @Param("dimension") DimensionVente dimension,
+        @Param("jour") LocalDate jour,
+        @Param("cleId") Long cleId,
+        @Param("commandes") long commandes,
+        @Param("articles") long articles,
+        @Param("centimes") long centimes
+    );
+
+    /**
+     * Delete the rollups of every dimension from the first day to the last one, excluded, in a single statement.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from VenteRollup rollup where rollup.jour >= :from and rollup.jour < :to")
+    int deleteByJourRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Read the rollups of a produit, a category or the total from the first day to the last one, excluded, in day order.
+     */
+    @Query(
+        "select rollup from VenteRollup rollup where rollup.dimension = :dimension and rollup.cleId = :cleId " +
+        "and rollup.jour >= :from and rollup.jour < :to order by rollup.jour"
+    )
+    List<VenteRollup> findSerie(
+        @Param("dimension") DimensionVente dimension,
+        @Param("cleId") Long cleId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to
+    );
+
+    /**
+     * Sum the rollups of each produit or category from the first day to the last one, excluded, by total descending.
+     */
+    @Query(
+        "select new com.mycompany.myapp.repository.VenteCleRow(rollup.cleId, sum(rollup.nombreCommandes), " +
+        "sum(rollup.nombreArticles), sum(rollup.totalCentimes)) from VenteRollup rollup " +
+        "where rollup.dimension = :dimension and rollup.jour >= :from and rollup.jour < :to " +
+        "group by rollup.cleId order by sum(rollup.totalCentimes) desc, rollup.cleId"
+    )
+    List<VenteCleRow> sumByCle(
+        @Param("dimension") DimensionVente dimension,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        Pageable pageable
+    );
+}
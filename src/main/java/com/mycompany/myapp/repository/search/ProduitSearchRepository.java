@@ -0,0 +1,268 @@
+package com.mycompany.myapp.repository.search;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Produit;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Full-text search repository for the {@link Produit} entity, backed by an embedded Lucene index.
+ * <p>
+ * Only the {@code libelle} and the {@code description} are indexed, and only the id is stored: matching entities are
+ * loaded from the database. The index lives in {@code application.search.index-directory}, or in memory when it is not set.
+ * <p>
+ * Writes are visible to searches right away, but only committed to the directory every
+ * {@value #COMMIT_DELAY_MS} milliseconds and when the application stops, rather than synced once per write.
+ */
+@Repository
+public class ProduitSearchRepository {
+
+    private static final String FIELD_ID = "id";
+
+    private static final String FIELD_LIBELLE = "libelle";
+
+    private static final String FIELD_DESCRIPTION = "description";
+
+    private static final float LIBELLE_BOOST = 2f;
+
+    private static final float EXACT_TERM_BOOST = 2f;
+
+    static final long COMMIT_DELAY_MS = 5_000;
+
+    private final Logger log = LoggerFactory.getLogger(ProduitSearchRepository.class);
+
+    private final Analyzer analyzer = new FrenchSearchAnalyzer();
+
+    private final Directory directory;
+
+    private final IndexWriter indexWriter;
+
+    private final SearcherManager searcherManager;
+
+    public ProduitSearchRepository(ApplicationProperties applicationProperties) throws IOException {
+        String indexDirectory = applicationProperties.getSearch().getIndexDirectory();
+        if (indexDirectory == null || indexDirectory.isBlank()) {
+            log.debug("Using an in-memory Produit search index");
+            this.directory = new ByteBuffersDirectory();
+        } else {
+            Path path = Path.of(indexDirectory, "produit");
+            log.debug("Using the Produit search index in {}", path.toAbsolutePath());
+            this.directory = FSDirectory.open(path);
+        }
+        this.indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    /**
+     * Add the produit to the index, or replace it, and make the change visible to searches.
+     *
+     * @param produit the produit to index.
+     */
+    public void index(Produit produit) {
+        indexAll(List.of(produit));
+    }
+
+    /**
+     * Add the produits to the index, or replace them, and make the changes visible to searches.
+     *
+     * @param produits the produits to index.
+     */
+    public void indexAll(Collection<Produit> produits) {
+        try {
+            for (Produit produit : produits) {
+                indexWriter.updateDocument(idTerm(produit.getId()), toDocument(produit));
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remove the produit from the index, and make the change visible to searches.
+     *
+     * @param id the id of the produit.
+     */
+    public void deleteFromIndexById(Long id) {
+        try {
+            indexWriter.deleteDocuments(idTerm(id));
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remove every produit from the index.
+     */
+    public void deleteAll() {
+        try {
+            indexWriter.deleteAll();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the number of indexed produits.
+     */
+    public long count() {
+        return indexWriter.getDocStats().numDocs;
+    }
+
+    /**
+     * Search the produits whose libelle or description match the query, best matches first.
+     * <p>
+     * Every word of the query must match, either exactly once stemmed, or within an edit distance growing with its length.
+     * Matches on the libelle rank higher than matches on the description.
+     *
+     * @param query the text to search.
+     * @param pageable the pagination information; its sort is ignored, results being ranked by relevance.
+     * @return the page of the ids of the matching produits.
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        Query luceneQuery = buildQuery(query);
+        if (luceneQuery == null || pageable.isUnpaged()) {
+            return Page.empty(pageable);
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int numHits = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+                TopScoreDocCollector collector = TopScoreDocCollector.create(numHits, Integer.MAX_VALUE);
+                searcher.search(luceneQuery, collector);
+                List<Long> ids = new ArrayList<>();
+                for (ScoreDoc scoreDoc : collector.topDocs((int) pageable.getOffset(), pageable.getPageSize()).scoreDocs) {
+                    ids.add(Long.valueOf(searcher.doc(scoreDoc.doc).get(FIELD_ID)));
+                }
+                return new PageImpl<>(ids, pageable, collector.getTotalHits());
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Commit the writes since the last commit to the directory, if any.
+     * <p>
+     * This is scheduled to run every {@value #COMMIT_DELAY_MS} milliseconds.
+     */
+    @Scheduled(fixedDelay = COMMIT_DELAY_MS)
+    public void commit() {
+        if (!indexWriter.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            indexWriter.commit();
+        } catch (IOException e) {
+            log.warn("Could not commit the Produit search index, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Commit the pending writes, then close the index.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    private Query buildQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        boolean empty = true;
+        try (TokenStream tokens = analyzer.tokenStream(FIELD_LIBELLE, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                query.add(tokenQuery(term.toString()), BooleanClause.Occur.MUST);
+                empty = false;
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return empty ? null : query.build();
+    }
+
+    private Query tokenQuery(String token) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        addFieldQueries(query, FIELD_LIBELLE, token, LIBELLE_BOOST);
+        addFieldQueries(query, FIELD_DESCRIPTION, token, 1f);
+        return query.build();
+    }
+
+    private void addFieldQueries(BooleanQuery.Builder query, String field, String token, float boost) {
+        Term term = new Term(field, token);
+        query.add(new BoostQuery(new TermQuery(term), boost * EXACT_TERM_BOOST), BooleanClause.Occur.SHOULD);
+        int maxEdits = maxEdits(token);
+        if (maxEdits > 0) {
+            query.add(new BoostQuery(new FuzzyQuery(term, maxEdits, 1), boost), BooleanClause.Occur.SHOULD);
+        }
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() < 4) {
+            return 0;
+        }
+        return token.length() < 8 ? 1 : 2;
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(FIELD_ID, id.toString());
+    }
+
+    private static Document toDocument(Produit produit) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, produit.getId().toString(), Field.Store.YES));
+        if (produit.getLibelle() != null) {
+            document.add(new TextField(FIELD_LIBELLE, produit.getLibelle(), Field.Store.NO));
+        }
+        if (produit.getDescription() != null) {
+            document.add(new TextField(FIELD_DESCRIPTION, produit.getDescription(), Field.Store.NO));
+        }
+        return document;
+    }
+}
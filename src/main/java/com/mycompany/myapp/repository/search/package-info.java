@@ -0,0 +1,4 @@
+/**
+ * Full-text search repositories, backed by embedded Lucene indexes.
+ */
+package com.mycompany.myapp.repository.search;
@@ -26,9 +26,12 @@ public class AvisService {
 
     private final AvisMapper avisMapper;
 
-    public AvisService(AvisRepository avisRepository, AvisMapper avisMapper) {
+    private final NoteProduitService noteProduitService;
+
+    public AvisService(AvisRepository avisRepository, AvisMapper avisMapper, NoteProduitService noteProduitService) {
         this.avisRepository = avisRepository;
         this.avisMapper = avisMapper;
+        this.noteProduitService = noteProduitService;
     }
 
     /**
@@ -41,6 +44,7 @@ public class AvisService {
         log.debug("Request to save Avis : {}", avisDTO);
         Avis avis = avisMapper.toEntity(avisDTO);
         avis = avisRepository.save(avis);
+        noteProduitService.addAvis(produitIdOf(avis), avis.getNote());
         return avisMapper.toDto(avis);
     }
 
@@ -52,8 +56,10 @@ public class AvisService {
      */
     public AvisDTO update(AvisDTO avisDTO) {
         log.debug("Request to update Avis : {}", avisDTO);
+        avisRepository.findById(avisDTO.getId()).ifPresent(this::removeFromNotes);
         Avis avis = avisMapper.toEntity(avisDTO);
         avis = avisRepository.save(avis);
+        noteProduitService.addAvis(produitIdOf(avis), avis.getNote());
         return avisMapper.toDto(avis);
     }
 
@@ -69,11 +75,17 @@ public class AvisService {
         return avisRepository
             .findById(avisDTO.getId())
             .map(existingAvis -> {
+                removeFromNotes(existingAvis);
                 avisMapper.partialUpdate(existingAvis, avisDTO);
 
                 return existingAvis;
             })
             .map(avisRepository::save)
+            .map(savedAvis -> {
+                noteProduitService.addAvis(produitIdOf(savedAvis), savedAvis.getNote());
+
+                return savedAvis;
+            })
             .map(avisMapper::toDto);
     }
 
@@ -107,6 +119,15 @@ public class AvisService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Avis : {}", id);
+        avisRepository.findById(id).ifPresent(this::removeFromNotes);
         avisRepository.deleteById(id);
     }
+
+    private void removeFromNotes(Avis avis) {
+        noteProduitService.removeAvis(produitIdOf(avis), avis.getNote());
+    }
+
+    private static Long produitIdOf(Avis avis) {
+        return avis.getProduit() == null ? null : avis.getProduit().getId();
+    }
 }
@@ -0,0 +1,382 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.ImageRepository;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.service.dto.CategoryDTO;
+import com.mycompany.myapp.service.dto.ImageDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import com.mycompany.myapp.service.dto.ProduitMultiGetDTO;
+import com.mycompany.myapp.service.mapper.CategoryMapper;
+import com.mycompany.myapp.service.mapper.ImageMapper;
+import com.mycompany.myapp.service.mapper.ProduitMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Immutable in-memory copy of the storefront catalog: the produits, the categories and the images, as the DTOs the REST
+ * API serves, along with the ids of the produits of each category.
+ * <p>
+ * The current {@link Catalog} is published through a single volatile reference, so readers need neither a transaction
+ * nor a lock. Once a write commits, the rows it changed are read again, and the maps they change are copied into a new
+ * catalog which replaces the current one. The catalog is built from the database once the application is ready, and
+ * rebuilt every night; until it is first built, {@link #current()} is empty and reads go to the database.
+ */
+@Service
+public class CatalogSnapshot {
+
+    private static final int BUILD_FETCH_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private final ProduitRepository produitRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final ImageRepository imageRepository;
+
+    private final ProduitMapper produitMapper;
+
+    private final CategoryMapper categoryMapper;
+
+    private final ImageMapper imageMapper;
+
+    /**
+     * Reads the rows changed by a write in their own transaction, as the one of the write is over once it commits.
+     */
+    private final TransactionTemplate refreshTransactionTemplate;
+
+    private volatile Catalog catalog;
+
+    public CatalogSnapshot(
+        ProduitRepository produitRepository,
+        CategoryRepository categoryRepository,
+        ImageRepository imageRepository,
+        ProduitMapper produitMapper,
+        CategoryMapper categoryMapper,
+        ImageMapper imageMapper,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.produitRepository = produitRepository;
+        this.categoryRepository = categoryRepository;
+        this.imageRepository = imageRepository;
+        this.produitMapper = produitMapper;
+        this.categoryMapper = categoryMapper;
+        this.imageMapper = imageMapper;
+        this.refreshTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.refreshTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Build the catalog from the database. Writes committing meanwhile are read again once it is built, so the catalog
+     * ends up consistent whether the build read them or not.
+     * <p>
+     * This is also scheduled to run every day, at 04:00 (am), to repair a refresh which failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 4 * * ?")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Map<Long, ProduitDTO> produits = new TreeMap<>();
+        produitRepository.scrollAll(
+            Specification.where(null),
+            BUILD_FETCH_SIZE,
+            chunk ->
+                produitRepository
+                    .fetchBagRelationships(chunk)
+                    .forEach(produit -> produits.put(produit.getId(), produitMapper.toDto(produit)))
+        );
+        Map<Long, CategoryDTO> categories = new TreeMap<>();
+        categoryRepository.findAll().forEach(category -> categories.put(category.getId(), categoryMapper.toDto(category)));
+        Map<Long, ImageDTO> images = new TreeMap<>();
+        imageRepository.findAll().forEach(image -> images.put(image.getId(), imageMapper.toDto(image)));
+        Map<Long, Set<Long>> produitIdsByCategory = new TreeMap<>();
+        for (ProduitDTO produit : produits.values()) {
+            for (Long categoryId : Catalog.categoryIdsOf(produit)) {
+                produitIdsByCategory.computeIfAbsent(categoryId, id -> new TreeSet<>()).add(produit.getId());
+            }
+        }
+        produitIdsByCategory.replaceAll((categoryId, produitIds) -> Collections.unmodifiableSet(produitIds));
+        catalog = new Catalog(produits, categories, images, produitIdsByCategory);
+        log.info(
+            "Built the catalog snapshot of {} produits, {} categories and {} images",
+            produits.size(),
+            categories.size(),
+            images.size()
+        );
+    }
+
+    /**
+     * @return the current catalog, or empty if it is not built yet or if a transaction is active: the transaction may
+     * see its own uncommitted writes, which the catalog does not hold.
+     */
+    public Optional<Catalog> current() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(catalog);
+    }
+
+    /**
+     * Read a produit again once the current transaction, if any, is committed, and add, replace or remove it.
+     *
+     * @param id the id of the produit.
+     */
+    public void refreshProduit(Long id) {
+        refreshProduits(List.of(id));
+    }
+
+    /**
+     * Read produits again once the current transaction, if any, is committed, and add, replace or remove them. This
+     * copies the catalog once, however many produits are written.
+     *
+     * @param ids the ids of the produits.
+     */
+    public void refreshProduits(Collection<Long> ids) {
+        List<Long> changedIds = List.copyOf(ids);
+        TransactionCallbacks.afterCommit(() ->
+            refresh(() -> {
+                Map<Long, ProduitDTO> changes = new HashMap<>();
+                changedIds.forEach(id -> changes.put(id, null));
+                produitRepository
+                    .fetchBagRelationships(produitRepository.findAllById(changedIds))
+                    .forEach(produit -> changes.put(produit.getId(), produitMapper.toDto(produit)));
+                return current -> current.withProduits(changes);
+            })
+        );
+    }
+
+    /**
+     * Read a category again once the current transaction, if any, is committed, and add, replace or remove it.
+     *
+     * @param id the id of the category.
+     */
+    public void refreshCategory(Long id) {
+        TransactionCallbacks.afterCommit(() ->
+            refresh(() -> {
+                CategoryDTO category = categoryRepository.findById(id).map(categoryMapper::toDto).orElse(null);
+                return current -> current.withCategory(id, category);
+            })
+        );
+    }
+
+    /**
+     * Read an image again once the current transaction, if any, is committed, and add, replace or remove it.
+     *
+     * @param id the id of the image.
+     */
+    public void refreshImage(Long id) {
+        TransactionCallbacks.afterCommit(() ->
+            refresh(() -> {
+                ImageDTO image = imageRepository.findById(id).map(imageMapper::toDto).orElse(null);
+                return current -> current.withImage(id, image);
+            })
+        );
+    }
+
+    /**
+     * Read committed rows and apply them to the catalog. Reads are serialized along with the changes, so whatever the
+     * order in which concurrent writes run their callbacks, the last change applied was read after they all committed.
+     * A refresh which fails is logged, and repaired by the next rebuild.
+     */
+    private synchronized void refresh(Supplier<UnaryOperator<Catalog>> read) {
+        if (catalog == null) {
+            return;
+        }
+        try {
+            catalog = refreshTransactionTemplate.execute(status -> read.get()).apply(catalog);
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the catalog snapshot, until its next rebuild: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A consistent, never modified, state of the catalog. The DTOs it returns are shared by all the readers and must
+     * not be modified.
+     */
+    public static final class Catalog {
+
+        private final Map<Long, ProduitDTO> produits;
+
+        private final Map<Long, CategoryDTO> categories;
+
+        private final Map<Long, ImageDTO> images;
+
+        private final Map<Long, Set<Long>> produitIdsByCategory;
+
+        private Catalog(
+            Map<Long, ProduitDTO> produits,
+            Map<Long, CategoryDTO> categories,
+            Map<Long, ImageDTO> images,
+            Map<Long, Set<Long>> produitIdsByCategory
+        ) {
+            this.produits = Collections.unmodifiableMap(produits);
+            this.categories = Collections.unmodifiableMap(categories);
+            this.images = Collections.unmodifiableMap(images);
+            this.produitIdsByCategory = Collections.unmodifiableMap(produitIdsByCategory);
+        }
+
+        public Optional<ProduitDTO> findProduit(Long id) {
+            return Optional.ofNullable(produits.get(id));
+        }
+
+        /**
+         * @return all the produits, in id order.
+         */
+        public List<ProduitDTO> findAllProduits() {
+            return new ArrayList<>(produits.values());
+        }
+
+        /**
+         * @param ids the ids of the produits; duplicates are ignored.
+         * @return the produits, in the order of the ids, and the ids which do not match any produit.
+         */
+        public ProduitMultiGetDTO findAllProduitsById(List<Long> ids) {
+            List<ProduitDTO> found = new ArrayList<>();
+            List<Long> missingIds = new ArrayList<>();
+            ids
+                .stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(id -> {
+                    ProduitDTO produit = produits.get(id);
+                    if (produit != null) {
+                        found.add(produit);
+                    } else {
+                        missingIds.add(id);
+                    }
+                });
+            return new ProduitMultiGetDTO(found, missingIds);
+        }
+
+        /**
+         * @return the produits of the category, in id order.
+         */
+        public List<ProduitDTO> findAllProduitsByCategory(Long categoryId) {
+            return produitIdsByCategory.getOrDefault(categoryId, Set.of()).stream().map(produits::get).collect(Collectors.toList());
+        }
+
+        public Optional<CategoryDTO> findCategory(Long id) {
+            return Optional.ofNullable(categories.get(id));
+        }
+
+        /**
+         * @return all the categories, in id order.
+         */
+        public List<CategoryDTO> findAllCategories() {
+            return new ArrayList<>(categories.values());
+        }
+
+        public Optional<ImageDTO> findImage(Long id) {
+            return Optional.ofNullable(images.get(id));
+        }
+
+        /**
+         * @return all the images, in id order.
+         */
+        public List<ImageDTO> findAllImages() {
+            return new ArrayList<>(images.values());
+        }
+
+        /**
+         * @param changes the new state of each changed produit, or {@code null} for the produits to remove.
+         * @return a copy of this catalog where the changed produits are replaced or removed.
+         */
+        Catalog withProduits(Map<Long, ProduitDTO> changes) {
+            Map<Long, ProduitDTO> newProduits = new TreeMap<>(produits);
+            Map<Long, Set<Long>> newProduitIdsByCategory = new TreeMap<>(produitIdsByCategory);
+            Map<Long, Set<Long>> changedProduitIds = new HashMap<>();
+            changes.forEach((id, produit) -> {
+                ProduitDTO previous = produit == null ? newProduits.remove(id) : newProduits.put(id, produit);
+                Set<Long> previousCategoryIds = previous == null ? Set.of() : categoryIdsOf(previous);
+                Set<Long> categoryIds = produit == null ? Set.of() : categoryIdsOf(produit);
+                for (Long categoryId : previousCategoryIds) {
+                    if (!categoryIds.contains(categoryId)) {
+                        produitIdsOf(categoryId, newProduitIdsByCategory, changedProduitIds).remove(id);
+                    }
+                }
+                for (Long categoryId : categoryIds) {
+                    if (!previousCategoryIds.contains(categoryId)) {
+                        produitIdsOf(categoryId, newProduitIdsByCategory, changedProduitIds).add(id);
+                    }
+                }
+            });
+            changedProduitIds.forEach((categoryId, produitIds) -> {
+                if (produitIds.isEmpty()) {
+                    newProduitIdsByCategory.remove(categoryId);
+                } else {
+                    newProduitIdsByCategory.put(categoryId, Collections.unmodifiableSet(produitIds));
+                }
+            });
+            return new Catalog(newProduits, categories, images, newProduitIdsByCategory);
+        }
+
+        /**
+         * @return a modifiable copy of the produit ids of the category, made once per category whatever the number of changes.
+         */
+        private static Set<Long> produitIdsOf(
+            Long categoryId,
+            Map<Long, Set<Long>> produitIdsByCategory,
+            Map<Long, Set<Long>> changedProduitIds
+        ) {
+            return changedProduitIds.computeIfAbsent(categoryId, id -> new TreeSet<>(produitIdsByCategory.getOrDefault(id, Set.of())));
+        }
+
+        /**
+         * @return a copy of this catalog where the category is replaced, or removed if it is {@code null}. The produits
+         * are left untouched: they only hold the id of their categories, and a category still holding produits cannot
+         * be deleted.
+         */
+        Catalog withCategory(Long id, CategoryDTO category) {
+            Map<Long, CategoryDTO> newCategories = new TreeMap<>(categories);
+            if (category == null) {
+                newCategories.remove(id);
+            } else {
+                newCategories.put(id, category);
+            }
+            return new Catalog(produits, newCategories, images, produitIdsByCategory);
+        }
+
+        /**
+         * @return a copy of this catalog where the image is replaced, or removed if it is {@code null}.
+         */
+        Catalog withImage(Long id, ImageDTO image) {
+            Map<Long, ImageDTO> newImages = new TreeMap<>(images);
+            if (image == null) {
+                newImages.remove(id);
+            } else {
+                newImages.put(id, image);
+            }
+            return new Catalog(produits, categories, newImages, produitIdsByCategory);
+        }
+
+        private static Set<Long> categoryIdsOf(ProduitDTO produit) {
+            return produit.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.Category;
 import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.ProduitRepository;
 import com.mycompany.myapp.service.dto.CategoryDTO;
 import com.mycompany.myapp.service.mapper.CategoryMapper;
 import java.util.LinkedList;
@@ -26,9 +27,24 @@ public class CategoryService {
 
     private final CategoryMapper categoryMapper;
 
-    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    private final CatalogSnapshot catalogSnapshot;
+
+    private final ProduitRepository produitRepository;
+
+    private final ProduitJsonCache produitJsonCache;
+
+    public CategoryService(
+        CategoryRepository categoryRepository,
+        CategoryMapper categoryMapper,
+        CatalogSnapshot catalogSnapshot,
+        ProduitRepository produitRepository,
+        ProduitJsonCache produitJsonCache
+    ) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
+        this.catalogSnapshot = catalogSnapshot;
+        this.produitRepository = produitRepository;
+        this.produitJsonCache = produitJsonCache;
     }
 
     /**
@@ -41,7 +57,9 @@ public class CategoryService {
         log.debug("Request to save Category : {}", categoryDTO);
         Category category = categoryMapper.toEntity(categoryDTO);
         category = categoryRepository.save(category);
-        return categoryMapper.toDto(category);
+        CategoryDTO result = categoryMapper.toDto(category);
+        catalogSnapshot.refreshCategory(result.getId());
+        return result;
     }
 
     /**
@@ -54,7 +72,10 @@ public class CategoryService {
         log.debug("Request to update Category : {}", categoryDTO);
         Category category = categoryMapper.toEntity(categoryDTO);
         category = categoryRepository.save(category);
-        return categoryMapper.toDto(category);
+        CategoryDTO result = categoryMapper.toDto(category);
+        catalogSnapshot.refreshCategory(result.getId());
+        evictProduits(result.getId());
+        return result;
     }
 
     /**
@@ -74,7 +95,13 @@ public class CategoryService {
                 return existingCategory;
             })
             .map(categoryRepository::save)
-            .map(categoryMapper::toDto);
+            .map(categoryMapper::toDto)
+            .map(result -> {
+                catalogSnapshot.refreshCategory(result.getId());
+                evictProduits(result.getId());
+
+                return result;
+            });
     }
 
     /**
@@ -107,6 +134,15 @@ public class CategoryService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Category : {}", id);
+        evictProduits(id);
         categoryRepository.deleteById(id);
+        catalogSnapshot.refreshCategory(id);
+    }
+
+    /**
+     * The cached representations of the produits embed their categories, so they are evicted along with the category.
+     */
+    private void evictProduits(Long id) {
+        produitJsonCache.evictAll(produitRepository.findIdsByCategoryId(id));
     }
 }
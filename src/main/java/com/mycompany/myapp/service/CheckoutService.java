@@ -0,0 +1,171 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.Produit;
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import com.mycompany.myapp.repository.CommandeRepository;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
+import com.mycompany.myapp.repository.ProduitPrixRow;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.service.dto.CheckoutDTO;
+import com.mycompany.myapp.service.dto.CheckoutLigneDTO;
+import com.mycompany.myapp.service.dto.CheckoutResultDTO;
+import com.mycompany.myapp.service.dto.CommandeDTO;
+import com.mycompany.myapp.service.dto.StockReservationDTO;
+import com.mycompany.myapp.service.mapper.CommandeMapper;
+import com.mycompany.myapp.service.mapper.LigneCommandeMapper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service turning a cart into a {@link Commande} and its {@link LigneCommande}s in a single transaction, so that a
+ * checkout is never left half-written.
+ * <p>
+ * The prices of all the produits of the cart are read with one query, and the lignes are inserted with JDBC batches
+ * ({@code hibernate.jdbc.batch_size}) when the transaction is flushed; their ids come from the pooled sequence, which
+ * hands out 50 ids per round-trip.
+ * <p>
+ * The stock of the cart is reserved in the {@link StockLedger} beforehand, possibly for a while, then committed along with
+ * the transaction, or released if it rolls back.
+ */
+@Service
+@Transactional
+public class CheckoutService {
+
+    private final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+    private final CommandeRepository commandeRepository;
+
+    private final LigneCommandeRepository ligneCommandeRepository;
+
+    private final ProduitRepository produitRepository;
+
+    private final CommandeMapper commandeMapper;
+
+    private final LigneCommandeMapper ligneCommandeMapper;
+
+    private final StockLedger stockLedger;
+
+    public CheckoutService(
+        CommandeRepository commandeRepository,
+        LigneCommandeRepository ligneCommandeRepository,
+        ProduitRepository produitRepository,
+        CommandeMapper commandeMapper,
+        LigneCommandeMapper ligneCommandeMapper,
+        StockLedger stockLedger
+    ) {
+        this.commandeRepository = commandeRepository;
+        this.ligneCommandeRepository = ligneCommandeRepository;
+        this.produitRepository = produitRepository;
+        this.commandeMapper = commandeMapper;
+        this.ligneCommandeMapper = ligneCommandeMapper;
+        this.stockLedger = stockLedger;
+    }
+
+    /**
+     * Reserve the stock of a cart until it is checked out, or the reservation expires.
+     *
+     * @param lignes the lignes of the cart; those of the same produit are merged.
+     * @return the reservation.
+     * @throws IllegalArgumentException if a produit does not exist or has no price.
+     * @throws InsufficientStockException if a produit has not enough stock.
+     */
+    @Transactional(readOnly = true)
+    public StockReservationDTO hold(List<CheckoutLigneDTO> lignes) {
+        log.debug("Request to reserve the stock of : {}", lignes);
+        Map<Long, Integer> quantites = quantitesOf(lignes);
+        findPrix(quantites);
+        StockLedger.Reservation reservation = stockLedger.hold(quantites);
+        StockReservationDTO result = new StockReservationDTO();
+        result.setId(reservation.getId());
+        result.setExpiresAt(reservation.getExpiresAt());
+        result.setLignes(lignes);
+        return result;
+    }
+
+    /**
+     * Create a commande {@link EtatCommande#EN_COURS} dated now, with a ligne per produit of the cart at its current unit
+     * price, and its totals.
+     *
+     * @param checkoutDTO the cart; the lignes of the same produit are merged.
+     * @return the commande and its lignes, in the order of the cart.
+     * @throws IllegalArgumentException if a produit does not exist or has no price.
+     * @throws InsufficientStockException if the cart has no reservation matching it, and a produit has not enough stock.
+     */
+    public CheckoutResultDTO checkout(CheckoutDTO checkoutDTO) {
+        log.debug("Request to checkout : {}", checkoutDTO);
+        Map<Long, Integer> quantites = quantitesOf(checkoutDTO.getLignes());
+        Map<Long, Float> prix = findPrix(quantites);
+        StockLedger.Reservation reservation = reserve(checkoutDTO.getReservationId(), quantites);
+        TransactionCallbacks.afterCompletion(() -> stockLedger.commit(reservation), () -> stockLedger.release(reservation));
+
+        CommandeDTO commandeDTO = new CommandeDTO();
+        commandeDTO.setDate(Instant.now());
+        commandeDTO.setEtat(EtatCommande.EN_COURS);
+        commandeDTO.setTypePayement(checkoutDTO.getTypePayement());
+        commandeDTO.setCarteBancaire(checkoutDTO.getCarteBancaire());
+        commandeDTO.setClient(checkoutDTO.getClient());
+        Commande commande = commandeRepository.save(commandeMapper.toEntity(commandeDTO));
+
+        List<LigneCommande> lignes = new ArrayList<>(quantites.size());
+        quantites.forEach((produitId, quantite) ->
+            lignes.add(
+                new LigneCommande().quantite(quantite).prix(prix.get(produitId)).commande(commande).produit(new Produit().id(produitId))
+            )
+        );
+        CommandeTotals.of(lignes).storeOn(commande);
+        ligneCommandeRepository.saveAll(lignes);
+        return new CheckoutResultDTO(commandeMapper.toDto(commande), ligneCommandeMapper.toDto(lignes));
+    }
+
+    /**
+     * @return the reservation held for the cart if it matches it, or a new one.
+     */
+    private StockLedger.Reservation reserve(UUID reservationId, Map<Long, Integer> quantites) {
+        if (reservationId != null) {
+            Optional<StockLedger.Reservation> claimed = stockLedger.claim(reservationId);
+            if (claimed.isPresent() && claimed.get().getQuantites().equals(quantites)) {
+                return claimed.get();
+            }
+            // The cart changed since: its stock is reserved anew
+            claimed.ifPresent(stockLedger::release);
+        }
+        return stockLedger.reserve(quantites);
+    }
+
+    private static Map<Long, Integer> quantitesOf(List<CheckoutLigneDTO> lignes) {
+        Map<Long, Integer> quantites = new LinkedHashMap<>();
+        for (CheckoutLigneDTO ligne : lignes) {
+            quantites.merge(ligne.getProduitId(), ligne.getQuantite(), Math::addExact);
+        }
+        return quantites;
+    }
+
+    /**
+     * @return the unit price of each produit.
+     * @throws IllegalArgumentException if a produit does not exist or has no price.
+     */
+    private Map<Long, Float> findPrix(Map<Long, Integer> quantites) {
+        Map<Long, Float> prix = new HashMap<>();
+        for (ProduitPrixRow row : produitRepository.findPrixByIdIn(quantites.keySet())) {
+            prix.put(row.getProduitId(), row.getPrixUnitaire());
+        }
+        List<Long> invalidIds = new ArrayList<>();
+        quantites.keySet().stream().filter(produitId -> prix.get(produitId) == null).forEach(invalidIds::add);
+        if (!invalidIds.isEmpty()) {
+            throw new IllegalArgumentException("Produits not found or without a price: " + invalidIds);
+        }
+        return prix;
+    }
+}
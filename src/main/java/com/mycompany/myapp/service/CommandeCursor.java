@@ -0,0 +1,96 @@
+package com.mycompany.myapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Opaque position in the keyset (cursor) listing of the {@link com.mycompany.myapp.domain.Commande}s of a client.
+ * <p>
+ * The listing is ordered on {@code (date, id)} descending. Commandes without a date are served after all the dated
+ * ones, ordered by id descending, so a cursor without a date stands in that section.
+ * The encoded form is URL-safe and must be treated by clients as an opaque token.
+ */
+public final class CommandeCursor {
+
+    private static final String SEPARATOR = ",";
+
+    private final Instant date;
+
+    private final Long id;
+
+    public CommandeCursor(Instant date, Long id) {
+        this.date = date;
+        this.id = Objects.requireNonNull(id);
+    }
+
+    /**
+     * @return the date of the last commande of the previous slice, {@code null} if the cursor points past every dated
+     * commande.
+     */
+    public Instant getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Encode this cursor to an opaque, URL-safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        String raw = id + SEPARATOR + (date == null ? "" : date.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token the token.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static CommandeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new CommandeCursor(parts[1].isEmpty() ? null : Instant.parse(parts[1]), Long.valueOf(parts[0]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CommandeCursor)) {
+            return false;
+        }
+        CommandeCursor that = (CommandeCursor) o;
+        return Objects.equals(date, that.date) && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CommandeCursor{" +
+            "date=" + date +
+            ", id=" + id +
+            "}";
+    }
+}
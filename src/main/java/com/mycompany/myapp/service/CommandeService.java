@@ -1,20 +1,44 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.domain.Client;
 import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import com.mycompany.myapp.repository.ClientRepository;
+import com.mycompany.myapp.repository.CommandeDateRow;
+import com.mycompany.myapp.repository.CommandeEtatRow;
 import com.mycompany.myapp.repository.CommandeRepository;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
 import com.mycompany.myapp.service.dto.CommandeDTO;
+import com.mycompany.myapp.service.dto.CommandeHistoryDTO;
+import com.mycompany.myapp.service.dto.CommandeTransitionResultDTO;
 import com.mycompany.myapp.service.mapper.CommandeMapper;
+import com.mycompany.myapp.service.mapper.LigneCommandeMapper;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link Commande}.
+ * <p>
+ * A commande only moves between the states allowed by {@link EtatCommande#isTransitionLegal}, and its version guards
+ * against concurrent updates: an update based on an older version fails with an
+ * {@link ObjectOptimisticLockingFailureException} rather than overwriting the newer one, and every update must give the
+ * version it is based on. The writes of its lignes do not change its version, as its totals are left out of it.
  */
 @Service
 @Transactional
@@ -26,9 +50,36 @@ public class CommandeService {
 
     private final CommandeMapper commandeMapper;
 
-    public CommandeService(CommandeRepository commandeRepository, CommandeMapper commandeMapper) {
+    private final LigneCommandeRepository ligneCommandeRepository;
+
+    private final ProduitRecommender produitRecommender;
+
+    private final ProduitBestSellers produitBestSellers;
+
+    private final ClientRepository clientRepository;
+
+    private final LigneCommandeMapper ligneCommandeMapper;
+
+    private final VenteRollups venteRollups;
+
+    public CommandeService(
+        CommandeRepository commandeRepository,
+        CommandeMapper commandeMapper,
+        LigneCommandeRepository ligneCommandeRepository,
+        ProduitRecommender produitRecommender,
+        ProduitBestSellers produitBestSellers,
+        ClientRepository clientRepository,
+        LigneCommandeMapper ligneCommandeMapper,
+        VenteRollups venteRollups
+    ) {
         this.commandeRepository = commandeRepository;
         this.commandeMapper = commandeMapper;
+        this.ligneCommandeRepository = ligneCommandeRepository;
+        this.produitRecommender = produitRecommender;
+        this.produitBestSellers = produitBestSellers;
+        this.clientRepository = clientRepository;
+        this.ligneCommandeMapper = ligneCommandeMapper;
+        this.venteRollups = venteRollups;
     }
 
     /**
@@ -45,23 +96,36 @@ public class CommandeService {
     }
 
     /**
-     * Update a commande.
+     * Update a commande. If it is paid by this update, its produits are recommended with each other and counted as sold.
      *
-     * @param commandeDTO the entity to save.
+     * @param commandeDTO the entity to save, with the version it is based on.
      * @return the persisted entity.
+     * @throws IllegalArgumentException if the update moves the commande to a state it may not move to.
+     * @throws ObjectOptimisticLockingFailureException if the entity is no longer at the given version.
      */
     public CommandeDTO update(CommandeDTO commandeDTO) {
         log.debug("Request to update Commande : {}", commandeDTO);
+        Optional<Commande> existingCommande = commandeRepository.findById(commandeDTO.getId());
+        existingCommande.ifPresent(existing -> checkVersion(existing, commandeDTO.getVersion()));
+        EtatCommande previousEtat = existingCommande.map(Commande::getEtat).orElse(null);
         Commande commande = commandeMapper.toEntity(commandeDTO);
+        // The totals are maintained from the lignes, never written by clients
+        existingCommande.map(CommandeTotals::storedOn).orElse(CommandeTotals.ZERO).storeOn(commande);
+        if (existingCommande.isPresent()) {
+            checkTransition(commande.getId(), previousEtat, commande.getEtat());
+        }
         commande = commandeRepository.save(commande);
+        onEtatChanged(commande, previousEtat);
         return commandeMapper.toDto(commande);
     }
 
     /**
-     * Partially update a commande.
+     * Partially update a commande. If it is paid by this update, its produits are recommended with each other and counted as sold.
      *
-     * @param commandeDTO the entity to update partially.
+     * @param commandeDTO the entity to update partially, with the version it is based on.
      * @return the persisted entity.
+     * @throws IllegalArgumentException if the update moves the commande to a state it may not move to.
+     * @throws ObjectOptimisticLockingFailureException if the entity is no longer at the given version.
      */
     public Optional<CommandeDTO> partialUpdate(CommandeDTO commandeDTO) {
         log.debug("Request to partially update Commande : {}", commandeDTO);
@@ -69,7 +133,11 @@ public class CommandeService {
         return commandeRepository
             .findById(commandeDTO.getId())
             .map(existingCommande -> {
+                checkVersion(existingCommande, commandeDTO.getVersion());
+                EtatCommande previousEtat = existingCommande.getEtat();
                 commandeMapper.partialUpdate(existingCommande, commandeDTO);
+                checkTransition(existingCommande.getId(), previousEtat, existingCommande.getEtat());
+                onEtatChanged(existingCommande, previousEtat);
 
                 return existingCommande;
             })
@@ -77,6 +145,141 @@ public class CommandeService {
             .map(commandeMapper::toDto);
     }
 
+    /**
+     * Move a commande to another state. If it is paid by this move, its produits are recommended with each other and
+     * counted as sold.
+     *
+     * @param id the id of the entity.
+     * @param etat the new state; moving a commande to its current state changes nothing.
+     * @param version the version of the entity the move is based on.
+     * @return the moved entity, or empty if it does not exist.
+     * @throws IllegalArgumentException if the commande may not move to the new state.
+     * @throws ObjectOptimisticLockingFailureException if the entity is no longer at the given version.
+     */
+    public Optional<CommandeDTO> transition(Long id, EtatCommande etat, Integer version) {
+        log.debug("Request to move Commande {} to {}", id, etat);
+        return commandeRepository
+            .findById(id)
+            .map(existingCommande -> {
+                checkVersion(existingCommande, version);
+                EtatCommande previousEtat = existingCommande.getEtat();
+                checkTransition(id, previousEtat, etat);
+                existingCommande.setEtat(etat);
+                // Flushed for the version of the result to be the incremented one
+                Commande commande = commandeRepository.saveAndFlush(existingCommande);
+                onEtatChanged(commande, previousEtat);
+                return commande;
+            })
+            .map(commandeMapper::toDto);
+    }
+
+    /**
+     * Move commandes to the same state with a single update statement, rather than one read and one update per commande,
+     * regardless of their versions: a commande is only moved if it is still in a state it may move from. Those paid by
+     * this move have their produits recommended with each other and counted as sold, and those refunded their sales
+     * subtracted from the {@link VenteRollups}.
+     *
+     * @param ids the distinct ids of the entities to move.
+     * @param etat the new state.
+     * @return the outcome of the move of each entity, in the order of the ids.
+     */
+    public List<CommandeTransitionResultDTO> transitionAll(List<Long> ids, EtatCommande etat) {
+        log.debug("Request to move {} Commandes to {}", ids.size(), etat);
+        Map<Long, CommandeEtatRow> before = new HashMap<>();
+        commandeRepository.findEtatsByIdIn(ids).forEach(row -> before.put(row.getCommandeId(), row));
+        Map<Long, CommandeTransitionResultDTO> results = new LinkedHashMap<>();
+        List<Long> legalIds = new ArrayList<>();
+        for (Long id : ids) {
+            CommandeEtatRow row = before.get(id);
+            if (row == null) {
+                results.put(id, new CommandeTransitionResultDTO(id, CommandeTransitionResultDTO.Status.NOT_FOUND, null));
+            } else if (row.getEtat() == etat) {
+                results.put(id, new CommandeTransitionResultDTO(id, CommandeTransitionResultDTO.Status.UNCHANGED, etat));
+            } else if (EtatCommande.isTransitionLegal(row.getEtat(), etat)) {
+                results.put(id, new CommandeTransitionResultDTO(id, CommandeTransitionResultDTO.Status.TRANSITIONED, etat));
+                legalIds.add(id);
+            } else {
+                results.put(id, new CommandeTransitionResultDTO(id, CommandeTransitionResultDTO.Status.ILLEGAL, row.getEtat()));
+            }
+        }
+        if (legalIds.isEmpty()) {
+            return new ArrayList<>(results.values());
+        }
+
+        Set<EtatCommande> precedents = EtatCommande.precedents(etat);
+        int updated = commandeRepository.updateEtats(legalIds, etat, precedents, precedents.contains(EtatCommande.EN_COURS));
+        List<Long> movedIds = legalIds;
+        if (updated < legalIds.size()) {
+            // Some commandes were updated meanwhile: those moved by this statement are exactly one version further
+            movedIds = new ArrayList<>();
+            Map<Long, CommandeEtatRow> after = new HashMap<>();
+            commandeRepository.findEtatsByIdIn(legalIds).forEach(row -> after.put(row.getCommandeId(), row));
+            for (Long id : legalIds) {
+                CommandeEtatRow row = after.get(id);
+                if (row != null && row.getEtat() == etat && row.getVersion() == before.get(id).getVersion() + 1) {
+                    movedIds.add(id);
+                } else {
+                    EtatCommande current = row != null ? row.getEtat() : null;
+                    results.put(id, new CommandeTransitionResultDTO(id, CommandeTransitionResultDTO.Status.CONFLICT, current));
+                }
+            }
+        }
+        if ((etat == EtatCommande.PAYEE || etat == EtatCommande.REMBOURSEE) && !movedIds.isEmpty()) {
+            List<Commande> commandes = commandeRepository.findAllWithLignesByIdIn(movedIds);
+            List<LigneCommande> lignes = new ArrayList<>();
+            for (Commande commande : commandes) {
+                List<LigneCommande> lignesOfCommande = new ArrayList<>(commande.getLigneCommandes());
+                if (etat == EtatCommande.PAYEE) {
+                    onPaid(commande, lignesOfCommande);
+                }
+                lignes.addAll(lignesOfCommande);
+            }
+            if (etat == EtatCommande.PAYEE) {
+                venteRollups.addVentes(commandes, lignes);
+            } else {
+                venteRollups.removeVentes(commandes, lignes);
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    private static void checkVersion(Commande commande, Integer version) {
+        if (!Objects.equals(version, commande.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Commande.class, commande.getId());
+        }
+    }
+
+    private static void checkTransition(Long id, EtatCommande from, EtatCommande to) {
+        if (to != from && !EtatCommande.isTransitionLegal(from, to)) {
+            throw new IllegalArgumentException("Commande " + id + " cannot move from " + from + " to " + to);
+        }
+    }
+
+    /**
+     * Account for the produits of a commande once it is paid, and for its refund. A new commande has no lignes yet, so
+     * only updates count.
+     */
+    private void onEtatChanged(Commande commande, EtatCommande previousEtat) {
+        if (commande.getEtat() == EtatCommande.PAYEE && !EtatCommande.ACHETEES.contains(previousEtat)) {
+            List<LigneCommande> lignes = ligneCommandeRepository.findAllByCommandeId(commande.getId());
+            onPaid(commande, lignes);
+            venteRollups.addVentes(List.of(commande), lignes);
+        } else if (commande.getEtat() == EtatCommande.REMBOURSEE && EtatCommande.ACHETEES.contains(previousEtat)) {
+            venteRollups.removeVentes(List.of(commande), ligneCommandeRepository.findAllByCommandeId(commande.getId()));
+        }
+    }
+
+    private void onPaid(Commande commande, List<LigneCommande> lignes) {
+        produitRecommender.addCommande(
+            lignes
+                .stream()
+                .filter(ligne -> ligne.getProduit() != null)
+                .map(ligne -> ligne.getProduit().getId())
+                .collect(Collectors.toList())
+        );
+        produitBestSellers.addVentes(lignes, commande.getDate());
+    }
+
     /**
      * Get all the commandes.
      *
@@ -88,6 +291,71 @@ public class CommandeService {
         return commandeRepository.findAll().stream().map(commandeMapper::toDto).collect(Collectors.toCollection(LinkedList::new));
     }
 
+    /**
+     * Get a slice of the order history of a client, using keyset pagination on {@code (date, id)} descending: the
+     * commandes without a date are listed last, by id descending.
+     * <p>
+     * The keys of the slice are read from the {@code idx_commande__client_id_date_id} index, then the commandes are loaded
+     * along with their lignes and produits with a single query: the cost of a slice depends on its size only, neither on
+     * how deep in the history it is nor on the number of commandes.
+     *
+     * @param identifiant the identifiant of the client, the login of the current user.
+     * @param after the cursor of the last commande of the previous slice, or {@code null} for the first slice.
+     * @param limit the maximum number of commandes to return.
+     * @return the commandes, none if there is no client with that identifiant.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommandeHistoryDTO> findHistory(String identifiant, CommandeCursor after, int limit) {
+        log.debug("Request to get the Commandes of Client : {}, after: {}, limit: {}", identifiant, after, limit);
+        Optional<Client> client = clientRepository.findFirstByIdentifiantOrderByIdAsc(identifiant);
+        if (client.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        Long clientId = client.get().getId();
+        // Fetch one extra row to know whether there is a next slice without counting
+        List<CommandeDateRow> rows = new ArrayList<>();
+        if (after == null) {
+            rows.addAll(commandeRepository.findHistory(clientId, PageRequest.of(0, limit + 1)));
+        } else if (after.getDate() != null) {
+            rows.addAll(commandeRepository.findHistoryAfter(clientId, after.getDate(), after.getId(), PageRequest.of(0, limit + 1)));
+        }
+        if (rows.size() <= limit) {
+            Long afterId = after != null && after.getDate() == null ? after.getId() : Long.MAX_VALUE;
+            rows.addAll(commandeRepository.findHistoryWithoutDateAfter(clientId, afterId, PageRequest.of(0, limit + 1 - rows.size())));
+        }
+        if (rows.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            CommandeDateRow last = rows.get(limit - 1);
+            nextCursor = new CommandeCursor(last.getDate(), last.getCommandeId()).encode();
+        }
+        Map<Long, Commande> commandes = commandeRepository
+            .findAllWithLignesByIdIn(rows.stream().map(CommandeDateRow::getCommandeId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(Commande::getId, commande -> commande));
+        // Skips the commandes deleted since their ids were read
+        List<CommandeHistoryDTO> history = rows
+            .stream()
+            .map(row -> commandes.get(row.getCommandeId()))
+            .filter(Objects::nonNull)
+            .map(commande ->
+                new CommandeHistoryDTO(
+                    commandeMapper.toDto(commande),
+                    commande
+                        .getLigneCommandes()
+                        .stream()
+                        .sorted(Comparator.comparing(LigneCommande::getId))
+                        .map(ligneCommandeMapper::toDtoWithProduitSummary)
+                        .collect(Collectors.toList())
+                )
+            )
+            .collect(Collectors.toList());
+        return new CursorPage<>(history, nextCursor);
+    }
+
     /**
      * Get one commande by id.
      *
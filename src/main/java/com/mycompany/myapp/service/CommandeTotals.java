@@ -0,0 +1,129 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import java.util.Objects;
+
+/**
+ * The totals of a {@link Commande}, or the contribution of some of its {@link LigneCommande}s to them: the amount in
+ * cents, the number of articles and the number of lignes. Amounts are kept in whole cents so that adding and removing
+ * lignes in any order always gives back the same total, which summing {@code Float} prices does not.
+ */
+final class CommandeTotals {
+
+    static final CommandeTotals ZERO = new CommandeTotals(0, 0, 0);
+
+    private final long centimes;
+
+    private final int articles;
+
+    private final int lignes;
+
+    CommandeTotals(long centimes, int articles, int lignes) {
+        this.centimes = centimes;
+        this.articles = articles;
+        this.lignes = lignes;
+    }
+
+    /**
+     * @return the contribution of a ligne: its unit price rounded to the cent times its quantity; a ligne without a
+     * quantity counts for one article, and without a price for nothing.
+     */
+    static CommandeTotals of(LigneCommande ligne) {
+        return of(ligne.getQuantite(), ligne.getPrix());
+    }
+
+    /**
+     * @return the contribution of a ligne of the given quantity and unit price.
+     */
+    static CommandeTotals of(Integer quantite, Float prix) {
+        int articles = quantite == null ? 1 : quantite;
+        long prixCentimes = prix == null ? 0 : Math.round(prix * 100.0);
+        return new CommandeTotals(Math.multiplyExact(prixCentimes, articles), articles, 1);
+    }
+
+    static CommandeTotals of(Iterable<LigneCommande> lignes) {
+        CommandeTotals totals = ZERO;
+        for (LigneCommande ligne : lignes) {
+            totals = totals.plus(of(ligne));
+        }
+        return totals;
+    }
+
+    /**
+     * @return the totals stored on a commande.
+     */
+    static CommandeTotals storedOn(Commande commande) {
+        return new CommandeTotals(
+            commande.getTotalCentimes() == null ? 0 : commande.getTotalCentimes(),
+            commande.getNombreArticles() == null ? 0 : commande.getNombreArticles(),
+            commande.getNombreLignes() == null ? 0 : commande.getNombreLignes()
+        );
+    }
+
+    CommandeTotals plus(CommandeTotals other) {
+        return new CommandeTotals(
+            Math.addExact(centimes, other.centimes),
+            Math.addExact(articles, other.articles),
+            Math.addExact(lignes, other.lignes)
+        );
+    }
+
+    CommandeTotals minus(CommandeTotals other) {
+        return new CommandeTotals(
+            Math.subtractExact(centimes, other.centimes),
+            Math.subtractExact(articles, other.articles),
+            Math.subtractExact(lignes, other.lignes)
+        );
+    }
+
+    /**
+     * Add these totals to those stored on a commande.
+     */
+    void addTo(Commande commande) {
+        storedOn(commande).plus(this).storeOn(commande);
+    }
+
+    /**
+     * Replace the totals stored on a commande by these.
+     */
+    void storeOn(Commande commande) {
+        commande.setTotalCentimes(centimes);
+        commande.setNombreArticles(articles);
+        commande.setNombreLignes(lignes);
+    }
+
+    long getCentimes() {
+        return centimes;
+    }
+
+    int getArticles() {
+        return articles;
+    }
+
+    int getLignes() {
+        return lignes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CommandeTotals)) {
+            return false;
+        }
+        CommandeTotals other = (CommandeTotals) o;
+        return centimes == other.centimes && articles == other.articles && lignes == other.lignes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(centimes, articles, lignes);
+    }
+
+    @Override
+    public String toString() {
+        return "CommandeTotals{centimes=" + centimes + ", articles=" + articles + ", lignes=" + lignes + "}";
+    }
+}
@@ -0,0 +1,134 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.repository.CommandeLigneRow;
+import com.mycompany.myapp.repository.CommandeRepository;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Verifies that the totals stored on the {@link Commande}s match their {@link LigneCommande}s, which
+ * {@link LigneCommandeService} and {@link CheckoutService} keep up to date, and repairs those which drifted: after a
+ * write bypassing these services, for instance.
+ * <p>
+ * The commandes and their lignes are first read through a forward-only cursor, without locking, which may suspect a
+ * commande whose lignes are written meanwhile. Each suspect is then recomputed in its own transaction with the commande
+ * locked, and only repaired, logged and counted under the {@value #DRIFT_METER} meter if it still differs.
+ */
+@Service
+public class CommandeTotalsVerifier {
+
+    public static final String DRIFT_METER = "commande.totals.drift";
+
+    private final Logger log = LoggerFactory.getLogger(CommandeTotalsVerifier.class);
+
+    private final CommandeRepository commandeRepository;
+
+    private final LigneCommandeRepository ligneCommandeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Counter drifts;
+
+    public CommandeTotalsVerifier(
+        CommandeRepository commandeRepository,
+        LigneCommandeRepository ligneCommandeRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry
+    ) {
+        this.commandeRepository = commandeRepository;
+        this.ligneCommandeRepository = ligneCommandeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.drifts = Counter.builder(DRIFT_METER).register(registry);
+    }
+
+    /**
+     * Verify the totals of all the commandes, and repair those which drifted.
+     * <p>
+     * This is scheduled to run every day, at 04:00 (am).
+     *
+     * @return the number of commandes repaired.
+     */
+    @Scheduled(cron = "0 0 4 * * ?")
+    public synchronized int verify() {
+        List<Long> suspects = readOnlyTransactionTemplate.execute(status -> findSuspects());
+        int repaired = 0;
+        for (Long commandeId : suspects) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> repair(commandeId)))) {
+                repaired++;
+            }
+        }
+        if (repaired > 0) {
+            log.warn("Repaired the drifted totals of {} Commandes", repaired);
+        } else {
+            log.info("Verified the totals of the Commandes, {} suspected and none drifted", suspects.size());
+        }
+        return repaired;
+    }
+
+    /**
+     * @return the ids of the commandes whose stored totals differ from the sum of their lignes as read.
+     */
+    private List<Long> findSuspects() {
+        List<Long> suspects = new ArrayList<>();
+        try (Stream<CommandeLigneRow> rows = commandeRepository.streamWithLignes()) {
+            CommandeLigneRow commande = null;
+            CommandeTotals totals = CommandeTotals.ZERO;
+            for (CommandeLigneRow row : (Iterable<CommandeLigneRow>) rows::iterator) {
+                if (commande == null || !row.getCommandeId().equals(commande.getCommandeId())) {
+                    if (commande != null && !totals.equals(storedOn(commande))) {
+                        suspects.add(commande.getCommandeId());
+                    }
+                    commande = row;
+                    totals = CommandeTotals.ZERO;
+                }
+                if (row.getLigneId() != null) {
+                    totals = totals.plus(CommandeTotals.of(row.getQuantite(), row.getPrix()));
+                }
+            }
+            if (commande != null && !totals.equals(storedOn(commande))) {
+                suspects.add(commande.getCommandeId());
+            }
+        }
+        return suspects;
+    }
+
+    /**
+     * @return whether the totals of the commande drifted, and were repaired.
+     */
+    private boolean repair(Long commandeId) {
+        return commandeRepository
+            .findAndLockById(commandeId)
+            .map(commande -> {
+                CommandeTotals stored = CommandeTotals.storedOn(commande);
+                CommandeTotals totals = CommandeTotals.of(ligneCommandeRepository.findAllByCommandeId(commandeId));
+                if (totals.equals(stored)) {
+                    return false;
+                }
+                log.warn("The totals of Commande {} were {} instead of {}", commandeId, stored, totals);
+                drifts.increment();
+                totals.storeOn(commande);
+                return true;
+            })
+            .orElse(false);
+    }
+
+    private static CommandeTotals storedOn(CommandeLigneRow row) {
+        return new CommandeTotals(row.getTotalCentimes(), row.getNombreArticles(), row.getNombreLignes());
+    }
+}
@@ -0,0 +1,51 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import com.mycompany.myapp.service.dto.CommandeTransitionResultDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service moving many {@link com.mycompany.myapp.domain.Commande}s to the same state, for instance to mark a whole
+ * shipment delivered.
+ * <p>
+ * The commandes are moved in chunks, each with a single update statement in its own transaction, so the rows are only
+ * locked for the time of a chunk.
+ */
+@Service
+public class CommandeTransitionService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(CommandeTransitionService.class);
+
+    private final CommandeService commandeService;
+
+    public CommandeTransitionService(CommandeService commandeService) {
+        this.commandeService = commandeService;
+    }
+
+    /**
+     * Move the commandes to a state.
+     *
+     * @param ids the ids of the commandes; duplicates are moved once.
+     * @param etat the new state.
+     * @return the outcome of the move of each commande, in the order of the ids.
+     */
+    public List<CommandeTransitionResultDTO> transitionAll(Collection<Long> ids, EtatCommande etat) {
+        log.debug("Request to move {} Commandes to {}", ids.size(), etat);
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<CommandeTransitionResultDTO> results = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += CHUNK_SIZE) {
+            results.addAll(commandeService.transitionAll(distinctIds.subList(from, Math.min(from + CHUNK_SIZE, distinctIds.size())), etat));
+        }
+        long moved = results.stream().filter(result -> result.getStatus() == CommandeTransitionResultDTO.Status.TRANSITIONED).count();
+        log.info("Moved {} of {} Commandes to {}", moved, distinctIds.size(), etat);
+        return results;
+    }
+}
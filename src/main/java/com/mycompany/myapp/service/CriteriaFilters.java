@@ -0,0 +1,112 @@
+package com.mycompany.myapp.service;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Evaluate criteria {@link Filter}s against in-memory values, with the same semantics as the {@code Specification}s
+ * built by {@link tech.jhipster.service.QueryService}, SQL null handling included: a {@code null} value only matches
+ * a {@code specified=false} filter.
+ */
+public final class CriteriaFilters {
+
+    private CriteriaFilters() {}
+
+    /**
+     * @return {@code true} if the value matches the filter, or if there is no filter.
+     */
+    public static <X> boolean matches(Filter<X> filter, X value) {
+        if (filter == null) {
+            return true;
+        }
+        if (filter.getEquals() != null) {
+            return value != null && value.equals(filter.getEquals());
+        } else if (filter.getIn() != null) {
+            return value != null && filter.getIn().contains(value);
+        } else if (filter.getNotIn() != null) {
+            return value != null && !filter.getNotIn().contains(value);
+        } else if (filter.getNotEquals() != null) {
+            return value != null && !value.equals(filter.getNotEquals());
+        } else if (filter.getSpecified() != null) {
+            return filter.getSpecified() == (value != null);
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the value matches the filter, or if there is no filter.
+     */
+    public static boolean matches(StringFilter filter, String value) {
+        if (filter == null) {
+            return true;
+        }
+        if (filter.getEquals() != null || filter.getIn() != null || filter.getNotIn() != null) {
+            return matches((Filter<String>) filter, value);
+        } else if (filter.getContains() != null) {
+            return value != null && upper(value).contains(upper(filter.getContains()));
+        } else if (filter.getDoesNotContain() != null) {
+            return value != null && !upper(value).contains(upper(filter.getDoesNotContain()));
+        }
+        return matches((Filter<String>) filter, value);
+    }
+
+    /**
+     * @return {@code true} if the value matches the filter, or if there is no filter.
+     */
+    public static <X extends Comparable<? super X>> boolean matches(RangeFilter<X> filter, X value) {
+        if (filter == null) {
+            return true;
+        }
+        if (filter.getEquals() != null) {
+            return value != null && value.compareTo(filter.getEquals()) == 0;
+        } else if (filter.getIn() != null) {
+            return value != null && filter.getIn().contains(value);
+        }
+        if (filter.getSpecified() != null && filter.getSpecified() != (value != null)) {
+            return false;
+        }
+        if (value == null) {
+            // Any comparison below is unknown, hence false, in SQL
+            return (
+                filter.getNotEquals() == null &&
+                filter.getNotIn() == null &&
+                filter.getGreaterThan() == null &&
+                filter.getGreaterThanOrEqual() == null &&
+                filter.getLessThan() == null &&
+                filter.getLessThanOrEqual() == null
+            );
+        }
+        return (
+            (filter.getNotEquals() == null || value.compareTo(filter.getNotEquals()) != 0) &&
+            (filter.getNotIn() == null || !filter.getNotIn().contains(value)) &&
+            (filter.getGreaterThan() == null || value.compareTo(filter.getGreaterThan()) > 0) &&
+            (filter.getGreaterThanOrEqual() == null || value.compareTo(filter.getGreaterThanOrEqual()) >= 0) &&
+            (filter.getLessThan() == null || value.compareTo(filter.getLessThan()) < 0) &&
+            (filter.getLessThanOrEqual() == null || value.compareTo(filter.getLessThanOrEqual()) <= 0)
+        );
+    }
+
+    /**
+     * Evaluate a filter on a to-many relationship, which matches when any of the related values matches,
+     * like the {@code LEFT JOIN} of the matching {@code Specification} does.
+     *
+     * @return {@code true} if one of the values matches the filter, or if there is no filter.
+     */
+    public static <X> boolean matchesAny(Filter<X> filter, Collection<X> values) {
+        if (filter == null) {
+            return true;
+        }
+        if (values.isEmpty()) {
+            return matches(filter, null);
+        }
+        return values.stream().filter(Objects::nonNull).anyMatch(value -> matches(filter, value));
+    }
+
+    private static String upper(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,33 @@
+package com.mycompany.myapp.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A slice of a keyset (cursor) listing, along with the opaque cursor of the following slice if there is one.
+ *
+ * @param <T> the type of the content.
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = List.copyOf(content);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public Optional<String> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
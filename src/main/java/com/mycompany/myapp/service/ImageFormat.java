@@ -0,0 +1,74 @@
+package com.mycompany.myapp.service;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The formats of the {@link com.mycompany.myapp.domain.Image}s the {@link ImageStorage} accepts, recognized by the
+ * signature at the start of their content rather than by what the client claims.
+ */
+public enum ImageFormat {
+    JPEG("jpg", "image/jpeg"),
+    PNG("png", "image/png"),
+    GIF("gif", "image/gif"),
+    WEBP("webp", "image/webp");
+
+    /**
+     * The number of bytes {@link #detect} needs to recognize every format.
+     */
+    public static final int SIGNATURE_LENGTH = 12;
+
+    private final String extension;
+
+    private final String mediaType;
+
+    ImageFormat(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param header the first bytes of the content, {@value #SIGNATURE_LENGTH} if there are as many.
+     * @param length the number of bytes of the header which were read.
+     * @return the format of the content, or empty if it is not a supported image.
+     */
+    public static Optional<ImageFormat> detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return Optional.of(JPEG);
+        }
+        if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n')) {
+            return Optional.of(PNG);
+        }
+        if (startsWith(header, length, 0, 'G', 'I', 'F', '8')) {
+            return Optional.of(GIF);
+        }
+        if (startsWith(header, length, 0, 'R', 'I', 'F', 'F') && startsWith(header, length, 8, 'W', 'E', 'B', 'P')) {
+            return Optional.of(WEBP);
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<ImageFormat> fromExtension(String extension) {
+        return Arrays.stream(values()).filter(format -> format.extension.equals(extension)).findFirst();
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, int... signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int index = 0; index < signature.length; index++) {
+            if ((header[offset + index] & 0xFF) != signature[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
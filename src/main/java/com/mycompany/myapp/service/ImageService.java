@@ -3,9 +3,14 @@ package com.mycompany.myapp.service;
 import com.mycompany.myapp.domain.Image;
 import com.mycompany.myapp.repository.ImageRepository;
 import com.mycompany.myapp.service.dto.ImageDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
 import com.mycompany.myapp.service.mapper.ImageMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -26,13 +31,28 @@ public class ImageService {
 
     private final ImageMapper imageMapper;
 
-    public ImageService(ImageRepository imageRepository, ImageMapper imageMapper) {
+    private final CatalogSnapshot catalogSnapshot;
+
+    private final ImageStorage imageStorage;
+
+    private final ImageVariantGenerator imageVariantGenerator;
+
+    public ImageService(
+        ImageRepository imageRepository,
+        ImageMapper imageMapper,
+        CatalogSnapshot catalogSnapshot,
+        ImageStorage imageStorage,
+        ImageVariantGenerator imageVariantGenerator
+    ) {
         this.imageRepository = imageRepository;
         this.imageMapper = imageMapper;
+        this.catalogSnapshot = catalogSnapshot;
+        this.imageStorage = imageStorage;
+        this.imageVariantGenerator = imageVariantGenerator;
     }
 
     /**
-     * Save a image.
+     * Save a image. Its variants are generated in the background, if its url points to an uploaded file.
      *
      * @param imageDTO the entity to save.
      * @return the persisted entity.
@@ -41,11 +61,37 @@ public class ImageService {
         log.debug("Request to save Image : {}", imageDTO);
         Image image = imageMapper.toEntity(imageDTO);
         image = imageRepository.save(image);
-        return imageMapper.toDto(image);
+        ImageDTO result = imageMapper.toDto(image);
+        catalogSnapshot.refreshImage(result.getId());
+        imageVariantGenerator.submit(result.getId(), result.getUrl());
+        return result;
+    }
+
+    /**
+     * Store an uploaded image file, and save an image pointing to it. The file is stored first: if the image cannot be
+     * saved, the file stays in the {@link ImageStorage}, where a later upload of the same content finds it. The variants
+     * of the image are generated in the background, once it is committed.
+     *
+     * @param content the content of the image file.
+     * @param produitId the id of the produit of the image, may be {@code null}.
+     * @return the persisted entity.
+     * @throws IllegalArgumentException if the content is not an image of a supported format, or is too large.
+     * @throws IOException if the content cannot be read or stored.
+     */
+    public ImageDTO upload(InputStream content, Long produitId) throws IOException {
+        log.debug("Request to upload Image for Produit : {}", produitId);
+        ImageDTO imageDTO = new ImageDTO();
+        imageDTO.setUrl(ImageStorage.urlOf(imageStorage.store(content)));
+        if (produitId != null) {
+            ProduitDTO produitDTO = new ProduitDTO();
+            produitDTO.setId(produitId);
+            imageDTO.setProduit(produitDTO);
+        }
+        return save(imageDTO);
     }
 
     /**
-     * Update a image.
+     * Update a image. Its variants are kept if its url is unchanged, and generated again otherwise.
      *
      * @param imageDTO the entity to save.
      * @return the persisted entity.
@@ -53,12 +99,20 @@ public class ImageService {
     public ImageDTO update(ImageDTO imageDTO) {
         log.debug("Request to update Image : {}", imageDTO);
         Image image = imageMapper.toEntity(imageDTO);
-        image = imageRepository.save(image);
-        return imageMapper.toDto(image);
+        imageRepository
+            .findById(imageDTO.getId())
+            .filter(existingImage -> Objects.equals(existingImage.getUrl(), image.getUrl()))
+            .ifPresent(existingImage -> image.setVariants(new LinkedHashSet<>(existingImage.getVariants())));
+        ImageDTO result = imageMapper.toDto(imageRepository.save(image));
+        catalogSnapshot.refreshImage(result.getId());
+        if (result.getVariants().isEmpty()) {
+            imageVariantGenerator.submit(result.getId(), result.getUrl());
+        }
+        return result;
     }
 
     /**
-     * Partially update a image.
+     * Partially update a image. Its variants are generated again if its url changes.
      *
      * @param imageDTO the entity to update partially.
      * @return the persisted entity.
@@ -69,12 +123,24 @@ public class ImageService {
         return imageRepository
             .findById(imageDTO.getId())
             .map(existingImage -> {
+                String url = existingImage.getUrl();
                 imageMapper.partialUpdate(existingImage, imageDTO);
+                if (!Objects.equals(url, existingImage.getUrl())) {
+                    existingImage.getVariants().clear();
+                }
 
                 return existingImage;
             })
             .map(imageRepository::save)
-            .map(imageMapper::toDto);
+            .map(imageMapper::toDto)
+            .map(result -> {
+                catalogSnapshot.refreshImage(result.getId());
+                if (result.getVariants().isEmpty()) {
+                    imageVariantGenerator.submit(result.getId(), result.getUrl());
+                }
+
+                return result;
+            });
     }
 
     /**
@@ -108,5 +174,6 @@ public class ImageService {
     public void delete(Long id) {
         log.debug("Request to delete Image : {}", id);
         imageRepository.deleteById(id);
+        catalogSnapshot.refreshImage(id);
     }
 }
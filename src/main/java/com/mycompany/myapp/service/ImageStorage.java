@@ -0,0 +1,179 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Content-addressed store of the {@link com.mycompany.myapp.domain.Image} files, on local disk.
+ * <p>
+ * A file is named by the SHA-256 of its content followed by the extension of its {@link ImageFormat}, and lives in a
+ * sub-directory named by the first two hexadecimal digits, so that no directory grows too large. The content of a name
+ * therefore never changes: uploading the same image twice stores it once, and the files can be cached forever.
+ */
+@Service
+public class ImageStorage {
+
+    /**
+     * The path under which {@code ImageResource} serves the stored files, by name.
+     */
+    public static final String CONTENT_PATH = "/api/images/content/";
+
+    private static final Pattern NAME = Pattern.compile("([0-9a-f]{64})\\.([a-z]+)");
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Logger log = LoggerFactory.getLogger(ImageStorage.class);
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    public ImageStorage(ApplicationProperties applicationProperties) throws IOException {
+        this.directory = Files.createDirectories(Paths.get(applicationProperties.getImageStorage().getDirectory()));
+        this.maxBytes = applicationProperties.getImageStorage().getMaxBytes();
+    }
+
+    /**
+     * Store an image, unless the same content is already stored.
+     *
+     * @param content the content of the image; it is closed once read.
+     * @return the name of the stored file.
+     * @throws IllegalArgumentException if the content is not an image of a supported format, or is too large.
+     * @throws IOException if the content cannot be read or stored.
+     */
+    public String store(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path upload = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            byte[] header = new byte[ImageFormat.SIGNATURE_LENGTH];
+            int headerLength;
+            try (OutputStream out = Files.newOutputStream(upload); InputStream in = new DigestInputStream(content, digest)) {
+                headerLength = in.readNBytes(header, 0, header.length);
+                out.write(header, 0, headerLength);
+                long size = headerLength;
+                byte[] buffer = new byte[8192];
+                for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new IllegalArgumentException("An image cannot be larger than " + maxBytes + " bytes");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            ImageFormat format = ImageFormat
+                .detect(header, headerLength)
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported image format"));
+            String name = toHex(digest.digest()) + '.' + format.getExtension();
+            Path target = resolve(name);
+            if (Files.exists(target)) {
+                log.debug("Image {} is already stored", name);
+                return name;
+            }
+            Files.createDirectories(target.getParent());
+            move(upload, target);
+            log.debug("Stored image {}", name);
+            return name;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * @param name the name of a stored file.
+     * @return the path of the file, or empty if the name is not one this store gives or if the file does not exist.
+     */
+    public Optional<Path> find(String name) {
+        if (!NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path path = resolve(name);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * @return the URL the file of the given name is served at.
+     */
+    public static String urlOf(String name) {
+        return CONTENT_PATH + name;
+    }
+
+    /**
+     * @return the name of the stored file the given URL points to, or empty if it points elsewhere.
+     */
+    public static Optional<String> nameOf(String url) {
+        if (url == null || !url.startsWith(CONTENT_PATH)) {
+            return Optional.empty();
+        }
+        String name = url.substring(CONTENT_PATH.length());
+        return NAME.matcher(name).matches() ? Optional.of(name) : Optional.empty();
+    }
+
+    /**
+     * @return the SHA-256 of the content of the file of the given name, in hexadecimal.
+     */
+    public static Optional<String> hashOf(String name) {
+        Matcher matcher = NAME.matcher(name);
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    /**
+     * @return the format of the file of the given name.
+     */
+    public static Optional<ImageFormat> formatOf(String name) {
+        Matcher matcher = NAME.matcher(name);
+        return matcher.matches() ? ImageFormat.fromExtension(matcher.group(2)) : Optional.empty();
+    }
+
+    private Path resolve(String name) {
+        return directory.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    /**
+     * Move the upload to its final name at once, so that readers never see a partial file.
+     */
+    private static void move(Path upload, Path target) throws IOException {
+        try {
+            Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(upload, target);
+            } catch (FileAlreadyExistsException alreadyStored) {
+                // Stored concurrently: both have the same content
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int index = 0; index < bytes.length; index++) {
+            hex[index * 2] = HEX_DIGITS[(bytes[index] >> 4) & 0xF];
+            hex[index * 2 + 1] = HEX_DIGITS[bytes[index] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,271 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.ImageVariant;
+import com.mycompany.myapp.repository.ImageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Generates the {@link ImageVariant}s of the uploaded {@link com.mycompany.myapp.domain.Image}s in the background: copies
+ * resized to each of {@code application.image-variants.widths} narrower than the original, stored in the
+ * {@link ImageStorage} and recorded on the image.
+ * <p>
+ * The images wait in a bounded queue for a small pool of threads of their own, so that a burst of uploads neither holds
+ * the request threads nor fills the heap: when the queue is full, an image is left without variants, and the client keeps
+ * using the original. The variants are encoded with {@link ImageIO}: opaque images as JPEG, others as PNG to keep their
+ * transparency. The depth of the queue, the time spent in it and processing, the rejections and the failures are
+ * reported under the {@value #METER_PREFIX} meters.
+ */
+@Service
+public class ImageVariantGenerator {
+
+    public static final String METER_PREFIX = "image.variants";
+
+    private final Logger log = LoggerFactory.getLogger(ImageVariantGenerator.class);
+
+    private final ImageStorage imageStorage;
+
+    private final ImageRepository imageRepository;
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final List<Integer> widths;
+
+    private final float jpegQuality;
+
+    private final long maxPixels;
+
+    private final BlockingQueue<Runnable> queue;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer waiting;
+
+    private final Timer processing;
+
+    private final Counter rejections;
+
+    private final Counter failures;
+
+    public ImageVariantGenerator(
+        ApplicationProperties applicationProperties,
+        ImageStorage imageStorage,
+        ImageRepository imageRepository,
+        CatalogSnapshot catalogSnapshot,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry
+    ) {
+        ApplicationProperties.ImageVariants properties = applicationProperties.getImageVariants();
+        this.imageStorage = imageStorage;
+        this.imageRepository = imageRepository;
+        this.catalogSnapshot = catalogSnapshot;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.widths = properties.getWidths().stream().sorted().distinct().collect(Collectors.toList());
+        this.jpegQuality = properties.getJpegQuality();
+        this.maxPixels = properties.getMaxPixels();
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("image-variants-");
+        threadFactory.setDaemon(true);
+        this.executor =
+            new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS, queue, threadFactory);
+        this.waiting = Timer.builder(METER_PREFIX + ".wait").register(registry);
+        this.processing = Timer.builder(METER_PREFIX + ".processing").register(registry);
+        this.rejections = Counter.builder(METER_PREFIX + ".rejections").register(registry);
+        this.failures = Counter.builder(METER_PREFIX + ".failures").register(registry);
+        Gauge.builder(METER_PREFIX + ".queue", queue, BlockingQueue::size).register(registry);
+        Gauge.builder(METER_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    /**
+     * Generate the variants of an image in the background, once the current transaction, if any, is committed. Nothing
+     * is generated for an image whose url does not point to the {@link ImageStorage}.
+     *
+     * @param imageId the id of the image.
+     * @param url the url of the image, as written.
+     */
+    public void submit(Long imageId, String url) {
+        if (ImageStorage.nameOf(url).isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            long submitted = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    waiting.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                    processing.record(() -> process(imageId, url));
+                });
+            } catch (RejectedExecutionException e) {
+                rejections.increment();
+                log.warn("Too many images waiting for their variants, Image {} is left without them", imageId);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Dropping {} images waiting for their variants", executor.shutdownNow().size());
+        }
+    }
+
+    private void process(Long imageId, String url) {
+        try {
+            List<ImageVariant> variants = generate(ImageStorage.nameOf(url).orElseThrow());
+            if (!variants.isEmpty()) {
+                record(imageId, url, variants);
+            }
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Could not generate the variants of Image {}: {}", imageId, e.toString());
+        }
+    }
+
+    /**
+     * Resize the stored file of the given name to each width narrower than it, and store the results.
+     *
+     * @return the variants, by increasing width; empty if the file is too narrow, or in a format {@link ImageIO} cannot
+     * read.
+     * @throws IllegalArgumentException if the image has more than {@code application.image-variants.max-pixels} pixels.
+     * @throws IOException if the file cannot be read or a variant cannot be stored.
+     */
+    List<ImageVariant> generate(String name) throws IOException {
+        Optional<Path> path = imageStorage.find(name);
+        if (path.isEmpty()) {
+            log.debug("Image {} is not stored", name);
+            return List.of();
+        }
+        BufferedImage original;
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.get().toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                log.debug("No reader for image {}", name);
+                return List.of();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                if ((long) width * reader.getHeight(0) > maxPixels) {
+                    throw new IllegalArgumentException("Image " + name + " has too many pixels to be resized");
+                }
+                if (widths.stream().noneMatch(target -> target < width)) {
+                    return List.of();
+                }
+                original = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+        boolean translucent = original.getColorModel().hasAlpha();
+        List<ImageVariant> variants = new ArrayList<>();
+        BufferedImage source = original;
+        // From the widest down, so that each variant is resized from the previous one rather than from the original
+        for (int index = widths.size() - 1; index >= 0; index--) {
+            int width = widths.get(index);
+            if (width < original.getWidth()) {
+                source = resize(source, width, Math.max(1, Math.round((float) original.getHeight() * width / original.getWidth())));
+                byte[] content = translucent ? encodePng(source) : encodeJpeg(source);
+                variants.add(0, new ImageVariant(width, ImageStorage.urlOf(imageStorage.store(new ByteArrayInputStream(content)))));
+            }
+        }
+        return variants;
+    }
+
+    private void record(Long imageId, String url, List<ImageVariant> variants) {
+        transactionTemplate.executeWithoutResult(status ->
+            imageRepository
+                .findById(imageId)
+                // The url may have changed meanwhile, and the variants be those of another image
+                .filter(image -> Objects.equals(image.getUrl(), url))
+                .ifPresent(image -> {
+                    image.getVariants().clear();
+                    image.getVariants().addAll(variants);
+                    catalogSnapshot.refreshImage(imageId);
+                    log.debug("Generated {} variants of Image {}", variants.size(), imageId);
+                })
+        );
+    }
+
+    /**
+     * Resize an image by halving it until it is less than twice as large as the target: bilinear interpolation only
+     * looks at the nearest pixels, and gets blurry or jagged when it skips more.
+     */
+    static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage current = image;
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = Math.max(height, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, type);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (current.getWidth() != width || current.getHeight() != height);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(content)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return content.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", content);
+        return content.toByteArray();
+    }
+}
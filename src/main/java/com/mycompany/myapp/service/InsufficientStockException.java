@@ -0,0 +1,22 @@
+package com.mycompany.myapp.service;
+
+import java.util.List;
+
+public class InsufficientStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Long> produitIds;
+
+    public InsufficientStockException(List<Long> produitIds) {
+        super("Insufficient stock of produits: " + produitIds);
+        this.produitIds = List.copyOf(produitIds);
+    }
+
+    /**
+     * @return the ids of the produits whose stock is insufficient.
+     */
+    public List<Long> getProduitIds() {
+        return produitIds;
+    }
+}
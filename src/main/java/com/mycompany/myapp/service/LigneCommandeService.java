@@ -1,11 +1,15 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.domain.Commande;
 import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import com.mycompany.myapp.repository.CommandeRepository;
 import com.mycompany.myapp.repository.LigneCommandeRepository;
 import com.mycompany.myapp.service.dto.LigneCommandeDTO;
 import com.mycompany.myapp.service.mapper.LigneCommandeMapper;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -26,13 +30,25 @@ public class LigneCommandeService {
 
     private final LigneCommandeMapper ligneCommandeMapper;
 
-    public LigneCommandeService(LigneCommandeRepository ligneCommandeRepository, LigneCommandeMapper ligneCommandeMapper) {
+    private final CommandeRepository commandeRepository;
+
+    private final ProduitBestSellers produitBestSellers;
+
+    public LigneCommandeService(
+        LigneCommandeRepository ligneCommandeRepository,
+        LigneCommandeMapper ligneCommandeMapper,
+        CommandeRepository commandeRepository,
+        ProduitBestSellers produitBestSellers
+    ) {
         this.ligneCommandeRepository = ligneCommandeRepository;
         this.ligneCommandeMapper = ligneCommandeMapper;
+        this.commandeRepository = commandeRepository;
+        this.produitBestSellers = produitBestSellers;
     }
 
     /**
-     * Save a ligneCommande.
+     * Save a ligneCommande, and add it to the totals of its commande. If its commande is already paid, its produit is
+     * counted as sold.
      *
      * @param ligneCommandeDTO the entity to save.
      * @return the persisted entity.
@@ -41,24 +57,33 @@ public class LigneCommandeService {
         log.debug("Request to save LigneCommande : {}", ligneCommandeDTO);
         LigneCommande ligneCommande = ligneCommandeMapper.toEntity(ligneCommandeDTO);
         ligneCommande = ligneCommandeRepository.save(ligneCommande);
+        LigneCommande saved = ligneCommande;
+        addToTotals(commandeIdOf(ligneCommande), CommandeTotals.of(ligneCommande))
+            .filter(commande -> EtatCommande.ACHETEES.contains(commande.getEtat()))
+            .ifPresent(commande -> produitBestSellers.addVentes(List.of(saved), commande.getDate()));
         return ligneCommandeMapper.toDto(ligneCommande);
     }
 
     /**
-     * Update a ligneCommande.
+     * Update a ligneCommande, and the totals of its commande.
      *
      * @param ligneCommandeDTO the entity to save.
      * @return the persisted entity.
      */
     public LigneCommandeDTO update(LigneCommandeDTO ligneCommandeDTO) {
         log.debug("Request to update LigneCommande : {}", ligneCommandeDTO);
+        Optional<LigneCommande> existingLigneCommande = ligneCommandeRepository.findById(ligneCommandeDTO.getId());
+        // Read before the save merges the new state into the existing entity
+        Long previousCommandeId = existingLigneCommande.map(LigneCommandeService::commandeIdOf).orElse(null);
+        CommandeTotals previousTotals = existingLigneCommande.map(CommandeTotals::of).orElse(CommandeTotals.ZERO);
         LigneCommande ligneCommande = ligneCommandeMapper.toEntity(ligneCommandeDTO);
         ligneCommande = ligneCommandeRepository.save(ligneCommande);
+        moveTotals(previousCommandeId, previousTotals, ligneCommande);
         return ligneCommandeMapper.toDto(ligneCommande);
     }
 
     /**
-     * Partially update a ligneCommande.
+     * Partially update a ligneCommande, and the totals of its commande.
      *
      * @param ligneCommandeDTO the entity to update partially.
      * @return the persisted entity.
@@ -69,7 +94,10 @@ public class LigneCommandeService {
         return ligneCommandeRepository
             .findById(ligneCommandeDTO.getId())
             .map(existingLigneCommande -> {
+                Long previousCommandeId = commandeIdOf(existingLigneCommande);
+                CommandeTotals previousTotals = CommandeTotals.of(existingLigneCommande);
                 ligneCommandeMapper.partialUpdate(existingLigneCommande, ligneCommandeDTO);
+                moveTotals(previousCommandeId, previousTotals, existingLigneCommande);
 
                 return existingLigneCommande;
             })
@@ -107,6 +135,47 @@ public class LigneCommandeService {
      */
     public void delete(Long id) {
         log.debug("Request to delete LigneCommande : {}", id);
+        ligneCommandeRepository
+            .findById(id)
+            .ifPresent(ligneCommande ->
+                addToTotals(commandeIdOf(ligneCommande), CommandeTotals.ZERO.minus(CommandeTotals.of(ligneCommande)))
+            );
         ligneCommandeRepository.deleteById(id);
     }
+
+    /**
+     * Move the contribution of a ligne to the totals of its commande from its previous state to its current one, which
+     * may belong to another commande.
+     */
+    private void moveTotals(Long previousCommandeId, CommandeTotals previousTotals, LigneCommande ligneCommande) {
+        Long commandeId = commandeIdOf(ligneCommande);
+        CommandeTotals totals = CommandeTotals.of(ligneCommande);
+        if (Objects.equals(previousCommandeId, commandeId)) {
+            CommandeTotals difference = totals.minus(previousTotals);
+            if (!difference.equals(CommandeTotals.ZERO)) {
+                addToTotals(commandeId, difference);
+            }
+        } else {
+            addToTotals(previousCommandeId, CommandeTotals.ZERO.minus(previousTotals));
+            addToTotals(commandeId, totals);
+        }
+    }
+
+    /**
+     * Add to the totals of a commande, locking it until the end of the transaction.
+     *
+     * @return the commande, or empty if there is none.
+     */
+    private Optional<Commande> addToTotals(Long commandeId, CommandeTotals totals) {
+        if (commandeId == null) {
+            return Optional.empty();
+        }
+        Optional<Commande> commande = commandeRepository.findAndLockById(commandeId);
+        commande.ifPresent(totals::addTo);
+        return commande;
+    }
+
+    private static Long commandeIdOf(LigneCommande ligneCommande) {
+        return ligneCommande.getCommande() == null ? null : ligneCommande.getCommande().getId();
+    }
 }
@@ -0,0 +1,156 @@
+package com.mycompany.myapp.service;
+
+/**
+ * Map of {@code long} keys to {@code int} values, without boxing: the keys and the values are held in two arrays, with
+ * open addressing and linear probing, so an entry costs 12 bytes instead of about 60 in a {@code HashMap<Long, Integer>}.
+ * <p>
+ * The key {@code 0} marks the free slots, so it cannot be used; the keys are meant to be entity ids, which are positive.
+ * Not thread-safe.
+ */
+final class LongIntHashMap {
+
+    /**
+     * An entry of the map, as visited by {@link #forEach}.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize the number of entries the map holds without growing.
+     */
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value of the key, or the default value if the map does not hold the key.
+     */
+    int get(long key, int defaultValue) {
+        int slot = slotOf(key);
+        return keys[slot] == 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Associate a value to a key, replacing its previous value.
+     *
+     * @throws IllegalArgumentException if the key is {@code 0}.
+     */
+    void put(long key, int value) {
+        int slot = slotOf(checked(key));
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            values[slot] = value;
+            grow();
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Add a delta to the value of a key, which starts at {@code 0}.
+     *
+     * @return the new value of the key.
+     * @throws IllegalArgumentException if the key is {@code 0}.
+     */
+    int addTo(long key, int delta) {
+        int slot = slotOf(checked(key));
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            values[slot] = delta;
+            grow();
+            return delta;
+        }
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    /**
+     * Visit the entries, in no particular order.
+     */
+    void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * @return the slot holding the key, or else the free slot where it would be inserted.
+     */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        // Fibonacci hashing spreads the sequential ids over the whole table
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Count a new entry, and double the capacity once three quarters of the slots are taken, beyond which probing gets
+     * long.
+     */
+    private void grow() {
+        size++;
+        if (size * 4L < keys.length * 3L) {
+            return;
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                int newSlot = slotOf(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L <= expectedSize * 4L) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private static long checked(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("The key 0 is reserved");
+        }
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> builder.append(builder.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,168 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.NoteProduit;
+import com.mycompany.myapp.repository.NoteProduitRepository;
+import com.mycompany.myapp.service.dto.NoteProduitDTO;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the {@link NoteProduit} aggregates of the avis of each produit.
+ */
+@Service
+@Transactional
+public class NoteProduitService {
+
+    private final Logger log = LoggerFactory.getLogger(NoteProduitService.class);
+
+    private final NoteProduitRepository noteProduitRepository;
+
+    private final ProduitSuggester produitSuggester;
+
+    private final ProduitJsonCache produitJsonCache;
+
+    public NoteProduitService(
+        NoteProduitRepository noteProduitRepository,
+        ProduitSuggester produitSuggester,
+        ProduitJsonCache produitJsonCache
+    ) {
+        this.noteProduitRepository = noteProduitRepository;
+        this.produitSuggester = produitSuggester;
+        this.produitJsonCache = produitJsonCache;
+    }
+
+    /**
+     * Account for a new avis, or for the new state of an updated one.
+     *
+     * @param produitId the id of the produit of the avis, may be {@code null}.
+     * @param note the note of the avis, may be {@code null}.
+     */
+    public void addAvis(Long produitId, Integer note) {
+        apply(produitId, note, 1);
+    }
+
+    /**
+     * Account for a deleted avis, or for the previous state of an updated one.
+     *
+     * @param produitId the id of the produit of the avis, may be {@code null}.
+     * @param note the note of the avis, may be {@code null}.
+     */
+    public void removeAvis(Long produitId, Integer note) {
+        apply(produitId, note, -1);
+    }
+
+    private void apply(Long produitId, Integer note, int delta) {
+        if (produitId == null) {
+            return;
+        }
+        long[] repartition = new long[5];
+        if (note != null && note >= 1 && note <= 5) {
+            repartition[note - 1] = delta;
+        }
+        long sommeNotes = note == null ? 0 : (long) delta * note;
+        if (increment(produitId, delta, sommeNotes, repartition) == 0) {
+            if (delta < 0) {
+                log.warn("No notes to remove an avis from for Produit : {}", produitId);
+                return;
+            }
+            // Created empty then incremented, so that concurrent first avis of the produit all add to the same row
+            noteProduitRepository.insertIfAbsent(produitId);
+            increment(produitId, delta, sommeNotes, repartition);
+        }
+        TransactionCallbacks.afterCommit(() -> produitSuggester.addPopularity(produitId, delta));
+        produitJsonCache.evict(produitId);
+    }
+
+    private int increment(Long produitId, int delta, long sommeNotes, long[] repartition) {
+        return noteProduitRepository.increment(
+            produitId,
+            delta,
+            sommeNotes,
+            repartition[0],
+            repartition[1],
+            repartition[2],
+            repartition[3],
+            repartition[4]
+        );
+    }
+
+    /**
+     * Get the notes of a produit, read from its aggregate.
+     *
+     * @param produitId the id of the produit.
+     * @return the notes, without any avis if the produit has none.
+     */
+    @Transactional(readOnly = true)
+    public NoteProduitDTO findByProduit(Long produitId) {
+        log.debug("Request to get the notes of Produit : {}", produitId);
+        return toDto(noteProduitRepository.findById(produitId).orElseGet(() -> new NoteProduit().produitId(produitId)));
+    }
+
+    /**
+     * Rebuild the aggregates from the avis table, fixing those which drifted.
+     * <p>
+     * The aggregates are read before the avis are counted, and each one is only fixed if it did not change since it was
+     * read: an aggregate written meanwhile is skipped rather than overwritten with counts missing the avis written along.
+     * <p>
+     * This is scheduled to run every day, at 01:30 (am).
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void reconcile() {
+        List<NoteProduit> noteProduits = noteProduitRepository.findAll();
+        Map<Long, NoteProduit> expected = noteProduitRepository
+            .computeAllFromAvis()
+            .stream()
+            .collect(Collectors.toMap(NoteProduit::getProduitId, Function.identity()));
+        int fixed = 0;
+        int skipped = 0;
+        for (NoteProduit noteProduit : noteProduits) {
+            NoteProduit actual = expected.remove(noteProduit.getProduitId());
+            if (actual == null) {
+                actual = new NoteProduit().produitId(noteProduit.getProduitId());
+            }
+            if (!noteProduit.hasSameCounts(actual)) {
+                log.debug("Fixing the notes of Produit {} from {} to {}", noteProduit.getProduitId(), noteProduit, actual);
+                if (noteProduitRepository.replaceCounts(noteProduit, actual) > 0) {
+                    fixed++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        int created = 0;
+        for (NoteProduit actual : expected.values()) {
+            noteProduitRepository.insertIfAbsent(actual.getProduitId());
+            if (noteProduitRepository.replaceCounts(new NoteProduit().produitId(actual.getProduitId()), actual) > 0) {
+                created++;
+            } else {
+                skipped++;
+            }
+        }
+        log.info("Reconciled the notes of the produits: {} fixed, {} created, {} skipped as written meanwhile", fixed, created, skipped);
+    }
+
+    private NoteProduitDTO toDto(NoteProduit noteProduit) {
+        NoteProduitDTO noteProduitDTO = new NoteProduitDTO();
+        noteProduitDTO.setNombreAvis(noteProduit.getNombreAvis());
+        Map<Integer, Long> repartition = new TreeMap<>();
+        long nombreNotes = 0;
+        long[] counts = noteProduit.getRepartition();
+        for (int note = 1; note <= counts.length; note++) {
+            repartition.put(note, counts[note - 1]);
+            nombreNotes += counts[note - 1];
+        }
+        noteProduitDTO.setRepartition(repartition);
+        if (nombreNotes > 0) {
+            noteProduitDTO.setMoyenne((double) noteProduit.getSommeNotes() / nombreNotes);
+        }
+        return noteProduitDTO;
+    }
+}
@@ -0,0 +1,307 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
+import com.mycompany.myapp.repository.ProduitVenteRow;
+import com.mycompany.myapp.service.dto.CategoryDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory leaderboards of the best selling {@link com.mycompany.myapp.domain.Produit}s, overall and per category: of all
+ * time, and trending, where a sale weighs half as much every {@link #TRENDING_HALF_LIFE}.
+ * <p>
+ * Each sale only adds to the striped {@link LongAdder} and {@link DoubleAdder} of its produit, so that concurrent sales
+ * never contend on a lock. The {@value #MAX_BEST_SELLERS} best of each leaderboard are then selected with bounded heaps
+ * every few seconds, from the produits and categories of the {@link CatalogSnapshot}, and published as a whole.
+ * <p>
+ * A trending sale weighs {@code e^((date - landmark) / tau)}, {@code tau} being the half-life divided by {@code ln 2}: it
+ * grows with time instead of the older sales decaying, which would need to rewrite every counter, and the ranking is the
+ * same. The counters are built from the database once the application is ready, and rebuilt every night, which moves
+ * the landmark; in between, {@link CommandeService} adds the lignes of each commande once it is paid, and
+ * {@link LigneCommandeService} the lignes created for a commande already paid. Lignes updated or deleted afterwards, or
+ * commandes cancelled or refunded after being paid, are only accounted for by the next rebuild.
+ */
+@Service
+public class ProduitBestSellers {
+
+    public static final int MAX_BEST_SELLERS = 20;
+
+    static final Duration TRENDING_HALF_LIFE = Duration.ofDays(7);
+
+    /**
+     * Sales older than eight half-lives weigh less than 1/256 of the recent ones: they are not read back from the database.
+     */
+    private static final Duration TRENDING_WINDOW = TRENDING_HALF_LIFE.multipliedBy(8);
+
+    private static final double TRENDING_TAU_SECONDS = TRENDING_HALF_LIFE.getSeconds() / Math.log(2);
+
+    private final Logger log = LoggerFactory.getLogger(ProduitBestSellers.class);
+
+    private final LigneCommandeRepository ligneCommandeRepository;
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    private volatile Tally tally = new Tally(Instant.now());
+
+    /**
+     * The counters being built by a rebuild, which sales also add to while it runs, or {@code null} when no rebuild runs.
+     */
+    private volatile Tally rebuilding;
+
+    private volatile Leaderboards leaderboards = new Leaderboards(new Leaderboard(), new Leaderboard());
+
+    public ProduitBestSellers(LigneCommandeRepository ligneCommandeRepository, CatalogSnapshot catalogSnapshot) {
+        this.ligneCommandeRepository = ligneCommandeRepository;
+        this.catalogSnapshot = catalogSnapshot;
+    }
+
+    /**
+     * Build the counters from the database: the quantities of all time summed by the database, and those of the trending
+     * window streamed through a forward-only cursor. The sales committing meanwhile are added to the counters being built
+     * as well; one which committed right as the rebuild started may be counted twice, until the next rebuild.
+     * <p>
+     * This is scheduled to run every day, at 03:00 (am).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 3 * * ?")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Instant now = Instant.now();
+        Tally built = new Tally(now);
+        rebuilding = built;
+        for (ProduitVenteRow row : ligneCommandeRepository.sumQuantitesByProduit(EtatCommande.ACHETEES)) {
+            built.countersOf(row.getProduitId()).ventes.add(row.getQuantite());
+        }
+        try (Stream<ProduitVenteRow> rows = ligneCommandeRepository.streamVentesSince(EtatCommande.ACHETEES, now.minus(TRENDING_WINDOW))) {
+            rows.forEach(row -> built.countersOf(row.getProduitId()).tendance.add(built.weightOf(row.getDate(), row.getQuantite())));
+        }
+        // Ranked by the next refresh, which cannot read the catalog within this transaction
+        tally = built;
+        rebuilding = null;
+        log.info("Built the best sellers of {} produits", built.counters.size());
+    }
+
+    /**
+     * Add the lignes of a commande to the counters, once the current transaction, if any, is committed.
+     *
+     * @param lignes the lignes sold.
+     * @param date the date of their commande, {@code null} for now.
+     */
+    public void addVentes(Collection<LigneCommande> lignes, Instant date) {
+        List<ProduitVenteRow> ventes = new ArrayList<>(lignes.size());
+        for (LigneCommande ligne : lignes) {
+            if (ligne.getProduit() != null) {
+                ventes.add(new ProduitVenteRow(ligne.getProduit().getId(), date, ligne.getQuantite()));
+            }
+        }
+        if (ventes.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            // Read before the tally, as a rebuild publishes its counters before it stops recording into them
+            Tally built = rebuilding;
+            Tally current = tally;
+            current.add(ventes);
+            if (built != null && built != current) {
+                built.add(ventes);
+            }
+        });
+    }
+
+    /**
+     * Select the best sellers of each leaderboard from the counters, for the produits of the catalog.
+     * <p>
+     * This is scheduled to run every 10 seconds; nothing happens until the catalog is built.
+     */
+    @Scheduled(fixedDelay = 10_000)
+    public void refresh() {
+        catalogSnapshot.current().ifPresent(catalog -> refresh(catalog.findAllProduits()));
+    }
+
+    void refresh(Collection<ProduitDTO> produits) {
+        Tally current = tally;
+        Selection ventes = new Selection();
+        Selection tendance = new Selection();
+        for (ProduitDTO produit : produits) {
+            Counters counters = current.counters.get(produit.getId());
+            if (counters != null) {
+                ventes.offer(produit, counters.ventes.sum());
+                tendance.offer(produit, counters.tendance.sum());
+            }
+        }
+        leaderboards = new Leaderboards(ventes.toLeaderboard(), tendance.toLeaderboard());
+    }
+
+    /**
+     * @param categoryId the id of a category, or {@code null} for all the produits.
+     * @param trending whether to rank by the trending sales rather than by the sales of all time.
+     * @param size the maximum number of produits, capped to {@value #MAX_BEST_SELLERS}.
+     * @return the ids of the best selling produits, best first.
+     */
+    public List<Long> findBestSellers(Long categoryId, boolean trending, int size) {
+        Leaderboards current = leaderboards;
+        Leaderboard leaderboard = trending ? current.tendance : current.ventes;
+        long[] produitIds = categoryId == null ? leaderboard.all : leaderboard.byCategory.getOrDefault(categoryId, new long[0]);
+        List<Long> result = new ArrayList<>(Math.min(size, produitIds.length));
+        for (int index = 0; index < produitIds.length && index < size; index++) {
+            result.add(produitIds[index]);
+        }
+        return result;
+    }
+
+    private static final class Counters {
+
+        private final LongAdder ventes = new LongAdder();
+
+        private final DoubleAdder tendance = new DoubleAdder();
+    }
+
+    /**
+     * The counters of the produits, and the landmark of their trending weights.
+     */
+    private static final class Tally {
+
+        private final Instant landmark;
+
+        private final ConcurrentHashMap<Long, Counters> counters = new ConcurrentHashMap<>();
+
+        private Tally(Instant landmark) {
+            this.landmark = landmark;
+        }
+
+        private void add(List<ProduitVenteRow> ventes) {
+            for (ProduitVenteRow vente : ventes) {
+                Counters counters = countersOf(vente.getProduitId());
+                counters.ventes.add(vente.getQuantite());
+                counters.tendance.add(weightOf(vente.getDate(), vente.getQuantite()));
+            }
+        }
+
+        private Counters countersOf(Long produitId) {
+            // Lock-free once the produit has counters, which computeIfAbsent may not be
+            Counters existing = counters.get(produitId);
+            return existing != null ? existing : counters.computeIfAbsent(produitId, id -> new Counters());
+        }
+
+        private double weightOf(Instant date, long quantite) {
+            Instant at = date != null ? date : Instant.now();
+            return quantite * Math.exp(Duration.between(landmark, at).getSeconds() / TRENDING_TAU_SECONDS);
+        }
+    }
+
+    private static final class Leaderboards {
+
+        private final Leaderboard ventes;
+
+        private final Leaderboard tendance;
+
+        private Leaderboards(Leaderboard ventes, Leaderboard tendance) {
+            this.ventes = ventes;
+            this.tendance = tendance;
+        }
+    }
+
+    /**
+     * The ids of the best selling produits, best first, overall and per category.
+     */
+    private static final class Leaderboard {
+
+        private final long[] all;
+
+        private final Map<Long, long[]> byCategory;
+
+        private Leaderboard() {
+            this(new long[0], Map.of());
+        }
+
+        private Leaderboard(long[] all, Map<Long, long[]> byCategory) {
+            this.all = all;
+            this.byCategory = byCategory;
+        }
+    }
+
+    /**
+     * The bounded heaps of the best produits found so far, overall and per category: the root of a heap is the worst of
+     * its best, replaced when a better produit is offered.
+     */
+    private static final class Selection {
+
+        private static final Comparator<Score> WORST_FIRST = Comparator
+            .comparingDouble((Score score) -> score.value)
+            .thenComparing(Comparator.comparingLong((Score score) -> score.produitId).reversed());
+
+        private final PriorityQueue<Score> all = new PriorityQueue<>(WORST_FIRST);
+
+        private final Map<Long, PriorityQueue<Score>> byCategory = new HashMap<>();
+
+        void offer(ProduitDTO produit, double value) {
+            if (value <= 0) {
+                return;
+            }
+            Score score = new Score(produit.getId(), value);
+            offer(all, score);
+            if (produit.getCategories() == null) {
+                return;
+            }
+            for (CategoryDTO category : produit.getCategories()) {
+                offer(byCategory.computeIfAbsent(category.getId(), id -> new PriorityQueue<>(WORST_FIRST)), score);
+            }
+        }
+
+        private static void offer(PriorityQueue<Score> heap, Score score) {
+            if (heap.size() < MAX_BEST_SELLERS) {
+                heap.add(score);
+            } else if (WORST_FIRST.compare(score, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(score);
+            }
+        }
+
+        Leaderboard toLeaderboard() {
+            Map<Long, long[]> leaderboardByCategory = new HashMap<>();
+            byCategory.forEach((categoryId, heap) -> leaderboardByCategory.put(categoryId, bestFirst(heap)));
+            return new Leaderboard(bestFirst(all), leaderboardByCategory);
+        }
+
+        private static long[] bestFirst(PriorityQueue<Score> heap) {
+            long[] produitIds = new long[heap.size()];
+            for (int index = produitIds.length - 1; index >= 0; index--) {
+                produitIds[index] = heap.poll().produitId;
+            }
+            return produitIds;
+        }
+    }
+
+    private static final class Score {
+
+        private final long produitId;
+
+        private final double value;
+
+        private Score(long produitId, double value) {
+            this.produitId = produitId;
+            this.value = value;
+        }
+    }
+}
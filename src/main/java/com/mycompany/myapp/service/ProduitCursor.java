@@ -0,0 +1,178 @@
+package com.mycompany.myapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.function.Function;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Opaque position in a keyset (cursor) listing of {@link com.mycompany.myapp.domain.Produit}.
+ * <p>
+ * A listing is ordered on {@code (sort key, id)}. Rows whose sort key is {@code null} are served after all the
+ * non-null ones, ordered by id only, so a cursor also records in which of these two sections it stands.
+ * The encoded form is URL-safe and must be treated by clients as an opaque token.
+ */
+public final class ProduitCursor {
+
+    private static final String SEPARATOR = ",";
+
+    /**
+     * The {@link com.mycompany.myapp.domain.Produit} attributes a keyset listing can be sorted on.
+     */
+    public enum SortKey {
+        ID("id", Long::valueOf),
+        ID_PRODUIT("idProduit", Integer::valueOf),
+        LIBELLE("libelle", value -> value),
+        PRIX_UNITAIRE("prixUnitaire", Float::valueOf),
+        TAILLE("taille", Integer::valueOf);
+
+        private final String property;
+
+        private final Function<String, Comparable<?>> parser;
+
+        SortKey(String property, Function<String, Comparable<?>> parser) {
+            this.property = property;
+            this.parser = parser;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        Comparable<?> parse(String value) {
+            return parser.apply(value);
+        }
+
+        public static SortKey fromProperty(String property) {
+            return Arrays
+                .stream(values())
+                .filter(sortKey -> sortKey.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort property: " + property));
+        }
+    }
+
+    private final SortKey sortKey;
+
+    private final Sort.Direction direction;
+
+    private final boolean nullSection;
+
+    private final Comparable<?> value;
+
+    private final Long id;
+
+    public ProduitCursor(SortKey sortKey, Sort.Direction direction, boolean nullSection, Comparable<?> value, Long id) {
+        this.sortKey = Objects.requireNonNull(sortKey);
+        this.direction = Objects.requireNonNull(direction);
+        this.nullSection = nullSection || (sortKey != SortKey.ID && value == null);
+        this.value = this.nullSection ? null : value;
+        this.id = Objects.requireNonNull(id);
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return {@code true} if the cursor points past every row having a non-null sort key.
+     */
+    public boolean isNullSection() {
+        return nullSection;
+    }
+
+    public Comparable<?> getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Encode this cursor to an opaque, URL-safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        String raw = String.join(
+            SEPARATOR,
+            sortKey.name(),
+            direction.name(),
+            nullSection ? "1" : "0",
+            id.toString(),
+            value == null ? "" : value.toString()
+        );
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token the token.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static ProduitCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The value comes last, as a libelle may contain the separator.
+            String[] parts = raw.split(SEPARATOR, 5);
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            boolean nullSection = "1".equals(parts[2]);
+            return new ProduitCursor(
+                sortKey,
+                Sort.Direction.valueOf(parts[1]),
+                nullSection,
+                nullSection || sortKey == SortKey.ID ? null : sortKey.parse(parts[4]),
+                Long.valueOf(parts[3])
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProduitCursor)) {
+            return false;
+        }
+        ProduitCursor that = (ProduitCursor) o;
+        return (
+            nullSection == that.nullSection &&
+            sortKey == that.sortKey &&
+            direction == that.direction &&
+            Objects.equals(value, that.value) &&
+            Objects.equals(id, that.id)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sortKey, direction, nullSection, value, id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProduitCursor{" +
+            "sortKey=" + sortKey +
+            ", direction=" + direction +
+            ", nullSection=" + nullSection +
+            ", value=" + value +
+            ", id=" + id +
+            "}";
+    }
+}
@@ -0,0 +1,31 @@
+package com.mycompany.myapp.service;
+
+import java.util.Arrays;
+
+/**
+ * The {@link com.mycompany.myapp.domain.Produit} attributes the catalog can be faceted on.
+ */
+public enum ProduitFacet {
+    COULEUR("couleur"),
+    TAILLE("taille"),
+    PRIX_UNITAIRE("prixUnitaire"),
+    CATEGORY_ID("categoryId");
+
+    private final String property;
+
+    ProduitFacet(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static ProduitFacet fromProperty(String property) {
+        return Arrays
+            .stream(values())
+            .filter(facet -> facet.property.equals(property))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported facet: " + property));
+    }
+}
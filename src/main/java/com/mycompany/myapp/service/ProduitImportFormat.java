@@ -0,0 +1,39 @@
+package com.mycompany.myapp.service;
+
+import java.util.Arrays;
+import org.springframework.http.MediaType;
+
+/**
+ * The formats a bulk import of {@link com.mycompany.myapp.domain.Produit}s can be sent in.
+ */
+public enum ProduitImportFormat {
+    /**
+     * Comma-separated values, quoted as per RFC 4180, with a header row naming the {@link com.mycompany.myapp.service.dto.ProduitDTO}
+     * property of each column; the ids of the categories are separated by {@code |}.
+     */
+    CSV(ProduitImportFormat.TEXT_CSV_VALUE),
+    /**
+     * One {@link com.mycompany.myapp.service.dto.ProduitDTO} JSON object per line, as exported by {@code GET /api/produits/_export}.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE);
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    ProduitImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static ProduitImportFormat fromMediaType(MediaType mediaType) {
+        return Arrays
+            .stream(values())
+            .filter(format -> format.mediaType.isCompatibleWith(mediaType))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported import format: " + mediaType));
+    }
+}
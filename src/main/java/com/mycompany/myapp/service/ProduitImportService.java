@@ -0,0 +1,408 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.service.dto.CategoryDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import com.mycompany.myapp.service.dto.ProduitImportDTO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service importing {@link com.mycompany.myapp.domain.Produit}s in bulk.
+ * <p>
+ * Rows are parsed one at a time as they are read, and validated like a single creation. The valid rows are created in
+ * chunks, each in its own transaction with batched inserts, so memory stays flat whatever the size of the import and a
+ * failure only rolls back its own chunk; the rows of a failed chunk are then retried one by one, so that only the rows at
+ * fault are rejected.
+ */
+@Service
+public class ProduitImportService {
+
+    /**
+     * The maximum number of row errors reported; the rejected rows are still counted beyond it.
+     */
+    public static final int MAX_ERRORS = 1000;
+
+    /**
+     * The number of inserts sent to the database at once, matching the allocation size of the id sequence.
+     */
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    private static final Set<String> CSV_COLUMNS = Set.of(
+        "id",
+        "idProduit",
+        "libelle",
+        "description",
+        "prixUnitaire",
+        "taille",
+        "couleur",
+        "categories"
+    );
+
+    private final Logger log = LoggerFactory.getLogger(ProduitImportService.class);
+
+    private final ProduitService produitService;
+
+    private final CategoryRepository categoryRepository;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    public ProduitImportService(
+        ProduitService produitService,
+        CategoryRepository categoryRepository,
+        Validator validator,
+        ObjectMapper objectMapper
+    ) {
+        this.produitService = produitService;
+        this.categoryRepository = categoryRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Import produits, which must not have an id yet.
+     *
+     * @param reader the rows to import.
+     * @param format the format of the rows.
+     * @param chunkSize the number of produits created per transaction.
+     * @return how many rows were imported and why the others were rejected.
+     * @throws IOException if the rows cannot be read.
+     * @throws IllegalArgumentException if the header row of a CSV import names an unknown column.
+     */
+    public ProduitImportDTO importProduits(Reader reader, ProduitImportFormat format, int chunkSize) throws IOException {
+        log.debug("Request to import Produits as {} in chunks of {}", format, chunkSize);
+        Set<Long> categoryIds = categoryRepository.findAllIds();
+        RowReader rows = format == ProduitImportFormat.CSV
+            ? new CsvRowReader(reader)
+            : new NdjsonRowReader(reader, objectMapper.readerFor(ProduitDTO.class));
+        ProduitImportDTO report = new ProduitImportDTO();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        for (Row row = rows.next(); row != null; row = rows.next()) {
+            String error = row.error != null ? row.error : validate(row.produit, categoryIds);
+            if (error != null) {
+                reject(report, row.line, error);
+            } else {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    create(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        create(chunk, report);
+        log.info("Imported {} Produits, rejected {} rows", report.getImported(), report.getRejected());
+        return report;
+    }
+
+    /**
+     * @return why the produit cannot be created, or {@code null} if it can.
+     */
+    private String validate(ProduitDTO produit, Set<Long> categoryIds) {
+        if (produit.getId() != null) {
+            return "A new produit cannot already have an ID";
+        }
+        String violations = validator
+            .validate(produit)
+            .stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+        if (!violations.isEmpty()) {
+            return violations;
+        }
+        if (produit.getCategories() == null) {
+            produit.setCategories(new HashSet<>());
+        }
+        for (CategoryDTO category : produit.getCategories()) {
+            if (category == null || !categoryIds.contains(category.getId())) {
+                return "Unknown category: " + (category == null ? null : category.getId());
+            }
+        }
+        return null;
+    }
+
+    private void create(List<Row> chunk, ProduitImportDTO report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            produitService.createAll(chunk.stream().map(row -> row.produit).collect(Collectors.toList()), JDBC_BATCH_SIZE);
+            report.setImported(report.getImported() + chunk.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not import a chunk of {} Produits, retrying them one by one: {}", chunk.size(), e.getMessage());
+            for (Row row : chunk) {
+                try {
+                    produitService.createAll(List.of(row.produit), JDBC_BATCH_SIZE);
+                    report.setImported(report.getImported() + 1);
+                } catch (RuntimeException rowException) {
+                    reject(report, row.line, NestedExceptionUtils.getMostSpecificCause(rowException).getMessage());
+                }
+            }
+        }
+    }
+
+    private static void reject(ProduitImportDTO report, long line, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < MAX_ERRORS) {
+            report.getErrors().add(new ProduitImportDTO.RowError(line, message));
+        }
+    }
+
+    /**
+     * A parsed row: either a produit, or why it could not be parsed.
+     */
+    private static final class Row {
+
+        private final long line;
+
+        private final ProduitDTO produit;
+
+        private final String error;
+
+        private Row(long line, ProduitDTO produit, String error) {
+            this.line = line;
+            this.produit = produit;
+            this.error = error;
+        }
+
+        static Row of(long line, ProduitDTO produit) {
+            return new Row(line, produit, null);
+        }
+
+        static Row error(long line, String error) {
+            return new Row(line, null, error);
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * @return the next row, or {@code null} at the end of the input.
+         */
+        Row next() throws IOException;
+    }
+
+    /**
+     * Reads one JSON object per line, skipping the blank lines.
+     */
+    private static final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+
+        private final ObjectReader objectReader;
+
+        private long line;
+
+        NdjsonRowReader(Reader reader, ObjectReader objectReader) {
+            this.reader = new BufferedReader(reader);
+            this.objectReader = objectReader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                return Row.of(line, objectReader.readValue(text));
+            } catch (JsonProcessingException e) {
+                return Row.error(line, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads comma-separated records as per RFC 4180: a field may be quoted, and a quoted field may hold commas, line
+     * breaks and doubled quotes. The first record names the columns; blank lines are skipped, and empty fields are
+     * {@code null}.
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+        private final Reader reader;
+
+        private final List<String> columns;
+
+        private long line = 1;
+
+        CsvRowReader(Reader reader) throws IOException {
+            this.reader = new BufferedReader(reader);
+            Record header = readRecord();
+            if (header == null || header.unterminated) {
+                throw new IllegalArgumentException("Missing CSV header row");
+            }
+            columns = header.fields.stream().map(String::trim).collect(Collectors.toList());
+            if (!columns.isEmpty() && columns.get(0).startsWith(BYTE_ORDER_MARK)) {
+                columns.set(0, columns.get(0).substring(1));
+            }
+            for (String column : columns) {
+                if (!CSV_COLUMNS.contains(column)) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + column);
+                }
+            }
+            if (new HashSet<>(columns).size() != columns.size()) {
+                throw new IllegalArgumentException("Duplicate CSV column in: " + columns);
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            Record record;
+            do {
+                record = readRecord();
+            } while (record != null && record.isBlank());
+            if (record == null) {
+                return null;
+            }
+            if (record.unterminated) {
+                return Row.error(record.line, "Unterminated quoted field");
+            }
+            if (record.fields.size() != columns.size()) {
+                return Row.error(record.line, "Expected " + columns.size() + " fields but found " + record.fields.size());
+            }
+            ProduitDTO produit = new ProduitDTO();
+            for (int index = 0; index < columns.size(); index++) {
+                String value = record.fields.get(index).trim();
+                if (!value.isEmpty()) {
+                    try {
+                        set(produit, columns.get(index), value);
+                    } catch (NumberFormatException e) {
+                        return Row.error(record.line, columns.get(index) + ": not a number: " + value);
+                    }
+                }
+            }
+            return Row.of(record.line, produit);
+        }
+
+        private static void set(ProduitDTO produit, String column, String value) {
+            switch (column) {
+                case "id":
+                    produit.setId(Long.valueOf(value));
+                    break;
+                case "idProduit":
+                    produit.setIdProduit(Integer.valueOf(value));
+                    break;
+                case "libelle":
+                    produit.setLibelle(value);
+                    break;
+                case "description":
+                    produit.setDescription(value);
+                    break;
+                case "prixUnitaire":
+                    produit.setPrixUnitaire(Float.valueOf(value));
+                    break;
+                case "taille":
+                    produit.setTaille(Integer.valueOf(value));
+                    break;
+                case "couleur":
+                    produit.setCouleur(value);
+                    break;
+                case "categories":
+                    produit.setCategories(
+                        Arrays
+                            .stream(value.split("\\|"))
+                            .map(String::trim)
+                            .filter(id -> !id.isEmpty())
+                            .map(id -> {
+                                CategoryDTO category = new CategoryDTO();
+                                category.setId(Long.valueOf(id));
+                                return category;
+                            })
+                            .collect(Collectors.toSet())
+                    );
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected CSV column: " + column);
+            }
+        }
+
+        /**
+         * @return the next record, or {@code null} at the end of the input.
+         */
+        private Record readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            Record record = new Record(line);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        record.unterminated = true;
+                        record.fields.add(field.toString());
+                        return record;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    record.fields.add(field.toString());
+                    if (c == '\n') {
+                        line++;
+                    }
+                    return record;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            return reader.read();
+        }
+    }
+
+    private static final class Record {
+
+        private final long line;
+
+        private final List<String> fields = new ArrayList<>();
+
+        private boolean unterminated;
+
+        Record(long line) {
+            this.line = line;
+        }
+
+        boolean isBlank() {
+            return !unterminated && fields.size() == 1 && fields.get(0).isBlank();
+        }
+    }
+}
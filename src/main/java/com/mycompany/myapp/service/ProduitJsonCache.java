@@ -0,0 +1,225 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Cache of the JSON representations of single {@link com.mycompany.myapp.domain.Produit}s, as served by
+ * {@code GET /api/produits/{id}}, so that a hit skips the database, the mapping and the serialization.
+ * <p>
+ * Each entry holds the UTF-8 JSON bytes, their ETag and, when it is worth it, a gzipped copy. The cache is bounded by
+ * the total size of the entries, {@code application.produit-json-cache.max-bytes}, evicting the least recently used
+ * ones first. An entry is evicted when its produit, one of its avis or one of its categories is written. Hits, misses,
+ * evictions, the number of entries and their size are reported under the {@value #METER_PREFIX} meters.
+ */
+@Service
+public class ProduitJsonCache {
+
+    public static final String METER_PREFIX = "produit.json.cache";
+
+    /**
+     * Below this size, gzip does not save enough to be worth decompressing.
+     */
+    private static final int GZIP_MIN_BYTES = 512;
+
+    private final long maxBytes;
+
+    /**
+     * The entries in access order, guarded by its own monitor.
+     */
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+
+    /**
+     * Incremented by each eviction, so that a representation built before an eviction is not cached after it.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    public ProduitJsonCache(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        this.maxBytes = applicationProperties.getProduitJsonCache().getMaxBytes();
+        this.hits = Counter.builder(METER_PREFIX + ".gets").tag("result", "hit").register(registry);
+        this.misses = Counter.builder(METER_PREFIX + ".gets").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder(METER_PREFIX + ".evictions").register(registry);
+        Gauge.builder(METER_PREFIX + ".size", this, ProduitJsonCache::size).register(registry);
+        Gauge.builder(METER_PREFIX + ".memory", this, ProduitJsonCache::bytes).baseUnit("bytes").register(registry);
+    }
+
+    /**
+     * @return the generation to pass to {@link #put}, to be read before the produit is loaded.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Optional<Entry> get(Long id) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(id);
+        }
+        (entry == null ? misses : hits).increment();
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Cache the representation of a produit, unless a produit was written since the given generation.
+     *
+     * @param id the id of the produit.
+     * @param entry its representation.
+     * @param generation the {@link #generation()} read before the produit was loaded.
+     */
+    public void put(Long id, Entry entry, long generation) {
+        if (entry.size() > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(id, entry);
+            bytes += entry.size() - (previous == null ? 0 : previous.size());
+            Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= leastRecentlyUsed.next().size();
+                leastRecentlyUsed.remove();
+                evictions.increment();
+            }
+            // Checked after the put: an eviction running concurrently either sees the entry, or is seen here
+            if (this.generation.get() != generation) {
+                remove(id);
+            }
+        }
+    }
+
+    /**
+     * Evict the representation of a produit, once the current transaction, if any, is committed.
+     *
+     * @param id the id of the produit.
+     */
+    public void evict(Long id) {
+        TransactionCallbacks.afterCommit(() -> {
+            generation.incrementAndGet();
+            synchronized (entries) {
+                remove(id);
+            }
+        });
+    }
+
+    /**
+     * Evict the representations of produits, once the current transaction, if any, is committed, under a single lock.
+     *
+     * @param ids the ids of the produits.
+     */
+    public void evictAll(Collection<Long> ids) {
+        List<Long> evicted = new ArrayList<>(ids);
+        TransactionCallbacks.afterCommit(() -> {
+            generation.incrementAndGet();
+            synchronized (entries) {
+                evicted.forEach(this::remove);
+            }
+        });
+    }
+
+    private void remove(Long id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            bytes -= removed.size();
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private long bytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    /**
+     * The JSON representation of a produit, ready to be written to a response.
+     */
+    public static final class Entry {
+
+        private final byte[] json;
+
+        private final byte[] gzip;
+
+        private final String eTag;
+
+        private Entry(byte[] json, byte[] gzip, String eTag) {
+            this.json = json;
+            this.gzip = gzip;
+            this.eTag = eTag;
+        }
+
+        /**
+         * @param json the UTF-8 JSON bytes of a produit; they must not be modified afterwards.
+         * @return the representation of the produit.
+         */
+        public static Entry of(byte[] json) {
+            return new Entry(json, json.length < GZIP_MIN_BYTES ? null : gzip(json), '"' + DigestUtils.md5DigestAsHex(json) + '"');
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return the gzipped JSON bytes, or empty if the JSON is too small to be worth compressing.
+         */
+        public Optional<byte[]> getGzip() {
+            return Optional.ofNullable(gzip);
+        }
+
+        /**
+         * @return the strong ETag of the JSON, quoted.
+         */
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * @return the strong ETag of the gzipped JSON, which is a distinct representation: the one of the JSON suffixed
+         * with {@code -gz}, quoted.
+         */
+        public String getGzipETag() {
+            return eTag.substring(0, eTag.length() - 1) + "-gz\"";
+        }
+
+        long size() {
+            return (long) json.length + (gzip == null ? 0 : gzip.length);
+        }
+
+        private static byte[] gzip(byte[] json) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(json.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+                gzip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return output.toByteArray();
+        }
+    }
+}
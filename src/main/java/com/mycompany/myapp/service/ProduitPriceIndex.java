@@ -0,0 +1,303 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.repository.ProduitRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.service.filter.FloatFilter;
+
+/**
+ * In-memory index of the {@link com.mycompany.myapp.domain.Produit} prices, answering price range queries and listings
+ * sorted by price with binary searches rather than a scan of the {@code produit} table.
+ * <p>
+ * The prices and the ids are held in two parallel primitive arrays sorted by price then id; produits without a price are
+ * not indexed. The arrays of a {@link Snapshot} are never modified: a write copies them into a new snapshot, so readers
+ * never lock. The index is built from the database once the application is ready and every night, and the prices of
+ * the produits written are read again when a write commits; until it is first built, it answers no query.
+ */
+@Service
+public class ProduitPriceIndex {
+
+    private static final int BUILD_FETCH_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(ProduitPriceIndex.class);
+
+    private final ProduitRepository produitRepository;
+
+    /**
+     * Reads the prices of the produits written in their own transaction, as the one of the write is over once it commits.
+     */
+    private final TransactionTemplate refreshTransactionTemplate;
+
+    private volatile Snapshot snapshot;
+
+    public ProduitPriceIndex(ProduitRepository produitRepository, PlatformTransactionManager transactionManager) {
+        this.produitRepository = produitRepository;
+        this.refreshTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.refreshTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Build the index from the database. Writes committing meanwhile are read again once it is built, so the index ends
+     * up consistent whether the build read them or not.
+     * <p>
+     * This is also scheduled to run every day, at 04:10 (am), to repair a refresh which failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 10 4 * * ?")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        SnapshotBuilder builder = new SnapshotBuilder();
+        produitRepository.scrollPrices(BUILD_FETCH_SIZE, builder::add);
+        snapshot = builder.build();
+        log.info("Built the Produit price index for {} produits", snapshot.size);
+    }
+
+    /**
+     * @param filter a filter on the price.
+     * @return {@code true} if the ids matching the filter can be read from the index, that is if the filter is a range
+     * which excludes the produits without a price.
+     */
+    public static boolean isSupported(FloatFilter filter) {
+        return (
+            filter != null &&
+            filter.getIn() == null &&
+            filter.getNotIn() == null &&
+            filter.getNotEquals() == null &&
+            !Boolean.FALSE.equals(filter.getSpecified()) &&
+            (
+                filter.getEquals() != null ||
+                filter.getGreaterThan() != null ||
+                filter.getGreaterThanOrEqual() != null ||
+                filter.getLessThan() != null ||
+                filter.getLessThanOrEqual() != null ||
+                Boolean.TRUE.equals(filter.getSpecified())
+            )
+        );
+    }
+
+    /**
+     * Return a page of the ids of the produits whose price matches the filter, ordered by price then id.
+     *
+     * @param filter a filter on the price, which must be {@link #isSupported supported}.
+     * @param direction the direction of the ordering.
+     * @param pageable the page request; its sort is ignored.
+     * @return the page of ids, or empty if the index is not built yet.
+     */
+    public Optional<Page<Long>> findIds(FloatFilter filter, Sort.Direction direction, Pageable pageable) {
+        if (!isSupported(filter)) {
+            throw new IllegalArgumentException("The filter cannot be answered by the price index: " + filter);
+        }
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        int from = 0;
+        int to = current.size;
+        // Like the range specification, an equals filter takes precedence over the bounds
+        if (filter.getEquals() != null) {
+            from = current.lowerBound(filter.getEquals());
+            to = current.upperBound(filter.getEquals());
+        } else {
+            if (filter.getGreaterThan() != null) {
+                from = Math.max(from, current.upperBound(filter.getGreaterThan()));
+            }
+            if (filter.getGreaterThanOrEqual() != null) {
+                from = Math.max(from, current.lowerBound(filter.getGreaterThanOrEqual()));
+            }
+            if (filter.getLessThan() != null) {
+                to = Math.min(to, current.lowerBound(filter.getLessThan()));
+            }
+            if (filter.getLessThanOrEqual() != null) {
+                to = Math.min(to, current.upperBound(filter.getLessThanOrEqual()));
+            }
+        }
+        int total = Math.max(0, to - from);
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        long end = pageable.isPaged() ? Math.min(total, offset + pageable.getPageSize()) : total;
+        List<Long> ids = new ArrayList<>((int) Math.max(0, end - offset));
+        for (long rank = offset; rank < end; rank++) {
+            int position = direction.isAscending() ? from + (int) rank : to - 1 - (int) rank;
+            ids.add(current.ids[position]);
+        }
+        return Optional.of(new PageImpl<>(ids, pageable, total));
+    }
+
+    /**
+     * Read the price of a produit again once the current transaction, if any, is committed, and index it in place of
+     * its previous one; a produit which no longer exists, or has no price, is removed from the index.
+     *
+     * @param id the id of the produit.
+     */
+    public void refresh(long id) {
+        refreshAll(List.of(id));
+    }
+
+    /**
+     * Read the prices of produits again once the current transaction, if any, is committed, and index them in place of
+     * their previous ones. This copies the index once, however many produits are written.
+     *
+     * @param ids the ids of the produits.
+     */
+    public void refreshAll(Collection<Long> ids) {
+        List<Long> changedIds = List.copyOf(ids);
+        TransactionCallbacks.afterCommit(() -> applyRefresh(changedIds));
+    }
+
+    /**
+     * Reads are serialized along with the changes, so whatever the order in which concurrent writes run their callbacks,
+     * the last prices applied were read after they all committed. A refresh which fails is logged, and repaired by the
+     * next rebuild.
+     */
+    private synchronized void applyRefresh(List<Long> ids) {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            Map<Long, Float> changes = refreshTransactionTemplate.execute(status -> {
+                Map<Long, Float> prices = new HashMap<>();
+                ids.forEach(id -> prices.put(id, null));
+                produitRepository.findPrixByIdIn(ids).forEach(row -> prices.put(row.getProduitId(), row.getPrixUnitaire()));
+                return prices;
+            });
+            snapshot = snapshot.withAll(changes);
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the Produit price index, until its next rebuild: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Prices sorted in ascending order, and the ids of their produits at the same positions. Prices are compared with the
+     * {@code float} operators rather than {@link Float#compare}, so that {@code -0.0} and {@code 0.0} are equal like in SQL.
+     */
+    private static final class Snapshot {
+
+        private final float[] prices;
+
+        private final long[] ids;
+
+        private final int size;
+
+        Snapshot(float[] prices, long[] ids, int size) {
+            this.prices = prices;
+            this.ids = ids;
+            this.size = size;
+        }
+
+        /**
+         * @return the position of the first price greater than or equal to the given one.
+         */
+        int lowerBound(float price) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] < price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the position of the first price strictly greater than the given one.
+         */
+        int upperBound(float price) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] <= price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @param changes the new price of each changed produit, or {@code null} for the produits to remove.
+         * @return a copy of this snapshot where the changed produits have their new price, merged in a single pass.
+         */
+        Snapshot withAll(Map<Long, Float> changes) {
+            SnapshotBuilder added = new SnapshotBuilder();
+            changes
+                .entrySet()
+                .stream()
+                .filter(change -> change.getValue() != null)
+                .sorted(Map.Entry.<Long, Float>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(change -> added.add(change.getKey(), change.getValue()));
+            float[] newPrices = new float[size + added.size];
+            long[] newIds = new long[size + added.size];
+            int target = 0;
+            int next = 0;
+            for (int position = 0; position < size; position++) {
+                if (changes.containsKey(ids[position])) {
+                    continue;
+                }
+                while (next < added.size && isBefore(added.prices[next], added.ids[next], prices[position], ids[position])) {
+                    newPrices[target] = added.prices[next];
+                    newIds[target++] = added.ids[next++];
+                }
+                newPrices[target] = prices[position];
+                newIds[target++] = ids[position];
+            }
+            while (next < added.size) {
+                newPrices[target] = added.prices[next];
+                newIds[target++] = added.ids[next++];
+            }
+            return new Snapshot(newPrices, newIds, target);
+        }
+
+        private static boolean isBefore(float price, long id, float otherPrice, long otherId) {
+            return price < otherPrice || (price == otherPrice && id < otherId);
+        }
+    }
+
+    /**
+     * Accumulates prices added in ascending order into growing primitive arrays.
+     */
+    private static final class SnapshotBuilder {
+
+        private float[] prices = new float[BUILD_FETCH_SIZE];
+
+        private long[] ids = new long[BUILD_FETCH_SIZE];
+
+        private int size;
+
+        void add(Long id, Float prixUnitaire) {
+            if (size == prices.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            prices[size] = prixUnitaire;
+            ids[size++] = id;
+        }
+
+        Snapshot build() {
+            return new Snapshot(prices, ids, size);
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.criteria.ProduitCriteria;
+import com.mycompany.myapp.service.dto.CategoryDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.FloatFilter;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Cache of the {@link com.mycompany.myapp.domain.Produit} pages, and of the slices of the keyset listings, matching a
+ * {@link ProduitCriteria}.
+ * <p>
+ * Only the ids of a page, along with its total count or the cursor of the next slice, are cached, keyed by a canonical form
+ * of the criteria and the page or slice request: the entities themselves are read back from the second-level cache, so an
+ * update of a produit never leaves a stale copy of it here. When a produit is written, the pages whose criteria matched
+ * it before or match it after the write are evicted. The cached keys are indexed by the categories and the lowest price
+ * their criteria require, so that a write only checks the criteria of the pages which may hold the produit.
+ * Criteria filtering on images, avis or ligneCommandes are not cached, as writes to those entities are not tracked.
+ * The cache is bounded in size and time to live by the {@code jhipster.cache.ehcache} settings.
+ */
+@Service
+public class ProduitQueryCache {
+
+    public static final String PRODUITS_BY_CRITERIA_CACHE = "produitsByCriteria";
+
+    private final Logger log = LoggerFactory.getLogger(ProduitQueryCache.class);
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Incremented by each eviction, so that a page read before an eviction is not cached after it.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final KeyIndex keyIndex = new KeyIndex();
+
+    public ProduitQueryCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * @param criteria the criteria of a listing.
+     * @return {@code true} if the pages of the listing can be cached.
+     */
+    public static boolean isCacheable(ProduitCriteria criteria) {
+        return criteria == null || (criteria.getImageId() == null && criteria.getLigneCommandeId() == null && criteria.getAvisId() == null);
+    }
+
+    /**
+     * @return the generation to pass to {@link #put}, to be read before the page is queried.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Optional<CachedPage> get(ProduitCriteria criteria, Pageable pageable) {
+        Object cachedPage = cache().get(new Key(criteria, pageable));
+        return Optional.ofNullable((CachedPage) cachedPage);
+    }
+
+    /**
+     * Cache a page, unless a produit was written since the given generation.
+     *
+     * @param criteria the criteria of the listing.
+     * @param pageable the page request.
+     * @param ids the ids of the produits of the page, in order.
+     * @param total the total number of produits matching the criteria.
+     * @param generation the {@link #generation()} read before the page was queried.
+     */
+    public void put(ProduitCriteria criteria, Pageable pageable, List<Long> ids, long total, long generation) {
+        put(new Key(criteria, pageable), new CachedPage(ids, total, null), generation);
+    }
+
+    public Optional<CachedPage> get(ProduitCriteria criteria, SliceRequest sliceRequest) {
+        Object cachedSlice = cache().get(new Key(criteria, sliceRequest));
+        return Optional.ofNullable((CachedPage) cachedSlice);
+    }
+
+    /**
+     * Cache a slice of a keyset listing, unless a produit was written since the given generation.
+     *
+     * @param criteria the criteria of the listing.
+     * @param sliceRequest the slice request.
+     * @param ids the ids of the produits of the slice, in order.
+     * @param nextCursor the cursor of the next slice, {@code null} if it is the last one.
+     * @param generation the {@link #generation()} read before the slice was queried.
+     */
+    public void put(ProduitCriteria criteria, SliceRequest sliceRequest, List<Long> ids, String nextCursor, long generation) {
+        put(new Key(criteria, sliceRequest), new CachedPage(ids, ids.size(), nextCursor), generation);
+    }
+
+    private void put(Key key, CachedPage cachedPage, long generation) {
+        Cache<Object, Object> cache = cache();
+        cache.put(key, cachedPage);
+        keyIndex.add(key, cache);
+        // Checked once indexed: an eviction running concurrently either finds the key in the index, or is seen here
+        if (this.generation.get() != generation) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Evict the pages a write of a produit may change, once the current transaction, if any, is committed.
+     *
+     * @param before the produit before the write, {@code null} if it is created.
+     * @param after the produit after the write, {@code null} if it is deleted.
+     */
+    public void evict(ProduitDTO before, ProduitDTO after) {
+        TransactionCallbacks.afterCommit(() -> {
+            generation.incrementAndGet();
+            Set<Key> keys = new HashSet<>();
+            for (ProduitDTO produit : new ProduitDTO[] { before, after }) {
+                if (produit != null) {
+                    keyIndex.candidates(produit).stream().filter(key -> matches(key.criteria, produit)).forEach(keys::add);
+                }
+            }
+            log.debug("Evicting {} cached Produit pages", keys.size());
+            keyIndex.removeAll(keys);
+            cache().removeAll(keys);
+        });
+    }
+
+    /**
+     * Evict all the pages, once the current transaction, if any, is committed.
+     */
+    public void evictAll() {
+        TransactionCallbacks.afterCommit(() -> {
+            generation.incrementAndGet();
+            keyIndex.clear();
+            cache().removeAll();
+        });
+    }
+
+    private Cache<Object, Object> cache() {
+        return cacheManager.getCache(PRODUITS_BY_CRITERIA_CACHE);
+    }
+
+    private static boolean matches(ProduitCriteria criteria, ProduitDTO produit) {
+        if (produit == null) {
+            return false;
+        }
+        if (criteria == null) {
+            return true;
+        }
+        Set<Long> categoryIds = produit.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+        return (
+            CriteriaFilters.matches(criteria.getId(), produit.getId()) &&
+            CriteriaFilters.matches(criteria.getIdProduit(), produit.getIdProduit()) &&
+            CriteriaFilters.matches(criteria.getLibelle(), produit.getLibelle()) &&
+            CriteriaFilters.matches(criteria.getDescription(), produit.getDescription()) &&
+            CriteriaFilters.matches(criteria.getPrixUnitaire(), produit.getPrixUnitaire()) &&
+            CriteriaFilters.matches(criteria.getTaille(), produit.getTaille()) &&
+            CriteriaFilters.matches(criteria.getCouleur(), produit.getCouleur()) &&
+            CriteriaFilters.matchesAny(criteria.getCategoryId(), categoryIds)
+        );
+    }
+
+    /**
+     * The ids of the produits of a page, and the total number of produits matching its criteria, or, for a slice of a
+     * keyset listing, the cursor of the next slice.
+     */
+    public static final class CachedPage implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Long> ids;
+
+        private final long total;
+
+        private final String nextCursor;
+
+        CachedPage(List<Long> ids, long total, String nextCursor) {
+            this.ids = List.copyOf(ids);
+            this.total = total;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    /**
+     * The request of a slice of a keyset listing: its ordering, the cursor it starts after and its size.
+     */
+    public static final class SliceRequest implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ProduitCursor.SortKey sortKey;
+
+        private final Sort.Direction direction;
+
+        private final String after;
+
+        private final int limit;
+
+        public SliceRequest(ProduitCursor.SortKey sortKey, Sort.Direction direction, ProduitCursor after, int limit) {
+            this.sortKey = sortKey;
+            this.direction = direction;
+            this.after = after == null ? null : after.encode();
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SliceRequest)) {
+                return false;
+            }
+            SliceRequest that = (SliceRequest) o;
+            return sortKey == that.sortKey && direction == that.direction && Objects.equals(after, that.after) && limit == that.limit;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sortKey, direction, after, limit);
+        }
+    }
+
+    /**
+     * The cached keys, by the categories one of which their criteria require, or else by the lowest price their criteria
+     * require. A write of a produit then only checks the keys indexed under its categories, under a price up to its own,
+     * and the keys whose criteria require neither.
+     * <p>
+     * Entries expiring from the cache are not notified: the keys which are no longer cached are dropped whenever the
+     * index doubles in size.
+     */
+    private static final class KeyIndex {
+
+        private static final int MIN_PRUNE_SIZE = 1024;
+
+        private final Set<Key> keys = new HashSet<>();
+
+        private final Map<Long, Set<Key>> keysByCategory = new HashMap<>();
+
+        private final NavigableMap<Float, Set<Key>> keysByLowestPrice = new TreeMap<>();
+
+        private final Set<Key> otherKeys = new HashSet<>();
+
+        private int pruneSize = MIN_PRUNE_SIZE;
+
+        synchronized void add(Key key, Cache<Object, Object> cache) {
+            if (!keys.add(key)) {
+                return;
+            }
+            Set<Long> categoryIds = requiredCategoryIds(key.criteria);
+            Float lowestPrice = requiredLowestPrice(key.criteria);
+            if (!categoryIds.isEmpty()) {
+                categoryIds.forEach(categoryId -> keysByCategory.computeIfAbsent(categoryId, id -> new HashSet<>()).add(key));
+            } else if (lowestPrice != null) {
+                keysByLowestPrice.computeIfAbsent(lowestPrice, price -> new HashSet<>()).add(key);
+            } else {
+                otherKeys.add(key);
+            }
+            if (keys.size() > pruneSize) {
+                removeAll(keys.stream().filter(indexed -> !cache.containsKey(indexed)).collect(Collectors.toList()));
+                pruneSize = Math.max(MIN_PRUNE_SIZE, 2 * keys.size());
+            }
+        }
+
+        /**
+         * @return the keys whose criteria may match the produit.
+         */
+        synchronized List<Key> candidates(ProduitDTO produit) {
+            List<Key> candidates = new ArrayList<>(otherKeys);
+            for (CategoryDTO category : produit.getCategories()) {
+                candidates.addAll(keysByCategory.getOrDefault(category.getId(), Set.of()));
+            }
+            if (produit.getPrixUnitaire() != null) {
+                keysByLowestPrice.headMap(produit.getPrixUnitaire(), true).values().forEach(candidates::addAll);
+            }
+            return candidates;
+        }
+
+        synchronized void removeAll(Collection<Key> removed) {
+            for (Key key : removed) {
+                if (!keys.remove(key)) {
+                    continue;
+                }
+                Set<Long> categoryIds = requiredCategoryIds(key.criteria);
+                Float lowestPrice = requiredLowestPrice(key.criteria);
+                if (!categoryIds.isEmpty()) {
+                    categoryIds.forEach(categoryId -> removeFrom(keysByCategory, categoryId, key));
+                } else if (lowestPrice != null) {
+                    removeFrom(keysByLowestPrice, lowestPrice, key);
+                } else {
+                    otherKeys.remove(key);
+                }
+            }
+        }
+
+        synchronized void clear() {
+            keys.clear();
+            keysByCategory.clear();
+            keysByLowestPrice.clear();
+            otherKeys.clear();
+        }
+
+        private static <K> void removeFrom(Map<K, Set<Key>> index, K indexKey, Key key) {
+            Set<Key> indexed = index.get(indexKey);
+            if (indexed != null && indexed.remove(key) && indexed.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
+
+        /**
+         * @return the categories one of which a produit must have to match the criteria, empty if it may have any.
+         */
+        private static Set<Long> requiredCategoryIds(ProduitCriteria criteria) {
+            LongFilter filter = criteria == null ? null : criteria.getCategoryId();
+            if (filter == null) {
+                return Set.of();
+            } else if (filter.getEquals() != null) {
+                return Set.of(filter.getEquals());
+            } else if (filter.getIn() != null) {
+                return filter.getIn().stream().filter(Objects::nonNull).collect(Collectors.toSet());
+            }
+            return Set.of();
+        }
+
+        /**
+         * @return the price a produit must have at least to match the criteria, {@code null} if it may have any.
+         */
+        private static Float requiredLowestPrice(ProduitCriteria criteria) {
+            FloatFilter filter = criteria == null ? null : criteria.getPrixUnitaire();
+            if (filter == null) {
+                return null;
+            } else if (filter.getEquals() != null) {
+                return filter.getEquals();
+            } else if (filter.getIn() != null) {
+                return filter.getIn().stream().filter(Objects::nonNull).min(Float::compare).orElse(null);
+            }
+            Float lowestPrice = null;
+            for (Float bound : new Float[] { filter.getGreaterThan(), filter.getGreaterThanOrEqual() }) {
+                if (bound != null && (lowestPrice == null || bound > lowestPrice)) {
+                    lowestPrice = bound;
+                }
+            }
+            return lowestPrice;
+        }
+    }
+
+    private static final class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ProduitCriteria criteria;
+
+        /**
+         * The {@link Pageable} of a page, or the {@link SliceRequest} of a slice.
+         */
+        private final Object request;
+
+        Key(ProduitCriteria criteria, Pageable pageable) {
+            this.criteria = canonical(criteria);
+            this.request = pageable;
+        }
+
+        Key(ProduitCriteria criteria, SliceRequest sliceRequest) {
+            this.criteria = canonical(criteria);
+            this.request = sliceRequest;
+        }
+
+        /**
+         * Copy the criteria with its {@code in} and {@code notIn} values sorted and deduplicated, so that criteria which
+         * only differ by the order of those values share their cached pages.
+         */
+        private static ProduitCriteria canonical(ProduitCriteria criteria) {
+            if (criteria == null) {
+                return null;
+            }
+            ProduitCriteria canonical = criteria.copy();
+            canonical.setId(canonical(canonical.getId()));
+            canonical.setIdProduit(canonical(canonical.getIdProduit()));
+            canonical.setLibelle(canonical(canonical.getLibelle()));
+            canonical.setDescription(canonical(canonical.getDescription()));
+            canonical.setPrixUnitaire(canonical(canonical.getPrixUnitaire()));
+            canonical.setTaille(canonical(canonical.getTaille()));
+            canonical.setCouleur(canonical(canonical.getCouleur()));
+            canonical.setCategoryId(canonical(canonical.getCategoryId()));
+            return canonical;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static <F extends Filter<?>> F canonical(F filter) {
+            if (filter != null) {
+                Filter raw = filter;
+                if (raw.getIn() != null) {
+                    raw.setIn(canonical(raw.getIn()));
+                }
+                if (raw.getNotIn() != null) {
+                    raw.setNotIn(canonical(raw.getNotIn()));
+                }
+            }
+            return filter;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static List canonical(List<? extends Comparable> values) {
+            return values.stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return Objects.equals(criteria, that.criteria) && Objects.equals(request, that.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(criteria, request);
+        }
+    }
+}
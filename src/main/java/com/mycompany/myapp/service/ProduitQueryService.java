@@ -2,19 +2,39 @@ package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.*; //
 import com.mycompany.myapp.domain.Produit;
+import com.mycompany.myapp.repository.ProduitFacetRow;
+import com.mycompany.myapp.repository.ProduitField;
 import com.mycompany.myapp.repository.ProduitRepository;
 import com.mycompany.myapp.service.criteria.ProduitCriteria;
 import com.mycompany.myapp.service.dto.ProduitDTO;
+import com.mycompany.myapp.service.dto.ProduitFacetsDTO;
 import com.mycompany.myapp.service.mapper.ProduitMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -29,13 +49,26 @@ public class ProduitQueryService extends QueryService<Produit> {
 
     private final Logger log = LoggerFactory.getLogger(ProduitQueryService.class);
 
+    private static final int SCROLL_FETCH_SIZE = 500;
+
     private final ProduitRepository produitRepository;
 
     private final ProduitMapper produitMapper;
 
-    public ProduitQueryService(ProduitRepository produitRepository, ProduitMapper produitMapper) {
+    private final ProduitQueryCache produitQueryCache;
+
+    private final ProduitPriceIndex produitPriceIndex;
+
+    public ProduitQueryService(
+        ProduitRepository produitRepository,
+        ProduitMapper produitMapper,
+        ProduitQueryCache produitQueryCache,
+        ProduitPriceIndex produitPriceIndex
+    ) {
         this.produitRepository = produitRepository;
         this.produitMapper = produitMapper;
+        this.produitQueryCache = produitQueryCache;
+        this.produitPriceIndex = produitPriceIndex;
     }
 
     /**
@@ -46,12 +79,14 @@ public class ProduitQueryService extends QueryService<Produit> {
     @Transactional(readOnly = true)
     public List<ProduitDTO> findByCriteria(ProduitCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
-        final Specification<Produit> specification = createSpecification(criteria);
-        return produitMapper.toDto(produitRepository.findAll(specification));
+        return findByCriteria(criteria, Pageable.unpaged()).getContent();
     }
 
     /**
      * Return a {@link Page} of {@link ProduitDTO} which matches the criteria from the database.
+     * When called from a read-only transaction, the ids of the page are read from the {@link ProduitPriceIndex} if the
+     * criteria only filter on the price and the page is sorted by price, or else, if paged, served from the
+     * {@link ProduitQueryCache}.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -59,8 +94,192 @@ public class ProduitQueryService extends QueryService<Produit> {
     @Transactional(readOnly = true)
     public Page<ProduitDTO> findByCriteria(ProduitCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
+        // A read-write transaction may see its own uncommitted writes, which are neither indexed nor cached
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        Optional<Sort.Direction> priceDirection = readOnly ? priceIndexDirection(criteria, page) : Optional.empty();
+        if (priceDirection.isPresent()) {
+            Optional<Page<Long>> ids = produitPriceIndex.findIds(criteria.getPrixUnitaire(), priceDirection.get(), page);
+            if (ids.isPresent()) {
+                List<Produit> produits = ids.get().isEmpty() ? List.of() : produitRepository.loadAllById(ids.get().getContent());
+                return new PageImpl<>(produitMapper.toDto(produits), page, ids.get().getTotalElements());
+            }
+        }
+        // An unpaged listing holds every matching id, so it is not worth caching
+        boolean cacheable = page.isPaged() && ProduitQueryCache.isCacheable(criteria) && readOnly;
+        if (cacheable) {
+            Optional<ProduitQueryCache.CachedPage> cachedPage = produitQueryCache.get(criteria, page);
+            if (cachedPage.isPresent()) {
+                List<Produit> produits = produitRepository.loadAllById(cachedPage.get().getIds());
+                return new PageImpl<>(produitMapper.toDto(produits), page, cachedPage.get().getTotal());
+            }
+        }
+        long generation = produitQueryCache.generation();
+        final Specification<Produit> specification = createSpecification(criteria);
+        Page<Produit> produits = produitRepository.findAll(specification, page);
+        if (cacheable) {
+            List<Long> ids = produits.stream().map(Produit::getId).collect(Collectors.toList());
+            produitQueryCache.put(criteria, page, ids, produits.getTotalElements(), generation);
+        }
+        return new PageImpl<>(toDtoWithCategories(produits.getContent()), produits.getPageable(), produits.getTotalElements());
+    }
+
+    /**
+     * Return the requested fields of the entities which match the criteria from the database, in id order.
+     * Only the columns of the requested fields are read; the id is always part of them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The fields to return.
+     * @return the fields of the matching entities, keyed by their property name.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findByCriteria(ProduitCriteria criteria, Set<ProduitField> fields) {
+        log.debug("find by criteria : {}, fields: {}", criteria, fields);
+        Set<ProduitField> selectedFields = EnumSet.of(ProduitField.ID);
+        selectedFields.addAll(fields);
         final Specification<Produit> specification = createSpecification(criteria);
-        return produitRepository.findAll(specification, page).map(produitMapper::toDto);
+        return produitRepository
+            .findAll(specification, selectedFields, Sort.by(Produit_.ID))
+            .stream()
+            .map(tuple -> {
+                Map<String, Object> produit = new LinkedHashMap<>();
+                selectedFields.forEach(field -> produit.put(field.getProperty(), tuple.get(field.getProperty())));
+                return produit;
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Return a {@link CursorPage} of {@link ProduitDTO} which matches the criteria from the database, using keyset pagination
+     * on {@code (sortKey, id)}: the cost of a slice does not depend on how deep in the listing it is.
+     * Entities whose sort key is {@code null} are listed last, ordered by id.
+     * When called from a read-only transaction, the ids of the slice and the cursor of the next one are served from the
+     * {@link ProduitQueryCache}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param sortKey The attribute the listing is ordered on, before the id.
+     * @param direction The direction of the ordering.
+     * @param after The cursor of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param limit The maximum number of entities to return.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the cursor was issued for another ordering.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProduitDTO> findByCriteria(
+        ProduitCriteria criteria,
+        ProduitCursor.SortKey sortKey,
+        Sort.Direction direction,
+        ProduitCursor after,
+        int limit
+    ) {
+        log.debug("find by criteria : {}, sort: {} {}, after: {}, limit: {}", criteria, sortKey, direction, after, limit);
+        if (after != null && (after.getSortKey() != sortKey || after.getDirection() != direction)) {
+            throw new IllegalArgumentException("The cursor does not match the requested sort");
+        }
+        boolean cacheable = ProduitQueryCache.isCacheable(criteria) && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        ProduitQueryCache.SliceRequest sliceRequest = new ProduitQueryCache.SliceRequest(sortKey, direction, after, limit);
+        if (cacheable) {
+            Optional<ProduitQueryCache.CachedPage> cachedSlice = produitQueryCache.get(criteria, sliceRequest);
+            if (cachedSlice.isPresent()) {
+                List<Produit> produits = produitRepository.loadAllById(cachedSlice.get().getIds());
+                return new CursorPage<>(produitMapper.toDto(produits), cachedSlice.get().getNextCursor());
+            }
+        }
+        long generation = produitQueryCache.generation();
+        final Specification<Produit> specification = createSpecification(criteria);
+        final Sort byId = Sort.by(direction, Produit_.ID);
+        // Fetch one extra row to know whether there is a next slice without counting
+        List<Produit> produits = new ArrayList<>();
+        if (sortKey == ProduitCursor.SortKey.ID) {
+            produits.addAll(produitRepository.findAll(specification.and(afterIdSpecification(direction, after)), byId, limit + 1));
+        } else {
+            if (after == null || !after.isNullSection()) {
+                produits.addAll(
+                    produitRepository.findAll(
+                        specification.and(nonNullSectionSpecification(sortKey, direction, after)),
+                        Sort.by(direction, sortKey.getProperty()).and(byId),
+                        limit + 1
+                    )
+                );
+            }
+            if (produits.size() <= limit) {
+                ProduitCursor nullSectionAfter = after != null && after.isNullSection() ? after : null;
+                produits.addAll(
+                    produitRepository.findAll(
+                        specification.and(nullSectionSpecification(sortKey, direction, nullSectionAfter)),
+                        byId,
+                        limit + 1 - produits.size()
+                    )
+                );
+            }
+        }
+        String nextCursor = null;
+        if (produits.size() > limit) {
+            produits = produits.subList(0, limit);
+            nextCursor = cursorOf(produits.get(limit - 1), sortKey, direction).encode();
+        }
+        if (cacheable) {
+            List<Long> ids = produits.stream().map(Produit::getId).collect(Collectors.toList());
+            produitQueryCache.put(criteria, sliceRequest, ids, nextCursor, generation);
+        }
+        return new CursorPage<>(toDtoWithCategories(produits), nextCursor);
+    }
+
+    /**
+     * Return the ids of the entities which match the criteria, in id order, reading no other column.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the ids of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findIdsByCriteria(ProduitCriteria criteria) {
+        log.debug("find ids by criteria : {}", criteria);
+        final Specification<Produit> specification = createSpecification(criteria);
+        return produitRepository
+            .findAll(specification, EnumSet.of(ProduitField.ID), Sort.by(Produit_.ID))
+            .stream()
+            .map(tuple -> tuple.get(ProduitField.ID.getProperty(), Long.class))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Hand every {@link ProduitDTO} which matches the criteria to the consumer, in id order, without loading them all at once:
+     * entities are read through a forward-only cursor with a fixed fetch size, and the categories of each chunk are loaded
+     * with a single query.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public void exportByCriteria(ProduitCriteria criteria, Consumer<ProduitDTO> consumer) {
+        log.debug("export by criteria : {}", criteria);
+        final Specification<Produit> specification = createSpecification(criteria);
+        produitRepository.scrollAll(
+            specification,
+            SCROLL_FETCH_SIZE,
+            produits -> produitRepository.fetchBagRelationships(produits).stream().map(produitMapper::toDto).forEach(consumer)
+        );
+    }
+
+    /**
+     * Return the facet counts of the entities which match the criteria, computed in a single forward-only pass over the
+     * matching rows. The count of each value of a facet applies every filter of the criteria but the one on that facet.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param facets The facets to count.
+     * @param priceBounds The bounds of the price buckets: {@code n} bounds give {@code n + 1} buckets.
+     * @return the facet counts.
+     */
+    @Transactional(readOnly = true)
+    public ProduitFacetsDTO facetsByCriteria(ProduitCriteria criteria, Set<ProduitFacet> facets, Collection<Float> priceBounds) {
+        log.debug("facets by criteria : {}, facets: {}, price bounds: {}", criteria, facets, priceBounds);
+        ProduitCriteria baseCriteria = criteria == null ? new ProduitCriteria() : criteria.copy();
+        baseCriteria.setDistinct(null);
+        baseCriteria.setCouleur(null);
+        baseCriteria.setTaille(null);
+        baseCriteria.setPrixUnitaire(null);
+        baseCriteria.setCategoryId(null);
+        FacetAccumulator accumulator = new FacetAccumulator(
+            criteria == null ? new ProduitCriteria() : criteria,
+            facets,
+            new TreeSet<>(priceBounds).toArray(new Float[0])
+        );
+        produitRepository.scrollFacetRows(createSpecification(baseCriteria), SCROLL_FETCH_SIZE, accumulator::accept);
+        return accumulator.finish();
     }
 
     /**
@@ -75,6 +294,105 @@ public class ProduitQueryService extends QueryService<Produit> {
         return produitRepository.count(specification);
     }
 
+    /**
+     * Map the produits to DTOs, loading their categories with one query per {@value #SCROLL_FETCH_SIZE} produits rather
+     * than one query per produit.
+     */
+    private List<ProduitDTO> toDtoWithCategories(List<Produit> produits) {
+        List<ProduitDTO> produitDTOs = new ArrayList<>(produits.size());
+        for (int from = 0; from < produits.size(); from += SCROLL_FETCH_SIZE) {
+            List<Produit> batch = produits.subList(from, Math.min(from + SCROLL_FETCH_SIZE, produits.size()));
+            produitDTOs.addAll(produitMapper.toDto(produitRepository.fetchBagRelationships(batch)));
+        }
+        return produitDTOs;
+    }
+
+    /**
+     * @return the direction in which to read the page from the {@link ProduitPriceIndex}, or empty if the criteria filter
+     * on anything but a supported price range, or if the page is sorted on anything but the price then the id.
+     */
+    private Optional<Sort.Direction> priceIndexDirection(ProduitCriteria criteria, Pageable page) {
+        if (criteria == null || !ProduitPriceIndex.isSupported(criteria.getPrixUnitaire())) {
+            return Optional.empty();
+        }
+        ProduitCriteria otherCriteria = criteria.copy();
+        otherCriteria.setPrixUnitaire(null);
+        otherCriteria.setDistinct(null);
+        if (!otherCriteria.equals(new ProduitCriteria())) {
+            return Optional.empty();
+        }
+        List<Sort.Order> orders = page.getSort().toList();
+        if (orders.isEmpty()) {
+            return Optional.of(Sort.Direction.ASC);
+        }
+        Sort.Order byPrice = orders.get(0);
+        if (!byPrice.getProperty().equals(Produit_.PRIX_UNITAIRE) || orders.size() > 2) {
+            return Optional.empty();
+        }
+        if (orders.size() == 2) {
+            Sort.Order byId = orders.get(1);
+            if (!byId.getProperty().equals(Produit_.ID) || byId.getDirection() != byPrice.getDirection()) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(byPrice.getDirection());
+    }
+
+    private ProduitCursor cursorOf(Produit produit, ProduitCursor.SortKey sortKey, Sort.Direction direction) {
+        Comparable<?> value;
+        switch (sortKey) {
+            case ID_PRODUIT:
+                value = produit.getIdProduit();
+                break;
+            case LIBELLE:
+                value = produit.getLibelle();
+                break;
+            case PRIX_UNITAIRE:
+                value = produit.getPrixUnitaire();
+                break;
+            case TAILLE:
+                value = produit.getTaille();
+                break;
+            default:
+                value = null;
+        }
+        return new ProduitCursor(sortKey, direction, false, value, produit.getId());
+    }
+
+    private Specification<Produit> afterIdSpecification(Sort.Direction direction, ProduitCursor after) {
+        return (root, query, builder) -> {
+            if (after == null) {
+                return null;
+            }
+            Path<Long> id = root.get(Produit_.id);
+            return direction.isAscending() ? builder.greaterThan(id, after.getId()) : builder.lessThan(id, after.getId());
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Specification<Produit> nonNullSectionSpecification(
+        ProduitCursor.SortKey sortKey,
+        Sort.Direction direction,
+        ProduitCursor after
+    ) {
+        return (root, query, builder) -> {
+            Expression<Comparable> key = root.get(sortKey.getProperty());
+            if (after == null) {
+                return builder.isNotNull(key);
+            }
+            Comparable value = after.getValue();
+            return builder.or(
+                direction.isAscending() ? builder.greaterThan(key, value) : builder.lessThan(key, value),
+                builder.and(builder.equal(key, value), afterIdSpecification(direction, after).toPredicate(root, query, builder))
+            );
+        };
+    }
+
+    private Specification<Produit> nullSectionSpecification(ProduitCursor.SortKey sortKey, Sort.Direction direction, ProduitCursor after) {
+        Specification<Produit> isNull = (root, query, builder) -> builder.isNull(root.get(sortKey.getProperty()));
+        return isNull.and(afterIdSpecification(direction, after));
+    }
+
     /**
      * Function to convert {@link ProduitCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -141,4 +459,109 @@ public class ProduitQueryService extends QueryService<Produit> {
         }
         return specification;
     }
+
+    /**
+     * Folds the rows of {@link ProduitRepository#scrollFacetRows}, which are grouped by produit, into facet counts.
+     */
+    private static final class FacetAccumulator {
+
+        private final ProduitCriteria criteria;
+
+        private final Set<ProduitFacet> facets;
+
+        private final Float[] priceBounds;
+
+        private final long[] priceCounts;
+
+        private final Map<String, Long> couleurCounts = new TreeMap<>();
+
+        private final Map<Integer, Long> tailleCounts = new TreeMap<>();
+
+        private final Map<Long, Long> categoryCounts = new TreeMap<>();
+
+        private final Set<Long> categoryIds = new HashSet<>();
+
+        private ProduitFacetRow current;
+
+        private long total;
+
+        FacetAccumulator(ProduitCriteria criteria, Set<ProduitFacet> facets, Float[] priceBounds) {
+            this.criteria = criteria;
+            this.facets = facets;
+            this.priceBounds = priceBounds;
+            this.priceCounts = new long[priceBounds.length + 1];
+        }
+
+        void accept(ProduitFacetRow row) {
+            if (current != null && !current.getProduitId().equals(row.getProduitId())) {
+                flush();
+            }
+            current = row;
+            if (row.getCategoryId() != null) {
+                categoryIds.add(row.getCategoryId());
+            }
+        }
+
+        ProduitFacetsDTO finish() {
+            if (current != null) {
+                flush();
+            }
+            ProduitFacetsDTO result = new ProduitFacetsDTO();
+            result.setTotal(total);
+            if (facets.contains(ProduitFacet.COULEUR)) {
+                result.setCouleur(couleurCounts);
+            }
+            if (facets.contains(ProduitFacet.TAILLE)) {
+                result.setTaille(tailleCounts);
+            }
+            if (facets.contains(ProduitFacet.PRIX_UNITAIRE)) {
+                List<ProduitFacetsDTO.PriceBucket> buckets = new ArrayList<>();
+                for (int i = 0; i < priceCounts.length; i++) {
+                    buckets.add(
+                        new ProduitFacetsDTO.PriceBucket(
+                            i == 0 ? null : priceBounds[i - 1],
+                            i == priceBounds.length ? null : priceBounds[i],
+                            priceCounts[i]
+                        )
+                    );
+                }
+                result.setPrixUnitaire(buckets);
+            }
+            if (facets.contains(ProduitFacet.CATEGORY_ID)) {
+                result.setCategoryId(categoryCounts);
+            }
+            return result;
+        }
+
+        private void flush() {
+            boolean couleur = CriteriaFilters.matches(criteria.getCouleur(), current.getCouleur());
+            boolean taille = CriteriaFilters.matches(criteria.getTaille(), current.getTaille());
+            boolean prixUnitaire = CriteriaFilters.matches(criteria.getPrixUnitaire(), current.getPrixUnitaire());
+            boolean category = CriteriaFilters.matchesAny(criteria.getCategoryId(), categoryIds);
+            if (couleur && taille && prixUnitaire && category) {
+                total++;
+            }
+            if (taille && prixUnitaire && category && current.getCouleur() != null) {
+                couleurCounts.merge(current.getCouleur(), 1L, Long::sum);
+            }
+            if (couleur && prixUnitaire && category && current.getTaille() != null) {
+                tailleCounts.merge(current.getTaille(), 1L, Long::sum);
+            }
+            if (couleur && taille && category && current.getPrixUnitaire() != null) {
+                priceCounts[priceBucketOf(current.getPrixUnitaire())]++;
+            }
+            if (couleur && taille && prixUnitaire) {
+                categoryIds.forEach(categoryId -> categoryCounts.merge(categoryId, 1L, Long::sum));
+            }
+            categoryIds.clear();
+        }
+
+        private int priceBucketOf(float prixUnitaire) {
+            int bucket = 0;
+            while (bucket < priceBounds.length && prixUnitaire >= priceBounds[bucket]) {
+                bucket++;
+            }
+            return bucket;
+        }
+    }
 }
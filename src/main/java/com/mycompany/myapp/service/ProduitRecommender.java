@@ -0,0 +1,243 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import com.mycompany.myapp.repository.CommandeProduitRow;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory "frequently bought together" recommendations of the {@link com.mycompany.myapp.domain.Produit}s, from the
+ * produits bought in the same {@link com.mycompany.myapp.domain.Commande}s.
+ * <p>
+ * The number of commandes in which each pair of produits was bought together is counted in a sparse matrix, with a
+ * {@link LongIntHashMap} row per produit, so that its memory depends on the number of distinct pairs rather than on the
+ * number of lignes. The {@value #MAX_NEIGHBOURS} produits most often bought with each produit are kept apart, to be read
+ * without locking. The matrix is built by streaming the lignes of the paid commandes once the application is ready, and
+ * rebuilt every night; in between, {@link CommandeService} adds each commande once it is paid. Commandes which are
+ * cancelled or refunded after being paid, or lignes added to a commande already paid, are only accounted for by the next
+ * rebuild.
+ */
+@Service
+public class ProduitRecommender {
+
+    public static final int MAX_NEIGHBOURS = 10;
+
+    /**
+     * Beyond this number of distinct produits, a commande is a bulk purchase, which says little about the produits and
+     * would add too many pairs: it is ignored.
+     */
+    static final int MAX_PRODUITS_PER_COMMANDE = 100;
+
+    private final Logger log = LoggerFactory.getLogger(ProduitRecommender.class);
+
+    private final LigneCommandeRepository ligneCommandeRepository;
+
+    /**
+     * Guards the matrix and the commandes paid during a rebuild; rebuilds are serialized by the monitor of this instance.
+     */
+    private final Object lock = new Object();
+
+    private Matrix matrix = new Matrix();
+
+    /**
+     * The commandes paid while a rebuild runs, which it may not read, or {@code null} when no rebuild runs.
+     */
+    private List<long[]> paidDuringRebuild;
+
+    /**
+     * The nearest neighbours of each produit, most often bought together first; replaced as a whole by a rebuild, and
+     * per produit otherwise.
+     */
+    private volatile Map<Long, long[]> neighbours = new ConcurrentHashMap<>();
+
+    public ProduitRecommender(LigneCommandeRepository ligneCommandeRepository) {
+        this.ligneCommandeRepository = ligneCommandeRepository;
+    }
+
+    /**
+     * Build the matrix from the database, reading one commande at a time through a forward-only cursor. The commandes paid
+     * meanwhile are added once it is built; one which committed right as the rebuild started may be counted twice, until
+     * the next rebuild.
+     * <p>
+     * This is scheduled to run every day, at 02:00 (am).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 2 * * ?")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        synchronized (lock) {
+            paidDuringRebuild = new ArrayList<>();
+        }
+        Matrix built = new Matrix();
+        long commandes = 0;
+        try (Stream<CommandeProduitRow> rows = ligneCommandeRepository.streamProduitsByCommandeEtat(EtatCommande.ACHETEES)) {
+            Long commandeId = null;
+            List<Long> produitIds = new ArrayList<>();
+            for (CommandeProduitRow row : (Iterable<CommandeProduitRow>) rows::iterator) {
+                if (!row.getCommandeId().equals(commandeId)) {
+                    built.addCommande(produitsOf(produitIds));
+                    produitIds.clear();
+                    commandeId = row.getCommandeId();
+                    commandes++;
+                }
+                produitIds.add(row.getProduitId());
+            }
+            built.addCommande(produitsOf(produitIds));
+        }
+        Map<Long, long[]> builtNeighbours = new ConcurrentHashMap<>();
+        built.forEachProduit(produitId -> builtNeighbours.put(produitId, built.neighbours(produitId, MAX_NEIGHBOURS)));
+        synchronized (lock) {
+            for (long[] produitIds : paidDuringRebuild) {
+                built.addCommande(produitIds);
+                for (long produitId : produitIds) {
+                    builtNeighbours.put(produitId, built.neighbours(produitId, MAX_NEIGHBOURS));
+                }
+            }
+            paidDuringRebuild = null;
+            matrix = built;
+            neighbours = builtNeighbours;
+        }
+        log.info("Built the recommendations of {} produits from {} commandes", builtNeighbours.size(), commandes);
+    }
+
+    /**
+     * Account for the produits of a commande which was just paid, once the current transaction, if any, is committed.
+     *
+     * @param produitIds the ids of the produits of the lignes of the commande, in any order and possibly repeated.
+     */
+    public void addCommande(Collection<Long> produitIds) {
+        long[] produits = produitsOf(produitIds);
+        if (produits.length < 2) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (lock) {
+                if (paidDuringRebuild != null) {
+                    paidDuringRebuild.add(produits);
+                }
+                matrix.addCommande(produits);
+                for (long produitId : produits) {
+                    neighbours.put(produitId, matrix.neighbours(produitId, MAX_NEIGHBOURS));
+                }
+            }
+        });
+    }
+
+    /**
+     * @param produitId the id of a produit.
+     * @param size the maximum number of produits, capped to {@value #MAX_NEIGHBOURS}.
+     * @return the ids of the produits most often bought with the given one, most often first.
+     */
+    public List<Long> findBoughtTogether(Long produitId, int size) {
+        long[] produitIds = neighbours.getOrDefault(produitId, new long[0]);
+        List<Long> result = new ArrayList<>(Math.min(size, produitIds.length));
+        for (int index = 0; index < produitIds.length && index < size; index++) {
+            result.add(produitIds[index]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the distinct ids, sorted; empty if there are too many of them.
+     */
+    static long[] produitsOf(Collection<Long> produitIds) {
+        long[] produits = produitIds.stream().filter(Objects::nonNull).mapToLong(Long::longValue).sorted().distinct().toArray();
+        return produits.length > MAX_PRODUITS_PER_COMMANDE ? new long[0] : produits;
+    }
+
+    /**
+     * The symmetric matrix of the number of commandes in which each pair of produits was bought together: the row of a
+     * produit is found through an index of the produit ids. Not thread-safe.
+     */
+    static final class Matrix {
+
+        private final LongIntHashMap rowIndexes = new LongIntHashMap();
+
+        private final List<LongIntHashMap> rows = new ArrayList<>();
+
+        /**
+         * @param produitIds the distinct ids of the produits of a commande.
+         */
+        void addCommande(long[] produitIds) {
+            for (int i = 0; i < produitIds.length; i++) {
+                LongIntHashMap row = rowOf(produitIds[i]);
+                for (int j = 0; j < produitIds.length; j++) {
+                    if (i != j) {
+                        row.addTo(produitIds[j], 1);
+                    }
+                }
+            }
+        }
+
+        int count(long produitId, long otherProduitId) {
+            int rowIndex = rowIndexes.get(produitId, -1);
+            return rowIndex < 0 ? 0 : rows.get(rowIndex).get(otherProduitId, 0);
+        }
+
+        /**
+         * @return the ids of at most {@code limit} produits most often bought with the given one, most often first, and
+         * by id for the same count.
+         */
+        long[] neighbours(long produitId, int limit) {
+            int rowIndex = rowIndexes.get(produitId, -1);
+            if (rowIndex < 0) {
+                return new long[0];
+            }
+            long[] bestIds = new long[limit];
+            int[] bestCounts = new int[limit];
+            int[] found = { 0 };
+            // Insertion into the sorted arrays of the best so far, which are short
+            rows
+                .get(rowIndex)
+                .forEach((otherProduitId, count) -> {
+                    int position = found[0];
+                    while (position > 0 && isBefore(otherProduitId, count, bestIds[position - 1], bestCounts[position - 1])) {
+                        position--;
+                    }
+                    if (position == limit) {
+                        return;
+                    }
+                    int last = Math.min(found[0], limit - 1);
+                    System.arraycopy(bestIds, position, bestIds, position + 1, last - position);
+                    System.arraycopy(bestCounts, position, bestCounts, position + 1, last - position);
+                    bestIds[position] = otherProduitId;
+                    bestCounts[position] = count;
+                    found[0] = Math.min(found[0] + 1, limit);
+                });
+            return Arrays.copyOf(bestIds, found[0]);
+        }
+
+        void forEachProduit(LongConsumer consumer) {
+            rowIndexes.forEach((produitId, rowIndex) -> consumer.accept(produitId));
+        }
+
+        private LongIntHashMap rowOf(long produitId) {
+            int rowIndex = rowIndexes.get(produitId, -1);
+            if (rowIndex < 0) {
+                rowIndex = rows.size();
+                rows.add(new LongIntHashMap());
+                rowIndexes.put(produitId, rowIndex);
+            }
+            return rows.get(rowIndex);
+        }
+
+        private static boolean isBefore(long produitId, int count, long otherProduitId, int otherCount) {
+            return count > otherCount || (count == otherCount && produitId < otherProduitId);
+        }
+    }
+}
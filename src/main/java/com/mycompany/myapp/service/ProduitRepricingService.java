@@ -0,0 +1,50 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.repository.ProduitRepricingRule;
+import com.mycompany.myapp.service.criteria.ProduitCriteria;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service repricing the {@link com.mycompany.myapp.domain.Produit}s which match a criteria, for instance to discount a
+ * whole category.
+ * <p>
+ * The ids of the matching produits are read first, then repriced in chunks, each with a single update statement in its
+ * own transaction, so the rows are only locked for the time of a chunk.
+ */
+@Service
+public class ProduitRepricingService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(ProduitRepricingService.class);
+
+    private final ProduitQueryService produitQueryService;
+
+    private final ProduitService produitService;
+
+    public ProduitRepricingService(ProduitQueryService produitQueryService, ProduitService produitService) {
+        this.produitQueryService = produitQueryService;
+        this.produitService = produitService;
+    }
+
+    /**
+     * Reprice the produits which match the criteria.
+     *
+     * @param criteria the criteria which the repriced produits should match.
+     * @param rule the repricing rule.
+     * @return the number of produits repriced; the produits without a price are left unchanged.
+     */
+    public long reprice(ProduitCriteria criteria, ProduitRepricingRule rule) {
+        log.debug("Request to reprice Produits by criteria: {} with {}", criteria, rule);
+        List<Long> ids = produitQueryService.findIdsByCriteria(criteria);
+        long updated = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            updated += produitService.repriceAll(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())), rule);
+        }
+        log.info("Repriced {} of the {} Produits matching {} with {}", updated, ids.size(), criteria, rule);
+        return updated;
+    }
+}
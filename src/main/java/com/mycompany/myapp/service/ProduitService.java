@@ -2,16 +2,25 @@ package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.Produit;
 import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.repository.ProduitRepricingRule;
+import com.mycompany.myapp.repository.search.ProduitSearchRepository;
 import com.mycompany.myapp.service.dto.ProduitDTO;
+import com.mycompany.myapp.service.dto.ProduitMultiGetDTO;
 import com.mycompany.myapp.service.mapper.ProduitMapper;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,13 +33,50 @@ public class ProduitService {
 
     private final Logger log = LoggerFactory.getLogger(ProduitService.class);
 
+    private static final int REINDEX_CHUNK_SIZE = 500;
+
     private final ProduitRepository produitRepository;
 
     private final ProduitMapper produitMapper;
 
-    public ProduitService(ProduitRepository produitRepository, ProduitMapper produitMapper) {
+    private final ProduitSearchRepository produitSearchRepository;
+
+    private final ProduitQueryCache produitQueryCache;
+
+    private final NoteProduitService noteProduitService;
+
+    private final ProduitPriceIndex produitPriceIndex;
+
+    private final ProduitSuggester produitSuggester;
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    private final ProduitJsonCache produitJsonCache;
+
+    private final StockLedger stockLedger;
+
+    public ProduitService(
+        ProduitRepository produitRepository,
+        ProduitMapper produitMapper,
+        ProduitSearchRepository produitSearchRepository,
+        ProduitQueryCache produitQueryCache,
+        NoteProduitService noteProduitService,
+        ProduitPriceIndex produitPriceIndex,
+        ProduitSuggester produitSuggester,
+        CatalogSnapshot catalogSnapshot,
+        ProduitJsonCache produitJsonCache,
+        StockLedger stockLedger
+    ) {
         this.produitRepository = produitRepository;
         this.produitMapper = produitMapper;
+        this.produitSearchRepository = produitSearchRepository;
+        this.produitQueryCache = produitQueryCache;
+        this.noteProduitService = noteProduitService;
+        this.produitPriceIndex = produitPriceIndex;
+        this.produitSuggester = produitSuggester;
+        this.catalogSnapshot = catalogSnapshot;
+        this.produitJsonCache = produitJsonCache;
+        this.stockLedger = stockLedger;
     }
 
     /**
@@ -41,9 +87,57 @@ public class ProduitService {
      */
     public ProduitDTO save(ProduitDTO produitDTO) {
         log.debug("Request to save Produit : {}", produitDTO);
+        ProduitDTO before = produitDTO.getId() == null ? null : findSnapshot(produitDTO.getId());
         Produit produit = produitMapper.toEntity(produitDTO);
         produit = produitRepository.save(produit);
-        return produitMapper.toDto(produit);
+        index(produit);
+        ProduitDTO result = produitMapper.toDto(produit);
+        produitQueryCache.evict(before, result);
+        produitPriceIndex.refresh(result.getId());
+        produitSuggester.refresh(result.getId());
+        catalogSnapshot.refreshProduit(result.getId());
+        produitJsonCache.evict(result.getId());
+        return result;
+    }
+
+    /**
+     * Create produits with batched inserts, for a bulk import. The caches and the in-memory indexes are updated once for
+     * all the produits rather than once per produit.
+     *
+     * @param produitDTOs the entities to create, without id.
+     * @param batchSize the number of inserts sent to the database at once.
+     * @return the persisted entities, in the same order.
+     */
+    public List<ProduitDTO> createAll(List<ProduitDTO> produitDTOs, int batchSize) {
+        log.debug("Request to create {} Produits", produitDTOs.size());
+        List<Produit> produits = produitMapper.toEntity(produitDTOs);
+        produitRepository.insertAll(produits, batchSize);
+        TransactionCallbacks.afterCommit(() -> produitSearchRepository.indexAll(produits));
+        List<ProduitDTO> result = produitMapper.toDto(produits);
+        List<Long> ids = result.stream().map(ProduitDTO::getId).collect(Collectors.toList());
+        produitQueryCache.evictAll();
+        produitPriceIndex.refreshAll(ids);
+        produitSuggester.refreshAll(ids);
+        catalogSnapshot.refreshProduits(ids);
+        return result;
+    }
+
+    /**
+     * Reprice produits with a single update statement rather than one read and one update per produit. The caches and
+     * the in-memory indexes are updated once for all the produits.
+     *
+     * @param ids the ids of the entities to reprice; those without a price are left unchanged.
+     * @param rule the repricing rule.
+     * @return the number of entities repriced.
+     */
+    public int repriceAll(List<Long> ids, ProduitRepricingRule rule) {
+        log.debug("Request to reprice {} Produits with {}", ids.size(), rule);
+        int updated = produitRepository.updatePrices(ids, rule);
+        produitQueryCache.evictAll();
+        produitPriceIndex.refreshAll(ids);
+        catalogSnapshot.refreshProduits(ids);
+        produitJsonCache.evictAll(ids);
+        return updated;
     }
 
     /**
@@ -54,9 +148,17 @@ public class ProduitService {
      */
     public ProduitDTO update(ProduitDTO produitDTO) {
         log.debug("Request to update Produit : {}", produitDTO);
+        ProduitDTO before = findSnapshot(produitDTO.getId());
         Produit produit = produitMapper.toEntity(produitDTO);
         produit = produitRepository.save(produit);
-        return produitMapper.toDto(produit);
+        index(produit);
+        ProduitDTO result = produitMapper.toDto(produit);
+        produitQueryCache.evict(before, result);
+        produitPriceIndex.refresh(result.getId());
+        produitSuggester.refresh(result.getId());
+        catalogSnapshot.refreshProduit(result.getId());
+        produitJsonCache.evict(result.getId());
+        return result;
     }
 
     /**
@@ -71,12 +173,19 @@ public class ProduitService {
         return produitRepository
             .findById(produitDTO.getId())
             .map(existingProduit -> {
+                ProduitDTO before = produitMapper.toDto(existingProduit);
                 produitMapper.partialUpdate(existingProduit, produitDTO);
+                Produit savedProduit = produitRepository.save(existingProduit);
+                index(savedProduit);
+                ProduitDTO result = produitMapper.toDto(savedProduit);
+                produitQueryCache.evict(before, result);
+                produitPriceIndex.refresh(result.getId());
+                produitSuggester.refresh(result.getId());
+                catalogSnapshot.refreshProduit(result.getId());
+                produitJsonCache.evict(result.getId());
 
-                return existingProduit;
-            })
-            .map(produitRepository::save)
-            .map(produitMapper::toDto);
+                return result;
+            });
     }
 
     /**
@@ -100,7 +209,7 @@ public class ProduitService {
     }
 
     /**
-     * Get one produit by id.
+     * Get one produit by id, with the notes of its avis.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -108,7 +217,31 @@ public class ProduitService {
     @Transactional(readOnly = true)
     public Optional<ProduitDTO> findOne(Long id) {
         log.debug("Request to get Produit : {}", id);
-        return produitRepository.findOneWithEagerRelationships(id).map(produitMapper::toDto);
+        return produitRepository
+            .findOneWithEagerRelationships(id)
+            .map(produitMapper::toDto)
+            .map(produitDTO -> {
+                produitDTO.setNotes(noteProduitService.findByProduit(id));
+
+                return produitDTO;
+            });
+    }
+
+    /**
+     * Get the produits with the given ids, with a single round-trip to the database for those which are not in the
+     * second-level cache.
+     *
+     * @param ids the ids of the entities; duplicates are ignored.
+     * @return the entities, in the order of the ids, and the ids which do not match any entity.
+     */
+    @Transactional(readOnly = true)
+    public ProduitMultiGetDTO findAllById(List<Long> ids) {
+        log.debug("Request to get Produits : {}", ids);
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        List<ProduitDTO> produits = produitMapper.toDto(produitRepository.loadAllById(distinctIds));
+        Set<Long> foundIds = produits.stream().map(ProduitDTO::getId).collect(Collectors.toSet());
+        List<Long> missingIds = distinctIds.stream().filter(id -> !foundIds.contains(id)).collect(Collectors.toList());
+        return new ProduitMultiGetDTO(produits, missingIds);
     }
 
     /**
@@ -118,6 +251,61 @@ public class ProduitService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Produit : {}", id);
+        ProduitDTO before = findSnapshot(id);
         produitRepository.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> produitSearchRepository.deleteFromIndexById(id));
+        produitQueryCache.evict(before, null);
+        produitPriceIndex.refresh(id);
+        produitSuggester.refresh(id);
+        catalogSnapshot.refreshProduit(id);
+        produitJsonCache.evict(id);
+        stockLedger.remove(id);
+    }
+
+    /**
+     * Search for the produit corresponding to the query.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @return the list of entities, best matches first.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProduitDTO> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Produits for query {}", query);
+        Page<Long> ids = produitSearchRepository.search(query, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        List<ProduitDTO> content = produitMapper.toDto(produitRepository.loadAllById(ids.getContent()));
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Rebuild the search index from the database when it does not hold as many produits, for instance on the first start
+     * or when the index is kept in memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reindexIfOutOfSync() {
+        long expected = produitRepository.count();
+        if (produitSearchRepository.count() != expected) {
+            log.info("Rebuilding the Produit search index for {} produits", expected);
+            produitSearchRepository.deleteAll();
+            produitRepository.scrollAll(Specification.where(null), REINDEX_CHUNK_SIZE, produitSearchRepository::indexAll);
+        }
+    }
+
+    /**
+     * Index the produit once the current transaction is committed, so that a rolled back write never shows up in searches.
+     */
+    private void index(Produit produit) {
+        TransactionCallbacks.afterCommit(() -> produitSearchRepository.index(produit));
+    }
+
+    /**
+     * @return the state of the produit before a write, to evict the cached listings it changes, or {@code null}.
+     */
+    private ProduitDTO findSnapshot(Long id) {
+        return produitRepository.findOneWithEagerRelationships(id).map(produitMapper::toDto).orElse(null);
     }
 }
@@ -0,0 +1,423 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.NoteProduit;
+import com.mycompany.myapp.repository.NoteProduitRepository;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.service.dto.ProduitSuggestionDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory autocompletion of the {@link com.mycompany.myapp.domain.Produit} libelles.
+ * <p>
+ * Libelles are {@link #fold folded}, and each of their suffixes starting on a word is a key of a radix trie, so that
+ * {@code rose} suggests {@code Robe rose}. Every node of the trie keeps the {@value #MAX_SUGGESTIONS} most popular produits
+ * below it, popularity being the number of avis: a lookup only walks the prefix. The trie is built from the database once
+ * the application is ready and every night, and is updated by {@link ProduitService} and {@link NoteProduitService} when a
+ * write commits, the libelles of the produits written being read again; until it is built, it suggests nothing.
+ */
+@Service
+public class ProduitSuggester {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final int BUILD_FETCH_SIZE = 500;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Suggestion> MOST_POPULAR_FIRST = Comparator
+        .comparingLong((Suggestion suggestion) -> suggestion.popularity)
+        .reversed()
+        .thenComparing(suggestion -> suggestion.libelle)
+        .thenComparingLong(suggestion -> suggestion.id);
+
+    private final Logger log = LoggerFactory.getLogger(ProduitSuggester.class);
+
+    private final ProduitRepository produitRepository;
+
+    private final NoteProduitRepository noteProduitRepository;
+
+    /**
+     * Reads the libelles of the produits written in their own transaction, as the one of the write is over once it commits.
+     */
+    private final TransactionTemplate refreshTransactionTemplate;
+
+    /**
+     * Writers are serialized by the monitor of this instance, and hold the write lock while they change the trie.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root;
+
+    private Map<Long, Suggestion> suggestions;
+
+    public ProduitSuggester(
+        ProduitRepository produitRepository,
+        NoteProduitRepository noteProduitRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.produitRepository = produitRepository;
+        this.noteProduitRepository = noteProduitRepository;
+        this.refreshTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.refreshTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Build the trie from the database. Writes committing meanwhile are applied once it is built, and are idempotent,
+     * so the trie ends up consistent whether the build read them or not.
+     * <p>
+     * This is also scheduled to run every day, at 04:20 (am), to repair a refresh which failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 20 4 * * ?")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Map<Long, Long> popularities = noteProduitRepository
+            .findAll()
+            .stream()
+            .collect(Collectors.toMap(NoteProduit::getProduitId, NoteProduit::getNombreAvis));
+        Node newRoot = new Node("");
+        Map<Long, Suggestion> newSuggestions = new HashMap<>();
+        produitRepository.scrollLibelles(
+            BUILD_FETCH_SIZE,
+            (id, libelle) -> {
+                Suggestion suggestion = new Suggestion(id, libelle, popularities.getOrDefault(id, 0L));
+                newSuggestions.put(id, suggestion);
+                suggestion.keys.forEach(key -> newRoot.insert(key, suggestion));
+            }
+        );
+        newRoot.computeTops();
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            suggestions = newSuggestions;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built the Produit suggestions for {} produits", newSuggestions.size());
+    }
+
+    /**
+     * Suggest the most popular produits having a word of their libelle starting with the given prefix, that is whose
+     * folded libelle has a suffix starting on a word which starts with the folded prefix.
+     *
+     * @param prefix the prefix typed so far.
+     * @param size the maximum number of suggestions, at most {@value #MAX_SUGGESTIONS}.
+     * @return the suggestions, most popular first, then in libelle order.
+     */
+    public List<ProduitSuggestionDTO> suggest(String prefix, int size) {
+        List<Suggestion> top;
+        lock.readLock().lock();
+        try {
+            top = root == null ? List.of() : root.find(fold(prefix));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top
+            .stream()
+            .limit(Math.min(size, MAX_SUGGESTIONS))
+            .map(suggestion -> new ProduitSuggestionDTO(suggestion.id, suggestion.libelle))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Read the libelle of a produit again once the current transaction, if any, is committed, and suggest the produit
+     * under it in place of its previous one; a produit which no longer exists, or has no libelle, is no longer suggested.
+     *
+     * @param id the id of the produit.
+     */
+    public void refresh(long id) {
+        refreshAll(List.of(id));
+    }
+
+    /**
+     * Read the libelles of produits again once the current transaction, if any, is committed, and suggest the produits
+     * under them in place of their previous ones.
+     *
+     * @param ids the ids of the produits.
+     */
+    public void refreshAll(Collection<Long> ids) {
+        List<Long> changedIds = List.copyOf(ids);
+        TransactionCallbacks.afterCommit(() -> applyRefresh(changedIds));
+    }
+
+    /**
+     * Change the popularity of a produit, right away: to be called once the avis changing it are committed.
+     *
+     * @param id the id of the produit.
+     * @param delta the number of avis added to the produit, negative if some are removed.
+     */
+    public synchronized void addPopularity(long id, long delta) {
+        if (suggestions != null) {
+            Suggestion previous = suggestions.get(id);
+            if (previous != null) {
+                replace(previous, new Suggestion(id, previous.libelle, previous.popularity + delta));
+            }
+        }
+    }
+
+    /**
+     * Lowercase the text, fold its accents and ligatures to ASCII like the search index does, and replace each run of
+     * characters which are neither letters nor digits by a single space.
+     *
+     * @param text the text to fold.
+     * @return the folded text, without leading or trailing spaces.
+     */
+    static String fold(String text) {
+        char[] input = text.toLowerCase(Locale.ROOT).toCharArray();
+        // A character folds to at most 4 characters
+        char[] output = new char[input.length * 4];
+        int length = ASCIIFoldingFilter.foldToASCII(input, 0, output, 0, input.length);
+        return SEPARATORS.matcher(new String(output, 0, length)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Reads are serialized along with the changes, so whatever the order in which concurrent writes run their callbacks,
+     * the last libelles applied were read after they all committed. A refresh which fails is logged, and repaired by the
+     * next rebuild.
+     */
+    private synchronized void applyRefresh(List<Long> ids) {
+        if (suggestions == null) {
+            return;
+        }
+        try {
+            Map<Long, String> libelles = refreshTransactionTemplate.execute(status -> {
+                Map<Long, String> rows = new HashMap<>();
+                produitRepository.findLibellesByIdIn(ids).forEach(row -> rows.put(row.getProduitId(), row.getLibelle()));
+                return rows;
+            });
+            for (Long id : ids) {
+                Suggestion previous = suggestions.get(id);
+                String libelle = libelles.get(id);
+                replace(previous, libelle == null ? null : new Suggestion(id, libelle, previous == null ? 0 : previous.popularity));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the Produit suggestions, until their next rebuild: {}", e.getMessage());
+        }
+    }
+
+    private void replace(Suggestion previous, Suggestion next) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                previous.keys.forEach(key -> root.remove(key, previous.id));
+                suggestions.remove(previous.id);
+            }
+            if (next != null) {
+                next.keys.forEach(key -> {
+                    root.insert(key, next);
+                    root.updateTops(key);
+                });
+                suggestions.put(next.id, next);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A produit as suggested, with the keys it is inserted under in the trie.
+     */
+    private static final class Suggestion {
+
+        private final long id;
+
+        private final String libelle;
+
+        private final long popularity;
+
+        private final List<String> keys = new ArrayList<>();
+
+        Suggestion(long id, String libelle, long popularity) {
+            this.id = id;
+            this.libelle = libelle;
+            this.popularity = popularity;
+            String folded = libelle == null ? "" : fold(libelle);
+            int start = 0;
+            while (!folded.isEmpty()) {
+                keys.add(folded.substring(start));
+                int space = folded.indexOf(' ', start);
+                if (space < 0) {
+                    break;
+                }
+                start = space + 1;
+            }
+        }
+    }
+
+    /**
+     * A node of the radix trie, reached from its parent through a non-empty label, but for the root.
+     */
+    private static final class Node {
+
+        private String label;
+
+        private final Map<Character, Node> children = new HashMap<>();
+
+        /**
+         * The produits whose key ends on this node.
+         */
+        private final List<Suggestion> terminals = new ArrayList<>(1);
+
+        /**
+         * The most popular produits whose key ends on this node or below.
+         */
+        private List<Suggestion> top = List.of();
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        List<Suggestion> find(String prefix) {
+            Node node = this;
+            int position = 0;
+            while (position < prefix.length()) {
+                Node child = node.children.get(prefix.charAt(position));
+                if (child == null) {
+                    return List.of();
+                }
+                int common = commonPrefixLength(child.label, prefix, position);
+                if (common < child.label.length() && position + common < prefix.length()) {
+                    return List.of();
+                }
+                node = child;
+                position += common;
+            }
+            return node.top;
+        }
+
+        /**
+         * Add the suggestion under the key, splitting labels as needed, without updating the tops.
+         */
+        void insert(String key, Suggestion suggestion) {
+            Node node = this;
+            int position = 0;
+            while (position < key.length()) {
+                Node child = node.children.get(key.charAt(position));
+                if (child == null) {
+                    child = new Node(key.substring(position));
+                    node.children.put(key.charAt(position), child);
+                }
+                int common = commonPrefixLength(child.label, key, position);
+                if (common < child.label.length()) {
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children.put(child.label.charAt(0), child);
+                    middle.top = child.top;
+                    node.children.put(middle.label.charAt(0), middle);
+                    child = middle;
+                }
+                node = child;
+                position += common;
+            }
+            node.terminals.add(suggestion);
+        }
+
+        /**
+         * Update the tops of the nodes on the path of the key, deepest first.
+         */
+        void updateTops(String key) {
+            List<Node> path = path(key);
+            for (int i = path.size() - 1; i >= 0; i--) {
+                path.get(i).computeTop();
+            }
+        }
+
+        /**
+         * Remove the suggestion of the produit from under the key, merging and pruning the nodes left without a
+         * suggestion of their own, and update the tops.
+         */
+        void remove(String key, long id) {
+            List<Node> path = path(key);
+            Node last = path.get(path.size() - 1);
+            last.terminals.removeIf(suggestion -> suggestion.id == id);
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node node = path.get(i);
+                Node parent = path.get(i - 1);
+                if (node.terminals.isEmpty() && node.children.isEmpty()) {
+                    parent.children.remove(node.label.charAt(0));
+                } else if (node.terminals.isEmpty() && node.children.size() == 1) {
+                    Node child = node.children.values().iterator().next();
+                    child.label = node.label + child.label;
+                    parent.children.put(child.label.charAt(0), child);
+                } else {
+                    node.computeTop();
+                }
+            }
+            path.get(0).computeTop();
+        }
+
+        /**
+         * Compute the tops of all the nodes below this one, and of this one.
+         */
+        void computeTops() {
+            children.values().forEach(Node::computeTops);
+            computeTop();
+        }
+
+        private void computeTop() {
+            List<Suggestion> candidates = new ArrayList<>(terminals);
+            children.values().forEach(child -> candidates.addAll(child.top));
+            candidates.sort(MOST_POPULAR_FIRST);
+            // A produit may be below several children, under different keys
+            List<Suggestion> newTop = new ArrayList<>(Math.min(MAX_SUGGESTIONS, candidates.size()));
+            Set<Long> ids = new HashSet<>();
+            for (Suggestion candidate : candidates) {
+                if (newTop.size() == MAX_SUGGESTIONS) {
+                    break;
+                }
+                if (ids.add(candidate.id)) {
+                    newTop.add(candidate);
+                }
+            }
+            top = newTop;
+        }
+
+        /**
+         * @return the nodes from this one to the one the key ends on, which must exist.
+         */
+        private List<Node> path(String key) {
+            List<Node> path = new ArrayList<>();
+            Node node = this;
+            path.add(node);
+            int position = 0;
+            while (position < key.length()) {
+                node = node.children.get(key.charAt(position));
+                path.add(node);
+                position += node.label.length();
+            }
+            return path;
+        }
+
+        private static int commonPrefixLength(String label, String key, int offset) {
+            int length = 0;
+            while (length < label.length() && offset + length < key.length() && label.charAt(length) == key.charAt(offset + length)) {
+                length++;
+            }
+            return length;
+        }
+    }
+}
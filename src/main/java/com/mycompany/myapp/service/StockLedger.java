@@ -0,0 +1,380 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.StockProduit;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.repository.StockProduitRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory ledger of the stock of the {@link com.mycompany.myapp.domain.Produit}s, reserving it for carts and checkouts
+ * without locking the {@link StockProduit} rows, so that concurrent checkouts of the same produit never wait on each other.
+ * <p>
+ * The quantity available of each produit is an {@link AtomicInteger}, loaded from the database the first time it is
+ * needed, and only taken with compare-and-set loops which never bring it below zero; a reservation of several produits
+ * takes all of them, or gives back those already taken. The produits whose stock is not tracked all share a single
+ * {@link #UNTRACKED} stock, which is never taken from, and the stock of a produit deleted is forgotten. A reservation is
+ * then held until a checkout commits it, it is released, or it expires. The stock committed or added is written behind:
+ * the deltas of each produit are summed, and written every second in a single transaction.
+ * <p>
+ * The ledger is thus the authority over the stock while the application runs: the stock must only be changed through it,
+ * by a single instance of the application. The deltas not written yet are lost if the application crashes, which leaves
+ * the database with the stock sold meanwhile.
+ */
+@Service
+public class StockLedger {
+
+    /**
+     * The stock of every produit whose stock is not tracked, which is never taken from.
+     */
+    private static final Stock UNTRACKED = new Stock(0);
+
+    private final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private final StockProduitRepository stockProduitRepository;
+
+    private final ProduitRepository produitRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration reservationTtl;
+
+    private final ConcurrentHashMap<Long, Stock> stocks = new ConcurrentHashMap<>();
+
+    /**
+     * The reservations made for carts, until they expire.
+     */
+    private final ConcurrentHashMap<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * The deltas of the stock of each produit, not written to the database yet.
+     */
+    private final ConcurrentHashMap<Long, Integer> pending = new ConcurrentHashMap<>();
+
+    public StockLedger(
+        StockProduitRepository stockProduitRepository,
+        ProduitRepository produitRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.stockProduitRepository = stockProduitRepository;
+        this.produitRepository = produitRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservationTtl = applicationProperties.getStock().getReservationTtl();
+    }
+
+    /**
+     * @return the quantity of a produit available to new reservations, or empty if its stock is not tracked.
+     */
+    public Optional<Integer> findAvailable(Long produitId) {
+        Stock stock = stockOf(produitId);
+        return stock == UNTRACKED ? Optional.empty() : Optional.of(stock.available.get());
+    }
+
+    /**
+     * Add to, or remove from, the stock of a produit, which is tracked from then on.
+     *
+     * @param produitId the id of an existing produit.
+     * @param delta the quantity to add, negative to remove.
+     * @return the quantity available afterwards.
+     * @throws IllegalArgumentException if more than the quantity available would be removed.
+     */
+    public int addStock(Long produitId, int delta) {
+        Stock stock = stockOf(produitId);
+        if (stock == UNTRACKED) {
+            // The stock is tracked from an empty one, published whole
+            stock = stocks.compute(produitId, (id, current) -> current == null || current == UNTRACKED ? new Stock(0) : current);
+        }
+        if (delta < 0 && !stock.take(-delta)) {
+            throw new IllegalArgumentException("Cannot remove " + -delta + " from the stock of produit " + produitId);
+        }
+        int available = delta < 0 ? stock.available.get() : stock.available.addAndGet(delta);
+        // Merged even when zero, so that the stock is written
+        pending.merge(produitId, delta, Math::addExact);
+        return available;
+    }
+
+    /**
+     * Reserve the stock of a cart until it is checked out, or for {@link ApplicationProperties.Stock#getReservationTtl()}.
+     *
+     * @param quantites the quantity of each produit, all of them existing.
+     * @return the reservation.
+     * @throws InsufficientStockException if a produit has not enough stock, in which case nothing is reserved.
+     */
+    public Reservation hold(Map<Long, Integer> quantites) {
+        Reservation reservation = take(quantites, Instant.now().plus(reservationTtl));
+        reservations.put(reservation.getId(), reservation);
+        return reservation;
+    }
+
+    /**
+     * Reserve the stock of a checkout, until it is committed or released.
+     *
+     * @param quantites the quantity of each produit, all of them existing.
+     * @return the reservation.
+     * @throws InsufficientStockException if a produit has not enough stock, in which case nothing is reserved.
+     */
+    public Reservation reserve(Map<Long, Integer> quantites) {
+        return take(quantites, null);
+    }
+
+    /**
+     * @return the reservation held for a cart, if it has not expired.
+     */
+    public Optional<Reservation> findReservation(UUID id) {
+        return Optional.ofNullable(reservations.get(id));
+    }
+
+    /**
+     * Take over the reservation held for a cart, which no longer expires and must be committed or released.
+     *
+     * @return the reservation, or empty if it has expired, been released or been claimed already.
+     */
+    public Optional<Reservation> claim(UUID id) {
+        return Optional.ofNullable(reservations.remove(id));
+    }
+
+    /**
+     * Release the reservation held for a cart, giving back its stock.
+     *
+     * @return {@code false} if it has expired, been released or been claimed already.
+     */
+    public boolean release(UUID id) {
+        Reservation reservation = reservations.remove(id);
+        if (reservation == null) {
+            return false;
+        }
+        release(reservation);
+        return true;
+    }
+
+    /**
+     * Give back the stock of a reservation, unless it was committed or released already.
+     */
+    public void release(Reservation reservation) {
+        if (reservation.settled.compareAndSet(false, true)) {
+            giveBack(reservation.taken);
+        }
+    }
+
+    /**
+     * Remove the stock of a reservation from the database, at the next flush, unless it was committed or released
+     * already.
+     */
+    public void commit(Reservation reservation) {
+        if (reservation.settled.compareAndSet(false, true)) {
+            reservation.taken.forEach((produitId, quantite) -> pending.merge(produitId, -quantite, Math::addExact));
+        }
+    }
+
+    /**
+     * Forget the stock of a produit, once the current transaction, if any, is committed: its row is deleted along with
+     * the produit.
+     *
+     * @param produitId the id of the produit deleted.
+     */
+    public void remove(Long produitId) {
+        TransactionCallbacks.afterCommit(() -> stocks.remove(produitId));
+    }
+
+    /**
+     * Release the reservations of the carts which expired.
+     * <p>
+     * This is scheduled to run every 10 seconds.
+     *
+     * @return the number of reservations released.
+     */
+    @Scheduled(fixedDelay = 10_000)
+    public int expireReservations() {
+        Instant now = Instant.now();
+        int expired = 0;
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.getExpiresAt().isBefore(now) && reservations.remove(reservation.getId(), reservation)) {
+                release(reservation);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.debug("Released {} expired stock reservations", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Write the deltas of the stock to the database, in a single transaction; they are kept for the next flush if it
+     * fails. The deltas of the produits deleted meanwhile are dropped.
+     * <p>
+     * This is scheduled to run every second, and when the application stops.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    @PreDestroy
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (Long produitId : pending.keySet()) {
+            Integer delta = pending.remove(produitId);
+            if (delta != null) {
+                deltas.put(produitId, delta);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach(this::write));
+        } catch (RuntimeException e) {
+            log.warn("Could not write the stock of {} produits, will retry: {}", deltas.size(), e.getMessage());
+            deltas.forEach((produitId, delta) -> pending.merge(produitId, delta, Math::addExact));
+        }
+    }
+
+    private void write(Long produitId, Integer delta) {
+        if (stockProduitRepository.increment(produitId, delta) > 0) {
+            return;
+        }
+        if (!produitRepository.existsById(produitId)) {
+            log.debug("Dropped the stock delta {} of deleted Produit {}", delta, produitId);
+        } else if (delta >= 0) {
+            // The stock was not tracked when loaded: the delta is the whole of it
+            stockProduitRepository.save(new StockProduit(produitId, delta));
+        } else {
+            // The row was deleted behind the ledger, which cannot tell the stock left
+            log.warn("Dropped the stock delta {} of Produit {}, which has no stock row", delta, produitId);
+        }
+    }
+
+    private Reservation take(Map<Long, Integer> quantites, Instant expiresAt) {
+        Map<Long, Integer> taken = new HashMap<>();
+        List<Long> insufficient = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantites.entrySet()) {
+            Stock stock = stockOf(entry.getKey());
+            if (stock == UNTRACKED) {
+                continue;
+            }
+            if (!insufficient.isEmpty()) {
+                // Only looked at, to report every produit lacking stock
+                if (stock.available.get() < entry.getValue()) {
+                    insufficient.add(entry.getKey());
+                }
+            } else if (stock.take(entry.getValue())) {
+                taken.put(entry.getKey(), entry.getValue());
+            } else {
+                insufficient.add(entry.getKey());
+            }
+        }
+        if (!insufficient.isEmpty()) {
+            giveBack(taken);
+            throw new InsufficientStockException(insufficient);
+        }
+        return new Reservation(UUID.randomUUID(), expiresAt, quantites, taken);
+    }
+
+    /**
+     * Give back the stock taken from produits, but for those deleted meanwhile.
+     */
+    private void giveBack(Map<Long, Integer> taken) {
+        taken.forEach((produitId, quantite) -> {
+            Stock stock = stocks.get(produitId);
+            if (stock != null && stock != UNTRACKED) {
+                stock.available.addAndGet(quantite);
+            }
+        });
+    }
+
+    private Stock stockOf(Long produitId) {
+        // Lock-free once the produit is loaded, which computeIfAbsent may not be
+        Stock existing = stocks.get(produitId);
+        return existing != null ? existing : stocks.computeIfAbsent(produitId, this::load);
+    }
+
+    private Stock load(Long produitId) {
+        return stockProduitRepository
+            .findById(produitId)
+            .map(stockProduit -> new Stock(stockProduit.getQuantite()))
+            .orElse(UNTRACKED);
+    }
+
+    /**
+     * The quantity of a produit available to new reservations.
+     */
+    private static final class Stock {
+
+        private final AtomicInteger available;
+
+        private Stock(int available) {
+            this.available = new AtomicInteger(available);
+        }
+
+        /**
+         * @return whether the quantity was available, and taken.
+         */
+        private boolean take(int quantite) {
+            while (true) {
+                int current = available.get();
+                if (current < quantite) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - quantite)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * The stock reserved for a cart or a checkout: the produits whose stock is not tracked are part of it, but take none.
+     */
+    public static final class Reservation {
+
+        private final UUID id;
+
+        private final Instant expiresAt;
+
+        private final Map<Long, Integer> quantites;
+
+        private final Map<Long, Integer> taken;
+
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Reservation(UUID id, Instant expiresAt, Map<Long, Integer> quantites, Map<Long, Integer> taken) {
+            this.id = id;
+            this.expiresAt = expiresAt;
+            this.quantites = Map.copyOf(quantites);
+            this.taken = taken;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        /**
+         * @return when the reservation of a cart expires, {@code null} for that of a checkout.
+         */
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * @return the quantity reserved of each produit.
+         */
+        public Map<Long, Integer> getQuantites() {
+            return quantites;
+        }
+    }
+}
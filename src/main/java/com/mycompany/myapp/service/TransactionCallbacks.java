@@ -0,0 +1,54 @@
+package com.mycompany.myapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defer the update of in-memory state derived from the database until the current transaction commits,
+ * so that a rolled back write never shows up in it.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {}
+
+    /**
+     * Run the callback once the current transaction, if any, is committed, or right away outside of a transaction.
+     */
+    static void afterCommit(Runnable callback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        callback.run();
+                    }
+                }
+            );
+        } else {
+            callback.run();
+        }
+    }
+
+    /**
+     * Run the first callback once the current transaction, if any, is committed, or right away outside of a transaction,
+     * and the second one if it is rolled back instead; a transaction whose outcome is unknown counts as committed.
+     */
+    static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_ROLLED_BACK) {
+                            onRollback.run();
+                        } else {
+                            onCommit.run();
+                        }
+                    }
+                }
+            );
+        } else {
+            onCommit.run();
+        }
+    }
+}
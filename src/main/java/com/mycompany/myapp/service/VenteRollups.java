@@ -0,0 +1,483 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.VenteRollup;
+import com.mycompany.myapp.domain.VenteRollupId;
+import com.mycompany.myapp.domain.enumeration.DimensionVente;
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import com.mycompany.myapp.repository.CommandeRepository;
+import com.mycompany.myapp.repository.CommandeVenteRow;
+import com.mycompany.myapp.repository.ProduitCategoryRow;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.repository.VenteCleRow;
+import com.mycompany.myapp.repository.VenteRollupRepository;
+import com.mycompany.myapp.service.dto.VenteDTO;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rollups of the sales of each day, in total, per {@link com.mycompany.myapp.domain.Produit} and per
+ * {@link com.mycompany.myapp.domain.Category} ({@link VenteRollup}), from which the dashboards are answered without
+ * reading the commandes.
+ * <p>
+ * The rollups hold the sales of the commandes paid, and neither cancelled nor refunded, by the day of their date in UTC;
+ * a commande counts once in the total, and once for each of its produits and of their current categories. Commandes
+ * without a date are not rolled up.
+ * <p>
+ * {@link CommandeService} adds the lignes of each commande once it is paid, and subtracts them once it is refunded. These
+ * deltas are summed in memory once the transaction commits, and written every second in a single transaction by a single
+ * writer, so that concurrent payments never contend on the rows of the rollups nor race to insert them. The deltas not
+ * written yet are lost if the application crashes, until the rollups of their days are rebuilt.
+ * <p>
+ * The rollups of a range of days are rebuilt from the commandes in chunks of {@value #CHUNK_DAYS} days, on
+ * {@link ApplicationProperties.Ventes#getBackfillThreads()} threads: each chunk is read through a forward-only cursor,
+ * then replaces the rollups of its days in a single transaction. The last {@value #RECENT_DAYS} days are rebuilt every
+ * night, which accounts for the lignes written after their commande was paid. The deltas of the days being rebuilt are
+ * held until their chunk is written; a commande paid just as the rebuild of its day starts may be counted twice, until
+ * it is rebuilt again.
+ */
+@Service
+public class VenteRollups {
+
+    static final int CHUNK_DAYS = 7;
+
+    static final int RECENT_DAYS = 7;
+
+    /**
+     * The key of the rollups of the total.
+     */
+    private static final Long TOTAL_ID = 0L;
+
+    private final Logger log = LoggerFactory.getLogger(VenteRollups.class);
+
+    private final CommandeRepository commandeRepository;
+
+    private final ProduitRepository produitRepository;
+
+    private final VenteRollupRepository venteRollupRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final int backfillThreads;
+
+    /**
+     * The deltas of the rollups, not written to the database yet.
+     */
+    private final ConcurrentHashMap<VenteRollupId, Delta> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The days whose rollups are being rebuilt, and whose deltas are held meanwhile.
+     */
+    private final Set<LocalDate> rebuilding = ConcurrentHashMap.newKeySet();
+
+    private final Object backfillLock = new Object();
+
+    public VenteRollups(
+        CommandeRepository commandeRepository,
+        ProduitRepository produitRepository,
+        VenteRollupRepository venteRollupRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.commandeRepository = commandeRepository;
+        this.produitRepository = produitRepository;
+        this.venteRollupRepository = venteRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.backfillThreads = applicationProperties.getVentes().getBackfillThreads();
+    }
+
+    /**
+     * Add the lignes of commandes just paid to the rollups, once the current transaction, if any, is committed.
+     *
+     * @param commandes the commandes paid.
+     * @param lignes their lignes, along with their commande.
+     */
+    public void addVentes(Collection<Commande> commandes, Collection<LigneCommande> lignes) {
+        record(commandes, lignes, 1);
+    }
+
+    /**
+     * Subtract the lignes of commandes just refunded from the rollups, once the current transaction, if any, is committed.
+     *
+     * @param commandes the commandes refunded, which were paid.
+     * @param lignes their lignes, along with their commande.
+     */
+    public void removeVentes(Collection<Commande> commandes, Collection<LigneCommande> lignes) {
+        record(commandes, lignes, -1);
+    }
+
+    private void record(Collection<Commande> commandes, Collection<LigneCommande> lignes, int sign) {
+        Map<Long, List<CommandeVenteRow>> rowsByCommande = new HashMap<>();
+        Set<Long> produitIds = new HashSet<>();
+        for (LigneCommande ligne : lignes) {
+            Long produitId = ligne.getProduit() != null ? ligne.getProduit().getId() : null;
+            Long commandeId = ligne.getCommande().getId();
+            rowsByCommande
+                .computeIfAbsent(commandeId, id -> new ArrayList<>())
+                .add(new CommandeVenteRow(commandeId, null, ligne.getId(), produitId, ligne.getQuantite(), ligne.getPrix()));
+            if (produitId != null) {
+                produitIds.add(produitId);
+            }
+        }
+        Map<Long, List<Long>> categories = produitIds.isEmpty()
+            ? Map.of()
+            : categoriesByProduit(produitRepository.findCategoriesByIdIn(produitIds));
+        Map<VenteRollupId, Delta> deltas = new HashMap<>();
+        for (Commande commande : commandes) {
+            if (commande.getDate() != null) {
+                aggregate(jourOf(commande.getDate()), rowsByCommande.getOrDefault(commande.getId(), List.of()), categories, sign, deltas);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> deltas.forEach((id, delta) -> pending.merge(id, delta, Delta::plus)));
+    }
+
+    /**
+     * Write the deltas of the rollups to the database, in a single transaction; they are kept for the next flush if it
+     * fails, as are those of the days being rebuilt.
+     * <p>
+     * This is scheduled to run every second, and when the application stops.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    @PreDestroy
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<VenteRollupId, Delta> deltas = new HashMap<>();
+        for (VenteRollupId id : pending.keySet()) {
+            if (rebuilding.contains(id.getJour())) {
+                continue;
+            }
+            Delta delta = pending.remove(id);
+            if (delta != null) {
+                deltas.put(id, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach(this::write));
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} rollups of the sales, will retry: {}", deltas.size(), e.getMessage());
+            deltas.forEach((id, delta) -> pending.merge(id, delta, Delta::plus));
+        }
+    }
+
+    private void write(VenteRollupId id, Delta delta) {
+        int updated = venteRollupRepository.increment(
+            id.getDimension(),
+            id.getJour(),
+            id.getCleId(),
+            delta.commandes,
+            delta.articles,
+            delta.centimes
+        );
+        if (updated == 0) {
+            venteRollupRepository.save(delta.toRollup(id));
+        }
+    }
+
+    /**
+     * Rebuild the rollups of the last {@value #RECENT_DAYS} days and of today.
+     * <p>
+     * This is scheduled to run every day, at 03:30 (am).
+     *
+     * @return the number of commandes rolled up.
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public int backfillRecent() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return backfill(today.minusDays(RECENT_DAYS), today.plusDays(1));
+    }
+
+    /**
+     * Rebuild the rollups of every day from the oldest commande paid to the most recent one.
+     *
+     * @return the number of commandes rolled up.
+     */
+    public int backfill() {
+        Optional<Instant> first = commandeRepository.findFirstDate(EtatCommande.ACHETEES);
+        Optional<Instant> last = commandeRepository.findLastDate(EtatCommande.ACHETEES);
+        if (first.isEmpty() || last.isEmpty()) {
+            return 0;
+        }
+        return backfill(jourOf(first.get()), jourOf(last.get()).plusDays(1));
+    }
+
+    /**
+     * Rebuild the rollups of a range of days from the commandes, in chunks of {@value #CHUNK_DAYS} days rebuilt in
+     * parallel. The chunks rebuilt before one fails are kept.
+     *
+     * @param from the first day.
+     * @param to the last day, excluded.
+     * @return the number of commandes rolled up.
+     * @throws IllegalArgumentException if the last day is before the first one.
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The range of days ends on " + to + ", before it starts on " + from);
+        }
+        synchronized (backfillLock) {
+            Map<Long, List<Long>> categories = categoriesByProduit(
+                readOnlyTransactionTemplate.execute(status -> produitRepository.findAllCategories())
+            );
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ventes-backfill-");
+            threadFactory.setDaemon(true);
+            ExecutorService executor = Executors.newFixedThreadPool(backfillThreads, threadFactory);
+            try {
+                List<Future<Integer>> chunks = new ArrayList<>();
+                for (LocalDate start = from; start.isBefore(to); start = start.plusDays(CHUNK_DAYS)) {
+                    LocalDate chunkFrom = start;
+                    LocalDate chunkTo = start.plusDays(CHUNK_DAYS).isBefore(to) ? start.plusDays(CHUNK_DAYS) : to;
+                    chunks.add(executor.submit(() -> rebuild(chunkFrom, chunkTo, categories)));
+                }
+                int commandes = 0;
+                for (Future<Integer> chunk : chunks) {
+                    commandes += chunk.get();
+                }
+                log.info("Rebuilt the rollups of the sales from {} to {}, of {} commandes", from, to, commandes);
+                return commandes;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rebuilding the rollups of the sales", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Could not rebuild the rollups of the sales from " + from + " to " + to, e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Rebuild the rollups of a chunk of days: the deltas of these days are dropped, as the commandes they come from are
+     * read again, and those recorded meanwhile are held until the rollups are replaced.
+     *
+     * @return the number of commandes rolled up.
+     */
+    private int rebuild(LocalDate from, LocalDate to, Map<Long, List<Long>> categories) {
+        List<LocalDate> jours = from.datesUntil(to).collect(Collectors.toList());
+        synchronized (this) {
+            rebuilding.addAll(jours);
+            pending.keySet().removeIf(id -> !id.getJour().isBefore(from) && id.getJour().isBefore(to));
+        }
+        try {
+            Map<VenteRollupId, Delta> deltas = new HashMap<>();
+            int commandes = readOnlyTransactionTemplate.execute(status -> read(from, to, categories, deltas));
+            List<VenteRollup> rollups = deltas
+                .entrySet()
+                .stream()
+                .map(entry -> entry.getValue().toRollup(entry.getKey()))
+                .collect(Collectors.toList());
+            synchronized (this) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    venteRollupRepository.deleteByJourRange(from, to);
+                    venteRollupRepository.saveAll(rollups);
+                });
+            }
+            log.debug("Rebuilt {} rollups of the sales from {} to {}", rollups.size(), from, to);
+            return commandes;
+        } finally {
+            rebuilding.removeAll(jours);
+        }
+    }
+
+    private int read(LocalDate from, LocalDate to, Map<Long, List<Long>> categories, Map<VenteRollupId, Delta> deltas) {
+        int commandes = 0;
+        try (Stream<CommandeVenteRow> rows = commandeRepository.streamVentes(EtatCommande.ACHETEES, startOf(from), startOf(to))) {
+            List<CommandeVenteRow> commande = new ArrayList<>();
+            for (CommandeVenteRow row : (Iterable<CommandeVenteRow>) rows::iterator) {
+                if (!commande.isEmpty() && !row.getCommandeId().equals(commande.get(0).getCommandeId())) {
+                    aggregate(jourOf(commande.get(0).getDate()), commande, categories, 1, deltas);
+                    commandes++;
+                    commande.clear();
+                }
+                commande.add(row);
+            }
+            if (!commande.isEmpty()) {
+                aggregate(jourOf(commande.get(0).getDate()), commande, categories, 1, deltas);
+                commandes++;
+            }
+        }
+        return commandes;
+    }
+
+    /**
+     * Add the sales of a commande to deltas: it counts once in the total, and once for each of its produits and of their
+     * categories, with the articles and amount of the lignes concerned.
+     *
+     * @param jour the day of the commande.
+     * @param lignes the lignes of the commande; a row without a ligne stands for a commande without lignes.
+     * @param categories the ids of the categories of each produit.
+     * @param sign {@code 1} to add the sales, {@code -1} to subtract them.
+     * @param deltas the deltas of the rollups, added to.
+     */
+    static void aggregate(
+        LocalDate jour,
+        List<CommandeVenteRow> lignes,
+        Map<Long, List<Long>> categories,
+        int sign,
+        Map<VenteRollupId, Delta> deltas
+    ) {
+        CommandeTotals total = CommandeTotals.ZERO;
+        Map<Long, CommandeTotals> produitTotals = new HashMap<>();
+        Map<Long, CommandeTotals> categoryTotals = new HashMap<>();
+        for (CommandeVenteRow ligne : lignes) {
+            if (ligne.getLigneId() == null) {
+                continue;
+            }
+            CommandeTotals totals = CommandeTotals.of(ligne.getQuantite(), ligne.getPrix());
+            total = total.plus(totals);
+            if (ligne.getProduitId() == null) {
+                continue;
+            }
+            produitTotals.merge(ligne.getProduitId(), totals, CommandeTotals::plus);
+            for (Long categoryId : categories.getOrDefault(ligne.getProduitId(), List.of())) {
+                categoryTotals.merge(categoryId, totals, CommandeTotals::plus);
+            }
+        }
+        deltas.merge(new VenteRollupId(DimensionVente.TOTAL, jour, TOTAL_ID), Delta.of(total, sign), Delta::plus);
+        produitTotals.forEach((produitId, totals) ->
+            deltas.merge(new VenteRollupId(DimensionVente.PRODUIT, jour, produitId), Delta.of(totals, sign), Delta::plus)
+        );
+        categoryTotals.forEach((categoryId, totals) ->
+            deltas.merge(new VenteRollupId(DimensionVente.CATEGORY, jour, categoryId), Delta.of(totals, sign), Delta::plus)
+        );
+    }
+
+    /**
+     * @param cleId the id of the produit or category, ignored for the total.
+     * @param from the first day.
+     * @param to the last day, excluded.
+     * @return the sales of each day with sales, in day order.
+     */
+    public List<VenteDTO> findSerie(DimensionVente dimension, Long cleId, LocalDate from, LocalDate to) {
+        Long id = dimension == DimensionVente.TOTAL ? TOTAL_ID : cleId;
+        return venteRollupRepository
+            .findSerie(dimension, id, from, to)
+            .stream()
+            .map(rollup ->
+                new VenteDTO(
+                    rollup.getJour(),
+                    dimension == DimensionVente.TOTAL ? null : rollup.getCleId(),
+                    rollup.getNombreCommandes(),
+                    rollup.getNombreArticles(),
+                    rollup.getTotalCentimes()
+                )
+            )
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @param from the first day.
+     * @param to the last day, excluded.
+     * @return the sales of the range of days.
+     */
+    public VenteDTO findTotal(LocalDate from, LocalDate to) {
+        return venteRollupRepository
+            .sumByCle(DimensionVente.TOTAL, from, to, PageRequest.of(0, 1))
+            .stream()
+            .findFirst()
+            .map(row -> new VenteDTO(null, null, row.getNombreCommandes(), row.getNombreArticles(), row.getTotalCentimes()))
+            .orElseGet(() -> new VenteDTO(null, null, 0, 0, 0));
+    }
+
+    /**
+     * @param dimension {@link DimensionVente#PRODUIT} or {@link DimensionVente#CATEGORY}.
+     * @param from the first day.
+     * @param to the last day, excluded.
+     * @param size the maximum number of produits or categories.
+     * @return the sales of the range of days of the produits or categories which sold the most, by amount descending.
+     */
+    public List<VenteDTO> findBest(DimensionVente dimension, LocalDate from, LocalDate to, int size) {
+        List<VenteDTO> best = new ArrayList<>();
+        for (VenteCleRow row : venteRollupRepository.sumByCle(dimension, from, to, PageRequest.of(0, size))) {
+            best.add(new VenteDTO(null, row.getCleId(), row.getNombreCommandes(), row.getNombreArticles(), row.getTotalCentimes()));
+        }
+        return best;
+    }
+
+    private static Map<Long, List<Long>> categoriesByProduit(List<ProduitCategoryRow> rows) {
+        Map<Long, List<Long>> categories = new HashMap<>();
+        for (ProduitCategoryRow row : rows) {
+            categories.computeIfAbsent(row.getProduitId(), id -> new ArrayList<>()).add(row.getCategoryId());
+        }
+        return categories;
+    }
+
+    static LocalDate jourOf(Instant date) {
+        return LocalDate.ofInstant(date, ZoneOffset.UTC);
+    }
+
+    private static Instant startOf(LocalDate jour) {
+        return jour.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * The sales to add to a rollup, negative for those to subtract.
+     */
+    static final class Delta {
+
+        private final long commandes;
+
+        private final long articles;
+
+        private final long centimes;
+
+        Delta(long commandes, long articles, long centimes) {
+            this.commandes = commandes;
+            this.articles = articles;
+            this.centimes = centimes;
+        }
+
+        static Delta of(CommandeTotals totals, int sign) {
+            return new Delta(sign, (long) sign * totals.getArticles(), sign * totals.getCentimes());
+        }
+
+        Delta plus(Delta other) {
+            return new Delta(
+                Math.addExact(commandes, other.commandes),
+                Math.addExact(articles, other.articles),
+                Math.addExact(centimes, other.centimes)
+            );
+        }
+
+        VenteRollup toRollup(VenteRollupId id) {
+            return new VenteRollup(id, commandes, articles, centimes);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.enumeration.TypePayement;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+/**
+ * A DTO for a checkout: the cart to turn into a {@link com.mycompany.myapp.domain.Commande} and its
+ * {@link com.mycompany.myapp.domain.LigneCommande}s at once.
+ */
+public class CheckoutDTO implements Serializable {
+
+    public static final int MAX_LIGNES = 500;
+
+    private TypePayement typePayement;
+
+    private CarteBancaireDTO carteBancaire;
+
+    private ClientDTO client;
+
+    private UUID reservationId;
+
+    @NotEmpty
+    @Size(max = MAX_LIGNES)
+    @Valid
+    private List<CheckoutLigneDTO> lignes = new ArrayList<>();
+
+    public TypePayement getTypePayement() {
+        return typePayement;
+    }
+
+    public void setTypePayement(TypePayement typePayement) {
+        this.typePayement = typePayement;
+    }
+
+    public CarteBancaireDTO getCarteBancaire() {
+        return carteBancaire;
+    }
+
+    public void setCarteBancaire(CarteBancaireDTO carteBancaire) {
+        this.carteBancaire = carteBancaire;
+    }
+
+    public ClientDTO getClient() {
+        return client;
+    }
+
+    public void setClient(ClientDTO client) {
+        this.client = client;
+    }
+
+    /**
+     * @return the id of the stock reserved for the cart beforehand, if any.
+     */
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(UUID reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    /**
+     * @return the lignes of the cart; those of the same produit are merged.
+     */
+    public List<CheckoutLigneDTO> getLignes() {
+        return lignes;
+    }
+
+    public void setLignes(List<CheckoutLigneDTO> lignes) {
+        this.lignes = lignes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CheckoutDTO{" +
+            "typePayement='" + getTypePayement() + "'" +
+            ", carteBancaire=" + getCarteBancaire() +
+            ", client=" + getClient() +
+            ", reservationId=" + getReservationId() +
+            ", lignes=" + getLignes() +
+            "}";
+    }
+}
@@ -0,0 +1,44 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A DTO for a ligne of the cart of a checkout: the id of a {@link com.mycompany.myapp.domain.Produit} and the quantity
+ * bought.
+ */
+public class CheckoutLigneDTO implements Serializable {
+
+    @NotNull
+    private Long produitId;
+
+    @NotNull
+    @Min(value = 1)
+    private Integer quantite;
+
+    public Long getProduitId() {
+        return produitId;
+    }
+
+    public void setProduitId(Long produitId) {
+        this.produitId = produitId;
+    }
+
+    public Integer getQuantite() {
+        return quantite;
+    }
+
+    public void setQuantite(Integer quantite) {
+        this.quantite = quantite;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CheckoutLigneDTO{" +
+            "produitId=" + getProduitId() +
+            ", quantite=" + getQuantite() +
+            "}";
+    }
+}
@@ -0,0 +1,51 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the result of a checkout: the {@link com.mycompany.myapp.domain.Commande} created and its
+ * {@link com.mycompany.myapp.domain.LigneCommande}s.
+ */
+public class CheckoutResultDTO implements Serializable {
+
+    private CommandeDTO commande;
+
+    private List<LigneCommandeDTO> ligneCommandes = new ArrayList<>();
+
+    public CheckoutResultDTO() {}
+
+    public CheckoutResultDTO(CommandeDTO commande, List<LigneCommandeDTO> ligneCommandes) {
+        this.commande = commande;
+        this.ligneCommandes = ligneCommandes;
+    }
+
+    public CommandeDTO getCommande() {
+        return commande;
+    }
+
+    public void setCommande(CommandeDTO commande) {
+        this.commande = commande;
+    }
+
+    /**
+     * @return the lignes created, in the order of the cart, each with the unit price of its produit at checkout.
+     */
+    public List<LigneCommandeDTO> getLigneCommandes() {
+        return ligneCommandes;
+    }
+
+    public void setLigneCommandes(List<LigneCommandeDTO> ligneCommandes) {
+        this.ligneCommandes = ligneCommandes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CheckoutResultDTO{" +
+            "commande=" + getCommande() +
+            ", ligneCommandes=" + getLigneCommandes() +
+            "}";
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * A DTO for the move of many {@link com.mycompany.myapp.domain.Commande}s to the same state, for instance to mark them
+ * delivered.
+ */
+public class CommandeBulkTransitionDTO implements Serializable {
+
+    public static final int MAX_IDS = 10_000;
+
+    @NotNull
+    private EtatCommande etat;
+
+    @NotEmpty
+    @Size(max = MAX_IDS)
+    private List<@NotNull Long> ids = new ArrayList<>();
+
+    public EtatCommande getEtat() {
+        return etat;
+    }
+
+    public void setEtat(EtatCommande etat) {
+        this.etat = etat;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CommandeBulkTransitionDTO{" +
+            "etat='" + getEtat() + "'" +
+            ", ids=" + getIds().size() +
+            "}";
+    }
+}
@@ -20,6 +20,14 @@ public class CommandeDTO implements Serializable {
 
     private TypePayement typePayement;
 
+    private Long totalCentimes;
+
+    private Integer nombreArticles;
+
+    private Integer nombreLignes;
+
+    private Integer version;
+
     private CarteBancaireDTO carteBancaire;
 
     private ClientDTO client;
@@ -56,6 +64,50 @@ public class CommandeDTO implements Serializable {
         this.typePayement = typePayement;
     }
 
+    /**
+     * @return the sum of the amounts of the lignes, in cents; read-only.
+     */
+    public Long getTotalCentimes() {
+        return totalCentimes;
+    }
+
+    public void setTotalCentimes(Long totalCentimes) {
+        this.totalCentimes = totalCentimes;
+    }
+
+    /**
+     * @return the sum of the quantities of the lignes; read-only.
+     */
+    public Integer getNombreArticles() {
+        return nombreArticles;
+    }
+
+    public void setNombreArticles(Integer nombreArticles) {
+        this.nombreArticles = nombreArticles;
+    }
+
+    /**
+     * @return the number of lignes; read-only.
+     */
+    public Integer getNombreLignes() {
+        return nombreLignes;
+    }
+
+    public void setNombreLignes(Integer nombreLignes) {
+        this.nombreLignes = nombreLignes;
+    }
+
+    /**
+     * @return the version of the commande when read; an update giving an older one fails.
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     public CarteBancaireDTO getCarteBancaire() {
         return carteBancaire;
     }
@@ -101,6 +153,10 @@ public class CommandeDTO implements Serializable {
             ", date='" + getDate() + "'" +
             ", etat='" + getEtat() + "'" +
             ", typePayement='" + getTypePayement() + "'" +
+            ", totalCentimes=" + getTotalCentimes() +
+            ", nombreArticles=" + getNombreArticles() +
+            ", nombreLignes=" + getNombreLignes() +
+            ", version=" + getVersion() +
             ", carteBancaire=" + getCarteBancaire() +
             ", client=" + getClient() +
             "}";
@@ -0,0 +1,51 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for a {@link com.mycompany.myapp.domain.Commande} of the order history of a client, along with its
+ * {@link com.mycompany.myapp.domain.LigneCommande}s.
+ */
+public class CommandeHistoryDTO implements Serializable {
+
+    private CommandeDTO commande;
+
+    private List<LigneCommandeDTO> ligneCommandes = new ArrayList<>();
+
+    public CommandeHistoryDTO() {}
+
+    public CommandeHistoryDTO(CommandeDTO commande, List<LigneCommandeDTO> ligneCommandes) {
+        this.commande = commande;
+        this.ligneCommandes = ligneCommandes;
+    }
+
+    public CommandeDTO getCommande() {
+        return commande;
+    }
+
+    public void setCommande(CommandeDTO commande) {
+        this.commande = commande;
+    }
+
+    /**
+     * @return the lignes of the commande, in id order, each with the id, libelle and unit price of its produit.
+     */
+    public List<LigneCommandeDTO> getLigneCommandes() {
+        return ligneCommandes;
+    }
+
+    public void setLigneCommandes(List<LigneCommandeDTO> ligneCommandes) {
+        this.ligneCommandes = ligneCommandes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CommandeHistoryDTO{" +
+            "commande=" + getCommande() +
+            ", ligneCommandes=" + getLigneCommandes() +
+            "}";
+    }
+}
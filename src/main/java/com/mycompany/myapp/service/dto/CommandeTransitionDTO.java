@@ -0,0 +1,45 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A DTO for the move of a {@link com.mycompany.myapp.domain.Commande} to another state.
+ */
+public class CommandeTransitionDTO implements Serializable {
+
+    @NotNull
+    private EtatCommande etat;
+
+    @NotNull
+    private Integer version;
+
+    public EtatCommande getEtat() {
+        return etat;
+    }
+
+    public void setEtat(EtatCommande etat) {
+        this.etat = etat;
+    }
+
+    /**
+     * @return the version of the commande the move is based on.
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CommandeTransitionDTO{" +
+            "etat='" + getEtat() + "'" +
+            ", version=" + getVersion() +
+            "}";
+    }
+}
@@ -0,0 +1,84 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.enumeration.EtatCommande;
+import java.io.Serializable;
+
+/**
+ * A DTO for the outcome of the move of a {@link com.mycompany.myapp.domain.Commande} to another state, within a bulk move.
+ */
+public class CommandeTransitionResultDTO implements Serializable {
+
+    public enum Status {
+        /**
+         * The commande was moved.
+         */
+        TRANSITIONED,
+        /**
+         * The commande was in the state already.
+         */
+        UNCHANGED,
+        /**
+         * The commande may not move from its state to the new one.
+         */
+        ILLEGAL,
+        /**
+         * The commande does not exist.
+         */
+        NOT_FOUND,
+        /**
+         * The commande was moved or deleted by another update meanwhile.
+         */
+        CONFLICT,
+    }
+
+    private Long id;
+
+    private Status status;
+
+    private EtatCommande etat;
+
+    public CommandeTransitionResultDTO() {}
+
+    public CommandeTransitionResultDTO(Long id, Status status, EtatCommande etat) {
+        this.id = id;
+        this.status = status;
+        this.etat = etat;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the state of the commande after the move, {@code null} if it does not exist.
+     */
+    public EtatCommande getEtat() {
+        return etat;
+    }
+
+    public void setEtat(EtatCommande etat) {
+        this.etat = etat;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CommandeTransitionResultDTO{" +
+            "id=" + getId() +
+            ", status='" + getStatus() + "'" +
+            ", etat='" + getEtat() + "'" +
+            "}";
+    }
+}
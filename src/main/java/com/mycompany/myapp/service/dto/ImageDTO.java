@@ -1,6 +1,8 @@
 package com.mycompany.myapp.service.dto;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -15,6 +17,11 @@ public class ImageDTO implements Serializable {
 
     private ProduitDTO produit;
 
+    /**
+     * Generated by the server, by increasing width; ignored when writing an image.
+     */
+    private List<ImageVariantDTO> variants = new ArrayList<>();
+
     public Long getId() {
         return id;
     }
@@ -39,6 +46,14 @@ public class ImageDTO implements Serializable {
         this.produit = produit;
     }
 
+    public List<ImageVariantDTO> getVariants() {
+        return variants;
+    }
+
+    public void setVariants(List<ImageVariantDTO> variants) {
+        this.variants = variants;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -67,6 +82,7 @@ public class ImageDTO implements Serializable {
             "id=" + getId() +
             ", url='" + getUrl() + "'" +
             ", produit=" + getProduit() +
+            ", variants=" + getVariants() +
             "}";
     }
 }
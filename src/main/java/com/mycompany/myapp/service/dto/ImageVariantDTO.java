@@ -0,0 +1,63 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the {@link com.mycompany.myapp.domain.ImageVariant} of an image.
+ */
+public class ImageVariantDTO implements Serializable {
+
+    private Integer width;
+
+    private String url;
+
+    public ImageVariantDTO() {}
+
+    public ImageVariantDTO(Integer width, String url) {
+        this.width = width;
+        this.url = url;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImageVariantDTO)) {
+            return false;
+        }
+        ImageVariantDTO other = (ImageVariantDTO) o;
+        return Objects.equals(width, other.width) && Objects.equals(url, other.url);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(width, url);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImageVariantDTO{" +
+            "width=" + getWidth() +
+            ", url='" + getUrl() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,56 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A DTO for the notes of the {@link com.mycompany.myapp.domain.Avis} of a {@link com.mycompany.myapp.domain.Produit}.
+ */
+public class NoteProduitDTO implements Serializable {
+
+    private long nombreAvis;
+
+    private Double moyenne;
+
+    private Map<Integer, Long> repartition;
+
+    public long getNombreAvis() {
+        return nombreAvis;
+    }
+
+    public void setNombreAvis(long nombreAvis) {
+        this.nombreAvis = nombreAvis;
+    }
+
+    /**
+     * @return the average note of the avis having a note, {@code null} if there is none.
+     */
+    public Double getMoyenne() {
+        return moyenne;
+    }
+
+    public void setMoyenne(Double moyenne) {
+        this.moyenne = moyenne;
+    }
+
+    /**
+     * @return the number of avis per note, from 1 to 5.
+     */
+    public Map<Integer, Long> getRepartition() {
+        return repartition;
+    }
+
+    public void setRepartition(Map<Integer, Long> repartition) {
+        this.repartition = repartition;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "NoteProduitDTO{" +
+            "nombreAvis=" + getNombreAvis() +
+            ", moyenne=" + getMoyenne() +
+            ", repartition=" + getRepartition() +
+            "}";
+    }
+}
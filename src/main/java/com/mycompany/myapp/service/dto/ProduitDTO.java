@@ -1,5 +1,6 @@
 package com.mycompany.myapp.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Objects;
@@ -30,6 +31,12 @@ public class ProduitDTO implements Serializable {
 
     private Set<CategoryDTO> categories = new HashSet<>();
 
+    /**
+     * The notes of the avis of the produit, only set when a single produit is read.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private NoteProduitDTO notes;
+
     public Long getId() {
         return id;
     }
@@ -94,6 +101,14 @@ public class ProduitDTO implements Serializable {
         this.categories = categories;
     }
 
+    public NoteProduitDTO getNotes() {
+        return notes;
+    }
+
+    public void setNotes(NoteProduitDTO notes) {
+        this.notes = notes;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
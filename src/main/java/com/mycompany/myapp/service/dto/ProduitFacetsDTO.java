@@ -0,0 +1,130 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO for the facet counts of the {@link com.mycompany.myapp.domain.Produit} entities matching a criteria.
+ * <p>
+ * The counts of a facet ignore the filter on that same facet, so that they tell how many produits each other value
+ * of the facet would give. The facets which were not requested are {@code null}.
+ */
+public class ProduitFacetsDTO implements Serializable {
+
+    private long total;
+
+    private Map<String, Long> couleur;
+
+    private Map<Integer, Long> taille;
+
+    private List<PriceBucket> prixUnitaire;
+
+    private Map<Long, Long> categoryId;
+
+    /**
+     * The number of produits whose price is at least {@code from} (when set) and less than {@code to} (when set).
+     */
+    public static class PriceBucket implements Serializable {
+
+        private Float from;
+
+        private Float to;
+
+        private long count;
+
+        public PriceBucket() {}
+
+        public PriceBucket(Float from, Float to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public Float getFrom() {
+            return from;
+        }
+
+        public void setFrom(Float from) {
+            this.from = from;
+        }
+
+        public Float getTo() {
+            return to;
+        }
+
+        public void setTo(Float to) {
+            this.to = to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "PriceBucket{" +
+                "from=" + getFrom() +
+                ", to=" + getTo() +
+                ", count=" + getCount() +
+                "}";
+        }
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getCouleur() {
+        return couleur;
+    }
+
+    public void setCouleur(Map<String, Long> couleur) {
+        this.couleur = couleur;
+    }
+
+    public Map<Integer, Long> getTaille() {
+        return taille;
+    }
+
+    public void setTaille(Map<Integer, Long> taille) {
+        this.taille = taille;
+    }
+
+    public List<PriceBucket> getPrixUnitaire() {
+        return prixUnitaire;
+    }
+
+    public void setPrixUnitaire(List<PriceBucket> prixUnitaire) {
+        this.prixUnitaire = prixUnitaire;
+    }
+
+    public Map<Long, Long> getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Map<Long, Long> categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProduitFacetsDTO{" +
+            "total=" + getTotal() +
+            ", couleur=" + getCouleur() +
+            ", taille=" + getTaille() +
+            ", prixUnitaire=" + getPrixUnitaire() +
+            ", categoryId=" + getCategoryId() +
+            "}";
+    }
+}
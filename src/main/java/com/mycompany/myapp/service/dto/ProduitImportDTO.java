@@ -0,0 +1,105 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the report of a bulk import of {@link com.mycompany.myapp.domain.Produit} entities.
+ */
+public class ProduitImportDTO implements Serializable {
+
+    private long imported;
+
+    private long rejected;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * @return the number of produits created.
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    /**
+     * @return the number of rows which were not imported.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * @return why the rows were rejected, in the order of the rows; only the first ones are reported.
+     */
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProduitImportDTO{" +
+            "imported=" + getImported() +
+            ", rejected=" + getRejected() +
+            ", errors=" + getErrors() +
+            "}";
+    }
+
+    /**
+     * Why a row was rejected.
+     */
+    public static class RowError implements Serializable {
+
+        private long line;
+
+        private String message;
+
+        public RowError() {}
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * @return the line the row starts on, from 1.
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "RowError{" +
+                "line=" + getLine() +
+                ", message='" + getMessage() + "'" +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the result of a multi-get of {@link com.mycompany.myapp.domain.Produit} entities by id.
+ */
+public class ProduitMultiGetDTO implements Serializable {
+
+    private List<ProduitDTO> produits = new ArrayList<>();
+
+    private List<Long> missingIds = new ArrayList<>();
+
+    public ProduitMultiGetDTO() {}
+
+    public ProduitMultiGetDTO(List<ProduitDTO> produits, List<Long> missingIds) {
+        this.produits = produits;
+        this.missingIds = missingIds;
+    }
+
+    /**
+     * @return the produits found, in the order of the requested ids.
+     */
+    public List<ProduitDTO> getProduits() {
+        return produits;
+    }
+
+    public void setProduits(List<ProduitDTO> produits) {
+        this.produits = produits;
+    }
+
+    /**
+     * @return the requested ids which do not match any produit, in the order they were requested.
+     */
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProduitMultiGetDTO{" +
+            "produits=" + getProduits() +
+            ", missingIds=" + getMissingIds() +
+            "}";
+    }
+}
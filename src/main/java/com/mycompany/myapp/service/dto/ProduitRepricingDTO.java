@@ -0,0 +1,53 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.repository.ProduitRepricingRule;
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A DTO for a repricing rule of {@link com.mycompany.myapp.domain.Produit} entities.
+ */
+public class ProduitRepricingDTO implements Serializable {
+
+    @NotNull
+    private ProduitRepricingRule.Type type;
+
+    @NotNull
+    private Float value;
+
+    public ProduitRepricingRule.Type getType() {
+        return type;
+    }
+
+    public void setType(ProduitRepricingRule.Type type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the percentage, the amount or the rounding step, depending on the type.
+     */
+    public Float getValue() {
+        return value;
+    }
+
+    public void setValue(Float value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the rule.
+     * @throws IllegalArgumentException if the value is not valid for the type.
+     */
+    public ProduitRepricingRule toRule() {
+        return ProduitRepricingRule.of(type, value);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProduitRepricingDTO{" +
+            "type=" + getType() +
+            ", value=" + getValue() +
+            "}";
+    }
+}
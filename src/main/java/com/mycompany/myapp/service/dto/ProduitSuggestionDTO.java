@@ -0,0 +1,63 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for an autocompletion suggestion of a {@link com.mycompany.myapp.domain.Produit} libelle.
+ */
+public class ProduitSuggestionDTO implements Serializable {
+
+    private Long id;
+
+    private String libelle;
+
+    public ProduitSuggestionDTO() {}
+
+    public ProduitSuggestionDTO(Long id, String libelle) {
+        this.id = id;
+        this.libelle = libelle;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    public void setLibelle(String libelle) {
+        this.libelle = libelle;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProduitSuggestionDTO)) {
+            return false;
+        }
+        ProduitSuggestionDTO that = (ProduitSuggestionDTO) o;
+        return Objects.equals(id, that.id) && Objects.equals(libelle, that.libelle);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, libelle);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProduitSuggestionDTO{" +
+            "id=" + getId() +
+            ", libelle='" + getLibelle() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,46 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for the stock of a {@link com.mycompany.myapp.domain.Produit}: the quantity available to new reservations, or
+ * {@code null} if its stock is not tracked.
+ */
+public class StockDTO implements Serializable {
+
+    private Long produitId;
+
+    private Integer quantite;
+
+    public StockDTO() {}
+
+    public StockDTO(Long produitId, Integer quantite) {
+        this.produitId = produitId;
+        this.quantite = quantite;
+    }
+
+    public Long getProduitId() {
+        return produitId;
+    }
+
+    public void setProduitId(Long produitId) {
+        this.produitId = produitId;
+    }
+
+    public Integer getQuantite() {
+        return quantite;
+    }
+
+    public void setQuantite(Integer quantite) {
+        this.quantite = quantite;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockDTO{" +
+            "produitId=" + getProduitId() +
+            ", quantite=" + getQuantite() +
+            "}";
+    }
+}
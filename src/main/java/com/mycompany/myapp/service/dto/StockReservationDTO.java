@@ -0,0 +1,62 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+/**
+ * A DTO for the stock reserved for a cart until it is checked out, or the reservation expires.
+ */
+public class StockReservationDTO implements Serializable {
+
+    private UUID id;
+
+    private Instant expiresAt;
+
+    @NotEmpty
+    @Size(max = CheckoutDTO.MAX_LIGNES)
+    @Valid
+    private List<CheckoutLigneDTO> lignes = new ArrayList<>();
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return the lignes of the cart; those of the same produit are merged.
+     */
+    public List<CheckoutLigneDTO> getLignes() {
+        return lignes;
+    }
+
+    public void setLignes(List<CheckoutLigneDTO> lignes) {
+        this.lignes = lignes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockReservationDTO{" +
+            "id=" + getId() +
+            ", expiresAt='" + getExpiresAt() + "'" +
+            ", lignes=" + getLignes() +
+            "}";
+    }
+}
@@ -0,0 +1,89 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO for the sales of a day or of a range of days, in total, of a {@link com.mycompany.myapp.domain.Produit} or of a
+ * {@link com.mycompany.myapp.domain.Category}, read from the {@link com.mycompany.myapp.domain.VenteRollup}s.
+ */
+public class VenteDTO implements Serializable {
+
+    private LocalDate jour;
+
+    private Long cleId;
+
+    private long nombreCommandes;
+
+    private long nombreArticles;
+
+    private long totalCentimes;
+
+    public VenteDTO() {}
+
+    public VenteDTO(LocalDate jour, Long cleId, long nombreCommandes, long nombreArticles, long totalCentimes) {
+        this.jour = jour;
+        this.cleId = cleId;
+        this.nombreCommandes = nombreCommandes;
+        this.nombreArticles = nombreArticles;
+        this.totalCentimes = totalCentimes;
+    }
+
+    /**
+     * @return the day of the sales, {@code null} for those of a range of days.
+     */
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public void setJour(LocalDate jour) {
+        this.jour = jour;
+    }
+
+    /**
+     * @return the id of the produit or category, {@code null} for the total.
+     */
+    public Long getCleId() {
+        return cleId;
+    }
+
+    public void setCleId(Long cleId) {
+        this.cleId = cleId;
+    }
+
+    public long getNombreCommandes() {
+        return nombreCommandes;
+    }
+
+    public void setNombreCommandes(long nombreCommandes) {
+        this.nombreCommandes = nombreCommandes;
+    }
+
+    public long getNombreArticles() {
+        return nombreArticles;
+    }
+
+    public void setNombreArticles(long nombreArticles) {
+        this.nombreArticles = nombreArticles;
+    }
+
+    public long getTotalCentimes() {
+        return totalCentimes;
+    }
+
+    public void setTotalCentimes(long totalCentimes) {
+        this.totalCentimes = totalCentimes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VenteDTO{" +
+            "jour=" + getJour() +
+            ", cleId=" + getCleId() +
+            ", nombreCommandes=" + getNombreCommandes() +
+            ", nombreArticles=" + getNombreArticles() +
+            ", totalCentimes=" + getTotalCentimes() +
+            "}";
+    }
+}
@@ -17,6 +17,19 @@ public interface CommandeMapper extends EntityMapper<CommandeDTO, Commande> {
     @Mapping(target = "client", source = "client", qualifiedByName = "clientId")
     CommandeDTO toDto(Commande s);
 
+    @Mapping(target = "totalCentimes", ignore = true)
+    @Mapping(target = "nombreArticles", ignore = true)
+    @Mapping(target = "nombreLignes", ignore = true)
+    Commande toEntity(CommandeDTO commandeDTO);
+
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "totalCentimes", ignore = true)
+    @Mapping(target = "nombreArticles", ignore = true)
+    @Mapping(target = "nombreLignes", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void partialUpdate(@MappingTarget Commande entity, CommandeDTO dto);
+
     @Named("carteBancaireId")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
@@ -14,6 +14,14 @@ public interface ImageMapper extends EntityMapper<ImageDTO, Image> {
     @Mapping(target = "produit", source = "produit", qualifiedByName = "produitId")
     ImageDTO toDto(Image s);
 
+    @Mapping(target = "variants", ignore = true)
+    Image toEntity(ImageDTO imageDTO);
+
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "variants", ignore = true)
+    void partialUpdate(@MappingTarget Image entity, ImageDTO dto);
+
     @Named("produitId")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
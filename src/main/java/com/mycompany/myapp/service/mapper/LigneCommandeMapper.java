@@ -17,6 +17,11 @@ public interface LigneCommandeMapper extends EntityMapper<LigneCommandeDTO, Lign
     @Mapping(target = "produit", source = "produit", qualifiedByName = "produitId")
     LigneCommandeDTO toDto(LigneCommande s);
 
+    @Named("withProduitSummary")
+    @Mapping(target = "commande", source = "commande", qualifiedByName = "commandeId")
+    @Mapping(target = "produit", source = "produit", qualifiedByName = "produitSummary")
+    LigneCommandeDTO toDtoWithProduitSummary(LigneCommande s);
+
     @Named("commandeId")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
@@ -26,4 +31,11 @@ public interface LigneCommandeMapper extends EntityMapper<LigneCommandeDTO, Lign
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
     ProduitDTO toDtoProduitId(Produit produit);
+
+    @Named("produitSummary")
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "id", source = "id")
+    @Mapping(target = "libelle", source = "libelle")
+    @Mapping(target = "prixUnitaire", source = "prixUnitaire")
+    ProduitDTO toDtoProduitSummary(Produit produit);
 }
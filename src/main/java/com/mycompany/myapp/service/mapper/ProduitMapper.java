@@ -14,6 +14,7 @@ import org.mapstruct.*;
 @Mapper(componentModel = "spring")
 public interface ProduitMapper extends EntityMapper<ProduitDTO, Produit> {
     @Mapping(target = "categories", source = "categories", qualifiedByName = "categoryIdSet")
+    @Mapping(target = "notes", ignore = true)
     ProduitDTO toDto(Produit s);
 
     @Mapping(target = "removeCategory", ignore = true)
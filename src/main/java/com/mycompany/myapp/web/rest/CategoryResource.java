@@ -1,6 +1,7 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.service.CatalogSnapshot;
 import com.mycompany.myapp.service.CategoryService;
 import com.mycompany.myapp.service.dto.CategoryDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
@@ -35,9 +36,12 @@ public class CategoryResource {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryResource(CategoryService categoryService, CategoryRepository categoryRepository) {
+    private final CatalogSnapshot catalogSnapshot;
+
+    public CategoryResource(CategoryService categoryService, CategoryRepository categoryRepository, CatalogSnapshot catalogSnapshot) {
         this.categoryService = categoryService;
         this.categoryRepository = categoryRepository;
+        this.catalogSnapshot = catalogSnapshot;
     }
 
     /**
@@ -133,12 +137,13 @@ public class CategoryResource {
     /**
      * {@code GET  /categories} : get all the categories.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body, read from the
+     * {@link CatalogSnapshot} once it is built.
      */
     @GetMapping("/categories")
     public List<CategoryDTO> getAllCategories() {
         log.debug("REST request to get all Categories");
-        return categoryService.findAll();
+        return catalogSnapshot.current().map(CatalogSnapshot.Catalog::findAllCategories).orElseGet(categoryService::findAll);
     }
 
     /**
@@ -150,7 +155,10 @@ public class CategoryResource {
     @GetMapping("/categories/{id}")
     public ResponseEntity<CategoryDTO> getCategory(@PathVariable Long id) {
         log.debug("REST request to get Category : {}", id);
-        Optional<CategoryDTO> categoryDTO = categoryService.findOne(id);
+        Optional<CategoryDTO> categoryDTO = catalogSnapshot
+            .current()
+            .map(catalog -> catalog.findCategory(id))
+            .orElseGet(() -> categoryService.findOne(id));
         return ResponseUtil.wrapOrNotFound(categoryDTO);
     }
 
@@ -1,19 +1,38 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.repository.CommandeRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.service.CheckoutService;
+import com.mycompany.myapp.service.CommandeCursor;
 import com.mycompany.myapp.service.CommandeService;
+import com.mycompany.myapp.service.CommandeTransitionService;
+import com.mycompany.myapp.service.CursorPage;
+import com.mycompany.myapp.service.InsufficientStockException;
+import com.mycompany.myapp.service.dto.CheckoutDTO;
+import com.mycompany.myapp.service.dto.CheckoutResultDTO;
+import com.mycompany.myapp.service.dto.CommandeBulkTransitionDTO;
 import com.mycompany.myapp.service.dto.CommandeDTO;
+import com.mycompany.myapp.service.dto.CommandeHistoryDTO;
+import com.mycompany.myapp.service.dto.CommandeTransitionDTO;
+import com.mycompany.myapp.service.dto.CommandeTransitionResultDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
@@ -28,6 +47,8 @@ public class CommandeResource {
 
     private static final String ENTITY_NAME = "commande";
 
+    private static final int MAX_HISTORY_LIMIT = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -35,9 +56,20 @@ public class CommandeResource {
 
     private final CommandeRepository commandeRepository;
 
-    public CommandeResource(CommandeService commandeService, CommandeRepository commandeRepository) {
+    private final CheckoutService checkoutService;
+
+    private final CommandeTransitionService commandeTransitionService;
+
+    public CommandeResource(
+        CommandeService commandeService,
+        CommandeRepository commandeRepository,
+        CheckoutService checkoutService,
+        CommandeTransitionService commandeTransitionService
+    ) {
         this.commandeService = commandeService;
         this.commandeRepository = commandeRepository;
+        this.checkoutService = checkoutService;
+        this.commandeTransitionService = commandeTransitionService;
     }
 
     /**
@@ -60,13 +92,42 @@ public class CommandeResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /commandes/_checkout} : Create a new commande and all its lignes from a cart, in a single transaction.
+     *
+     * @param checkoutDTO the cart, of at most {@value CheckoutDTO#MAX_LIGNES} lignes.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new commande and its lignes,
+     * or with status {@code 400 (Bad Request)} if the cart is not valid or a produit does not exist or has no price,
+     * or with status {@code 409 (Conflict)} if a produit has not enough stock.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/commandes/_checkout")
+    public ResponseEntity<CheckoutResultDTO> checkout(@Valid @RequestBody CheckoutDTO checkoutDTO) throws URISyntaxException {
+        log.debug("REST request to checkout : {}", checkoutDTO);
+        CheckoutResultDTO result;
+        try {
+            result = checkoutService.checkout(checkoutDTO);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "checkoutinvalid");
+        } catch (InsufficientStockException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        Long id = result.getCommande().getId();
+        return ResponseEntity
+            .created(new URI("/api/commandes/" + id))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, id.toString()))
+            .body(result);
+    }
+
     /**
      * {@code PUT  /commandes/:id} : Updates an existing commande.
      *
      * @param id the id of the commandeDTO to save.
      * @param commandeDTO the commandeDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated commandeDTO,
-     * or with status {@code 400 (Bad Request)} if the commandeDTO is not valid,
+     * or with status {@code 400 (Bad Request)} if the commandeDTO is not valid, has no version or moves the commande to a state it
+     * may not move to,
+     * or with status {@code 409 (Conflict)} if the commande is no longer at the version of the commandeDTO,
      * or with status {@code 500 (Internal Server Error)} if the commandeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -82,12 +143,20 @@ public class CommandeResource {
         if (!Objects.equals(id, commandeDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (commandeDTO.getVersion() == null) {
+            throw new BadRequestAlertException("The version the update is based on is required", ENTITY_NAME, "versionnull");
+        }
 
         if (!commandeRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        CommandeDTO result = commandeService.update(commandeDTO);
+        CommandeDTO result;
+        try {
+            result = commandeService.update(commandeDTO);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "transitioninvalid");
+        }
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, commandeDTO.getId().toString()))
@@ -100,8 +169,10 @@ public class CommandeResource {
      * @param id the id of the commandeDTO to save.
      * @param commandeDTO the commandeDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated commandeDTO,
-     * or with status {@code 400 (Bad Request)} if the commandeDTO is not valid,
+     * or with status {@code 400 (Bad Request)} if the commandeDTO is not valid, has no version or moves the commande to a state it
+     * may not move to,
      * or with status {@code 404 (Not Found)} if the commandeDTO is not found,
+     * or with status {@code 409 (Conflict)} if the commande is no longer at the version of the commandeDTO,
      * or with status {@code 500 (Internal Server Error)} if the commandeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -117,12 +188,20 @@ public class CommandeResource {
         if (!Objects.equals(id, commandeDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (commandeDTO.getVersion() == null) {
+            throw new BadRequestAlertException("The version the update is based on is required", ENTITY_NAME, "versionnull");
+        }
 
         if (!commandeRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<CommandeDTO> result = commandeService.partialUpdate(commandeDTO);
+        Optional<CommandeDTO> result;
+        try {
+            result = commandeService.partialUpdate(commandeDTO);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "transitioninvalid");
+        }
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -130,6 +209,49 @@ public class CommandeResource {
         );
     }
 
+    /**
+     * {@code POST  /commandes/:id/_transition} : Move the "id" commande to another state.
+     *
+     * @param id the id of the commande to move.
+     * @param transitionDTO the new state, and the version of the commande the move is based on.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the moved commande,
+     * or with status {@code 400 (Bad Request)} if the version is missing or the commande may not move to the new state,
+     * or with status {@code 404 (Not Found)} if the commande is not found,
+     * or with status {@code 409 (Conflict)} if the commande is no longer at the given version.
+     */
+    @PostMapping("/commandes/{id}/_transition")
+    public ResponseEntity<CommandeDTO> transitionCommande(
+        @PathVariable Long id,
+        @Valid @RequestBody CommandeTransitionDTO transitionDTO
+    ) {
+        log.debug("REST request to move Commande : {}, {}", id, transitionDTO);
+        Optional<CommandeDTO> result;
+        try {
+            result = commandeService.transition(id, transitionDTO.getEtat(), transitionDTO.getVersion());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "transitioninvalid");
+        }
+        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()));
+    }
+
+    /**
+     * {@code POST  /commandes/_transition} : Move many commandes to the same state, for instance to mark them delivered.
+     * <p>
+     * The commandes are moved with one update statement per chunk of commandes, regardless of their versions.
+     *
+     * @param transitionDTO the new state, and the ids of at most {@value CommandeBulkTransitionDTO#MAX_IDS} commandes.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of the move of each commande,
+     * or with status {@code 400 (Bad Request)} if the transitionDTO is not valid.
+     */
+    @PostMapping("/commandes/_transition")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<List<CommandeTransitionResultDTO>> transitionCommandes(
+        @Valid @RequestBody CommandeBulkTransitionDTO transitionDTO
+    ) {
+        log.debug("REST request to move Commandes : {}", transitionDTO);
+        return ResponseEntity.ok().body(commandeTransitionService.transitionAll(transitionDTO.getIds(), transitionDTO.getEtat()));
+    }
+
     /**
      * {@code GET  /commandes} : get all the commandes.
      *
@@ -141,6 +263,46 @@ public class CommandeResource {
         return commandeService.findAll();
     }
 
+    /**
+     * {@code GET  /account/commandes} : get a slice of the order history of the current user, the client whose identifiant
+     * is their login, using keyset pagination.
+     * <p>
+     * The history is ordered on the date then the id, most recent first, each commande along with its lignes. The cursor
+     * of the next slice, if any, is returned in the {@code X-Next-Cursor} header and in a {@code Link} header.
+     *
+     * @param limit the maximum number of commandes to return, capped to {@value #MAX_HISTORY_LIMIT}.
+     * @param cursor the cursor returned along the previous slice, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the slice of commandes in body,
+     * or with status {@code 400 (Bad Request)} if the limit or the cursor are not valid.
+     */
+    @GetMapping("/account/commandes")
+    public ResponseEntity<List<CommandeHistoryDTO>> getAccountCommandes(
+        @RequestParam(defaultValue = "20") int limit,
+        @RequestParam(required = false) String cursor
+    ) {
+        log.debug("REST request to get the Commandes of the current user, cursor: {}", cursor);
+        if (limit < 1) {
+            throw new BadRequestAlertException("Invalid limit", ENTITY_NAME, "limitinvalid");
+        }
+        CommandeCursor after;
+        try {
+            after = cursor == null ? null : CommandeCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "cursorinvalid");
+        }
+        String login = SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        CursorPage<CommandeHistoryDTO> page = commandeService.findHistory(login, after, Math.min(limit, MAX_HISTORY_LIMIT));
+        HttpHeaders headers = new HttpHeaders();
+        page
+            .getNextCursor()
+            .ifPresent(nextCursor -> {
+                headers.add(ProduitResource.NEXT_CURSOR_HEADER, nextCursor);
+                String link = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("cursor", nextCursor).toUriString();
+                headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+            });
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     /**
      * {@code GET  /commandes/:id} : get the "id" commande.
      *
@@ -0,0 +1,37 @@
+package com.mycompany.myapp.web.rest;
+
+/**
+ * Evaluate the conditional request headers against the entity tag of a representation.
+ */
+final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {}
+
+    /**
+     * Compare the tags weakly, as RFC 7232 requires for {@code If-None-Match}: a weak tag matches the strong tag with the
+     * same opaque value.
+     *
+     * @param ifNoneMatch the {@code If-None-Match} header, may be {@code null}.
+     * @param eTag the entity tag of the current representation.
+     * @return {@code true} if the header lists the tag, or is {@code *}.
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaque(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String eTag) {
+        return eTag.startsWith(WEAK_PREFIX) ? eTag.substring(WEAK_PREFIX.length()) : eTag;
+    }
+}
@@ -1,19 +1,43 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.repository.ImageRepository;
+import com.mycompany.myapp.service.CatalogSnapshot;
+import com.mycompany.myapp.service.ImageFormat;
 import com.mycompany.myapp.service.ImageService;
+import com.mycompany.myapp.service.ImageStorage;
 import com.mycompany.myapp.service.dto.ImageDTO;
+import com.mycompany.myapp.service.dto.ImageVariantDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import io.undertow.servlet.spec.ServletOutputStreamImpl;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
@@ -28,6 +52,13 @@ public class ImageResource {
 
     private static final String ENTITY_NAME = "image";
 
+    /**
+     * Stored files never change, so they can be cached for as long as HTTP allows.
+     */
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final Pattern BYTE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -35,9 +66,20 @@ public class ImageResource {
 
     private final ImageRepository imageRepository;
 
-    public ImageResource(ImageService imageService, ImageRepository imageRepository) {
+    private final CatalogSnapshot catalogSnapshot;
+
+    private final ImageStorage imageStorage;
+
+    public ImageResource(
+        ImageService imageService,
+        ImageRepository imageRepository,
+        CatalogSnapshot catalogSnapshot,
+        ImageStorage imageStorage
+    ) {
         this.imageService = imageService;
         this.imageRepository = imageRepository;
+        this.catalogSnapshot = catalogSnapshot;
+        this.imageStorage = imageStorage;
     }
 
     /**
@@ -60,6 +102,32 @@ public class ImageResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /images/_upload} : Upload an image file, and create an image pointing to it.
+     *
+     * @param file the image file, a JPEG, PNG, GIF or WebP image.
+     * @param produitId the id of the produit of the image, if any.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new imageDTO, whose url is the
+     * one its file is served at, or with status {@code 400 (Bad Request)} if the file is not a supported image or is too large.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     * @throws IOException if the file cannot be read or stored.
+     */
+    @PostMapping(value = "/images/_upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImageDTO> uploadImage(@RequestParam MultipartFile file, @RequestParam(required = false) Long produitId)
+        throws URISyntaxException, IOException {
+        log.debug("REST request to upload Image {} for Produit : {}", file.getOriginalFilename(), produitId);
+        ImageDTO result;
+        try (InputStream content = file.getInputStream()) {
+            result = imageService.upload(content, produitId);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fileinvalid");
+        }
+        return ResponseEntity
+            .created(new URI("/api/images/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+            .body(result);
+    }
+
     /**
      * {@code PUT  /images/:id} : Updates an existing image.
      *
@@ -133,12 +201,13 @@ public class ImageResource {
     /**
      * {@code GET  /images} : get all the images.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of images in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of images in body, read from the
+     * {@link CatalogSnapshot} once it is built.
      */
     @GetMapping("/images")
     public List<ImageDTO> getAllImages() {
         log.debug("REST request to get all Images");
-        return imageService.findAll();
+        return catalogSnapshot.current().map(CatalogSnapshot.Catalog::findAllImages).orElseGet(imageService::findAll);
     }
 
     /**
@@ -150,10 +219,103 @@ public class ImageResource {
     @GetMapping("/images/{id}")
     public ResponseEntity<ImageDTO> getImage(@PathVariable Long id) {
         log.debug("REST request to get Image : {}", id);
-        Optional<ImageDTO> imageDTO = imageService.findOne(id);
+        Optional<ImageDTO> imageDTO = catalogSnapshot
+            .current()
+            .map(catalog -> catalog.findImage(id))
+            .orElseGet(() -> imageService.findOne(id));
         return ResponseUtil.wrapOrNotFound(imageDTO);
     }
 
+    /**
+     * {@code GET  /images/:id/content} : redirect to the file of the "id" image best suited to a display width, without
+     * authentication.
+     *
+     * @param id the id of the image.
+     * @param width the width in pixels the image is displayed at, if known.
+     * @return the {@link ResponseEntity} with status {@code 302 (Found)} and in the {@code Location} header the url of the
+     * narrowest variant at least as wide as requested, or of the original if there is none or no width is given, or with
+     * status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/images/{id}/content")
+    public ResponseEntity<Void> getImageContentByWidth(@PathVariable Long id, @RequestParam(required = false) Integer width) {
+        log.debug("REST request to get Image content : {}, {} pixels wide", id, width);
+        ImageDTO imageDTO = catalogSnapshot
+            .current()
+            .map(catalog -> catalog.findImage(id))
+            .orElseGet(() -> imageService.findOne(id))
+            .filter(image -> image.getUrl() != null)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        String url = imageDTO
+            .getVariants()
+            .stream()
+            .filter(variant -> width != null && variant.getWidth() >= width)
+            .findFirst()
+            .map(ImageVariantDTO::getUrl)
+            .orElse(imageDTO.getUrl());
+        return ResponseEntity.status(HttpStatus.FOUND).header(HttpHeaders.LOCATION, url).build();
+    }
+
+    /**
+     * {@code GET  /images/content/:name} : get a stored image file, without authentication.
+     * <p>
+     * The file is copied from the disk to the connection by the kernel, without going through the heap: with sendfile
+     * when the servlet container supports it, or else with {@link FileChannel#transferTo}. A single byte range may be
+     * requested; as the content of a name never changes, its ETag is its SHA-256 and it may be cached forever.
+     *
+     * @param name the name of the file, as found at the end of the url of its image.
+     * @param request the request, whose {@code Range}, {@code If-Range} and {@code If-None-Match} headers are honored.
+     * @param response the response the file is written to, with status {@code 200 (OK)}, {@code 206 (Partial Content)}
+     * for a byte range, {@code 304 (Not Modified)} if the client copy is up to date, {@code 404 (Not Found)}, or
+     * {@code 416 (Range Not Satisfiable)} if the range starts beyond the end of the file.
+     * @throws IOException if the file cannot be read or the response written.
+     */
+    @GetMapping("/images/content/{name:.+}")
+    public void getImageContent(@PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to get Image content : {}", name);
+        Path path = imageStorage.find(name).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        String eTag = '"' + ImageStorage.hashOf(name).orElseThrow() + '"';
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = file.size();
+            long start = 0;
+            long end = size - 1;
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            Matcher range = BYTE_RANGE.matcher(Objects.toString(request.getHeader(HttpHeaders.RANGE), ""));
+            // Other ranges, such as multiple ones, are ignored and the whole file is sent, as RFC 7233 allows
+            boolean ranged = range.matches() && !(range.group(1).isEmpty() && range.group(2).isEmpty());
+            if (ranged && (ifRange == null || ifRange.equals(eTag))) {
+                if (range.group(1).isEmpty()) {
+                    // A suffix range: the last bytes of the file
+                    start = Math.max(0, size - parseOrMax(range.group(2)));
+                } else {
+                    start = parseOrMax(range.group(1));
+                    end = range.group(2).isEmpty() ? end : Math.min(end, parseOrMax(range.group(2)));
+                }
+                if (start >= size || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            response.setContentType(
+                ImageStorage.formatOf(name).map(ImageFormat::getMediaType).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+            );
+            response.setContentLengthLong(end - start + 1);
+            if (!HttpMethod.HEAD.matches(request.getMethod())) {
+                transfer(file, start, end - start + 1, response);
+            }
+        }
+    }
+
     /**
      * {@code DELETE  /images/:id} : delete the "id" image.
      *
@@ -169,4 +331,37 @@ public class ImageResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * Write a region of the file to the response. Under Undertow, a region running to the end of the file is handed to
+     * the connection with sendfile; otherwise, or when a filter replaced the output stream, the file channel transfers
+     * the region to the output stream.
+     */
+    private static void transfer(FileChannel file, long position, long count, HttpServletResponse response) throws IOException {
+        ServletOutputStream out = response.getOutputStream();
+        if (out instanceof ServletOutputStreamImpl && position + count == file.size()) {
+            file.position(position);
+            ((ServletOutputStreamImpl) out).transferFrom(file);
+            return;
+        }
+        WritableByteChannel channel = Channels.newChannel(out);
+        for (long transferred = 0; transferred < count;) {
+            long written = file.transferTo(position + transferred, count - transferred, channel);
+            if (written <= 0) {
+                throw new EOFException("The image file was truncated");
+            }
+            transferred += written;
+        }
+    }
+
+    /**
+     * @return the position, or {@link Long#MAX_VALUE} if it does not fit in a long.
+     */
+    private static long parseOrMax(String position) {
+        try {
+            return Long.parseLong(position);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
 }
@@ -1,24 +1,71 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mycompany.myapp.repository.ProduitField;
 import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.repository.ProduitRepricingRule;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.CatalogSnapshot;
+import com.mycompany.myapp.service.CursorPage;
+import com.mycompany.myapp.service.ProduitBestSellers;
+import com.mycompany.myapp.service.ProduitFacet;
+import com.mycompany.myapp.service.ProduitImportFormat;
+import com.mycompany.myapp.service.ProduitImportService;
+import com.mycompany.myapp.service.ProduitCursor;
+import com.mycompany.myapp.service.ProduitJsonCache;
 import com.mycompany.myapp.service.ProduitQueryService;
+import com.mycompany.myapp.service.ProduitRecommender;
+import com.mycompany.myapp.service.ProduitRepricingService;
 import com.mycompany.myapp.service.ProduitService;
+import com.mycompany.myapp.service.ProduitSuggester;
 import com.mycompany.myapp.service.criteria.ProduitCriteria;
 import com.mycompany.myapp.service.dto.ProduitDTO;
+import com.mycompany.myapp.service.dto.ProduitFacetsDTO;
+import com.mycompany.myapp.service.dto.ProduitImportDTO;
+import com.mycompany.myapp.service.dto.ProduitMultiGetDTO;
+import com.mycompany.myapp.service.dto.ProduitRepricingDTO;
+import com.mycompany.myapp.service.dto.ProduitSuggestionDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.service.filter.LongFilter;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -32,6 +79,18 @@ public class ProduitResource {
 
     private static final String ENTITY_NAME = "produit";
 
+    private static final int MAX_CURSOR_LIMIT = 500;
+
+    private static final int MAX_MULTI_GET_IDS = 500;
+
+    private static final int DEFAULT_IMPORT_CHUNK_SIZE = 500;
+
+    private static final int MAX_IMPORT_CHUNK_SIZE = 5000;
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final List<Float> DEFAULT_PRICE_BOUNDS = List.of(10f, 25f, 50f, 100f);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -41,10 +100,46 @@ public class ProduitResource {
 
     private final ProduitQueryService produitQueryService;
 
-    public ProduitResource(ProduitService produitService, ProduitRepository produitRepository, ProduitQueryService produitQueryService) {
+    private final ProduitSuggester produitSuggester;
+
+    private final ProduitImportService produitImportService;
+
+    private final ProduitRepricingService produitRepricingService;
+
+    private final ProduitRecommender produitRecommender;
+
+    private final ProduitBestSellers produitBestSellers;
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    private final ProduitJsonCache produitJsonCache;
+
+    private final ObjectMapper objectMapper;
+
+    public ProduitResource(
+        ProduitService produitService,
+        ProduitRepository produitRepository,
+        ProduitQueryService produitQueryService,
+        ProduitSuggester produitSuggester,
+        ProduitImportService produitImportService,
+        ProduitRepricingService produitRepricingService,
+        ProduitRecommender produitRecommender,
+        ProduitBestSellers produitBestSellers,
+        CatalogSnapshot catalogSnapshot,
+        ProduitJsonCache produitJsonCache,
+        ObjectMapper objectMapper
+    ) {
         this.produitService = produitService;
         this.produitRepository = produitRepository;
         this.produitQueryService = produitQueryService;
+        this.produitSuggester = produitSuggester;
+        this.produitImportService = produitImportService;
+        this.produitRepricingService = produitRepricingService;
+        this.produitRecommender = produitRecommender;
+        this.produitBestSellers = produitBestSellers;
+        this.catalogSnapshot = catalogSnapshot;
+        this.produitJsonCache = produitJsonCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -67,6 +162,62 @@ public class ProduitResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /produits/_bulk} : Create produits in bulk, from CSV or newline-delimited JSON.
+     * <p>
+     * Rows are parsed as they are read from the request, and created in chunks of {@code chunkSize} produits, each in its
+     * own transaction; a row which is not valid, or which the database rejects, does not prevent the others from being created.
+     *
+     * @param contentType the format of the body, {@value ProduitImportFormat#TEXT_CSV_VALUE} or {@value MediaType#APPLICATION_NDJSON_VALUE}.
+     * @param chunkSize the number of produits created per transaction, at most {@value #MAX_IMPORT_CHUNK_SIZE}.
+     * @param request the request whose body holds the produits to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of produits created and the
+     * rows rejected, or with status {@code 400 (Bad Request)} if the chunk size or the CSV header row is not valid.
+     * @throws IOException if the request cannot be read.
+     */
+    @PostMapping(value = "/produits/_bulk", consumes = { ProduitImportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<ProduitImportDTO> importProduits(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        @RequestParam(defaultValue = "" + DEFAULT_IMPORT_CHUNK_SIZE) int chunkSize,
+        HttpServletRequest request
+    ) throws IOException {
+        log.debug("REST request to import Produits as {}", contentType);
+        if (chunkSize < 1 || chunkSize > MAX_IMPORT_CHUNK_SIZE) {
+            throw new BadRequestAlertException("Invalid chunk size", ENTITY_NAME, "chunksizeinvalid");
+        }
+        Charset charset = Optional.ofNullable(contentType.getCharset()).orElse(StandardCharsets.UTF_8);
+        try (Reader reader = new InputStreamReader(request.getInputStream(), charset)) {
+            return ResponseEntity
+                .ok()
+                .body(produitImportService.importProduits(reader, ProduitImportFormat.fromMediaType(contentType), chunkSize));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "importinvalid");
+        }
+    }
+
+    /**
+     * {@code POST  /produits/_reprice} : Reprice the produits matching the criteria, for instance a whole category.
+     * <p>
+     * The new prices are computed by the database, with one update statement per chunk of produits.
+     *
+     * @param criteria the criteria which the repriced produits should match.
+     * @param repricing the repricing rule: a percentage to add, an amount to add, or a step to round to.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of repriced produits in body,
+     * or with status {@code 400 (Bad Request)} if the rule is not valid.
+     */
+    @PostMapping("/produits/_reprice")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Long> repriceProduits(ProduitCriteria criteria, @Valid @RequestBody ProduitRepricingDTO repricing) {
+        log.debug("REST request to reprice Produits by criteria: {} with {}", criteria, repricing);
+        ProduitRepricingRule rule;
+        try {
+            rule = repricing.toRule();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "repricinginvalid");
+        }
+        return ResponseEntity.ok().body(produitRepricingService.reprice(criteria, rule));
+    }
+
     /**
      * {@code PUT  /produits/:id} : Updates an existing produit.
      *
@@ -140,16 +291,144 @@ public class ProduitResource {
     /**
      * {@code GET  /produits} : get all the produits.
      *
+     * <p>
+     * Without criteria, or with only a {@code categoryId.equals} criteria, the produits are read from the
+     * {@link CatalogSnapshot} once it is built.
+     *
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of produits in body.
      */
     @GetMapping("/produits")
     public ResponseEntity<List<ProduitDTO>> getAllProduits(ProduitCriteria criteria) {
         log.debug("REST request to get Produits by criteria: {}", criteria);
-        List<ProduitDTO> entityList = produitQueryService.findByCriteria(criteria);
+        List<ProduitDTO> entityList = catalogSnapshot
+            .current()
+            .flatMap(catalog -> findAllInCatalog(catalog, criteria))
+            .orElseGet(() -> produitQueryService.findByCriteria(criteria));
         return ResponseEntity.ok().body(entityList);
     }
 
+    /**
+     * {@code GET  /produits?fields=:fields} : get only some fields of all the produits.
+     * <p>
+     * Only the requested fields are read from the database and serialized, along with the id. The supported fields are
+     * {@code idProduit}, {@code libelle}, {@code description}, {@code prixUnitaire}, {@code taille}, {@code couleur} and
+     * {@code imageUrl}, the url of the first image of the produit. Fields cannot be combined with {@code limit}: a slice
+     * of the keyset listing is rejected with status {@code 400 (Bad Request)} rather than returned whole.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the fields to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of the produits in body,
+     * or with status {@code 400 (Bad Request)} if a field is not supported.
+     */
+    @GetMapping(value = "/produits", params = { "fields", "!limit" })
+    public ResponseEntity<List<Map<String, Object>>> getAllProduitsFields(ProduitCriteria criteria, @RequestParam List<String> fields) {
+        log.debug("REST request to get fields {} of Produits by criteria: {}", fields, criteria);
+        Set<ProduitField> requestedFields = EnumSet.noneOf(ProduitField.class);
+        try {
+            fields.forEach(field -> requestedFields.add(ProduitField.fromProperty(field)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldinvalid");
+        }
+        return ResponseEntity.ok().body(produitQueryService.findByCriteria(criteria, requestedFields));
+    }
+
+    /**
+     * {@code GET  /produits?limit=:limit} : get a slice of the produits, using keyset pagination.
+     * <p>
+     * The listing is ordered on the {@code sort} property (one of {@code id}, {@code idProduit}, {@code libelle},
+     * {@code prixUnitaire} or {@code taille}), then on the id. The cursor of the next slice, if any, is returned in the
+     * {@code X-Next-Cursor} header and in a {@code Link} header.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param limit the maximum number of produits to return, capped to {@value #MAX_CURSOR_LIMIT}.
+     * @param cursor the cursor returned along the previous slice, if any.
+     * @param sort the ordering of the listing, defaults to {@code id,asc}.
+     * @param fields must be absent: fields cannot be selected on a slice.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the slice of produits in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the sort are not valid, or if fields are requested.
+     */
+    @GetMapping(value = "/produits", params = "limit")
+    public ResponseEntity<List<ProduitDTO>> getAllProduitsByCursor(
+        ProduitCriteria criteria,
+        @RequestParam int limit,
+        @RequestParam(required = false) String cursor,
+        Sort sort,
+        @RequestParam(required = false) List<String> fields
+    ) {
+        log.debug("REST request to get a slice of Produits by criteria: {}, cursor: {}", criteria, cursor);
+        if (fields != null) {
+            throw new BadRequestAlertException("Fields cannot be selected on a slice", ENTITY_NAME, "fieldsunsupported");
+        }
+        if (limit < 1) {
+            throw new BadRequestAlertException("Invalid limit", ENTITY_NAME, "limitinvalid");
+        }
+        CursorPage<ProduitDTO> page;
+        try {
+            ProduitCursor after = cursor == null ? null : ProduitCursor.decode(cursor);
+            Sort.Order order = sort
+                .stream()
+                .findFirst()
+                .orElseGet(() ->
+                    after != null ? new Sort.Order(after.getDirection(), after.getSortKey().getProperty()) : Sort.Order.asc("id")
+                );
+            page =
+                produitQueryService.findByCriteria(
+                    criteria,
+                    ProduitCursor.SortKey.fromProperty(order.getProperty()),
+                    order.getDirection(),
+                    after,
+                    Math.min(limit, MAX_CURSOR_LIMIT)
+                );
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        page
+            .getNextCursor()
+            .ifPresent(nextCursor -> {
+                headers.add(NEXT_CURSOR_HEADER, nextCursor);
+                String link = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("cursor", nextCursor).toUriString();
+                headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+            });
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /produits/_export} : export all the produits as newline-delimited JSON.
+     * <p>
+     * Produits are written to the response as they are read from the database, so the export runs in constant memory
+     * whatever the size of the catalog.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param response the response the produits are written to, with status {@code 200 (OK)}.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping(value = "/produits/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportProduits(ProduitCriteria criteria, HttpServletResponse response) throws IOException {
+        log.debug("REST request to export Produits by criteria: {}", criteria);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(ProduitDTO.class);
+        try {
+            produitQueryService.exportByCriteria(
+                criteria,
+                produitDTO -> {
+                    try {
+                        out.write(writer.writeValueAsBytes(produitDTO));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            );
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
     /**
      * {@code GET  /produits/count} : count all the produits.
      *
@@ -162,17 +441,202 @@ public class ProduitResource {
         return ResponseEntity.ok().body(produitQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /produits/_facets} : count the produits per couleur, taille, price bucket and category.
+     * <p>
+     * The counts of a facet apply every filter of the criteria but the one on that facet.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @param facets the facets to count, all of them by default.
+     * @param priceBounds the bounds of the price buckets.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the facet counts in body,
+     * or with status {@code 400 (Bad Request)} if a facet is not supported.
+     */
+    @GetMapping("/produits/_facets")
+    public ResponseEntity<ProduitFacetsDTO> getProduitFacets(
+        ProduitCriteria criteria,
+        @RequestParam(required = false) List<String> facets,
+        @RequestParam(required = false) List<Float> priceBounds
+    ) {
+        log.debug("REST request to get Produit facets by criteria: {}, facets: {}", criteria, facets);
+        Set<ProduitFacet> requestedFacets = EnumSet.allOf(ProduitFacet.class);
+        if (facets != null) {
+            requestedFacets.clear();
+            try {
+                facets.forEach(facet -> requestedFacets.add(ProduitFacet.fromProperty(facet)));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "facetinvalid");
+            }
+        }
+        return ResponseEntity
+            .ok()
+            .body(
+                produitQueryService.facetsByCriteria(
+                    criteria,
+                    requestedFacets,
+                    priceBounds == null ? DEFAULT_PRICE_BOUNDS : priceBounds
+                )
+            );
+    }
+
+    /**
+     * {@code GET  /produits/_suggest?prefix=:prefix} : suggest produits for the search box, from memory.
+     * <p>
+     * A produit is suggested when a word of its libelle starts with the prefix, ignoring case and accents.
+     *
+     * @param prefix the prefix typed so far.
+     * @param size the maximum number of suggestions, capped to {@value ProduitSuggester#MAX_SUGGESTIONS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggestions in body, most reviewed first,
+     * or with status {@code 400 (Bad Request)} if the size is not valid.
+     */
+    @GetMapping("/produits/_suggest")
+    public ResponseEntity<List<ProduitSuggestionDTO>> suggestProduits(
+        @RequestParam String prefix,
+        @RequestParam(defaultValue = "" + ProduitSuggester.MAX_SUGGESTIONS) int size
+    ) {
+        log.debug("REST request to suggest Produits for prefix {}", prefix);
+        if (size < 1) {
+            throw new BadRequestAlertException("Invalid size", ENTITY_NAME, "sizeinvalid");
+        }
+        return ResponseEntity.ok().body(produitSuggester.suggest(prefix, size));
+    }
+
+    /**
+     * {@code GET  /produits/_best-sellers} : get the best selling produits, overall or of a category, from memory.
+     *
+     * @param categoryId the id of the category, or none for all the produits.
+     * @param trending whether to rank by the sales of the last weeks, the recent ones weighing more, rather than by the
+     * sales of all time.
+     * @param size the maximum number of produits, capped to {@value ProduitBestSellers#MAX_BEST_SELLERS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the produits in body, best first, or with status
+     * {@code 400 (Bad Request)} if the size is not valid.
+     */
+    @GetMapping("/produits/_best-sellers")
+    public ResponseEntity<List<ProduitDTO>> getBestSellingProduits(
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(defaultValue = "false") boolean trending,
+        @RequestParam(defaultValue = "" + ProduitBestSellers.MAX_BEST_SELLERS) int size
+    ) {
+        log.debug("REST request to get the best selling Produits of Category : {}, trending : {}", categoryId, trending);
+        if (size < 1) {
+            throw new BadRequestAlertException("Invalid size", ENTITY_NAME, "sizeinvalid");
+        }
+        List<Long> ids = produitBestSellers.findBestSellers(categoryId, trending, size);
+        ProduitMultiGetDTO result = catalogSnapshot
+            .current()
+            .map(catalog -> catalog.findAllProduitsById(ids))
+            .orElseGet(() -> produitService.findAllById(ids));
+        return ResponseEntity.ok().body(result.getProduits());
+    }
+
+    /**
+     * {@code GET  /produits/:id/bought-together} : get the produits most often bought in the same commandes as the "id"
+     * produit, from memory.
+     *
+     * @param id the id of the produit.
+     * @param size the maximum number of produits, capped to {@value ProduitRecommender#MAX_NEIGHBOURS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the produits in body, most often bought together
+     * first, or with status {@code 400 (Bad Request)} if the size is not valid.
+     */
+    @GetMapping("/produits/{id}/bought-together")
+    public ResponseEntity<List<ProduitDTO>> getProduitsBoughtTogether(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "" + ProduitRecommender.MAX_NEIGHBOURS) int size
+    ) {
+        log.debug("REST request to get the Produits bought together with Produit : {}", id);
+        if (size < 1) {
+            throw new BadRequestAlertException("Invalid size", ENTITY_NAME, "sizeinvalid");
+        }
+        List<Long> ids = produitRecommender.findBoughtTogether(id, size);
+        ProduitMultiGetDTO result = catalogSnapshot
+            .current()
+            .map(catalog -> catalog.findAllProduitsById(ids))
+            .orElseGet(() -> produitService.findAllById(ids));
+        return ResponseEntity.ok().body(result.getProduits());
+    }
+
     /**
      * {@code GET  /produits/:id} : get the "id" produit.
+     * <p>
+     * The JSON of the produit is served from the {@link ProduitJsonCache} when called outside of a transaction, gzipped
+     * if the client accepts it, along with the ETag of the representation sent.
      *
      * @param id the id of the produitDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the produitDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETags of the copies the client holds, if any.
+     * @param acceptEncoding the encodings the client accepts, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the produitDTO, with status {@code 304 (Not Modified)}
+     * if the client copy is up to date, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/produits/{id}")
-    public ResponseEntity<ProduitDTO> getProduit(@PathVariable Long id) {
+    @ApiResponse(
+        responseCode = "200",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProduitDTO.class))
+    )
+    public ResponseEntity<byte[]> getProduit(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
         log.debug("REST request to get Produit : {}", id);
-        Optional<ProduitDTO> produitDTO = produitService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(produitDTO);
+        Optional<ProduitJsonCache.Entry> entry = findJson(id);
+        Optional<byte[]> gzip = entry.flatMap(ProduitJsonCache.Entry::getGzip).filter(bytes -> acceptsGzip(acceptEncoding));
+        Optional<String> eTag = entry.map(json -> gzip.isPresent() ? json.getGzipETag() : json.getETag());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        eTag.ifPresent(headers::setETag);
+        if (eTag.filter(tag -> ETags.matches(ifNoneMatch, tag)).isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        gzip.ifPresent(bytes -> headers.set(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        return ResponseUtil.wrapOrNotFound(gzip.or(() -> entry.map(ProduitJsonCache.Entry::getJson)), headers);
+    }
+
+    /**
+     * @return the JSON of the produit, from the {@link ProduitJsonCache} or else serialized and cached, or empty if the
+     * produit does not exist.
+     */
+    private Optional<ProduitJsonCache.Entry> findJson(Long id) {
+        // A transaction may see its own uncommitted writes, which must not be cached
+        boolean cacheable = !TransactionSynchronizationManager.isActualTransactionActive();
+        Optional<ProduitJsonCache.Entry> cachedEntry = cacheable ? produitJsonCache.get(id) : Optional.empty();
+        if (cachedEntry.isPresent()) {
+            return cachedEntry;
+        }
+        long generation = produitJsonCache.generation();
+        Optional<ProduitJsonCache.Entry> entry = produitService.findOne(id).map(this::toJson);
+        if (cacheable) {
+            entry.ifPresent(json -> produitJsonCache.put(id, json, generation));
+        }
+        return entry;
+    }
+
+    private ProduitJsonCache.Entry toJson(ProduitDTO produitDTO) {
+        try {
+            return ProduitJsonCache.Entry.of(objectMapper.writeValueAsBytes(produitDTO));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@code POST  /produits/_mget} : get the produits with the given ids in one request.
+     *
+     * @param ids the ids of the produits to retrieve, at most {@value #MAX_MULTI_GET_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the produits, in the order of the ids,
+     * and the ids which were not found, or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @PostMapping("/produits/_mget")
+    public ResponseEntity<ProduitMultiGetDTO> getProduits(@RequestBody List<Long> ids) {
+        log.debug("REST request to get Produits : {}", ids);
+        if (ids.size() > MAX_MULTI_GET_IDS) {
+            throw new BadRequestAlertException("Too many ids", ENTITY_NAME, "toomanyids");
+        }
+        ProduitMultiGetDTO result = catalogSnapshot
+            .current()
+            .map(catalog -> catalog.findAllProduitsById(ids))
+            .orElseGet(() -> produitService.findAllById(ids));
+        return ResponseEntity.ok().body(result);
     }
 
     /**
@@ -190,4 +654,63 @@ public class ProduitResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code SEARCH  /_search/produits?query=:query} : search for the produit corresponding
+     * to the query.
+     *
+     * @param query the query of the produit search.
+     * @param pageable the pagination information.
+     * @return the result of the search, best matches first.
+     */
+    @GetMapping("/_search/produits")
+    public ResponseEntity<List<ProduitDTO>> searchProduits(
+        @RequestParam String query,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Produits for query {}", query);
+        Page<ProduitDTO> page = produitService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String encoding : acceptEncoding.split(",")) {
+            String[] parameters = encoding.trim().split(";");
+            if (parameters[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parameters.length; i++) {
+                    if (parameters[i].trim().matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the produits of the catalog matching the criteria, or empty if the catalog cannot answer the criteria.
+     */
+    private Optional<List<ProduitDTO>> findAllInCatalog(CatalogSnapshot.Catalog catalog, ProduitCriteria criteria) {
+        ProduitCriteria otherCriteria = criteria == null ? new ProduitCriteria() : criteria.copy();
+        LongFilter categoryId = otherCriteria.getCategoryId();
+        otherCriteria.setCategoryId(null);
+        otherCriteria.setDistinct(null);
+        if (!otherCriteria.equals(new ProduitCriteria())) {
+            return Optional.empty();
+        }
+        if (categoryId == null) {
+            return Optional.of(catalog.findAllProduits());
+        }
+        LongFilter categoryEquals = new LongFilter();
+        categoryEquals.setEquals(categoryId.getEquals());
+        if (categoryId.getEquals() == null || !categoryId.equals(categoryEquals)) {
+            return Optional.empty();
+        }
+        return Optional.of(catalog.findAllProduitsByCategory(categoryId.getEquals()));
+    }
 }
@@ -0,0 +1,130 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.CheckoutService;
+import com.mycompany.myapp.service.InsufficientStockException;
+import com.mycompany.myapp.service.StockLedger;
+import com.mycompany.myapp.service.dto.StockDTO;
+import com.mycompany.myapp.service.dto.StockReservationDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.UUID;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for managing the stock of the {@link com.mycompany.myapp.domain.Produit}s, and its reservations for
+ * carts, through the {@link StockLedger}.
+ */
+@RestController
+@RequestMapping("/api")
+public class StockResource {
+
+    private final Logger log = LoggerFactory.getLogger(StockResource.class);
+
+    private static final String ENTITY_NAME = "stockProduit";
+
+    private final StockLedger stockLedger;
+
+    private final CheckoutService checkoutService;
+
+    private final ProduitRepository produitRepository;
+
+    public StockResource(StockLedger stockLedger, CheckoutService checkoutService, ProduitRepository produitRepository) {
+        this.stockLedger = stockLedger;
+        this.checkoutService = checkoutService;
+        this.produitRepository = produitRepository;
+    }
+
+    /**
+     * {@code GET  /produits/:id/stock} : get the stock of the "id" produit.
+     *
+     * @param id the id of the produit.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the quantity available to new
+     * reservations, {@code null} if the stock of the produit is not tracked, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/produits/{id}/stock")
+    public ResponseEntity<StockDTO> getStock(@PathVariable Long id) {
+        log.debug("REST request to get the stock of Produit : {}", id);
+        if (!produitRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok().body(new StockDTO(id, stockLedger.findAvailable(id).orElse(null)));
+    }
+
+    /**
+     * {@code POST  /produits/:id/stock} : Add to, or remove from, the stock of the "id" produit, which is tracked from then
+     * on.
+     *
+     * @param id the id of the produit.
+     * @param delta the quantity to add, negative to remove.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the quantity available afterwards,
+     * or with status {@code 400 (Bad Request)} if more than the quantity available would be removed,
+     * or with status {@code 404 (Not Found)}.
+     */
+    @PostMapping("/produits/{id}/stock")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<StockDTO> addStock(@PathVariable Long id, @RequestParam int delta) {
+        log.debug("REST request to add {} to the stock of Produit : {}", delta, id);
+        if (!produitRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        try {
+            return ResponseEntity.ok().body(new StockDTO(id, stockLedger.addStock(id, delta)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "stockinvalid");
+        }
+    }
+
+    /**
+     * {@code POST  /stock-reservations} : Reserve the stock of a cart until it is checked out with the id of the
+     * reservation, or the reservation expires.
+     *
+     * @param reservationDTO the cart, of at most {@value com.mycompany.myapp.service.dto.CheckoutDTO#MAX_LIGNES} lignes.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the reservation,
+     * or with status {@code 400 (Bad Request)} if the cart is not valid or a produit does not exist or has no price,
+     * or with status {@code 409 (Conflict)} if a produit has not enough stock.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/stock-reservations")
+    public ResponseEntity<StockReservationDTO> createReservation(@Valid @RequestBody StockReservationDTO reservationDTO)
+        throws URISyntaxException {
+        log.debug("REST request to reserve stock : {}", reservationDTO);
+        if (reservationDTO.getId() != null) {
+            throw new BadRequestAlertException("A new reservation cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        StockReservationDTO result;
+        try {
+            result = checkoutService.hold(reservationDTO.getLignes());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "reservationinvalid");
+        } catch (InsufficientStockException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        return ResponseEntity.created(new URI("/api/stock-reservations/" + result.getId())).body(result);
+    }
+
+    /**
+     * {@code DELETE  /stock-reservations/:id} : release the "id" reservation, giving back its stock.
+     *
+     * @param id the id of the reservation.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 404 (Not Found)} if the reservation expired or was checked out.
+     */
+    @DeleteMapping("/stock-reservations/{id}")
+    public ResponseEntity<Void> deleteReservation(@PathVariable UUID id) {
+        log.debug("REST request to release the stock reservation : {}", id);
+        if (!stockLedger.release(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.domain.enumeration.DimensionVente;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.VenteRollups;
+import com.mycompany.myapp.service.dto.VenteDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.time.LocalDate;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for reading the sales, by day, produit and category, from the {@link VenteRollups}.
+ */
+@RestController
+@RequestMapping("/api")
+@PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+public class VenteResource {
+
+    /**
+     * The maximum number of produits or categories returned at once.
+     */
+    public static final int MAX_BEST_VENTES = 100;
+
+    private final Logger log = LoggerFactory.getLogger(VenteResource.class);
+
+    private static final String ENTITY_NAME = "venteRollup";
+
+    private final VenteRollups venteRollups;
+
+    public VenteResource(VenteRollups venteRollups) {
+        this.venteRollups = venteRollups;
+    }
+
+    /**
+     * {@code GET  /ventes} : get the sales of a range of days.
+     *
+     * @param from the first day.
+     * @param to the last day, excluded.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the sales in body, or with status
+     * {@code 400 (Bad Request)} if the range is not valid.
+     */
+    @GetMapping("/ventes")
+    public ResponseEntity<VenteDTO> getVentes(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+        log.debug("REST request to get the sales from {} to {}", from, to);
+        checkRange(from, to);
+        return ResponseEntity.ok().body(venteRollups.findTotal(from, to));
+    }
+
+    /**
+     * {@code GET  /ventes/jours} : get the sales of each day of a range, in total, of a produit or of a category.
+     *
+     * @param from the first day.
+     * @param to the last day, excluded.
+     * @param produitId the id of the produit, or none.
+     * @param categoryId the id of the category, or none.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the sales of each day with sales in body, in
+     * day order, or with status {@code 400 (Bad Request)} if the range is not valid or both a produit and a category are
+     * given.
+     */
+    @GetMapping("/ventes/jours")
+    public ResponseEntity<List<VenteDTO>> getVentesByJour(
+        @RequestParam LocalDate from,
+        @RequestParam LocalDate to,
+        @RequestParam(required = false) Long produitId,
+        @RequestParam(required = false) Long categoryId
+    ) {
+        log.debug("REST request to get the sales by day from {} to {} of Produit : {}, Category : {}", from, to, produitId, categoryId);
+        checkRange(from, to);
+        if (produitId != null && categoryId != null) {
+            throw new BadRequestAlertException("Either a produit or a category, not both", ENTITY_NAME, "cleinvalid");
+        }
+        List<VenteDTO> serie;
+        if (produitId != null) {
+            serie = venteRollups.findSerie(DimensionVente.PRODUIT, produitId, from, to);
+        } else if (categoryId != null) {
+            serie = venteRollups.findSerie(DimensionVente.CATEGORY, categoryId, from, to);
+        } else {
+            serie = venteRollups.findSerie(DimensionVente.TOTAL, null, from, to);
+        }
+        return ResponseEntity.ok().body(serie);
+    }
+
+    /**
+     * {@code GET  /ventes/produits} : get the produits which sold the most over a range of days.
+     *
+     * @param from the first day.
+     * @param to the last day, excluded.
+     * @param size the maximum number of produits, capped to {@value #MAX_BEST_VENTES}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the sales of the produits in body, by amount
+     * descending, or with status {@code 400 (Bad Request)} if the range or the size is not valid.
+     */
+    @GetMapping("/ventes/produits")
+    public ResponseEntity<List<VenteDTO>> getVentesByProduit(
+        @RequestParam LocalDate from,
+        @RequestParam LocalDate to,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        log.debug("REST request to get the sales by Produit from {} to {}", from, to);
+        return ResponseEntity.ok().body(findBest(DimensionVente.PRODUIT, from, to, size));
+    }
+
+    /**
+     * {@code GET  /ventes/categories} : get the categories which sold the most over a range of days.
+     *
+     * @param from the first day.
+     * @param to the last day, excluded.
+     * @param size the maximum number of categories, capped to {@value #MAX_BEST_VENTES}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the sales of the categories in body, by amount
+     * descending, or with status {@code 400 (Bad Request)} if the range or the size is not valid.
+     */
+    @GetMapping("/ventes/categories")
+    public ResponseEntity<List<VenteDTO>> getVentesByCategory(
+        @RequestParam LocalDate from,
+        @RequestParam LocalDate to,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        log.debug("REST request to get the sales by Category from {} to {}", from, to);
+        return ResponseEntity.ok().body(findBest(DimensionVente.CATEGORY, from, to, size));
+    }
+
+    /**
+     * {@code POST  /ventes/_backfill} : rebuild the rollups of the sales from the commandes.
+     *
+     * @param from the first day, or none to rebuild every day with commandes.
+     * @param to the last day, excluded, or none to rebuild every day with commandes.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 400 (Bad Request)}
+     * if the range is not valid.
+     */
+    @PostMapping("/ventes/_backfill")
+    public ResponseEntity<Void> backfillVentes(
+        @RequestParam(required = false) LocalDate from,
+        @RequestParam(required = false) LocalDate to
+    ) {
+        log.debug("REST request to rebuild the sales from {} to {}", from, to);
+        int commandes;
+        if (from == null && to == null) {
+            commandes = venteRollups.backfill();
+        } else if (from == null || to == null) {
+            throw new BadRequestAlertException("Either both days of the range, or none", ENTITY_NAME, "rangeinvalid");
+        } else {
+            checkRange(from, to);
+            commandes = venteRollups.backfill(from, to);
+        }
+        log.info("Rolled up the sales of {} Commandes", commandes);
+        return ResponseEntity.noContent().build();
+    }
+
+    private List<VenteDTO> findBest(DimensionVente dimension, LocalDate from, LocalDate to, int size) {
+        checkRange(from, to);
+        if (size < 1) {
+            throw new BadRequestAlertException("Invalid size", ENTITY_NAME, "sizeinvalid");
+        }
+        return venteRollups.findBest(dimension, from, to, Math.min(size, MAX_BEST_VENTES));
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BadRequestAlertException("The range of days ends before it starts", ENTITY_NAME, "rangeinvalid");
+        }
+    }
+}
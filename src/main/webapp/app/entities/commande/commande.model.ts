@@ -11,6 +11,7 @@ export interface ICommande {
   typePayement?: TypePayement | null;
   carteBancaire?: Pick<ICarteBancaire, 'id'> | null;
   client?: Pick<IClient, 'id'> | null;
+  version?: number | null;
 }
 
 export type NewCommande = Omit<ICommande, 'id'> & { id: null };
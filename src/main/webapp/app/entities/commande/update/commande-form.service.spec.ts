@@ -25,6 +25,7 @@ describe('Commande Form Service', () => {
             typePayement: expect.any(Object),
             carteBancaire: expect.any(Object),
             client: expect.any(Object),
+            version: expect.any(Object),
           })
         );
       });
@@ -40,6 +41,7 @@ describe('Commande Form Service', () => {
             typePayement: expect.any(Object),
             carteBancaire: expect.any(Object),
             client: expect.any(Object),
+            version: expect.any(Object),
           })
         );
       });
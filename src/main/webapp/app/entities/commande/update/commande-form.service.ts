@@ -36,6 +36,7 @@ type CommandeFormGroupContent = {
   typePayement: FormControl<CommandeFormRawValue['typePayement']>;
   carteBancaire: FormControl<CommandeFormRawValue['carteBancaire']>;
   client: FormControl<CommandeFormRawValue['client']>;
+  version: FormControl<CommandeFormRawValue['version']>;
 };
 
 export type CommandeFormGroup = FormGroup<CommandeFormGroupContent>;
@@ -60,6 +61,7 @@ export class CommandeFormService {
       typePayement: new FormControl(commandeRawValue.typePayement),
       carteBancaire: new FormControl(commandeRawValue.carteBancaire),
       client: new FormControl(commandeRawValue.client),
+      version: new FormControl(commandeRawValue.version),
     });
   }
 
@@ -0,0 +1,80 @@
+package com.mycompany.myapp.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Produit;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+class ProduitSearchRepositoryTest {
+
+    private ProduitSearchRepository produitSearchRepository;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        produitSearchRepository = new ProduitSearchRepository(new ApplicationProperties());
+        produitSearchRepository.indexAll(
+            List.of(
+                new Produit().id(1L).libelle("Body bébé en coton").description("Manches longues, pressions à l'entrejambe"),
+                new Produit().id(2L).libelle("Pyjama velours").description("Convient aux bébés de 3 mois"),
+                new Produit().id(3L).libelle("Chaussettes").description(null)
+            )
+        );
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        produitSearchRepository.close();
+    }
+
+    @Test
+    void searchIsStemmedAndAccentInsensitive() {
+        assertThat(search("bebes")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(search("l'entrejambe")).containsExactly(1L);
+    }
+
+    @Test
+    void searchRanksLibelleMatchesFirst() {
+        assertThat(search("bébé")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void searchToleratesTypos() {
+        assertThat(search("cotton")).containsExactly(1L);
+        assertThat(search("chausettes")).containsExactly(3L);
+    }
+
+    @Test
+    void searchRequiresEveryWord() {
+        assertThat(search("pyjama coton")).isEmpty();
+        assertThat(search("le la les")).isEmpty();
+    }
+
+    @Test
+    void searchIsPaginated() {
+        Page<Long> page = produitSearchRepository.search("bébé", PageRequest.of(1, 1));
+        assertThat(page.getContent()).containsExactly(2L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void indexReplacesAndDeletes() {
+        produitSearchRepository.index(new Produit().id(3L).libelle("Bonnet"));
+        assertThat(search("chaussettes")).isEmpty();
+        assertThat(search("bonnet")).containsExactly(3L);
+
+        produitSearchRepository.deleteFromIndexById(3L);
+        assertThat(search("bonnet")).isEmpty();
+        assertThat(produitSearchRepository.count()).isEqualTo(2);
+    }
+
+    private List<Long> search(String query) {
+        return produitSearchRepository.search(query, PageRequest.of(0, 10)).getContent();
+    }
+}
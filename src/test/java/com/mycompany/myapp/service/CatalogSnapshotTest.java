@@ -0,0 +1,192 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Image;
+import com.mycompany.myapp.domain.Produit;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.ImageRepository;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import com.mycompany.myapp.service.dto.ProduitMultiGetDTO;
+import com.mycompany.myapp.service.mapper.CategoryMapperImpl;
+import com.mycompany.myapp.service.mapper.ImageMapperImpl;
+import com.mycompany.myapp.service.mapper.ProduitMapperImpl;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CatalogSnapshotTest {
+
+    /**
+     * The committed rows, which the catalog reads again after each write.
+     */
+    private final Map<Long, Produit> produits = new HashMap<>();
+
+    private final Map<Long, Category> categories = new HashMap<>();
+
+    private final Map<Long, Image> images = new HashMap<>();
+
+    private CatalogSnapshot catalogSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        ProduitRepository produitRepository = mock(ProduitRepository.class);
+        when(produitRepository.findAllById(anyIterable()))
+            .thenAnswer(invocation -> {
+                Iterable<Long> ids = invocation.getArgument(0);
+                return StreamSupport
+                    .stream(ids.spliterator(), false)
+                    .filter(produits::containsKey)
+                    .map(produits::get)
+                    .collect(Collectors.toList());
+            });
+        when(produitRepository.fetchBagRelationships(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findById(anyLong()))
+            .thenAnswer(invocation -> Optional.ofNullable(categories.get(invocation.<Long>getArgument(0))));
+        ImageRepository imageRepository = mock(ImageRepository.class);
+        when(imageRepository.findById(anyLong()))
+            .thenAnswer(invocation -> Optional.ofNullable(images.get(invocation.<Long>getArgument(0))));
+        catalogSnapshot =
+            new CatalogSnapshot(
+                produitRepository,
+                categoryRepository,
+                imageRepository,
+                new ProduitMapperImpl(),
+                new CategoryMapperImpl(),
+                new ImageMapperImpl(),
+                mock(PlatformTransactionManager.class)
+            );
+    }
+
+    @Test
+    void isEmptyUntilBuilt() {
+        assertThat(catalogSnapshot.current()).isEmpty();
+
+        catalogSnapshot.rebuild();
+
+        assertThat(catalogSnapshot.current()).hasValueSatisfying(catalog -> assertThat(catalog.findAllProduits()).isEmpty());
+    }
+
+    @Test
+    void writesPublishANewCatalogAndLeaveTheOldOneUnchanged() {
+        catalogSnapshot.rebuild();
+        CatalogSnapshot.Catalog before = catalogSnapshot.current().orElseThrow();
+
+        categories.put(1L, category(1L));
+        catalogSnapshot.refreshCategory(1L);
+        produits.put(10L, produit(10L, 1L));
+        catalogSnapshot.refreshProduit(10L);
+        images.put(100L, new Image().id(100L).produit(new Produit().id(10L)));
+        catalogSnapshot.refreshImage(100L);
+
+        CatalogSnapshot.Catalog after = catalogSnapshot.current().orElseThrow();
+        assertThat(after.findCategory(1L)).isPresent();
+        assertThat(after.findProduit(10L)).isPresent();
+        assertThat(after.findImage(100L)).isPresent();
+        assertThat(before.findCategory(1L)).isEmpty();
+        assertThat(before.findProduit(10L)).isEmpty();
+        assertThat(before.findImage(100L)).isEmpty();
+
+        images.remove(100L);
+        catalogSnapshot.refreshImage(100L);
+        categories.remove(1L);
+        catalogSnapshot.refreshCategory(1L);
+
+        assertThat(catalogSnapshot.current().orElseThrow().findAllImages()).isEmpty();
+        assertThat(catalogSnapshot.current().orElseThrow().findAllCategories()).isEmpty();
+    }
+
+    @Test
+    void categoryMembershipFollowsTheProduits() {
+        catalogSnapshot.rebuild();
+
+        produits.put(11L, produit(11L, 1L, 2L));
+        catalogSnapshot.refreshProduit(11L);
+        produits.put(10L, produit(10L, 1L));
+        catalogSnapshot.refreshProduit(10L);
+
+        assertThat(ids(catalogSnapshot.current().orElseThrow().findAllProduitsByCategory(1L))).containsExactly(10L, 11L);
+        assertThat(ids(catalogSnapshot.current().orElseThrow().findAllProduitsByCategory(2L))).containsExactly(11L);
+
+        produits.put(11L, produit(11L, 2L, 3L));
+        catalogSnapshot.refreshProduit(11L);
+        produits.remove(10L);
+        catalogSnapshot.refreshProduit(10L);
+
+        assertThat(catalogSnapshot.current().orElseThrow().findAllProduitsByCategory(1L)).isEmpty();
+        assertThat(ids(catalogSnapshot.current().orElseThrow().findAllProduitsByCategory(3L))).containsExactly(11L);
+    }
+
+    @Test
+    void refreshAppliesTheCommittedStateWhateverTheOrderOfTheWrites() {
+        catalogSnapshot.rebuild();
+        produits.put(10L, produit(10L, 1L));
+        // A second write commits before the callback of the first one runs
+        produits.put(10L, produit(10L, 2L));
+
+        catalogSnapshot.refreshProduit(10L);
+        catalogSnapshot.refreshProduit(10L);
+
+        assertThat(catalogSnapshot.current().orElseThrow().findAllProduitsByCategory(1L)).isEmpty();
+        assertThat(ids(catalogSnapshot.current().orElseThrow().findAllProduitsByCategory(2L))).containsExactly(10L);
+    }
+
+    @Test
+    void bulkWritesUpdateTheCategoriesOnce() {
+        catalogSnapshot.rebuild();
+        produits.put(10L, produit(10L, 1L));
+        catalogSnapshot.refreshProduit(10L);
+
+        produits.put(10L, produit(10L, 2L));
+        produits.put(11L, produit(11L, 1L, 2L));
+        produits.put(12L, produit(12L));
+        catalogSnapshot.refreshProduits(List.of(10L, 11L, 12L));
+
+        CatalogSnapshot.Catalog catalog = catalogSnapshot.current().orElseThrow();
+        assertThat(ids(catalog.findAllProduits())).containsExactly(10L, 11L, 12L);
+        assertThat(ids(catalog.findAllProduitsByCategory(1L))).containsExactly(11L);
+        assertThat(ids(catalog.findAllProduitsByCategory(2L))).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void multiGetKeepsTheOrderOfTheIdsAndReportsTheMissingOnes() {
+        catalogSnapshot.rebuild();
+        produits.put(10L, produit(10L));
+        produits.put(11L, produit(11L));
+        catalogSnapshot.refreshProduits(List.of(10L, 11L));
+
+        ProduitMultiGetDTO result = catalogSnapshot.current().orElseThrow().findAllProduitsById(Arrays.asList(11L, 12L, null, 10L, 11L));
+
+        assertThat(ids(result.getProduits())).containsExactly(11L, 10L);
+        assertThat(result.getMissingIds()).containsExactly(12L);
+    }
+
+    private static List<Long> ids(List<ProduitDTO> produits) {
+        return produits.stream().map(ProduitDTO::getId).collect(Collectors.toList());
+    }
+
+    private static Produit produit(Long id, Long... categoryIds) {
+        Produit produit = new Produit().id(id);
+        Arrays.stream(categoryIds).map(CatalogSnapshotTest::category).forEach(produit::addCategory);
+        return produit;
+    }
+
+    private static Category category(Long id) {
+        return new Category().id(id);
+    }
+}
@@ -0,0 +1,28 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class CommandeCursorTest {
+
+    @Test
+    void encodeThenDecodeIsIdentity() {
+        CommandeCursor dated = new CommandeCursor(Instant.parse("2026-10-16T12:34:56.789123Z"), 42L);
+        assertThat(CommandeCursor.decode(dated.encode())).isEqualTo(dated);
+
+        CommandeCursor undated = new CommandeCursor(null, 7L);
+        assertThat(CommandeCursor.decode(undated.encode())).isEqualTo(undated);
+        assertThat(CommandeCursor.decode(undated.encode()).getDate()).isNull();
+    }
+
+    @Test
+    void decodeRejectsMalformedCursor() {
+        assertThatThrownBy(() -> CommandeCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CommandeCursor.decode("QUJD")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CommandeCursor.decode(new CommandeCursor(null, 7L).encode() + "QQ"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,44 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CommandeTotalsTest {
+
+    @Test
+    void pricesAreRoundedToTheCentBeforeBeingMultiplied() {
+        assertThat(CommandeTotals.of(new LigneCommande().quantite(3).prix(0.29F))).isEqualTo(new CommandeTotals(87, 3, 1));
+        assertThat(CommandeTotals.of(new LigneCommande().quantite(1).prix(19.99F))).isEqualTo(new CommandeTotals(1999, 1, 1));
+        assertThat(CommandeTotals.of(new LigneCommande().quantite(0).prix(5F))).isEqualTo(new CommandeTotals(0, 0, 1));
+    }
+
+    @Test
+    void aLigneWithoutQuantityCountsForOneArticleAndWithoutPriceForNothing() {
+        assertThat(CommandeTotals.of(new LigneCommande().prix(2.5F))).isEqualTo(new CommandeTotals(250, 1, 1));
+        assertThat(CommandeTotals.of(new LigneCommande().quantite(4))).isEqualTo(new CommandeTotals(0, 4, 1));
+    }
+
+    @Test
+    void addingAndRemovingLignesInAnyOrderGivesBackTheSameTotals() {
+        List<LigneCommande> lignes = List.of(
+            new LigneCommande().quantite(7).prix(0.1F),
+            new LigneCommande().quantite(3).prix(0.7F),
+            new LigneCommande().quantite(1).prix(1234.56F)
+        );
+        Commande commande = new Commande();
+        CommandeTotals.ZERO.storeOn(commande);
+        for (LigneCommande ligne : lignes) {
+            CommandeTotals.of(ligne).addTo(commande);
+        }
+
+        assertThat(CommandeTotals.storedOn(commande)).isEqualTo(CommandeTotals.of(lignes)).isEqualTo(new CommandeTotals(123736, 11, 3));
+
+        CommandeTotals.ZERO.minus(CommandeTotals.of(lignes.get(1))).addTo(commande);
+        CommandeTotals.ZERO.minus(CommandeTotals.of(lignes.get(0))).addTo(commande);
+        assertThat(CommandeTotals.storedOn(commande)).isEqualTo(CommandeTotals.of(lignes.get(2)));
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.repository.CommandeLigneRow;
+import com.mycompany.myapp.repository.CommandeRepository;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CommandeTotalsVerifierTest {
+
+    private CommandeRepository commandeRepository;
+
+    private LigneCommandeRepository ligneCommandeRepository;
+
+    private SimpleMeterRegistry registry;
+
+    private CommandeTotalsVerifier commandeTotalsVerifier;
+
+    @BeforeEach
+    void setUp() {
+        commandeRepository = mock(CommandeRepository.class);
+        ligneCommandeRepository = mock(LigneCommandeRepository.class);
+        registry = new SimpleMeterRegistry();
+        commandeTotalsVerifier =
+            new CommandeTotalsVerifier(commandeRepository, ligneCommandeRepository, mock(PlatformTransactionManager.class), registry);
+    }
+
+    @Test
+    void repairsTheCommandesWhoseTotalsDrifted() {
+        Commande drifted = new Commande().id(2L).totalCentimes(100L).nombreArticles(1).nombreLignes(1);
+        when(commandeRepository.streamWithLignes())
+            .thenReturn(
+                Stream.of(
+                    // Consistent
+                    new CommandeLigneRow(1L, 300L, 3, 2, 10L, 1, 1F),
+                    new CommandeLigneRow(1L, 300L, 3, 2, 11L, 2, 1F),
+                    // Drifted
+                    new CommandeLigneRow(2L, 100L, 1, 1, 12L, 2, 1F),
+                    // Without lignes
+                    new CommandeLigneRow(3L, 0L, 0, 0, null, null, null)
+                )
+            );
+        when(commandeRepository.findAndLockById(2L)).thenReturn(Optional.of(drifted));
+        when(ligneCommandeRepository.findAllByCommandeId(2L)).thenReturn(List.of(new LigneCommande().quantite(2).prix(1F)));
+
+        assertThat(commandeTotalsVerifier.verify()).isEqualTo(1);
+
+        assertThat(drifted.getTotalCentimes()).isEqualTo(200L);
+        assertThat(drifted.getNombreArticles()).isEqualTo(2);
+        assertThat(drifted.getNombreLignes()).isEqualTo(1);
+        assertThat(registry.counter(CommandeTotalsVerifier.DRIFT_METER).count()).isEqualTo(1);
+        verify(commandeRepository, never()).findAndLockById(1L);
+        verify(commandeRepository, never()).findAndLockById(3L);
+    }
+
+    @Test
+    void aCommandeWrittenSinceItWasReadIsNotRepaired() {
+        Commande commande = new Commande().id(1L).totalCentimes(200L).nombreArticles(2).nombreLignes(1);
+        when(commandeRepository.streamWithLignes()).thenReturn(Stream.of(new CommandeLigneRow(1L, 100L, 1, 1, 10L, 1, 1F)));
+        when(commandeRepository.findAndLockById(1L)).thenReturn(Optional.of(commande));
+        when(ligneCommandeRepository.findAllByCommandeId(1L)).thenReturn(List.of(new LigneCommande().quantite(2).prix(1F)));
+
+        assertThat(commandeTotalsVerifier.verify()).isZero();
+
+        assertThat(commande.getTotalCentimes()).isEqualTo(200L);
+        assertThat(registry.counter(CommandeTotalsVerifier.DRIFT_METER).count()).isZero();
+    }
+}
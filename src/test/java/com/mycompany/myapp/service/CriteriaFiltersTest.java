@@ -0,0 +1,74 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.service.filter.FloatFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+class CriteriaFiltersTest {
+
+    @Test
+    void noFilterMatchesEverything() {
+        assertThat(CriteriaFilters.matches((StringFilter) null, null)).isTrue();
+        assertThat(CriteriaFilters.matches((FloatFilter) null, 1F)).isTrue();
+        assertThat(CriteriaFilters.matchesAny((LongFilter) null, List.of())).isTrue();
+    }
+
+    @Test
+    void stringFilterIgnoresCaseOnlyForContains() {
+        StringFilter equals = new StringFilter();
+        equals.setEquals("Rose");
+        assertThat(CriteriaFilters.matches(equals, "Rose")).isTrue();
+        assertThat(CriteriaFilters.matches(equals, "rose")).isFalse();
+
+        StringFilter contains = new StringFilter();
+        contains.setContains("ros");
+        assertThat(CriteriaFilters.matches(contains, "Vieux ROSE")).isTrue();
+        assertThat(CriteriaFilters.matches(contains, "Bleu")).isFalse();
+        assertThat(CriteriaFilters.matches(contains, null)).isFalse();
+    }
+
+    @Test
+    void nullValueOnlyMatchesUnspecifiedFilter() {
+        StringFilter notEquals = new StringFilter();
+        notEquals.setNotEquals("Rose");
+        assertThat(CriteriaFilters.matches(notEquals, null)).isFalse();
+
+        StringFilter unspecified = new StringFilter();
+        unspecified.setSpecified(false);
+        assertThat(CriteriaFilters.matches(unspecified, null)).isTrue();
+        assertThat(CriteriaFilters.matches(unspecified, "Rose")).isFalse();
+
+        FloatFilter greaterThan = new FloatFilter();
+        greaterThan.setGreaterThan(1F);
+        assertThat(CriteriaFilters.matches(greaterThan, null)).isFalse();
+    }
+
+    @Test
+    void rangeFilterCombinesItsBounds() {
+        FloatFilter range = new FloatFilter();
+        range.setGreaterThanOrEqual(10F);
+        range.setLessThan(20F);
+        assertThat(CriteriaFilters.matches(range, 10F)).isTrue();
+        assertThat(CriteriaFilters.matches(range, 19.99F)).isTrue();
+        assertThat(CriteriaFilters.matches(range, 20F)).isFalse();
+        assertThat(CriteriaFilters.matches(range, 9F)).isFalse();
+    }
+
+    @Test
+    void collectionFilterMatchesAnyValue() {
+        LongFilter in = new LongFilter();
+        in.setIn(List.of(2L, 3L));
+        assertThat(CriteriaFilters.matchesAny(in, List.of(1L, 3L))).isTrue();
+        assertThat(CriteriaFilters.matchesAny(in, List.of(1L))).isFalse();
+        assertThat(CriteriaFilters.matchesAny(in, List.of())).isFalse();
+
+        LongFilter unspecified = new LongFilter();
+        unspecified.setSpecified(false);
+        assertThat(CriteriaFilters.matchesAny(unspecified, List.of())).isTrue();
+        assertThat(CriteriaFilters.matchesAny(unspecified, List.of(1L))).isFalse();
+    }
+}
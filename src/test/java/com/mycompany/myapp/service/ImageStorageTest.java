@@ -0,0 +1,62 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImageStorageTest {
+
+    private static final byte[] GIF = { 'G', 'I', 'F', '8', '9', 'a', 1, 0, 1, 0, 0, 0, 0, ';' };
+
+    @TempDir
+    Path directory;
+
+    private ImageStorage imageStorage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getImageStorage().setDirectory(directory.toString());
+        applicationProperties.getImageStorage().setMaxBytes(100);
+        imageStorage = new ImageStorage(applicationProperties);
+    }
+
+    @Test
+    void imagesAreNamedByTheirContentAndStoredOnce() throws IOException {
+        String name = imageStorage.store(new ByteArrayInputStream(GIF));
+
+        assertThat(name).matches("[0-9a-f]{64}\\.gif").isEqualTo(imageStorage.store(new ByteArrayInputStream(GIF)));
+        assertThat(imageStorage.find(name)).hasValueSatisfying(path -> assertThat(path).hasBinaryContent(GIF));
+        assertThat(ImageStorage.formatOf(name)).contains(ImageFormat.GIF);
+        assertThat(ImageStorage.hashOf(name)).contains(name.substring(0, 64));
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+    }
+
+    @Test
+    void contentWhichIsNotASupportedImageIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> imageStorage.store(new ByteArrayInputStream(new byte[] { 1, 2, 3 })));
+        byte[] tooLarge = new byte[101];
+        System.arraycopy(GIF, 0, tooLarge, 0, GIF.length);
+        assertThatIllegalArgumentException().isThrownBy(() -> imageStorage.store(new ByteArrayInputStream(tooLarge)));
+    }
+
+    @Test
+    void onlyNamesGivenByTheStoreAreFound() throws IOException {
+        Files.writeString(directory.resolve("secret.gif"), "secret");
+
+        assertThat(imageStorage.find("secret.gif")).isEmpty();
+        assertThat(imageStorage.find("../secret.gif")).isEmpty();
+        assertThat(imageStorage.find("0".repeat(64) + ".gif")).isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.ImageVariant;
+import com.mycompany.myapp.repository.ImageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ImageVariantGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    private ImageStorage imageStorage;
+
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getImageStorage().setDirectory(directory.toString());
+        applicationProperties.getImageVariants().setWidths(List.of(200, 100, 800));
+        applicationProperties.getImageVariants().setMaxPixels(1_000_000);
+        imageStorage = new ImageStorage(applicationProperties);
+        imageVariantGenerator =
+            new ImageVariantGenerator(
+                applicationProperties,
+                imageStorage,
+                mock(ImageRepository.class),
+                mock(CatalogSnapshot.class),
+                mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry()
+            );
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        imageVariantGenerator.shutdown();
+    }
+
+    @Test
+    void opaqueImagesAreResizedToEachNarrowerWidthAsJpeg() throws IOException {
+        String name = store(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB));
+
+        List<ImageVariant> variants = imageVariantGenerator.generate(name);
+
+        assertThat(variants).extracting(ImageVariant::getWidth).containsExactly(100, 200);
+        assertThat(variants).extracting(ImageVariant::getUrl).allMatch(url -> url.endsWith(".jpg"));
+        BufferedImage smallest = read(variants.get(0));
+        assertThat(smallest.getWidth()).isEqualTo(100);
+        assertThat(smallest.getHeight()).isEqualTo(75);
+    }
+
+    @Test
+    void translucentImagesAreResizedAsPng() throws IOException {
+        String name = store(new BufferedImage(150, 50, BufferedImage.TYPE_INT_ARGB));
+
+        List<ImageVariant> variants = imageVariantGenerator.generate(name);
+
+        assertThat(variants).extracting(ImageVariant::getWidth).containsExactly(100);
+        assertThat(variants.get(0).getUrl()).endsWith(".png");
+        assertThat(read(variants.get(0)).getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    void imagesNarrowerThanEveryWidthHaveNoVariants() throws IOException {
+        assertThat(imageVariantGenerator.generate(store(new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB)))).isEmpty();
+    }
+
+    @Test
+    void imagesWithTooManyPixelsAreRefusedBeforeBeingDecoded() throws IOException {
+        String name = store(new BufferedImage(2000, 1000, BufferedImage.TYPE_BYTE_BINARY));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> imageVariantGenerator.generate(name));
+    }
+
+    private String store(BufferedImage image) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", content);
+        return imageStorage.store(new ByteArrayInputStream(content.toByteArray()));
+    }
+
+    private BufferedImage read(ImageVariant variant) throws IOException {
+        Path path = imageStorage.find(ImageStorage.nameOf(variant.getUrl()).orElseThrow()).orElseThrow();
+        return ImageIO.read(path.toFile());
+    }
+}
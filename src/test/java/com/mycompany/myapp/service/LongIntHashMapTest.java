@@ -0,0 +1,40 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongIntHashMapTest {
+
+    @Test
+    void behavesLikeAHashMapWhileGrowing() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int index = 0; index < 10_000; index++) {
+            long key = 1 + random.nextInt(3000);
+            int delta = random.nextInt(10);
+            assertThat(map.addTo(key, delta)).isEqualTo(expected.merge(key, delta, Integer::sum));
+        }
+        map.put(5000L, 7);
+        expected.put(5000L, 7);
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(map.get(5001L, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void theKeyZeroIsReserved() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> map.addTo(0L, 1));
+        assertThat(map.get(0L, -1)).isEqualTo(-1);
+    }
+}
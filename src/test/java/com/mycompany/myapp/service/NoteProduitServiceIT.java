@@ -0,0 +1,142 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Avis;
+import com.mycompany.myapp.domain.NoteProduit;
+import com.mycompany.myapp.domain.Produit;
+import com.mycompany.myapp.repository.AvisRepository;
+import com.mycompany.myapp.repository.NoteProduitRepository;
+import com.mycompany.myapp.service.dto.AvisDTO;
+import com.mycompany.myapp.service.dto.NoteProduitDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link NoteProduitService}.
+ */
+@IntegrationTest
+@Transactional
+class NoteProduitServiceIT {
+
+    @Autowired
+    private AvisService avisService;
+
+    @Autowired
+    private ProduitService produitService;
+
+    @Autowired
+    private NoteProduitService noteProduitService;
+
+    @Autowired
+    private AvisRepository avisRepository;
+
+    @Autowired
+    private NoteProduitRepository noteProduitRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private Produit produit;
+
+    private Produit otherProduit;
+
+    @BeforeEach
+    public void init() {
+        produit = new Produit().libelle("Body en coton").prixUnitaire(12F);
+        em.persist(produit);
+        otherProduit = new Produit().libelle("Bavoir").prixUnitaire(5F);
+        em.persist(otherProduit);
+    }
+
+    @Test
+    void avisWritesMaintainTheNotesOfTheirProduit() {
+        AvisDTO first = avisService.save(avisOf(produit, 5));
+        AvisDTO second = avisService.save(avisOf(produit, 2));
+        avisService.save(avisOf(produit, null));
+        assertNotes(produit, 3, 3.5, 0, 1, 0, 0, 1);
+
+        // Changing the note
+        AvisDTO partialUpdate = new AvisDTO();
+        partialUpdate.setId(first.getId());
+        partialUpdate.setNote(4);
+        avisService.partialUpdate(partialUpdate);
+        assertNotes(produit, 3, 3.0, 0, 1, 0, 1, 0);
+
+        // Moving an avis to another produit
+        second.setProduit(new ProduitDTO());
+        second.getProduit().setId(otherProduit.getId());
+        avisService.update(second);
+        assertNotes(produit, 2, 4.0, 0, 0, 0, 1, 0);
+        assertNotes(otherProduit, 1, 2.0, 0, 1, 0, 0, 0);
+
+        avisService.delete(second.getId());
+        assertNotes(otherProduit, 0, null, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void firstAvisAddsToAnAggregateCreatedMeanwhile() {
+        // As if the first avis of a concurrent transaction had created it
+        assertThat(noteProduitRepository.insertIfAbsent(produit.getId())).isTrue();
+        assertThat(noteProduitRepository.insertIfAbsent(produit.getId())).isFalse();
+
+        avisService.save(avisOf(produit, 5));
+        assertNotes(produit, 1, 5.0, 0, 0, 0, 0, 1);
+    }
+
+    @Test
+    void getProduitReturnsItsNotes() {
+        avisService.save(avisOf(produit, 3));
+
+        NoteProduitDTO notes = produitService.findOne(produit.getId()).orElseThrow().getNotes();
+
+        assertThat(notes.getNombreAvis()).isEqualTo(1);
+        assertThat(notes.getMoyenne()).isEqualTo(3.0);
+    }
+
+    @Test
+    void reconcileRebuildsTheNotesFromTheAvis() {
+        avisService.save(avisOf(produit, 4));
+        // Avis written behind the back of AvisService, and a drifted aggregate
+        avisRepository.saveAndFlush(new Avis().note(1).produit(otherProduit));
+        NoteProduit drifted = noteProduitRepository.findById(produit.getId()).orElseThrow();
+        drifted.setNombreAvis(7L);
+        noteProduitRepository.saveAndFlush(drifted);
+
+        noteProduitService.reconcile();
+        em.flush();
+        em.clear();
+
+        assertNotes(produit, 1, 4.0, 0, 0, 0, 1, 0);
+        assertNotes(otherProduit, 1, 1.0, 1, 0, 0, 0, 0);
+    }
+
+    private AvisDTO avisOf(Produit produit, Integer note) {
+        AvisDTO avisDTO = new AvisDTO();
+        avisDTO.setNote(note);
+        avisDTO.setProduit(new ProduitDTO());
+        avisDTO.getProduit().setId(produit.getId());
+        return avisDTO;
+    }
+
+    private void assertNotes(Produit produit, long nombreAvis, Double moyenne, long... repartition) {
+        // The aggregates are updated in bulk, behind the persistence context
+        em.flush();
+        em.clear();
+        NoteProduitDTO notes = noteProduitService.findByProduit(produit.getId());
+        assertThat(notes.getNombreAvis()).isEqualTo(nombreAvis);
+        assertThat(notes.getMoyenne()).isEqualTo(moyenne);
+        assertThat(notes.getRepartition().values()).containsExactly(
+            repartition[0],
+            repartition[1],
+            repartition[2],
+            repartition[3],
+            repartition[4]
+        );
+    }
+}
@@ -0,0 +1,155 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.Produit;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
+import com.mycompany.myapp.repository.ProduitVenteRow;
+import com.mycompany.myapp.service.dto.CategoryDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProduitBestSellersTest {
+
+    private static final Long CATEGORY_ID = 100L;
+
+    private LigneCommandeRepository ligneCommandeRepository;
+
+    private ProduitBestSellers produitBestSellers;
+
+    @BeforeEach
+    void setUp() {
+        ligneCommandeRepository = mock(LigneCommandeRepository.class);
+        produitBestSellers = new ProduitBestSellers(ligneCommandeRepository, mock(CatalogSnapshot.class));
+    }
+
+    @Test
+    void ranksTheProduitsByQuantitySoldOverallAndPerCategory() {
+        Instant now = Instant.now();
+        when(ligneCommandeRepository.sumQuantitesByProduit(any()))
+            .thenReturn(List.of(new ProduitVenteRow(1L, 5L), new ProduitVenteRow(2L, 9L), new ProduitVenteRow(3L, 7L)));
+        when(ligneCommandeRepository.streamVentesSince(any(), any())).thenReturn(Stream.of(new ProduitVenteRow(1L, now, 5)));
+        produitBestSellers.rebuild();
+
+        produitBestSellers.refresh(List.of(produit(1L, CATEGORY_ID), produit(2L), produit(3L, CATEGORY_ID), produit(4L, CATEGORY_ID)));
+
+        assertThat(produitBestSellers.findBestSellers(null, false, 10)).containsExactly(2L, 3L, 1L);
+        assertThat(produitBestSellers.findBestSellers(null, false, 2)).containsExactly(2L, 3L);
+        assertThat(produitBestSellers.findBestSellers(CATEGORY_ID, false, 10)).containsExactly(3L, 1L);
+        assertThat(produitBestSellers.findBestSellers(200L, false, 10)).isEmpty();
+        assertThat(produitBestSellers.findBestSellers(null, true, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void recentSalesWeighMoreWhenTrending() {
+        Instant now = Instant.now();
+        Instant twoHalfLivesAgo = now.minus(ProduitBestSellers.TRENDING_HALF_LIFE.multipliedBy(2));
+        when(ligneCommandeRepository.sumQuantitesByProduit(any())).thenReturn(List.of());
+        when(ligneCommandeRepository.streamVentesSince(any(), any()))
+            .thenReturn(
+                Stream.of(
+                    // Worth 2.5 now
+                    new ProduitVenteRow(1L, twoHalfLivesAgo, 10),
+                    // Worth 3 now
+                    new ProduitVenteRow(2L, now.minus(1, ChronoUnit.MINUTES), 3),
+                    // Worth 2 now
+                    new ProduitVenteRow(3L, now.minus(1, ChronoUnit.MINUTES), 2)
+                )
+            );
+        produitBestSellers.rebuild();
+
+        produitBestSellers.refresh(List.of(produit(1L), produit(2L), produit(3L)));
+
+        assertThat(produitBestSellers.findBestSellers(null, true, 10)).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void paidLignesAreAddedIncrementally() {
+        when(ligneCommandeRepository.sumQuantitesByProduit(any())).thenReturn(List.of(new ProduitVenteRow(1L, 3L)));
+        when(ligneCommandeRepository.streamVentesSince(any(), any())).thenReturn(Stream.empty());
+        produitBestSellers.rebuild();
+
+        produitBestSellers.addVentes(
+            List.of(ligne(2L, 2), ligne(3L, null), new LigneCommande().quantite(50), ligne(2L, 2)),
+            Instant.now()
+        );
+        produitBestSellers.refresh(List.of(produit(1L), produit(2L), produit(3L)));
+
+        assertThat(produitBestSellers.findBestSellers(null, false, 10)).containsExactly(2L, 1L, 3L);
+        assertThat(produitBestSellers.findBestSellers(null, true, 10)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void lignesPaidDuringARebuildAreKept() {
+        when(ligneCommandeRepository.sumQuantitesByProduit(any())).thenReturn(List.of(new ProduitVenteRow(1L, 3L)));
+        // Paid once the rebuild has read the sales
+        when(ligneCommandeRepository.streamVentesSince(any(), any()))
+            .thenAnswer(invocation -> {
+                produitBestSellers.addVentes(List.of(ligne(2L, 5)), Instant.now());
+                return Stream.empty();
+            });
+        produitBestSellers.rebuild();
+
+        produitBestSellers.refresh(List.of(produit(1L), produit(2L)));
+
+        assertThat(produitBestSellers.findBestSellers(null, false, 10)).containsExactly(2L, 1L);
+        assertThat(produitBestSellers.findBestSellers(null, true, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void onlyTheBestSellersAreKept() {
+        int produits = ProduitBestSellers.MAX_BEST_SELLERS * 3;
+        List<ProduitVenteRow> ventes = new ArrayList<>();
+        List<ProduitDTO> catalog = new ArrayList<>();
+        for (long produitId = 1; produitId <= produits; produitId++) {
+            // Ties broken by id
+            ventes.add(new ProduitVenteRow(produitId, produitId / 2));
+            catalog.add(produit(produitId));
+        }
+        when(ligneCommandeRepository.sumQuantitesByProduit(any())).thenReturn(ventes);
+        when(ligneCommandeRepository.streamVentesSince(any(), any())).thenReturn(Stream.empty());
+        produitBestSellers.rebuild();
+
+        produitBestSellers.refresh(catalog);
+
+        List<Long> expected = LongStream
+            .rangeClosed(1, produits)
+            .boxed()
+            .sorted((a, b) -> a / 2 != b / 2 ? Long.compare(b / 2, a / 2) : Long.compare(a, b))
+            .limit(ProduitBestSellers.MAX_BEST_SELLERS)
+            .collect(Collectors.toList());
+        assertThat(produitBestSellers.findBestSellers(null, false, produits)).isEqualTo(expected);
+    }
+
+    private static LigneCommande ligne(Long produitId, Integer quantite) {
+        return new LigneCommande().produit(new Produit().id(produitId)).quantite(quantite);
+    }
+
+    private static ProduitDTO produit(Long id, Long... categoryIds) {
+        ProduitDTO produit = new ProduitDTO();
+        produit.setId(id);
+        produit.setCategories(
+            Stream
+                .of(categoryIds)
+                .map(categoryId -> {
+                    CategoryDTO category = new CategoryDTO();
+                    category.setId(categoryId);
+                    return category;
+                })
+                .collect(Collectors.toSet())
+        );
+        return produit;
+    }
+}
@@ -0,0 +1,41 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class ProduitCursorTest {
+
+    @Test
+    void encodeThenDecodeIsIdentity() {
+        ProduitCursor byPrice = new ProduitCursor(ProduitCursor.SortKey.PRIX_UNITAIRE, Sort.Direction.DESC, false, 12.5F, 42L);
+        assertThat(ProduitCursor.decode(byPrice.encode())).isEqualTo(byPrice);
+
+        ProduitCursor byLibelle = new ProduitCursor(ProduitCursor.SortKey.LIBELLE, Sort.Direction.ASC, false, "body, rose", 7L);
+        assertThat(ProduitCursor.decode(byLibelle.encode())).isEqualTo(byLibelle);
+
+        ProduitCursor byId = new ProduitCursor(ProduitCursor.SortKey.ID, Sort.Direction.ASC, false, null, 3L);
+        assertThat(ProduitCursor.decode(byId.encode())).isEqualTo(byId);
+    }
+
+    @Test
+    void nullSortKeyValueMovesToNullSection() {
+        ProduitCursor cursor = new ProduitCursor(ProduitCursor.SortKey.TAILLE, Sort.Direction.ASC, false, null, 9L);
+        assertThat(cursor.isNullSection()).isTrue();
+        assertThat(ProduitCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decodeRejectsMalformedCursor() {
+        assertThatThrownBy(() -> ProduitCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProduitCursor.decode("QUJD")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sortKeyFromProperty() {
+        assertThat(ProduitCursor.SortKey.fromProperty("prixUnitaire")).isEqualTo(ProduitCursor.SortKey.PRIX_UNITAIRE);
+        assertThatThrownBy(() -> ProduitCursor.SortKey.fromProperty("couleur")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.service.dto.CategoryDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import com.mycompany.myapp.service.dto.ProduitImportDTO;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProduitImportServiceTest {
+
+    private final List<List<ProduitDTO>> chunks = new ArrayList<>();
+
+    private ProduitService produitService;
+
+    private ProduitImportService produitImportService;
+
+    @BeforeEach
+    void setUp() {
+        produitService = mock(ProduitService.class);
+        when(produitService.createAll(anyList(), anyInt()))
+            .thenAnswer(invocation -> {
+                List<ProduitDTO> produits = invocation.getArgument(0);
+                chunks.add(produits);
+                return produits;
+            });
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAllIds()).thenReturn(Set.of(1L, 2L));
+        produitImportService =
+            new ProduitImportService(
+                produitService,
+                categoryRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper()
+            );
+    }
+
+    @Test
+    void csvRowsAreParsedAndCreatedInChunks() throws IOException {
+        String csv =
+            "libelle,prixUnitaire,taille,categories,description\r\n" +
+            "Robe,12.5,2,1|2,\"Coton, \"\"bio\"\"\r\nlavable\"\r\n" +
+            "\n" +
+            "Body,,,,\n" +
+            "Bonnet,3,,2,";
+
+        ProduitImportDTO report = produitImportService.importProduits(new StringReader(csv), ProduitImportFormat.CSV, 2);
+
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getRejected()).isZero();
+        assertThat(chunks).extracting(List::size).containsExactly(2, 1);
+        ProduitDTO robe = chunks.get(0).get(0);
+        assertThat(robe.getLibelle()).isEqualTo("Robe");
+        assertThat(robe.getPrixUnitaire()).isEqualTo(12.5f);
+        assertThat(robe.getTaille()).isEqualTo(2);
+        assertThat(robe.getDescription()).isEqualTo("Coton, \"bio\"\r\nlavable");
+        assertThat(robe.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet())).containsOnly(1L, 2L);
+        ProduitDTO body = chunks.get(0).get(1);
+        assertThat(body.getLibelle()).isEqualTo("Body");
+        assertThat(body.getPrixUnitaire()).isNull();
+        assertThat(body.getCategories()).isEmpty();
+    }
+
+    @Test
+    void invalidRowsAreReportedWithTheirLine() throws IOException {
+        String csv =
+            "libelle,prixUnitaire,categories\n" +
+            "Robe,-1,\n" +
+            "Body,abc,\n" +
+            "Bonnet,3,7\n" +
+            "Bavoir,3\n" +
+            "Chaussons,4,1\n" +
+            "Gigoteuse,\"5";
+
+        ProduitImportDTO report = produitImportService.importProduits(new StringReader(csv), ProduitImportFormat.CSV, 10);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(5);
+        assertThat(report.getErrors()).extracting(ProduitImportDTO.RowError::getLine).containsExactly(2L, 3L, 4L, 5L, 7L);
+        assertThat(report.getErrors().get(0).getMessage()).startsWith("prixUnitaire: ");
+        assertThat(report.getErrors().get(2).getMessage()).isEqualTo("Unknown category: 7");
+    }
+
+    @Test
+    void unknownCsvColumnsAreRefused() {
+        assertThatThrownBy(() -> produitImportService.importProduits(new StringReader("libelle,prix\n"), ProduitImportFormat.CSV, 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("prix");
+    }
+
+    @Test
+    void ndjsonRowsAreParsedAndAFailedChunkIsRetriedRowByRow() throws IOException {
+        when(produitService.createAll(argThat(produits -> produits.stream().anyMatch(ProduitImportServiceTest::isBody)), anyInt()))
+            .thenThrow(new IllegalStateException("duplicate"));
+        String ndjson =
+            "{\"libelle\":\"Robe\",\"categories\":[{\"id\":1}]}\n" +
+            "{\"libelle\":\"Body\"}\n" +
+            "\n" +
+            "{\"id\":3,\"libelle\":\"Bonnet\"}\n" +
+            "{\"libelle\":\n" +
+            "{\"libelle\":\"Bavoir\"}\n";
+
+        ProduitImportDTO report = produitImportService.importProduits(new StringReader(ndjson), ProduitImportFormat.NDJSON, 10);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ProduitImportDTO.RowError::getLine).containsExactly(4L, 5L, 2L);
+        assertThat(report.getErrors().get(2).getMessage()).isEqualTo("duplicate");
+        assertThat(chunks).extracting(List::size).containsExactly(1, 1);
+    }
+
+    private static boolean isBody(ProduitDTO produit) {
+        return "Body".equals(produit.getLibelle());
+    }
+}
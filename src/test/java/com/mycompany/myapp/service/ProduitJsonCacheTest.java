@@ -0,0 +1,81 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProduitJsonCacheTest {
+
+    private MeterRegistry registry;
+
+    private ProduitJsonCache produitJsonCache;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getProduitJsonCache().setMaxBytes(100);
+        registry = new SimpleMeterRegistry();
+        produitJsonCache = new ProduitJsonCache(applicationProperties, registry);
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedBeyondTheMaximumSize() {
+        long generation = produitJsonCache.generation();
+        produitJsonCache.put(1L, entry(40), generation);
+        produitJsonCache.put(2L, entry(40), generation);
+        assertThat(produitJsonCache.get(1L)).isPresent();
+
+        produitJsonCache.put(3L, entry(40), generation);
+
+        assertThat(produitJsonCache.get(1L)).isPresent();
+        assertThat(produitJsonCache.get(2L)).isEmpty();
+        assertThat(produitJsonCache.get(3L)).isPresent();
+        assertThat(registry.get(ProduitJsonCache.METER_PREFIX + ".memory").gauge().value()).isEqualTo(80);
+        assertThat(registry.get(ProduitJsonCache.METER_PREFIX + ".size").gauge().value()).isEqualTo(2);
+        assertThat(registry.get(ProduitJsonCache.METER_PREFIX + ".evictions").counter().count()).isEqualTo(1);
+        assertThat(registry.get(ProduitJsonCache.METER_PREFIX + ".gets").tag("result", "hit").counter().count()).isEqualTo(3);
+        assertThat(registry.get(ProduitJsonCache.METER_PREFIX + ".gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void entryBuiltBeforeAWriteIsNotCached() {
+        long generation = produitJsonCache.generation();
+        produitJsonCache.put(1L, entry(10), generation);
+
+        produitJsonCache.evict(2L);
+        produitJsonCache.put(2L, entry(10), generation);
+
+        assertThat(produitJsonCache.get(1L)).isPresent();
+        assertThat(produitJsonCache.get(2L)).isEmpty();
+
+        produitJsonCache.evict(1L);
+
+        assertThat(produitJsonCache.get(1L)).isEmpty();
+    }
+
+    @Test
+    void largeEntriesAreGzippedAndTaggedByTheirContent() throws IOException {
+        ProduitJsonCache.Entry small = entry(10);
+        ProduitJsonCache.Entry large = entry(1000);
+
+        assertThat(small.getGzip()).isEmpty();
+        assertThat(large.getGzip()).hasValueSatisfying(gzip -> assertThat(gzip.length).isLessThan(1000));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(large.getGzip().orElseThrow()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(large.getJson());
+        }
+        assertThat(large.getETag()).startsWith("\"").endsWith("\"").isEqualTo(entry(1000).getETag()).isNotEqualTo(small.getETag());
+        assertThat(large.getGzipETag()).isEqualTo(large.getETag().replaceFirst("\"$", "-gz\""));
+    }
+
+    private static ProduitJsonCache.Entry entry(int size) {
+        return ProduitJsonCache.Entry.of("x".repeat(size).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,139 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.repository.ProduitPrixRow;
+import com.mycompany.myapp.repository.ProduitRepository;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.jhipster.service.filter.FloatFilter;
+
+class ProduitPriceIndexTest {
+
+    private ProduitRepository produitRepository;
+
+    private ProduitPriceIndex produitPriceIndex;
+
+    @BeforeEach
+    void setUp() {
+        produitRepository = mock(ProduitRepository.class);
+        doAnswer(invocation -> {
+                BiConsumer<Long, Float> priceConsumer = invocation.getArgument(1);
+                priceConsumer.accept(3L, 5f);
+                priceConsumer.accept(1L, 10f);
+                priceConsumer.accept(2L, 10f);
+                priceConsumer.accept(4L, 20f);
+                return null;
+            })
+            .when(produitRepository)
+            .scrollPrices(anyInt(), any());
+        produitPriceIndex = new ProduitPriceIndex(produitRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void answersNothingUntilBuilt() {
+        assertThat(produitPriceIndex.findIds(specified(true), Sort.Direction.ASC, Pageable.unpaged())).isEmpty();
+    }
+
+    @Test
+    void rangeIsAnsweredInPriceThenIdOrder() {
+        produitPriceIndex.rebuild();
+
+        FloatFilter filter = new FloatFilter();
+        filter.setGreaterThanOrEqual(10f);
+        filter.setLessThan(20f);
+        assertThat(ids(filter, Sort.Direction.ASC, Pageable.unpaged())).containsExactly(1L, 2L);
+        assertThat(ids(filter, Sort.Direction.DESC, Pageable.unpaged())).containsExactly(2L, 1L);
+
+        filter = new FloatFilter();
+        filter.setGreaterThan(5f);
+        assertThat(ids(filter, Sort.Direction.ASC, Pageable.unpaged())).containsExactly(1L, 2L, 4L);
+
+        filter = new FloatFilter();
+        filter.setEquals(10f);
+        assertThat(ids(filter, Sort.Direction.ASC, Pageable.unpaged())).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void pageHoldsTheTotalOfTheRange() {
+        produitPriceIndex.rebuild();
+
+        Page<Long> page = produitPriceIndex
+            .findIds(specified(true), Sort.Direction.DESC, PageRequest.of(1, 3))
+            .orElseThrow();
+
+        assertThat(page.getContent()).containsExactly(3L);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void writesMoveAndRemoveProduits() {
+        produitPriceIndex.rebuild();
+        // Produit 1 is deleted, and produit 2 loses its price
+        when(produitRepository.findPrixByIdIn(List.of(3L))).thenReturn(List.of(new ProduitPrixRow(3L, 15f)));
+        when(produitRepository.findPrixByIdIn(List.of(5L))).thenReturn(List.of(new ProduitPrixRow(5L, 1f)));
+        when(produitRepository.findPrixByIdIn(List.of(2L))).thenReturn(List.of(new ProduitPrixRow(2L, null)));
+
+        produitPriceIndex.refresh(3L);
+        produitPriceIndex.refresh(5L);
+        produitPriceIndex.refresh(1L);
+        produitPriceIndex.refresh(2L);
+
+        assertThat(ids(specified(true), Sort.Direction.ASC, Pageable.unpaged())).containsExactly(5L, 3L, 4L);
+    }
+
+    @Test
+    void bulkWritesAreMergedInPriceOrder() {
+        produitPriceIndex.rebuild();
+        List<Long> ids = List.of(7L, 6L, 5L, 4L, 1L);
+        when(produitRepository.findPrixByIdIn(ids))
+            .thenReturn(
+                List.of(
+                    new ProduitPrixRow(7L, 10f),
+                    new ProduitPrixRow(6L, 25f),
+                    new ProduitPrixRow(5L, 1f),
+                    new ProduitPrixRow(4L, null),
+                    new ProduitPrixRow(1L, 30f)
+                )
+            );
+
+        produitPriceIndex.refreshAll(ids);
+
+        assertThat(ids(specified(true), Sort.Direction.ASC, Pageable.unpaged())).containsExactly(5L, 3L, 2L, 7L, 6L, 1L);
+    }
+
+    @Test
+    void filtersMatchingProduitsWithoutAPriceAreNotSupported() {
+        assertThat(ProduitPriceIndex.isSupported(specified(true))).isTrue();
+        assertThat(ProduitPriceIndex.isSupported(new FloatFilter())).isFalse();
+        assertThat(ProduitPriceIndex.isSupported(specified(false))).isFalse();
+        FloatFilter notEquals = new FloatFilter();
+        notEquals.setNotEquals(10f);
+        assertThat(ProduitPriceIndex.isSupported(notEquals)).isFalse();
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> produitPriceIndex.findIds(new FloatFilter(), Sort.Direction.ASC, Pageable.unpaged()));
+    }
+
+    private static FloatFilter specified(boolean specified) {
+        FloatFilter filter = new FloatFilter();
+        filter.setSpecified(specified);
+        return filter;
+    }
+
+    private Iterable<Long> ids(FloatFilter filter, Sort.Direction direction, Pageable pageable) {
+        return produitPriceIndex.findIds(filter, direction, pageable).orElseThrow().getContent();
+    }
+}
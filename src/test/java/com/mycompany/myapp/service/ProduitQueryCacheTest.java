@@ -0,0 +1,178 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.service.criteria.ProduitCriteria;
+import com.mycompany.myapp.service.dto.CategoryDTO;
+import com.mycompany.myapp.service.dto.ProduitDTO;
+import java.util.List;
+import java.util.Set;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.jhipster.service.filter.FloatFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+class ProduitQueryCacheTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    private CacheManager cacheManager;
+
+    private ProduitQueryCache produitQueryCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = Caching.getCachingProvider("org.ehcache.jsr107.EhcacheCachingProvider").getCacheManager();
+        cacheManager.createCache(ProduitQueryCache.PRODUITS_BY_CRITERIA_CACHE, new MutableConfiguration<>().setStoreByValue(false));
+        produitQueryCache = new ProduitQueryCache(cacheManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.destroyCache(ProduitQueryCache.PRODUITS_BY_CRITERIA_CACHE);
+    }
+
+    @Test
+    void criteriaDifferingByTheOrderOfInValuesShareTheirPages() {
+        produitQueryCache.put(categoryIn(2L, 1L), PAGE, List.of(3L, 4L), 2, produitQueryCache.generation());
+
+        assertThat(produitQueryCache.get(categoryIn(1L, 2L, 1L), PAGE))
+            .hasValueSatisfying(cachedPage -> {
+                assertThat(cachedPage.getIds()).containsExactly(3L, 4L);
+                assertThat(cachedPage.getTotal()).isEqualTo(2);
+            });
+        assertThat(produitQueryCache.get(categoryIn(1L, 2L), PageRequest.of(1, 20))).isEmpty();
+        assertThat(produitQueryCache.get(categoryIn(1L), PAGE)).isEmpty();
+    }
+
+    @Test
+    void criteriaFilteringOnUntrackedRelationshipsAreNotCacheable() {
+        ProduitCriteria criteria = new ProduitCriteria();
+        assertThat(ProduitQueryCache.isCacheable(criteria)).isTrue();
+        criteria.avisId().setEquals(1L);
+        assertThat(ProduitQueryCache.isCacheable(criteria)).isFalse();
+    }
+
+    @Test
+    void writeEvictsOnlyThePagesMatchingTheProduitBeforeOrAfterIt() {
+        long generation = produitQueryCache.generation();
+        produitQueryCache.put(couleurEquals("Rose"), PAGE, List.of(1L), 1, generation);
+        produitQueryCache.put(couleurEquals("Vert"), PAGE, List.of(), 0, generation);
+        produitQueryCache.put(couleurEquals("Bleu"), PAGE, List.of(2L), 1, generation);
+        produitQueryCache.put(categoryIn(5L), PAGE, List.of(2L), 1, generation);
+
+        produitQueryCache.evict(produit(1L, "Rose"), produit(1L, "Vert"));
+
+        assertThat(produitQueryCache.get(couleurEquals("Rose"), PAGE)).isEmpty();
+        assertThat(produitQueryCache.get(couleurEquals("Vert"), PAGE)).isEmpty();
+        assertThat(produitQueryCache.get(couleurEquals("Bleu"), PAGE)).isPresent();
+        assertThat(produitQueryCache.get(categoryIn(5L), PAGE)).isPresent();
+
+        produitQueryCache.evict(produit(2L, "Bleu"), null);
+
+        assertThat(produitQueryCache.get(couleurEquals("Bleu"), PAGE)).isEmpty();
+        assertThat(produitQueryCache.get(categoryIn(5L), PAGE)).isEmpty();
+    }
+
+    @Test
+    void writeEvictsTheSlicesFromTheLowestPriceOfTheProduit() {
+        ProduitQueryCache.SliceRequest firstSlice = new ProduitQueryCache.SliceRequest(
+            ProduitCursor.SortKey.PRIX_UNITAIRE,
+            Sort.Direction.ASC,
+            null,
+            20
+        );
+        long generation = produitQueryCache.generation();
+        produitQueryCache.put(prixFrom(10F), firstSlice, List.of(1L), "next", generation);
+        produitQueryCache.put(prixFrom(20F), firstSlice, List.of(), null, generation);
+
+        assertThat(produitQueryCache.get(prixFrom(10F), firstSlice))
+            .hasValueSatisfying(cachedSlice -> {
+                assertThat(cachedSlice.getIds()).containsExactly(1L);
+                assertThat(cachedSlice.getNextCursor()).isEqualTo("next");
+            });
+        assertThat(produitQueryCache.get(prixFrom(10F), PAGE)).isEmpty();
+
+        produitQueryCache.evict(null, produit(3L, 5F));
+
+        assertThat(produitQueryCache.get(prixFrom(10F), firstSlice)).isPresent();
+        assertThat(produitQueryCache.get(prixFrom(20F), firstSlice)).isPresent();
+
+        produitQueryCache.evict(produit(3L, 5F), produit(3L, 15F));
+
+        assertThat(produitQueryCache.get(prixFrom(10F), firstSlice)).isEmpty();
+        assertThat(produitQueryCache.get(prixFrom(20F), firstSlice)).isPresent();
+    }
+
+    @Test
+    void pageReadBeforeAnEvictionIsNotCached() {
+        long generation = produitQueryCache.generation();
+        produitQueryCache.evictAll();
+
+        produitQueryCache.put(couleurEquals("Rose"), PAGE, List.of(1L), 1, generation);
+
+        assertThat(produitQueryCache.get(couleurEquals("Rose"), PAGE)).isEmpty();
+    }
+
+    @Test
+    void evictionWaitsForTheTransactionToCommit() {
+        produitQueryCache.put(couleurEquals("Rose"), PAGE, List.of(1L), 1, produitQueryCache.generation());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            produitQueryCache.evict(produit(1L, "Rose"), null);
+            assertThat(produitQueryCache.get(couleurEquals("Rose"), PAGE)).isPresent();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(produitQueryCache.get(couleurEquals("Rose"), PAGE)).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static ProduitCriteria couleurEquals(String couleur) {
+        ProduitCriteria criteria = new ProduitCriteria();
+        StringFilter filter = criteria.couleur();
+        filter.setEquals(couleur);
+        return criteria;
+    }
+
+    private static ProduitCriteria prixFrom(Float prix) {
+        ProduitCriteria criteria = new ProduitCriteria();
+        FloatFilter filter = criteria.prixUnitaire();
+        filter.setGreaterThanOrEqual(prix);
+        return criteria;
+    }
+
+    private static ProduitCriteria categoryIn(Long... categoryIds) {
+        ProduitCriteria criteria = new ProduitCriteria();
+        LongFilter filter = criteria.categoryId();
+        filter.setIn(List.of(categoryIds));
+        return criteria;
+    }
+
+    private static ProduitDTO produit(Long id, String couleur) {
+        ProduitDTO produitDTO = new ProduitDTO();
+        produitDTO.setId(id);
+        produitDTO.setCouleur(couleur);
+        CategoryDTO categoryDTO = new CategoryDTO();
+        categoryDTO.setId(id == 2L ? 5L : 6L);
+        produitDTO.setCategories(Set.of(categoryDTO));
+        return produitDTO;
+    }
+
+    private static ProduitDTO produit(Long id, Float prix) {
+        ProduitDTO produitDTO = produit(id, "Rose");
+        produitDTO.setPrixUnitaire(prix);
+        return produitDTO;
+    }
+}
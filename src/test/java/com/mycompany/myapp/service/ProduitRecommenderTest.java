@@ -0,0 +1,94 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.repository.CommandeProduitRow;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProduitRecommenderTest {
+
+    private LigneCommandeRepository ligneCommandeRepository;
+
+    private ProduitRecommender produitRecommender;
+
+    @BeforeEach
+    void setUp() {
+        ligneCommandeRepository = mock(LigneCommandeRepository.class);
+        produitRecommender = new ProduitRecommender(ligneCommandeRepository);
+    }
+
+    @Test
+    void recommendsTheProduitsMostOftenBoughtTogetherFirst() {
+        when(ligneCommandeRepository.streamProduitsByCommandeEtat(any()))
+            .thenReturn(
+                Stream.of(
+                    new CommandeProduitRow(10L, 1L),
+                    new CommandeProduitRow(10L, 2L),
+                    new CommandeProduitRow(10L, 3L),
+                    new CommandeProduitRow(11L, 1L),
+                    new CommandeProduitRow(11L, 3L),
+                    new CommandeProduitRow(11L, 3L),
+                    new CommandeProduitRow(12L, 4L)
+                )
+            );
+
+        produitRecommender.rebuild();
+
+        assertThat(produitRecommender.findBoughtTogether(1L, 10)).containsExactly(3L, 2L);
+        assertThat(produitRecommender.findBoughtTogether(1L, 1)).containsExactly(3L);
+        assertThat(produitRecommender.findBoughtTogether(2L, 10)).containsExactly(1L, 3L);
+        assertThat(produitRecommender.findBoughtTogether(4L, 10)).isEmpty();
+        assertThat(produitRecommender.findBoughtTogether(5L, 10)).isEmpty();
+    }
+
+    @Test
+    void paidCommandesAreAddedIncrementally() {
+        when(ligneCommandeRepository.streamProduitsByCommandeEtat(any())).thenReturn(Stream.of(new CommandeProduitRow(10L, 1L)));
+        produitRecommender.rebuild();
+
+        produitRecommender.addCommande(List.of(1L, 2L));
+        produitRecommender.addCommande(Arrays.asList(3L, 1L, null, 3L));
+        produitRecommender.addCommande(List.of(3L, 1L));
+
+        assertThat(produitRecommender.findBoughtTogether(1L, 10)).containsExactly(3L, 2L);
+        assertThat(produitRecommender.findBoughtTogether(3L, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void onlyTheMostFrequentNeighboursAreKept() {
+        ProduitRecommender.Matrix matrix = new ProduitRecommender.Matrix();
+        for (long produitId = 2; produitId <= 20; produitId++) {
+            for (int times = 0; times < produitId % 7; times++) {
+                matrix.addCommande(new long[] { 1L, produitId });
+            }
+        }
+
+        assertThat(matrix.count(1L, 6L)).isEqualTo(6);
+        assertThat(matrix.count(6L, 1L)).isEqualTo(6);
+        assertThat(matrix.count(6L, 13L)).isZero();
+        List<Long> neighbours = LongStream.of(matrix.neighbours(1L, 5)).boxed().collect(Collectors.toList());
+        assertThat(neighbours).containsExactly(6L, 13L, 20L, 5L, 12L);
+    }
+
+    @Test
+    void bulkCommandesAreIgnored() {
+        List<Long> produitIds = new ArrayList<>();
+        for (long produitId = 1; produitId <= ProduitRecommender.MAX_PRODUITS_PER_COMMANDE + 1; produitId++) {
+            produitIds.add(produitId);
+        }
+
+        assertThat(ProduitRecommender.produitsOf(produitIds)).isEmpty();
+        assertThat(ProduitRecommender.produitsOf(produitIds.subList(0, 3))).containsExactly(1L, 2L, 3L);
+    }
+}
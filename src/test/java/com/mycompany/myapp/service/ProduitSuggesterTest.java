@@ -0,0 +1,100 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.NoteProduit;
+import com.mycompany.myapp.repository.NoteProduitRepository;
+import com.mycompany.myapp.repository.ProduitLibelleRow;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.service.dto.ProduitSuggestionDTO;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ProduitSuggesterTest {
+
+    private ProduitRepository produitRepository;
+
+    private ProduitSuggester produitSuggester;
+
+    @BeforeEach
+    void setUp() {
+        produitRepository = mock(ProduitRepository.class);
+        doAnswer(invocation -> {
+                BiConsumer<Long, String> libelleConsumer = invocation.getArgument(1);
+                libelleConsumer.accept(1L, "Robe rose");
+                libelleConsumer.accept(2L, "Body bébé");
+                libelleConsumer.accept(3L, "Robe d'été");
+                libelleConsumer.accept(4L, "Rompers");
+                return null;
+            })
+            .when(produitRepository)
+            .scrollLibelles(anyInt(), any());
+        NoteProduitRepository noteProduitRepository = mock(NoteProduitRepository.class);
+        when(noteProduitRepository.findAll()).thenReturn(List.of(new NoteProduit(3L, 5L, 20L, 0L, 0L, 0L, 0L, 4L)));
+        produitSuggester = new ProduitSuggester(produitRepository, noteProduitRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void suggestsNothingUntilBuilt() {
+        assertThat(produitSuggester.suggest("ro", 10)).isEmpty();
+    }
+
+    @Test
+    void suggestsTheMostPopularProduitsHavingAWordStartingWithThePrefix() {
+        produitSuggester.rebuild();
+
+        assertThat(ids("ro", 10)).containsExactly(3L, 1L, 4L);
+        assertThat(ids("rob", 10)).containsExactly(3L, 1L);
+        assertThat(ids("ro", 2)).containsExactly(3L, 1L);
+        assertThat(ids("rose", 10)).containsExactly(1L);
+        assertThat(ids("robe r", 10)).containsExactly(1L);
+        assertThat(ids("robes", 10)).isEmpty();
+        assertThat(produitSuggester.suggest("rose", 10)).containsExactly(new ProduitSuggestionDTO(1L, "Robe rose"));
+    }
+
+    @Test
+    void prefixIsFoldedLikeTheLibelles() {
+        produitSuggester.rebuild();
+
+        assertThat(ids("BEBE", 10)).containsExactly(2L);
+        assertThat(ids("été", 10)).containsExactly(3L);
+        assertThat(ids("d ete", 10)).containsExactly(3L);
+        assertThat(ProduitSuggester.fold("  Cœur   d'Été! ")).isEqualTo("coeur d ete");
+    }
+
+    @Test
+    void writesAreApplied() {
+        produitSuggester.rebuild();
+
+        // Produit 4 is deleted
+        when(produitRepository.findLibellesByIdIn(List.of(1L, 5L, 4L)))
+            .thenReturn(List.of(new ProduitLibelleRow(1L, "Robe bleue"), new ProduitLibelleRow(5L, "Rose des sables")));
+
+        produitSuggester.refreshAll(List.of(1L, 5L, 4L));
+        produitSuggester.addPopularity(1L, 10);
+
+        assertThat(ids("ro", 10)).containsExactly(1L, 3L, 5L);
+        assertThat(ids("rose", 10)).containsExactly(5L);
+        assertThat(ids("bleue", 10)).containsExactly(1L);
+        assertThat(ids("romp", 10)).isEmpty();
+
+        when(produitRepository.findLibellesByIdIn(List.of(1L))).thenReturn(List.of(new ProduitLibelleRow(1L, null)));
+
+        produitSuggester.refresh(1L);
+
+        assertThat(ids("ro", 10)).containsExactly(3L, 5L);
+    }
+
+    private List<Long> ids(String prefix, int size) {
+        return produitSuggester.suggest(prefix, size).stream().map(ProduitSuggestionDTO::getId).collect(Collectors.toList());
+    }
+}
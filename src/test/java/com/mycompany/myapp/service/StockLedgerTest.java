@@ -0,0 +1,214 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.StockProduit;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.repository.StockProduitRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class StockLedgerTest {
+
+    private static final int BUYERS = 1_000;
+
+    private StockProduitRepository stockProduitRepository;
+
+    private ProduitRepository produitRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private StockLedger stockLedger;
+
+    @BeforeEach
+    void setUp() {
+        stockProduitRepository = mock(StockProduitRepository.class);
+        produitRepository = mock(ProduitRepository.class);
+        applicationProperties = new ApplicationProperties();
+        stockLedger = newStockLedger();
+        when(stockProduitRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(stockProduitRepository.findById(1L)).thenReturn(Optional.of(new StockProduit(1L, 100)));
+        when(stockProduitRepository.findById(2L)).thenReturn(Optional.of(new StockProduit(2L, 30)));
+        when(stockProduitRepository.findById(4L)).thenReturn(Optional.of(new StockProduit(4L, BUYERS)));
+    }
+
+    @Test
+    void concurrentBuyersNeverOversell() throws Exception {
+        AtomicInteger bought = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> buyers = new ArrayList<>();
+            for (int buyer = 0; buyer < BUYERS; buyer++) {
+                // Half the buyers want produit 1; the others produit 2, along with 4, which is plentiful, and 3, which
+                // is not tracked
+                Map<Long, Integer> cart = buyer % 2 == 0 ? Map.of(1L, 1) : Map.of(2L, 1, 3L, 5, 4L, 1);
+                buyers.add(
+                    executor.submit(() -> {
+                        start.await();
+                        try {
+                            stockLedger.commit(stockLedger.reserve(cart));
+                            bought.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            soldOut.incrementAndGet();
+                        }
+                        return null;
+                    })
+                );
+            }
+            start.countDown();
+            for (Future<?> buyer : buyers) {
+                buyer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(bought.get()).isEqualTo(100 + 30);
+        assertThat(soldOut.get()).isEqualTo(BUYERS - 100 - 30);
+        assertThat(stockLedger.findAvailable(1L)).contains(0);
+        assertThat(stockLedger.findAvailable(2L)).contains(0);
+        assertThat(stockLedger.findAvailable(3L)).isEmpty();
+        assertThat(stockLedger.findAvailable(4L)).contains(BUYERS - 30);
+
+        when(stockProduitRepository.increment(anyLong(), anyInt())).thenReturn(1);
+        stockLedger.flush();
+        verify(stockProduitRepository).increment(1L, -100);
+        verify(stockProduitRepository).increment(2L, -30);
+        verify(stockProduitRepository).increment(4L, -30);
+        verify(stockProduitRepository, never()).increment(eq(3L), anyInt());
+    }
+
+    @Test
+    void aReservationTakesAllOrNothing() {
+        stockLedger.reserve(Map.of(2L, 25));
+
+        assertThatThrownBy(() -> stockLedger.reserve(Map.of(1L, 10, 2L, 10)))
+            .isInstanceOf(InsufficientStockException.class)
+            .extracting(e -> ((InsufficientStockException) e).getProduitIds())
+            .isEqualTo(List.of(2L));
+        assertThat(stockLedger.findAvailable(1L)).contains(100);
+        assertThat(stockLedger.findAvailable(2L)).contains(5);
+    }
+
+    @Test
+    void releasedAndExpiredReservationsGiveBackTheirStock() {
+        StockLedger.Reservation checkout = stockLedger.reserve(Map.of(1L, 10));
+        StockLedger.Reservation cart = stockLedger.hold(Map.of(1L, 20));
+        assertThat(stockLedger.findAvailable(1L)).contains(70);
+
+        stockLedger.release(checkout);
+        stockLedger.commit(checkout);
+        assertThat(stockLedger.release(cart.getId())).isTrue();
+        assertThat(stockLedger.release(cart.getId())).isFalse();
+        assertThat(stockLedger.findAvailable(1L)).contains(100);
+
+        applicationProperties.getStock().setReservationTtl(Duration.ofSeconds(-1));
+        stockLedger = newStockLedger();
+        StockLedger.Reservation expired = stockLedger.hold(Map.of(1L, 40));
+        assertThat(stockLedger.findAvailable(1L)).contains(60);
+        assertThat(stockLedger.expireReservations()).isEqualTo(1);
+        assertThat(stockLedger.findReservation(expired.getId())).isEmpty();
+        assertThat(stockLedger.claim(expired.getId())).isEmpty();
+        assertThat(stockLedger.findAvailable(1L)).contains(100);
+
+        stockLedger.flush();
+        verify(stockProduitRepository, never()).increment(anyLong(), anyInt());
+    }
+
+    @Test
+    void claimedReservationsDoNotExpire() {
+        applicationProperties.getStock().setReservationTtl(Duration.ofSeconds(-1));
+        stockLedger = newStockLedger();
+        StockLedger.Reservation cart = stockLedger.hold(Map.of(1L, 40));
+
+        assertThat(stockLedger.claim(cart.getId())).contains(cart);
+        assertThat(stockLedger.expireReservations()).isZero();
+        assertThat(stockLedger.findAvailable(1L)).contains(60);
+    }
+
+    @Test
+    void addedStockIsTrackedAndWrittenBehind() {
+        assertThat(stockLedger.findAvailable(6L)).isEmpty();
+        assertThat(stockLedger.addStock(6L, 10)).isEqualTo(10);
+        assertThat(stockLedger.addStock(6L, -3)).isEqualTo(7);
+        assertThatThrownBy(() -> stockLedger.addStock(6L, -8)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(stockLedger.findAvailable(6L)).contains(7);
+        stockLedger.commit(stockLedger.reserve(Map.of(6L, 2)));
+        stockLedger.addStock(7L, 1);
+
+        when(stockProduitRepository.increment(anyLong(), anyInt())).thenReturn(0);
+        when(produitRepository.existsById(6L)).thenReturn(true);
+        stockLedger.flush();
+
+        verify(stockProduitRepository).save(argThat(stock -> stock.getProduitId() == 6L && stock.getQuantite() == 5));
+        verify(stockProduitRepository).increment(7L, 1);
+        verify(stockProduitRepository, never()).save(argThat(stock -> stock.getProduitId() == 7L));
+    }
+
+    @Test
+    void deltasAreKeptWhenTheirWriteFails() {
+        stockLedger.commit(stockLedger.reserve(Map.of(1L, 10)));
+        when(stockProduitRepository.increment(anyLong(), anyInt())).thenThrow(new IllegalStateException("Database down"));
+        stockLedger.flush();
+        stockLedger.commit(stockLedger.reserve(Map.of(1L, 5)));
+
+        doReturn(1).when(stockProduitRepository).increment(anyLong(), anyInt());
+        stockLedger.flush();
+
+        verify(stockProduitRepository).increment(1L, -15);
+        verify(stockProduitRepository, never()).save(any());
+    }
+
+    @Test
+    void deletedProduitsAreForgotten() {
+        StockLedger.Reservation cart = stockLedger.hold(Map.of(1L, 10, 3L, 1));
+        stockLedger.remove(1L);
+        when(stockProduitRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThat(stockLedger.release(cart.getId())).isTrue();
+        assertThat(stockLedger.findAvailable(1L)).isEmpty();
+        assertThat(stockLedger.findAvailable(3L)).isEmpty();
+    }
+
+    @Test
+    void removedStockWithoutARowIsNotWritten() {
+        stockLedger.commit(stockLedger.reserve(Map.of(1L, 10)));
+        when(stockProduitRepository.increment(anyLong(), anyInt())).thenReturn(0);
+        when(produitRepository.existsById(1L)).thenReturn(true);
+
+        stockLedger.flush();
+
+        verify(stockProduitRepository).increment(1L, -10);
+        verify(stockProduitRepository, never()).save(any());
+    }
+
+    private StockLedger newStockLedger() {
+        return new StockLedger(stockProduitRepository, produitRepository, mock(PlatformTransactionManager.class), applicationProperties);
+    }
+}
@@ -0,0 +1,202 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.Produit;
+import com.mycompany.myapp.domain.VenteRollup;
+import com.mycompany.myapp.domain.enumeration.DimensionVente;
+import com.mycompany.myapp.repository.CommandeRepository;
+import com.mycompany.myapp.repository.CommandeVenteRow;
+import com.mycompany.myapp.repository.ProduitCategoryRow;
+import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.repository.VenteRollupRepository;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class VenteRollupsTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2026, 1, 5);
+
+    private CommandeRepository commandeRepository;
+
+    private ProduitRepository produitRepository;
+
+    private VenteRollupRepository venteRollupRepository;
+
+    private VenteRollups venteRollups;
+
+    @BeforeEach
+    void setUp() {
+        commandeRepository = mock(CommandeRepository.class);
+        produitRepository = mock(ProduitRepository.class);
+        venteRollupRepository = mock(VenteRollupRepository.class);
+        venteRollups = new VenteRollups(
+            commandeRepository,
+            produitRepository,
+            venteRollupRepository,
+            mock(PlatformTransactionManager.class),
+            new ApplicationProperties()
+        );
+        // Produits 1 and 2 are both in category 10, and produit 2 is in category 11 as well
+        List<ProduitCategoryRow> categories = List.of(
+            new ProduitCategoryRow(1L, 10L),
+            new ProduitCategoryRow(2L, 10L),
+            new ProduitCategoryRow(2L, 11L)
+        );
+        when(produitRepository.findCategoriesByIdIn(anyCollection())).thenReturn(categories);
+        when(produitRepository.findAllCategories()).thenReturn(categories);
+    }
+
+    @Test
+    void paidCommandeCountsOnceInEachRollup() {
+        Commande commande = new Commande().id(1L).date(Instant.parse("2026-01-05T10:00:00Z"));
+        List<LigneCommande> lignes = List.of(
+            new LigneCommande().id(1L).quantite(2).prix(1.5f).commande(commande).produit(new Produit().id(1L)),
+            new LigneCommande().id(2L).quantite(1).prix(4f).commande(commande).produit(new Produit().id(2L))
+        );
+
+        venteRollups.addVentes(List.of(commande), lignes);
+        venteRollups.flush();
+
+        assertThat(saved()).containsExactlyInAnyOrder(
+            "TOTAL/0=1/3/700",
+            "PRODUIT/1=1/2/300",
+            "PRODUIT/2=1/1/400",
+            "CATEGORY/10=1/3/700",
+            "CATEGORY/11=1/1/400"
+        );
+    }
+
+    @Test
+    void refundedCommandeIsSubtracted() {
+        Commande commande = new Commande().id(1L).date(Instant.parse("2026-01-05T10:00:00Z"));
+        LigneCommande ligne = new LigneCommande().id(1L).quantite(2).prix(1.5f).commande(commande).produit(new Produit().id(1L));
+        when(venteRollupRepository.increment(any(), any(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(1);
+
+        venteRollups.removeVentes(List.of(commande), List.of(ligne));
+        venteRollups.flush();
+
+        verify(venteRollupRepository).increment(DimensionVente.TOTAL, JOUR, 0L, -1L, -2L, -300L);
+        verify(venteRollupRepository).increment(DimensionVente.PRODUIT, JOUR, 1L, -1L, -2L, -300L);
+        verify(venteRollupRepository).increment(DimensionVente.CATEGORY, JOUR, 10L, -1L, -2L, -300L);
+        verify(venteRollupRepository, never()).save(any());
+    }
+
+    @Test
+    void commandeWithoutLignesCountsNoArticle() {
+        Commande commande = new Commande().id(1L).date(Instant.parse("2026-01-05T10:00:00Z"));
+
+        venteRollups.addVentes(List.of(commande), List.of());
+        venteRollups.flush();
+
+        assertThat(saved()).containsExactly("TOTAL/0=1/0/0");
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        Commande commande = new Commande().id(1L).date(Instant.parse("2026-01-05T10:00:00Z"));
+        when(venteRollupRepository.increment(any(), any(), anyLong(), anyLong(), anyLong(), anyLong()))
+            .thenThrow(new IllegalStateException("Database down"))
+            .thenReturn(1);
+
+        venteRollups.addVentes(List.of(commande), List.of());
+        venteRollups.flush();
+        venteRollups.flush();
+
+        verify(venteRollupRepository, times(2)).increment(DimensionVente.TOTAL, JOUR, 0L, 1L, 0L, 0L);
+    }
+
+    @Test
+    void backfillRebuildsEachChunkOfDays() {
+        List<CommandeVenteRow> rows = List.of(
+            new CommandeVenteRow(1L, Instant.parse("2026-01-01T08:00:00Z"), 1L, 1L, 1, 2f),
+            new CommandeVenteRow(1L, Instant.parse("2026-01-01T08:00:00Z"), 2L, 2L, 3, 1f),
+            new CommandeVenteRow(2L, Instant.parse("2026-01-09T08:00:00Z"), 3L, 2L, 1, 5f),
+            new CommandeVenteRow(3L, Instant.parse("2026-01-15T23:00:00Z"), null, null, null, null)
+        );
+        when(commandeRepository.streamVentes(anyCollection(), any(), any())).thenAnswer(invocation -> {
+            Instant from = invocation.getArgument(1);
+            Instant to = invocation.getArgument(2);
+            return rows.stream().filter(row -> !row.getDate().isBefore(from) && row.getDate().isBefore(to));
+        });
+
+        assertThat(venteRollups.backfill(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 16))).isEqualTo(3);
+
+        verify(venteRollupRepository).deleteByJourRange(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 8));
+        verify(venteRollupRepository).deleteByJourRange(LocalDate.of(2026, 1, 8), LocalDate.of(2026, 1, 15));
+        verify(venteRollupRepository).deleteByJourRange(LocalDate.of(2026, 1, 15), LocalDate.of(2026, 1, 16));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<VenteRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(venteRollupRepository, times(3)).saveAll(captor.capture());
+        List<String> rollups = captor
+            .getAllValues()
+            .stream()
+            .flatMap(List::stream)
+            .map(VenteRollupsTest::format)
+            .collect(Collectors.toList());
+        assertThat(rollups).containsExactlyInAnyOrder(
+            "TOTAL/0=1/4/500",
+            "PRODUIT/1=1/1/200",
+            "PRODUIT/2=1/3/300",
+            "CATEGORY/10=1/4/500",
+            "CATEGORY/11=1/3/300",
+            "TOTAL/0=1/1/500",
+            "PRODUIT/2=1/1/500",
+            "CATEGORY/10=1/1/500",
+            "CATEGORY/11=1/1/500",
+            "TOTAL/0=1/0/0"
+        );
+    }
+
+    @Test
+    void backfillRejectsReversedRange() {
+        assertThatThrownBy(() -> venteRollups.backfill(LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        verify(venteRollupRepository, never()).deleteByJourRange(any(), any());
+    }
+
+    @Test
+    void backfillWithoutCommandesDoesNothing() {
+        assertThat(venteRollups.backfill()).isZero();
+        verify(commandeRepository, never()).streamVentes(anyCollection(), any(), any());
+    }
+
+    private List<String> saved() {
+        ArgumentCaptor<VenteRollup> captor = ArgumentCaptor.forClass(VenteRollup.class);
+        verify(venteRollupRepository, atLeastOnce()).save(captor.capture());
+        return captor.getAllValues().stream().map(VenteRollupsTest::format).collect(Collectors.toList());
+    }
+
+    private static String format(VenteRollup rollup) {
+        return (
+            rollup.getDimension() +
+            "/" +
+            rollup.getCleId() +
+            "=" +
+            rollup.getNombreCommandes() +
+            "/" +
+            rollup.getNombreArticles() +
+            "/" +
+            rollup.getTotalCentimes()
+        );
+    }
+}
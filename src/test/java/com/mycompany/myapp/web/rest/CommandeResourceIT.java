@@ -6,11 +6,21 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Client;
 import com.mycompany.myapp.domain.Commande;
+import com.mycompany.myapp.domain.LigneCommande;
+import com.mycompany.myapp.domain.Produit;
 import com.mycompany.myapp.domain.enumeration.EtatCommande;
 import com.mycompany.myapp.domain.enumeration.TypePayement;
 import com.mycompany.myapp.repository.CommandeRepository;
+import com.mycompany.myapp.repository.LigneCommandeRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.dto.CheckoutDTO;
+import com.mycompany.myapp.service.dto.CheckoutLigneDTO;
+import com.mycompany.myapp.service.dto.CommandeBulkTransitionDTO;
 import com.mycompany.myapp.service.dto.CommandeDTO;
+import com.mycompany.myapp.service.dto.CommandeTransitionDTO;
+import com.mycompany.myapp.service.dto.CommandeTransitionResultDTO;
 import com.mycompany.myapp.service.mapper.CommandeMapper;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -22,6 +32,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -56,6 +67,9 @@ class CommandeResourceIT {
     @Autowired
     private CommandeMapper commandeMapper;
 
+    @Autowired
+    private LigneCommandeRepository ligneCommandeRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -129,6 +143,86 @@ class CommandeResourceIT {
         assertThat(commandeList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void checkout() throws Exception {
+        Produit produit = ProduitResourceIT.createEntity(em);
+        em.persist(produit);
+        Produit otherProduit = ProduitResourceIT.createEntity(em).prixUnitaire(3.5F);
+        em.persist(otherProduit);
+        em.flush();
+        int databaseSizeBeforeCreate = commandeRepository.findAll().size();
+
+        CheckoutDTO checkoutDTO = new CheckoutDTO();
+        checkoutDTO.setTypePayement(DEFAULT_TYPE_PAYEMENT);
+        checkoutDTO.setLignes(
+            List.of(checkoutLigne(otherProduit.getId(), 2), checkoutLigne(produit.getId(), 1), checkoutLigne(otherProduit.getId(), 1))
+        );
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_checkout")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(checkoutDTO))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.commande.id").isNumber())
+            .andExpect(jsonPath("$.commande.etat").value(EtatCommande.EN_COURS.toString()))
+            .andExpect(jsonPath("$.commande.typePayement").value(DEFAULT_TYPE_PAYEMENT.toString()))
+            .andExpect(jsonPath("$.commande.totalCentimes").value(1050))
+            .andExpect(jsonPath("$.commande.nombreArticles").value(4))
+            .andExpect(jsonPath("$.commande.nombreLignes").value(2))
+            .andExpect(jsonPath("$.ligneCommandes.length()").value(2))
+            .andExpect(jsonPath("$.ligneCommandes[0].produit.id").value(otherProduit.getId().intValue()))
+            .andExpect(jsonPath("$.ligneCommandes[0].quantite").value(3))
+            .andExpect(jsonPath("$.ligneCommandes[0].prix").value(3.5))
+            .andExpect(jsonPath("$.ligneCommandes[1].produit.id").value(produit.getId().intValue()))
+            .andExpect(jsonPath("$.ligneCommandes[1].quantite").value(1));
+
+        List<Commande> commandeList = commandeRepository.findAll();
+        assertThat(commandeList).hasSize(databaseSizeBeforeCreate + 1);
+        Commande testCommande = commandeList.get(commandeList.size() - 1);
+        List<LigneCommande> lignes = ligneCommandeRepository.findAllByCommandeId(testCommande.getId());
+        assertThat(lignes).hasSize(2);
+        assertThat(lignes).extracting(LigneCommande::getPrix).containsExactlyInAnyOrder(3.5F, produit.getPrixUnitaire());
+    }
+
+    @Test
+    @Transactional
+    void checkoutWithUnknownProduit() throws Exception {
+        Produit produit = ProduitResourceIT.createEntity(em);
+        em.persist(produit);
+        em.flush();
+        int databaseSizeBeforeCreate = commandeRepository.findAll().size();
+
+        CheckoutDTO checkoutDTO = new CheckoutDTO();
+        checkoutDTO.setLignes(List.of(checkoutLigne(produit.getId(), 1), checkoutLigne(count.incrementAndGet(), 1)));
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_checkout")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(checkoutDTO))
+            )
+            .andExpect(status().isBadRequest());
+
+        checkoutDTO.setLignes(List.of());
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_checkout")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(checkoutDTO))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(commandeRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    private static CheckoutLigneDTO checkoutLigne(Long produitId, int quantite) {
+        CheckoutLigneDTO ligne = new CheckoutLigneDTO();
+        ligne.setProduitId(produitId);
+        ligne.setQuantite(quantite);
+        return ligne;
+    }
+
     @Test
     @Transactional
     void getAllCommandes() throws Exception {
@@ -278,6 +372,7 @@ class CommandeResourceIT {
         // Update the commande using partial update
         Commande partialUpdatedCommande = new Commande();
         partialUpdatedCommande.setId(commande.getId());
+        partialUpdatedCommande.setVersion(commande.getVersion());
 
         partialUpdatedCommande.date(UPDATED_DATE);
 
@@ -309,6 +404,7 @@ class CommandeResourceIT {
         // Update the commande using partial update
         Commande partialUpdatedCommande = new Commande();
         partialUpdatedCommande.setId(commande.getId());
+        partialUpdatedCommande.setVersion(commande.getVersion());
 
         partialUpdatedCommande.date(UPDATED_DATE).etat(UPDATED_ETAT).typePayement(UPDATED_TYPE_PAYEMENT);
 
@@ -329,6 +425,257 @@ class CommandeResourceIT {
         assertThat(testCommande.getTypePayement()).isEqualTo(UPDATED_TYPE_PAYEMENT);
     }
 
+    @Test
+    @Transactional
+    void putCommandeWithIllegalTransition() throws Exception {
+        // Initialize the database
+        commandeRepository.saveAndFlush(commande.etat(EtatCommande.ANNULEE));
+
+        CommandeDTO commandeDTO = commandeMapper.toDto(commande);
+        commandeDTO.setEtat(EtatCommande.PAYEE);
+        restCommandeMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, commandeDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(commandeDTO))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(commandeRepository.findById(commande.getId()).get().getEtat()).isEqualTo(EtatCommande.ANNULEE);
+    }
+
+    @Test
+    @Transactional
+    void patchCommandeWithStaleVersion() throws Exception {
+        // Initialize the database
+        commandeRepository.saveAndFlush(commande);
+
+        CommandeDTO commandeDTO = new CommandeDTO();
+        commandeDTO.setId(commande.getId());
+        commandeDTO.setDate(UPDATED_DATE);
+        commandeDTO.setVersion(commande.getVersion() + 1);
+        restCommandeMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, commandeDTO.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(commandeDTO))
+            )
+            .andExpect(status().isConflict());
+
+        assertThat(commandeRepository.findById(commande.getId()).get().getDate()).isEqualTo(DEFAULT_DATE);
+    }
+
+    @Test
+    @Transactional
+    void updateCommandeWithoutVersion() throws Exception {
+        // Initialize the database
+        commandeRepository.saveAndFlush(commande);
+
+        CommandeDTO commandeDTO = commandeMapper.toDto(commande);
+        commandeDTO.setDate(UPDATED_DATE);
+        commandeDTO.setVersion(null);
+        restCommandeMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, commandeDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(commandeDTO))
+            )
+            .andExpect(status().isBadRequest());
+        restCommandeMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, commandeDTO.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(commandeDTO))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(commandeRepository.findById(commande.getId()).get().getDate()).isEqualTo(DEFAULT_DATE);
+    }
+
+    @Test
+    @Transactional
+    void transitionCommande() throws Exception {
+        // Initialize the database
+        commandeRepository.saveAndFlush(commande);
+        int version = commande.getVersion();
+
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/_transition", commande.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transition(EtatCommande.PAYEE, version)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.etat").value(EtatCommande.PAYEE.toString()))
+            .andExpect(jsonPath("$.version").value(version + 1));
+
+        // Back to a previous state
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/_transition", commande.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transition(EtatCommande.EN_COURS, version + 1)))
+            )
+            .andExpect(status().isBadRequest());
+
+        // Based on the version before the payment
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/_transition", commande.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transition(EtatCommande.LIVREE, version)))
+            )
+            .andExpect(status().isConflict());
+
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/_transition", commande.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transition(EtatCommande.LIVREE, null)))
+            )
+            .andExpect(status().isBadRequest());
+
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/_transition", commande.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transition(EtatCommande.LIVREE, version + 1)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.etat").value(EtatCommande.LIVREE.toString()))
+            .andExpect(jsonPath("$.version").value(version + 2));
+
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/_transition", count.incrementAndGet())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transition(EtatCommande.LIVREE, version)))
+            )
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void transitionCommandesInBulk() throws Exception {
+        // Initialize the database
+        Commande payee = commandeRepository.saveAndFlush(createEntity(em).etat(EtatCommande.PAYEE));
+        Commande enCours = commandeRepository.saveAndFlush(createEntity(em).etat(EtatCommande.EN_COURS));
+        Commande livree = commandeRepository.saveAndFlush(createEntity(em).etat(EtatCommande.LIVREE));
+        int version = payee.getVersion();
+        Long unknownId = count.incrementAndGet();
+
+        CommandeBulkTransitionDTO transitionDTO = new CommandeBulkTransitionDTO();
+        transitionDTO.setEtat(EtatCommande.LIVREE);
+        transitionDTO.setIds(List.of(payee.getId(), enCours.getId(), livree.getId(), unknownId, payee.getId()));
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_transition")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transitionDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$[0].id").value(payee.getId().intValue()))
+            .andExpect(jsonPath("$[0].status").value(CommandeTransitionResultDTO.Status.TRANSITIONED.toString()))
+            .andExpect(jsonPath("$[0].etat").value(EtatCommande.LIVREE.toString()))
+            .andExpect(jsonPath("$[1].status").value(CommandeTransitionResultDTO.Status.ILLEGAL.toString()))
+            .andExpect(jsonPath("$[1].etat").value(EtatCommande.EN_COURS.toString()))
+            .andExpect(jsonPath("$[2].status").value(CommandeTransitionResultDTO.Status.UNCHANGED.toString()))
+            .andExpect(jsonPath("$[3].id").value(unknownId.intValue()))
+            .andExpect(jsonPath("$[3].status").value(CommandeTransitionResultDTO.Status.NOT_FOUND.toString()));
+
+        Commande testCommande = commandeRepository.findById(payee.getId()).get();
+        assertThat(testCommande.getEtat()).isEqualTo(EtatCommande.LIVREE);
+        assertThat(testCommande.getVersion()).isEqualTo(version + 1);
+        assertThat(commandeRepository.findById(enCours.getId()).get().getEtat()).isEqualTo(EtatCommande.EN_COURS);
+    }
+
+    @Test
+    @Transactional
+    void transitionCommandesInBulkIsForAdmins() throws Exception {
+        CommandeBulkTransitionDTO transitionDTO = new CommandeBulkTransitionDTO();
+        transitionDTO.setEtat(EtatCommande.LIVREE);
+        transitionDTO.setIds(List.of(count.incrementAndGet()));
+        restCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_transition")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transitionDTO))
+            )
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(username = "history-client")
+    void getAccountCommandesByCursor() throws Exception {
+        Client client = ClientResourceIT.createEntity(em).identifiant("history-client");
+        em.persist(client);
+        Client otherClient = ClientResourceIT.createEntity(em).identifiant("other-client");
+        em.persist(otherClient);
+        Produit produit = ProduitResourceIT.createEntity(em);
+        em.persist(produit);
+        Commande oldest = createEntity(em).date(Instant.ofEpochSecond(1_000)).client(client);
+        em.persist(oldest);
+        Commande newest = createEntity(em).date(Instant.ofEpochSecond(3_000)).client(client);
+        em.persist(newest);
+        Commande sameDate = createEntity(em).date(Instant.ofEpochSecond(1_000)).client(client);
+        em.persist(sameDate);
+        Commande undated = createEntity(em).date(null).client(client);
+        em.persist(undated);
+        em.persist(createEntity(em).date(Instant.ofEpochSecond(2_000)).client(otherClient));
+        em.persist(new LigneCommande().quantite(2).prix(produit.getPrixUnitaire()).produit(produit).commande(newest));
+        em.flush();
+        em.clear();
+
+        String nextCursor = restCommandeMockMvc
+            .perform(get("/api/account/commandes").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].commande.id").value(newest.getId().intValue()))
+            .andExpect(jsonPath("$[0].ligneCommandes.length()").value(1))
+            .andExpect(jsonPath("$[0].ligneCommandes[0].quantite").value(2))
+            .andExpect(jsonPath("$[0].ligneCommandes[0].produit.id").value(produit.getId().intValue()))
+            .andExpect(jsonPath("$[0].ligneCommandes[0].produit.libelle").value(produit.getLibelle()))
+            .andExpect(jsonPath("$[1].commande.id").value(sameDate.getId().intValue()))
+            .andExpect(jsonPath("$[1].ligneCommandes.length()").value(0))
+            .andExpect(header().exists(HttpHeaders.LINK))
+            .andReturn()
+            .getResponse()
+            .getHeader(ProduitResource.NEXT_CURSOR_HEADER);
+
+        restCommandeMockMvc
+            .perform(get("/api/account/commandes").param("limit", "2").param("cursor", nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].commande.id").value(oldest.getId().intValue()))
+            .andExpect(jsonPath("$[1].commande.id").value(undated.getId().intValue()))
+            .andExpect(header().doesNotExist(ProduitResource.NEXT_CURSOR_HEADER));
+
+        restCommandeMockMvc
+            .perform(get("/api/account/commandes").param("cursor", "not a cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(username = "no-client")
+    void getAccountCommandesWithoutClient() throws Exception {
+        restCommandeMockMvc
+            .perform(get("/api/account/commandes"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0))
+            .andExpect(header().doesNotExist(ProduitResource.NEXT_CURSOR_HEADER));
+    }
+
+    private static CommandeTransitionDTO transition(EtatCommande etat, Integer version) {
+        CommandeTransitionDTO transition = new CommandeTransitionDTO();
+        transition.setEtat(etat);
+        transition.setVersion(version);
+        return transition;
+    }
+
     @Test
     @Transactional
     void patchNonExistingCommande() throws Exception {
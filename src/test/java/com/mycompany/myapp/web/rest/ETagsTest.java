@@ -0,0 +1,19 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ETagsTest {
+
+    @Test
+    void ifNoneMatchIsComparedWeakly() {
+        assertThat(ETags.matches("\"a\"", "\"a\"")).isTrue();
+        assertThat(ETags.matches("W/\"a\"", "\"a\"")).isTrue();
+        assertThat(ETags.matches("\"a\"", "W/\"a\"")).isTrue();
+        assertThat(ETags.matches("\"b\", W/\"a\"", "\"a\"")).isTrue();
+        assertThat(ETags.matches("*", "\"a\"")).isTrue();
+        assertThat(ETags.matches("\"b\"", "\"a\"")).isFalse();
+        assertThat(ETags.matches(null, "\"a\"")).isFalse();
+    }
+}
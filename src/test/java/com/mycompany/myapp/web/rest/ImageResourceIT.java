@@ -1,26 +1,41 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Image;
+import com.mycompany.myapp.domain.ImageVariant;
 import com.mycompany.myapp.repository.ImageRepository;
 import com.mycompany.myapp.service.dto.ImageDTO;
 import com.mycompany.myapp.service.mapper.ImageMapper;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -117,6 +132,108 @@ class ImageResourceIT {
         assertThat(imageList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void uploadImageAndGetItsContent() throws Exception {
+        byte[] png = png();
+        int databaseSizeBeforeCreate = imageRepository.findAll().size();
+
+        // Upload the file
+        MvcResult result = restImageMockMvc
+            .perform(multipart(ENTITY_API_URL + "/_upload").file(new MockMultipartFile("file", "image.png", "image/png", png)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.url").value(startsWith("/api/images/content/")))
+            .andReturn();
+        assertThat(imageRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+        String url = JsonPath.read(result.getResponse().getContentAsString(), "$.url");
+
+        // Get the whole file
+        String eTag = restImageMockMvc
+            .perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_PNG))
+            .andExpect(content().bytes(png))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Get byte ranges of it
+        restImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=1-3"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/" + png.length))
+            .andExpect(content().bytes(Arrays.copyOfRange(png, 1, 4)));
+        restImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=-2"))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().bytes(Arrays.copyOfRange(png, png.length - 2, png.length)));
+        restImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=" + png.length + "-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + png.length));
+        restImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=1-3").header(HttpHeaders.IF_RANGE, "\"other\""))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(png));
+
+        // The client copy is up to date
+        restImageMockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    void uploadImageWhichIsNotAnImage() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "image.png", "image/png", new byte[] { 1, 2, 3 });
+        restImageMockMvc.perform(multipart(ENTITY_API_URL + "/_upload").file(file)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getNonExistingImageContent() throws Exception {
+        restImageMockMvc.perform(get(ENTITY_API_URL + "/content/{name}", "0".repeat(64) + ".png")).andExpect(status().isNotFound());
+        restImageMockMvc.perform(get(ENTITY_API_URL + "/content/{name}", "secret.png")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void getImageContentAnonymously() throws Exception {
+        restImageMockMvc.perform(head(ENTITY_API_URL + "/content/{name}", "0".repeat(64) + ".png")).andExpect(status().isNotFound());
+        restImageMockMvc.perform(head(ENTITY_API_URL_ID + "/content", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        restImageMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Transactional
+    void getImageContentByWidth() throws Exception {
+        image.variants(new LinkedHashSet<>(List.of(new ImageVariant(160, "/variant-160.jpg"), new ImageVariant(320, "/variant-320.jpg"))));
+        imageRepository.saveAndFlush(image);
+
+        restImageMockMvc
+            .perform(get(ENTITY_API_URL_ID, image.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.variants[*].width").value(contains(160, 320)));
+        restImageMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/content?width={width}", image.getId(), 200))
+            .andExpect(status().isFound())
+            .andExpect(header().string(HttpHeaders.LOCATION, "/variant-320.jpg"));
+        restImageMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/content?width={width}", image.getId(), 1000))
+            .andExpect(status().isFound())
+            .andExpect(header().string(HttpHeaders.LOCATION, DEFAULT_URL));
+        restImageMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/content", image.getId()))
+            .andExpect(status().isFound())
+            .andExpect(header().string(HttpHeaders.LOCATION, DEFAULT_URL));
+        restImageMockMvc.perform(get(ENTITY_API_URL_ID + "/content", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
     @Test
     @Transactional
     void getAllImages() throws Exception {
@@ -6,10 +6,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Commande;
 import com.mycompany.myapp.domain.LigneCommande;
 import com.mycompany.myapp.repository.LigneCommandeRepository;
+import com.mycompany.myapp.service.dto.CommandeDTO;
 import com.mycompany.myapp.service.dto.LigneCommandeDTO;
 import com.mycompany.myapp.service.mapper.LigneCommandeMapper;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -408,4 +412,88 @@ class LigneCommandeResourceIT {
         List<LigneCommande> ligneCommandeList = ligneCommandeRepository.findAll();
         assertThat(ligneCommandeList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void ligneCommandeWritesMaintainTheTotalsOfTheirCommande() throws Exception {
+        Commande commande = CommandeResourceIT.createEntity(em);
+        em.persist(commande);
+        em.flush();
+        CommandeDTO commandeDTO = new CommandeDTO();
+        commandeDTO.setId(commande.getId());
+
+        // Create a ligne of the commande
+        LigneCommandeDTO ligneCommandeDTO = new LigneCommandeDTO();
+        ligneCommandeDTO.setQuantite(3);
+        ligneCommandeDTO.setPrix(1.1F);
+        ligneCommandeDTO.setCommande(commandeDTO);
+        restLigneCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(ligneCommandeDTO))
+            )
+            .andExpect(status().isCreated());
+        assertThat(commande.getTotalCentimes()).isEqualTo(330L);
+        assertThat(commande.getNombreArticles()).isEqualTo(3);
+        assertThat(commande.getNombreLignes()).isEqualTo(1);
+
+        // Change its quantity
+        LigneCommande created = ligneCommandeRepository.findAllByCommandeId(commande.getId()).get(0);
+        LigneCommandeDTO patch = new LigneCommandeDTO();
+        patch.setId(created.getId());
+        patch.setQuantite(2);
+        restLigneCommandeMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, created.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(patch))
+            )
+            .andExpect(status().isOk());
+        assertThat(commande.getTotalCentimes()).isEqualTo(220L);
+        assertThat(commande.getNombreArticles()).isEqualTo(2);
+        assertThat(commande.getNombreLignes()).isEqualTo(1);
+
+        // Delete it
+        restLigneCommandeMockMvc
+            .perform(delete(ENTITY_API_URL_ID, created.getId()).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+        assertThat(commande.getTotalCentimes()).isZero();
+        assertThat(commande.getNombreArticles()).isZero();
+        assertThat(commande.getNombreLignes()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void ligneCommandeWritesKeepTheVersionOfTheirCommande() throws Exception {
+        Commande commande = CommandeResourceIT.createEntity(em);
+        em.persist(commande);
+        em.flush();
+        int version = commande.getVersion();
+        CommandeDTO commandeDTO = new CommandeDTO();
+        commandeDTO.setId(commande.getId());
+
+        // Create a ligne of the commande, which updates its totals
+        LigneCommandeDTO ligneCommandeDTO = new LigneCommandeDTO();
+        ligneCommandeDTO.setQuantite(3);
+        ligneCommandeDTO.setPrix(1.1F);
+        ligneCommandeDTO.setCommande(commandeDTO);
+        restLigneCommandeMockMvc
+            .perform(
+                post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(ligneCommandeDTO))
+            )
+            .andExpect(status().isCreated());
+        em.flush();
+        assertThat(commande.getVersion()).isEqualTo(version);
+
+        // The commande can still be updated at the version read before
+        commandeDTO.setDate(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        commandeDTO.setVersion(version);
+        restLigneCommandeMockMvc
+            .perform(
+                patch("/api/commandes/{id}", commande.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(commandeDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalCentimes").value(330));
+    }
 }
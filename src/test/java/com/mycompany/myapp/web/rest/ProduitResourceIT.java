@@ -1,11 +1,15 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Avis;
 import com.mycompany.myapp.domain.Category;
@@ -13,6 +17,9 @@ import com.mycompany.myapp.domain.Image;
 import com.mycompany.myapp.domain.LigneCommande;
 import com.mycompany.myapp.domain.Produit;
 import com.mycompany.myapp.repository.ProduitRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.ProduitCursor;
+import com.mycompany.myapp.service.ProduitQueryCache;
 import com.mycompany.myapp.service.ProduitService;
 import com.mycompany.myapp.service.criteria.ProduitCriteria;
 import com.mycompany.myapp.service.dto.ProduitDTO;
@@ -22,6 +29,8 @@ import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +41,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -69,6 +80,7 @@ class ProduitResourceIT {
 
     private static final String ENTITY_API_URL = "/api/produits";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_SEARCH_API_URL = "/api/_search/produits";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -85,9 +97,18 @@ class ProduitResourceIT {
     @Mock
     private ProduitService produitServiceMock;
 
+    @Autowired
+    private ProduitService produitService;
+
+    @Autowired
+    private ProduitQueryCache produitQueryCache;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private MockMvc restProduitMockMvc;
 
@@ -230,6 +251,156 @@ class ProduitResourceIT {
             .andExpect(jsonPath("$.couleur").value(DEFAULT_COULEUR));
     }
 
+    @Test
+    @Transactional
+    void getProduitNotModified() throws Exception {
+        // Initialize the database
+        produitRepository.saveAndFlush(produit);
+
+        String eTag = restProduitMockMvc
+            .perform(get(ENTITY_API_URL_ID, produit.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL_ID, produit.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL_ID, produit.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void getAllProduitsFields() throws Exception {
+        // Initialize the database
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        produitRepository.saveAndFlush(produit.addCategory(category));
+        Image firstImage = ImageResourceIT.createEntity(em).url("first.png").produit(produit);
+        em.persist(firstImage);
+        em.persist(ImageResourceIT.createEntity(em).url("second.png").produit(produit));
+        em.flush();
+
+        // Get only the requested fields, and the id
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=libelle,prixUnitaire,imageUrl&id.equals=" + produit.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(produit.getId().intValue()))
+            .andExpect(jsonPath("$.[0].libelle").value(DEFAULT_LIBELLE))
+            .andExpect(jsonPath("$.[0].prixUnitaire").value(DEFAULT_PRIX_UNITAIRE.doubleValue()))
+            .andExpect(jsonPath("$.[0].imageUrl").value("first.png"))
+            .andExpect(jsonPath("$.[0].couleur").doesNotExist())
+            .andExpect(jsonPath("$.[0].categories").doesNotExist());
+
+        restProduitMockMvc.perform(get(ENTITY_API_URL + "?fields=categories")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getProduitsById() throws Exception {
+        // Initialize the database
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        Produit other = createUpdatedEntity(em);
+        produitRepository.saveAndFlush(produit.addCategory(category));
+        produitRepository.saveAndFlush(other);
+        Long missingId = Long.MAX_VALUE;
+
+        // Get the produits, in the requested order
+        restProduitMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_mget")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(other.getId(), missingId, produit.getId(), other.getId())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.produits[*].id").value(contains(other.getId().intValue(), produit.getId().intValue())))
+            .andExpect(jsonPath("$.produits[1].libelle").value(DEFAULT_LIBELLE))
+            .andExpect(jsonPath("$.produits[1].categories[*].id").value(contains(category.getId().intValue())))
+            .andExpect(jsonPath("$.missingIds").value(contains(missingId)));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void repriceProduits() throws Exception {
+        // Initialize the database
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        Produit discounted = createUpdatedEntity(em).prixUnitaire(20F).addCategory(category);
+        Produit unpriced = createUpdatedEntity(em).prixUnitaire(null).addCategory(category);
+        produitRepository.saveAndFlush(discounted);
+        produitRepository.saveAndFlush(unpriced);
+        produitRepository.saveAndFlush(produit.prixUnitaire(20F));
+
+        // Discount the produits of the category by 10%, leaving the one without a price unchanged
+        restProduitMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_reprice?categoryId.equals=" + category.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"type\":\"PERCENTAGE\",\"value\":-10}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().string("1"));
+
+        em.clear();
+        assertThat(produitRepository.findById(discounted.getId()).orElseThrow().getPrixUnitaire()).isEqualTo(18F);
+        assertThat(produitRepository.findById(unpriced.getId()).orElseThrow().getPrixUnitaire()).isNull();
+        assertThat(produitRepository.findById(produit.getId()).orElseThrow().getPrixUnitaire()).isEqualTo(20F);
+
+        // Round to the nearest multiple of 5, then take 50 off without going below 0
+        restProduitMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_reprice?id.equals=" + discounted.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"type\":\"ROUNDING\",\"value\":5}")
+            )
+            .andExpect(status().isOk());
+        em.clear();
+        assertThat(produitRepository.findById(discounted.getId()).orElseThrow().getPrixUnitaire()).isEqualTo(20F);
+        restProduitMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_reprice?id.equals=" + discounted.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"type\":\"FIXED\",\"value\":-50}")
+            )
+            .andExpect(status().isOk());
+        em.clear();
+        assertThat(produitRepository.findById(discounted.getId()).orElseThrow().getPrixUnitaire()).isEqualTo(0F);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void repriceProduitsWithAnInvalidRule() throws Exception {
+        restProduitMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_reprice").contentType(MediaType.APPLICATION_JSON).content("{\"type\":\"ROUNDING\",\"value\":0}")
+            )
+            .andExpect(status().isBadRequest());
+        restProduitMockMvc
+            .perform(post(ENTITY_API_URL + "/_reprice").contentType(MediaType.APPLICATION_JSON).content("{\"type\":\"PERCENTAGE\"}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void repriceProduitsIsForbiddenToUsers() throws Exception {
+        restProduitMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_reprice").contentType(MediaType.APPLICATION_JSON).content("{\"type\":\"PERCENTAGE\",\"value\":10}")
+            )
+            .andExpect(status().isForbidden());
+    }
+
     @Test
     @Transactional
     void getProduitsByIdFiltering() throws Exception {
@@ -808,6 +979,211 @@ class ProduitResourceIT {
         defaultProduitShouldNotBeFound("categoryId.equals=" + (categoryId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllProduitsByCriteriaLoadsCategoriesInOneQuery() throws Exception {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        produitRepository.saveAndFlush(produit.couleur("BatchRose").addCategory(category));
+        long oneProduitStatements = countListingStatements(statistics, 1);
+
+        for (int i = 0; i < 9; i++) {
+            Category otherCategory = CategoryResourceIT.createEntity(em);
+            em.persist(otherCategory);
+            produitRepository.saveAndFlush(createEntity(em).couleur("BatchRose").addCategory(otherCategory));
+        }
+        long tenProduitsStatements = countListingStatements(statistics, 10);
+
+        assertThat(tenProduitsStatements).isEqualTo(oneProduitStatements);
+    }
+
+    private long countListingStatements(Statistics statistics, int expectedProduits) throws Exception {
+        // Start from an empty persistence context, so that the categories are not already loaded
+        em.clear();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            restProduitMockMvc
+                .perform(get(ENTITY_API_URL + "?couleur.equals=BatchRose"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expectedProduits))
+                .andExpect(jsonPath("$.[*].categories[*].id").value(hasSize(expectedProduits)));
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @Test
+    void getAllProduitsByCursorIsCachedUntilWritten() throws Exception {
+        // Not transactional: only committed reads are cached
+        ProduitDTO produitDTO = produitService.save(produitMapper.toDto(createEntity(em).couleur("CacheRose")));
+        ProduitCriteria criteria = new ProduitCriteria();
+        criteria.couleur().setEquals("CacheRose");
+        try {
+            restProduitMockMvc
+                .perform(get(ENTITY_API_URL + "?couleur.equals=CacheRose&limit=20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(produitDTO.getId().intValue())));
+            ProduitQueryCache.SliceRequest firstSlice = new ProduitQueryCache.SliceRequest(
+                ProduitCursor.SortKey.ID,
+                Sort.Direction.ASC,
+                null,
+                20
+            );
+            assertThat(produitQueryCache.get(criteria, firstSlice))
+                .hasValueSatisfying(cachedPage -> assertThat(cachedPage.getIds()).containsExactly(produitDTO.getId()));
+
+            // Served from the cache
+            restProduitMockMvc
+                .perform(get(ENTITY_API_URL + "?couleur.equals=CacheRose&limit=20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(produitDTO.getId().intValue())))
+                .andExpect(jsonPath("$.[*].couleur").value(contains("CacheRose")));
+
+            // Once the produit does not match anymore, its pages are evicted
+            ProduitDTO partialUpdatedProduitDTO = new ProduitDTO();
+            partialUpdatedProduitDTO.setId(produitDTO.getId());
+            partialUpdatedProduitDTO.setCouleur("CacheVert");
+            produitService.partialUpdate(partialUpdatedProduitDTO);
+            restProduitMockMvc
+                .perform(get(ENTITY_API_URL + "?couleur.equals=CacheRose&limit=20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        } finally {
+            produitService.delete(produitDTO.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAllProduitsByCursor() throws Exception {
+        // Initialize the database
+        Produit cheap = createEntity(em).prixUnitaire(1F);
+        Produit expensive = createEntity(em).prixUnitaire(2F);
+        Produit unpriced = createEntity(em).prixUnitaire(null);
+        produitRepository.saveAndFlush(expensive);
+        produitRepository.saveAndFlush(cheap);
+        produitRepository.saveAndFlush(unpriced);
+        String filter = "id.in=" + cheap.getId() + "," + expensive.getId() + "," + unpriced.getId();
+
+        // Get the first slice, ordered by price
+        String nextCursor = restProduitMockMvc
+            .perform(get(ENTITY_API_URL + "?limit=2&sort=prixUnitaire,asc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(cheap.getId().intValue(), expensive.getId().intValue())))
+            .andExpect(header().exists(HttpHeaders.LINK))
+            .andReturn()
+            .getResponse()
+            .getHeader(ProduitResource.NEXT_CURSOR_HEADER);
+        assertThat(nextCursor).isNotNull();
+
+        // Get the last slice, holding the produits without a price
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL + "?limit=2&sort=prixUnitaire,asc&cursor=" + nextCursor + "&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(unpriced.getId().intValue())))
+            .andExpect(header().doesNotExist(ProduitResource.NEXT_CURSOR_HEADER));
+
+        // A cursor cannot be reused with another sort
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL + "?limit=2&sort=libelle,asc&cursor=" + nextCursor + "&" + filter))
+            .andExpect(status().isBadRequest());
+
+        // Fields cannot be selected on a slice
+        restProduitMockMvc.perform(get(ENTITY_API_URL + "?limit=2&fields=libelle&" + filter)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void exportProduits() throws Exception {
+        // Initialize the database
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        Produit other = createUpdatedEntity(em);
+        produit.addCategory(category);
+        produitRepository.saveAndFlush(produit);
+        produitRepository.saveAndFlush(other);
+
+        // Export the produits, one JSON document per line
+        String export = restProduitMockMvc
+            .perform(get(ENTITY_API_URL + "/_export?id.in=" + produit.getId() + "," + other.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String[] lines = export.split("\n");
+        assertThat(lines).hasSize(2);
+        ProduitDTO first = objectMapper.readValue(lines[0], ProduitDTO.class);
+        ProduitDTO second = objectMapper.readValue(lines[1], ProduitDTO.class);
+        assertThat(first.getId()).isEqualTo(produit.getId());
+        assertThat(first.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
+        assertThat(first.getCategories()).extracting("id").containsExactly(category.getId());
+        assertThat(second.getId()).isEqualTo(other.getId());
+        assertThat(second.getLibelle()).isEqualTo(UPDATED_LIBELLE);
+    }
+
+    @Test
+    @Transactional
+    void getProduitFacets() throws Exception {
+        // Initialize the database
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        Produit other = createUpdatedEntity(em);
+        produit.addCategory(category);
+        produitRepository.saveAndFlush(produit);
+        produitRepository.saveAndFlush(other);
+
+        // The couleur facet ignores the couleur filter, the other facets apply it
+        String filter = "id.in=" + produit.getId() + "," + other.getId() + "&couleur.equals=" + DEFAULT_COULEUR;
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL + "/_facets?priceBounds=0.5&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.total").value(1))
+            .andExpect(jsonPath("$.couleur." + DEFAULT_COULEUR).value(1))
+            .andExpect(jsonPath("$.couleur." + UPDATED_COULEUR).value(1))
+            .andExpect(jsonPath("$.taille." + DEFAULT_TAILLE).value(1))
+            .andExpect(jsonPath("$.taille." + UPDATED_TAILLE).doesNotExist())
+            .andExpect(jsonPath("$.prixUnitaire[*].count").value(contains(1, 0)))
+            .andExpect(jsonPath("$.categoryId." + category.getId()).value(1));
+
+        // Only the requested facets are counted
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL + "/_facets?facets=taille&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.taille." + DEFAULT_TAILLE).value(1))
+            .andExpect(jsonPath("$.couleur").doesNotExist());
+
+        restProduitMockMvc.perform(get(ENTITY_API_URL + "/_facets?facets=libelle")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchProduit() throws Exception {
+        // Initialize the database and the search index, which is only written once the save is committed
+        ProduitDTO produitDTO = produitMapper.toDto(produit.libelle("Body bébé en coton"));
+        produitDTO = produitService.save(produitDTO);
+
+        // Search the produit, with a typo and without accents
+        restProduitMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=bebe cotton"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(produitDTO.getId().intValue())))
+            .andExpect(jsonPath("$.[*].libelle").value(hasItem("Body bébé en coton")));
+
+        // Once deleted, the produit is not found anymore
+        produitService.delete(produitDTO.getId());
+        restProduitMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?query=bebe cotton"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(produitDTO.getId().intValue()))));
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -858,6 +1234,22 @@ class ProduitResourceIT {
         restProduitMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getProduitsBoughtTogether() throws Exception {
+        // Initialize the database
+        produitRepository.saveAndFlush(produit);
+
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/bought-together", produit.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray());
+        restProduitMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/bought-together?size=0", produit.getId()))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void putExistingProduit() throws Exception {
@@ -0,0 +1,172 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Produit;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.StockLedger;
+import com.mycompany.myapp.service.dto.CheckoutDTO;
+import com.mycompany.myapp.service.dto.CheckoutLigneDTO;
+import com.mycompany.myapp.service.dto.StockReservationDTO;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link StockResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class StockResourceIT {
+
+    private static final String STOCK_API_URL = "/api/produits/{id}/stock";
+    private static final String RESERVATION_API_URL = "/api/stock-reservations";
+    private static final String RESERVATION_API_URL_ID = RESERVATION_API_URL + "/{id}";
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restStockMockMvc;
+
+    private Produit produit;
+
+    @BeforeEach
+    public void initTest() {
+        produit = ProduitResourceIT.createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void addStock() throws Exception {
+        em.persist(produit);
+        em.flush();
+
+        restStockMockMvc
+            .perform(get(STOCK_API_URL, produit.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.produitId").value(produit.getId().intValue()))
+            .andExpect(jsonPath("$.quantite").doesNotExist());
+        restStockMockMvc.perform(post(STOCK_API_URL, produit.getId()).param("delta", "10")).andExpect(status().isOk());
+        restStockMockMvc.perform(post(STOCK_API_URL, produit.getId()).param("delta", "-11")).andExpect(status().isBadRequest());
+        restStockMockMvc
+            .perform(post(STOCK_API_URL, produit.getId()).param("delta", "-4"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantite").value(6));
+        restStockMockMvc.perform(get(STOCK_API_URL, produit.getId())).andExpect(jsonPath("$.quantite").value(6));
+    }
+
+    @Test
+    @Transactional
+    void addStockIsForAdmins() throws Exception {
+        em.persist(produit);
+        em.flush();
+
+        restStockMockMvc.perform(post(STOCK_API_URL, produit.getId()).param("delta", "10")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Transactional
+    void getStockOfUnknownProduit() throws Exception {
+        restStockMockMvc.perform(get(STOCK_API_URL, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void reserveAndReleaseStock() throws Exception {
+        em.persist(produit);
+        em.flush();
+        stockLedger.addStock(produit.getId(), 10);
+
+        String content = restStockMockMvc
+            .perform(
+                post(RESERVATION_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(reservation(checkoutLigne(produit.getId(), 7))))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").isString())
+            .andExpect(jsonPath("$.expiresAt").isString())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        UUID id = objectMapper.readValue(content, StockReservationDTO.class).getId();
+        restStockMockMvc.perform(get(STOCK_API_URL, produit.getId())).andExpect(jsonPath("$.quantite").value(3));
+
+        restStockMockMvc
+            .perform(
+                post(RESERVATION_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(reservation(checkoutLigne(produit.getId(), 4))))
+            )
+            .andExpect(status().isConflict());
+
+        restStockMockMvc.perform(delete(RESERVATION_API_URL_ID, id)).andExpect(status().isNoContent());
+        restStockMockMvc.perform(delete(RESERVATION_API_URL_ID, id)).andExpect(status().isNotFound());
+        restStockMockMvc.perform(get(STOCK_API_URL, produit.getId())).andExpect(jsonPath("$.quantite").value(10));
+    }
+
+    @Test
+    @Transactional
+    void checkoutTakesOverItsReservation() throws Exception {
+        em.persist(produit);
+        em.flush();
+        stockLedger.addStock(produit.getId(), 5);
+        UUID id = stockLedger.hold(Map.of(produit.getId(), 5)).getId();
+
+        CheckoutDTO checkoutDTO = new CheckoutDTO();
+        checkoutDTO.setLignes(List.of(checkoutLigne(produit.getId(), 5)));
+        restStockMockMvc
+            .perform(
+                post("/api/commandes/_checkout")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(checkoutDTO))
+            )
+            .andExpect(status().isConflict());
+
+        checkoutDTO.setReservationId(id);
+        restStockMockMvc
+            .perform(
+                post("/api/commandes/_checkout")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(checkoutDTO))
+            )
+            .andExpect(status().isCreated());
+
+        restStockMockMvc.perform(delete(RESERVATION_API_URL_ID, id)).andExpect(status().isNotFound());
+        restStockMockMvc.perform(get(STOCK_API_URL, produit.getId())).andExpect(jsonPath("$.quantite").value(0));
+    }
+
+    private static StockReservationDTO reservation(CheckoutLigneDTO... lignes) {
+        StockReservationDTO reservation = new StockReservationDTO();
+        reservation.setLignes(List.of(lignes));
+        return reservation;
+    }
+
+    private static CheckoutLigneDTO checkoutLigne(Long produitId, int quantite) {
+        CheckoutLigneDTO ligne = new CheckoutLigneDTO();
+        ligne.setProduitId(produitId);
+        ligne.setQuantite(quantite);
+        return ligne;
+    }
+}
@@ -0,0 +1,149 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.VenteRollup;
+import com.mycompany.myapp.domain.VenteRollupId;
+import com.mycompany.myapp.domain.enumeration.DimensionVente;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link VenteResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class VenteResourceIT {
+
+    private static final String VENTES_API_URL = "/api/ventes";
+
+    private static final LocalDate JOUR = LocalDate.of(2001, 3, 1);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restVenteMockMvc;
+
+    @Test
+    @Transactional
+    void getVentes() throws Exception {
+        persistRollups();
+
+        restVenteMockMvc
+            .perform(getVentes("", JOUR, JOUR.plusDays(2)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nombreCommandes").value(3))
+            .andExpect(jsonPath("$.nombreArticles").value(6))
+            .andExpect(jsonPath("$.totalCentimes").value(1_700));
+        restVenteMockMvc
+            .perform(getVentes("", JOUR.plusDays(2), JOUR.plusDays(3)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nombreCommandes").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getVentesByJour() throws Exception {
+        persistRollups();
+
+        restVenteMockMvc
+            .perform(getVentes("/jours", JOUR, JOUR.plusDays(2)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].jour").value(JOUR.toString()))
+            .andExpect(jsonPath("$[0].totalCentimes").value(1_500))
+            .andExpect(jsonPath("$[1].jour").value(JOUR.plusDays(1).toString()))
+            .andExpect(jsonPath("$[1].totalCentimes").value(200));
+        restVenteMockMvc
+            .perform(getVentes("/jours", JOUR, JOUR.plusDays(2)).param("produitId", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].cleId").value(1))
+            .andExpect(jsonPath("$[0].nombreArticles").value(3));
+        restVenteMockMvc
+            .perform(getVentes("/jours", JOUR, JOUR.plusDays(2)).param("produitId", "1").param("categoryId", "10"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getVentesByProduit() throws Exception {
+        persistRollups();
+
+        restVenteMockMvc
+            .perform(getVentes("/produits", JOUR, JOUR.plusDays(2)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].cleId").value(2))
+            .andExpect(jsonPath("$[0].totalCentimes").value(1_200))
+            .andExpect(jsonPath("$[1].cleId").value(1))
+            .andExpect(jsonPath("$[1].nombreCommandes").value(2))
+            .andExpect(jsonPath("$[1].totalCentimes").value(500));
+        restVenteMockMvc
+            .perform(getVentes("/produits", JOUR, JOUR.plusDays(2)).param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)));
+        restVenteMockMvc
+            .perform(getVentes("/produits", JOUR, JOUR.plusDays(2)).param("size", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getVentesByCategory() throws Exception {
+        persistRollups();
+
+        restVenteMockMvc
+            .perform(getVentes("/categories", JOUR, JOUR.plusDays(2)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].cleId").value(10))
+            .andExpect(jsonPath("$[0].nombreArticles").value(5));
+    }
+
+    @Test
+    @Transactional
+    void getVentesWithReversedRange() throws Exception {
+        restVenteMockMvc.perform(getVentes("", JOUR.plusDays(1), JOUR)).andExpect(status().isBadRequest());
+        restVenteMockMvc.perform(post(VENTES_API_URL + "/_backfill").param("from", JOUR.toString())).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser
+    void getVentesAsUser() throws Exception {
+        restVenteMockMvc.perform(getVentes("", JOUR, JOUR.plusDays(1))).andExpect(status().isForbidden());
+        restVenteMockMvc.perform(post(VENTES_API_URL + "/_backfill")).andExpect(status().isForbidden());
+    }
+
+    private void persistRollups() {
+        persist(DimensionVente.TOTAL, JOUR, 0L, 2, 5, 1_500);
+        persist(DimensionVente.TOTAL, JOUR.plusDays(1), 0L, 1, 1, 200);
+        persist(DimensionVente.PRODUIT, JOUR, 1L, 1, 3, 300);
+        persist(DimensionVente.PRODUIT, JOUR, 2L, 2, 2, 1_200);
+        persist(DimensionVente.PRODUIT, JOUR.plusDays(1), 1L, 1, 1, 200);
+        persist(DimensionVente.CATEGORY, JOUR, 10L, 2, 5, 1_500);
+        em.flush();
+    }
+
+    private static MockHttpServletRequestBuilder getVentes(String path, LocalDate from, LocalDate to) {
+        return get(VENTES_API_URL + path).param("from", from.toString()).param("to", to.toString());
+    }
+
+    private void persist(DimensionVente dimension, LocalDate jour, Long cleId, long commandes, long articles, long centimes) {
+        em.persist(new VenteRollup(new VenteRollupId(dimension, jour, cleId), commandes, articles, centimes));
+    }
+}